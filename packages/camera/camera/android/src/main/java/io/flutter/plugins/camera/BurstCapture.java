@@ -0,0 +1,236 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import io.flutter.plugin.common.EventChannel;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Saves the pictures of a burst as they arrive and reports every saved picture to Dart, with its
+ * timing, as an event on the burst channel.
+ *
+ * <p>Pictures are acquired from the picture {@link ImageReader} on the camera background thread
+ * and written by {@link ImageSaver}s on the image saver executor, so the camera keeps capturing
+ * while earlier pictures are written. When every image of the reader is waiting to be saved, the
+ * next picture stays in the reader until a save completes.
+ *
+ * <p>All methods except the constructor must be called on the camera background thread.
+ */
+class BurstCapture implements ImageReader.OnImageAvailableListener {
+  private static final String TAG = "BurstCapture";
+
+  /** Called on the camera background thread once the burst is over. */
+  interface Listener {
+    void onBurstFinished();
+  }
+
+  private final int count;
+  private final File outputDirectory;
+  private final Executor imageSaverExecutor;
+  private final Handler backgroundHandler;
+  private final Handler mainHandler;
+  private final EventChannel.EventSink burstSink;
+  private final Listener listener;
+  private final long startTime = System.nanoTime();
+
+  private ImageReader imageReader;
+  private int received;
+  private int failed;
+  private int pending;
+  private long lastTimestamp = -1;
+  private boolean stopped;
+  private boolean finished;
+
+  /**
+   * Creates a new burst.
+   *
+   * @param count the number of pictures to take, or 0 to take pictures until {@link #stop}.
+   * @param outputDirectory the directory pictures are saved in.
+   * @param imageSaverExecutor the executor pictures are written on.
+   * @param backgroundHandler the handler of the camera background thread.
+   * @param burstSink the sink saved pictures are reported to.
+   * @param listener notified once the burst is over.
+   */
+  BurstCapture(
+      int count,
+      @NonNull File outputDirectory,
+      @NonNull Executor imageSaverExecutor,
+      @NonNull Handler backgroundHandler,
+      @NonNull EventChannel.EventSink burstSink,
+      @NonNull Listener listener) {
+    this(
+        count,
+        outputDirectory,
+        imageSaverExecutor,
+        backgroundHandler,
+        new Handler(Looper.getMainLooper()),
+        burstSink,
+        listener);
+  }
+
+  @VisibleForTesting
+  BurstCapture(
+      int count,
+      @NonNull File outputDirectory,
+      @NonNull Executor imageSaverExecutor,
+      @NonNull Handler backgroundHandler,
+      @NonNull Handler mainHandler,
+      @NonNull EventChannel.EventSink burstSink,
+      @NonNull Listener listener) {
+    this.count = count;
+    this.outputDirectory = outputDirectory;
+    this.imageSaverExecutor = imageSaverExecutor;
+    this.backgroundHandler = backgroundHandler;
+    this.mainHandler = mainHandler;
+    this.burstSink = burstSink;
+    this.listener = listener;
+  }
+
+  @Override
+  public void onImageAvailable(ImageReader reader) {
+    imageReader = reader;
+    acquirePictures();
+  }
+
+  /** Counts a picture of the burst the camera failed to capture. */
+  void onCaptureFailed() {
+    failed++;
+    finishIfDone();
+  }
+
+  /** Reports an error that ends the burst. */
+  void fail(String errorCode, String errorMessage) {
+    reportError(errorCode, errorMessage);
+    stop();
+  }
+
+  /** Stops the burst. Pictures already captured are still saved and reported. */
+  void stop() {
+    stopped = true;
+    finishIfDone();
+  }
+
+  private void acquirePictures() {
+    while (imageReader != null) {
+      final Image image;
+      try {
+        image = imageReader.acquireNextImage();
+      } catch (IllegalStateException e) {
+        // Every image of the reader is waiting to be saved; this runs again once one is saved.
+        break;
+      }
+      if (image == null) {
+        break;
+      }
+      if (stopped || finished || (count > 0 && received + failed >= count)) {
+        image.close();
+        continue;
+      }
+      savePicture(image);
+    }
+    finishIfDone();
+  }
+
+  private void savePicture(Image image) {
+    final int index = received++;
+    final long timestamp = image.getTimestamp();
+    final long interval = lastTimestamp < 0 ? 0 : timestamp - lastTimestamp;
+    lastTimestamp = timestamp;
+    final long arrivalTime = System.nanoTime();
+
+    final File file;
+    try {
+      file = File.createTempFile("CAP", ".jpg", outputDirectory);
+    } catch (IOException | SecurityException e) {
+      image.close();
+      reportError("cannotCreateFile", e.getMessage());
+      return;
+    }
+
+    pending++;
+    imageSaverExecutor.execute(
+        new ImageSaver(image, file, new PictureCallback(index, timestamp, interval, arrivalTime)));
+  }
+
+  private void onPictureSaved() {
+    pending--;
+    acquirePictures();
+  }
+
+  private void reportError(String errorCode, String errorMessage) {
+    Log.w(TAG, "Burst error: " + errorMessage);
+    mainHandler.post(() -> burstSink.error(errorCode, errorMessage, null));
+  }
+
+  private void finishIfDone() {
+    if (finished || pending > 0) {
+      return;
+    }
+    if (stopped || (count > 0 && received + failed >= count)) {
+      finished = true;
+      listener.onBurstFinished();
+      mainHandler.post(burstSink::endOfStream);
+    }
+  }
+
+  /** Reports a saved picture, once, even if closing its file fails after it was written. */
+  private class PictureCallback implements ImageSaver.Callback {
+    private final int index;
+    private final long timestamp;
+    private final long interval;
+    private final long arrivalTime;
+    // Only accessed on the image saver executor.
+    private boolean done;
+
+    PictureCallback(int index, long timestamp, long interval, long arrivalTime) {
+      this.index = index;
+      this.timestamp = timestamp;
+      this.interval = interval;
+      this.arrivalTime = arrivalTime;
+    }
+
+    @Override
+    public void onComplete(String absolutePath) {
+      if (done) {
+        return;
+      }
+      done = true;
+      final Map<String, Object> shot = new HashMap<>();
+      shot.put("index", index);
+      shot.put("path", absolutePath);
+      shot.put("timestamp", timestamp);
+      // Durations are sent in microseconds.
+      shot.put("interval", interval / 1000);
+      shot.put("elapsed", (arrivalTime - startTime) / 1000);
+      shot.put("saveDuration", (System.nanoTime() - arrivalTime) / 1000);
+      mainHandler.post(() -> burstSink.success(shot));
+      backgroundHandler.post(BurstCapture.this::onPictureSaved);
+    }
+
+    @Override
+    public void onError(String errorCode, String errorMessage) {
+      if (done) {
+        return;
+      }
+      done = true;
+      backgroundHandler.post(
+          () -> {
+            reportError(errorCode, errorMessage);
+            onPictureSaved();
+          });
+    }
+  }
+}
@@ -15,7 +15,9 @@ import android.hardware.camera2.CameraCaptureSession;
 import android.hardware.camera2.CameraDevice;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
+import android.hardware.camera2.CaptureFailure;
 import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.CaptureResult;
 import android.hardware.camera2.TotalCaptureResult;
 import android.hardware.camera2.params.OutputConfiguration;
 import android.hardware.camera2.params.SessionConfiguration;
@@ -23,6 +25,8 @@ import android.media.CamcorderProfile;
 import android.media.EncoderProfiles;
 import android.media.Image;
 import android.media.ImageReader;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
 import android.media.MediaRecorder;
 import android.os.Build;
 import android.os.Build.VERSION;
@@ -30,6 +34,7 @@ import android.os.Build.VERSION_CODES;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.Size;
 import android.view.Display;
@@ -38,6 +43,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
+import io.flutter.plugin.common.BasicMessageChannel;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.Result;
@@ -59,7 +65,12 @@ import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
 import io.flutter.plugins.camera.features.sensororientation.DeviceOrientationManager;
 import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFeature;
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import io.flutter.plugins.camera.media.CodecRecorder;
+import io.flutter.plugins.camera.media.ImageStreamOptions;
+import io.flutter.plugins.camera.media.ImageStreamReader;
 import io.flutter.plugins.camera.media.MediaRecorderBuilder;
+import io.flutter.plugins.camera.media.VideoEncoderSettings;
+import io.flutter.plugins.camera.media.ZslRingBuffer;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
 import io.flutter.plugins.camera.types.CaptureTimeoutsWrapper;
 import io.flutter.view.TextureRegistry.SurfaceTextureEntry;
@@ -68,10 +79,12 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 @FunctionalInterface
@@ -84,8 +97,17 @@ class Camera
         ImageReader.OnImageAvailableListener {
   private static final String TAG = "Camera";
 
+  /** Tags the repeating preview request, so its results can be told apart from single captures. */
+  @VisibleForTesting static final Object PREVIEW_REQUEST_TAG = new Object();
+
   private static final HashMap<String, Integer> supportedImageFormats;
 
+  /** The number of captured pictures that may wait to be saved at once. */
+  private static final int MAX_PENDING_PICTURES = 3;
+
+  /** The number of recent frames kept for zero shutter lag pictures. */
+  private static final int ZSL_CAPACITY = 3;
+
   // Current supported outputs.
   static {
     supportedImageFormats = new HashMap<>();
@@ -113,17 +135,49 @@ class Camera
 
   /** An additional thread for running tasks that shouldn't block the UI. */
   private HandlerThread backgroundHandlerThread;
+  /**
+   * Writes captured pictures to disk, so file I/O does not hold up the capture callbacks and
+   * preview requests served by {@link #backgroundHandler}.
+   */
+  private ExecutorService imageSaverExecutor;
 
   private CameraDevice cameraDevice;
   private CameraCaptureSession captureSession;
   private ImageReader pictureImageReader;
-  private ImageReader imageStreamReader;
+  /** The surface the preview is rendered to in the current capture session. */
+  private Surface flutterSurface;
+  /** The burst being captured, if any. */
+  private BurstCapture burstCapture;
+  private ImageStreamReader imageStreamReader;
+  /** The recent frames pictures are served from while zero shutter lag is enabled. */
+  private ZslRingBuffer zslRingBuffer;
+  /** True when the current capture session renders to {@link #zslRingBuffer}. */
+  private boolean zeroShutterLagActive;
+  /** Records video through an encoder whose surface stays in the session, or null. */
+  private CodecRecorder codecRecorder;
+  /** True when the surface of {@link #codecRecorder} is part of the current session. */
+  private boolean encoderSurfaceInSession;
+  /** True when the current recording is made by {@link #codecRecorder}. */
+  private boolean recordingWithCodec;
+  /** The result of the stopVideoRecording call waiting for {@link #codecRecorder} to finish. */
+  private Result codecStopResult;
+  /** The sensor timestamps and frame count of the last recording of {@link #codecRecorder}. */
+  private Map<String, Object> lastVideoRecordingInfo;
+  /** The image stream format the camera was opened with. */
+  private int defaultImageStreamFormat;
   /** {@link CaptureRequest.Builder} for the camera preview */
   private CaptureRequest.Builder previewRequestBuilder;
 
   private MediaRecorder mediaRecorder;
   /** True when recording video. */
   private boolean recordingVideo;
+  /**
+   * True when the media recorder is prepared and its surface is part of the current session, so
+   * recording can start without reconfiguring the camera.
+   */
+  private boolean recordingPrepared;
+  /** True when pictures can be captured from the JPEG surface in the current session. */
+  private boolean pictureSurfaceInSession;
   /** True when the preview is paused. */
   private boolean pausedPreview;
 
@@ -136,6 +190,13 @@ class Camera
 
   private MethodChannel.Result flutterResult;
 
+  /** Aggregates performance measurements while Dart listens to camera stats. */
+  private final CameraStats cameraStats = new CameraStats();
+  /** Sends the aggregated stats to Dart periodically, or null when no one listens. */
+  private Runnable statsReporter;
+  /** True when sensor timestamps use the {@link SystemClock#elapsedRealtimeNanos} time base. */
+  private final boolean realtimeSensorTimestamps;
+
   public Camera(
       final Activity activity,
       final SurfaceTextureEntry flutterTexture,
@@ -163,20 +224,46 @@ class Camera
     captureTimeouts = new CaptureTimeoutsWrapper(3000, 3000);
     captureProps = new CameraCaptureProperties();
     cameraCaptureCallback = CameraCaptureCallback.create(this, captureTimeouts, captureProps);
+    cameraCaptureCallback.setCaptureResultListener(this::onCaptureResult);
+    realtimeSensorTimestamps =
+        VERSION.SDK_INT >= VERSION_CODES.M
+            && cameraProperties.getSensorInfoTimestampSource()
+                == CameraMetadata.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME;
 
     startBackgroundThread();
   }
 
   @Override
   public void onConverged() {
+    if (cameraCaptureCallback.getCameraState() == CameraState.STATE_WAITING_FOCUS) {
+      cameraStats.onFocusDone(System.nanoTime());
+    } else {
+      cameraStats.onPrecaptureDone(System.nanoTime());
+    }
     takePictureAfterPrecapture();
   }
 
   @Override
   public void onPrecapture() {
+    cameraStats.onFocusDone(System.nanoTime());
     runPrecaptureSequence();
   }
 
+  /** Called on the camera background thread for every capture result of the session. */
+  private void onCaptureResult(@NonNull TotalCaptureResult result) {
+    // Precapture and still captures are not preview frames.
+    if (statsReporter != null && result.getRequest().getTag() == PREVIEW_REQUEST_TAG) {
+      final Long sensorTimestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+      if (sensorTimestamp != null) {
+        cameraStats.onPreviewFrame(getSensorClockTime() - sensorTimestamp);
+      }
+    }
+    final ZslRingBuffer ring = zslRingBuffer;
+    if (ring != null) {
+      ring.onCaptureResult(result);
+    }
+  }
+
   /**
    * Updates the builder settings with all of the available features.
    *
@@ -196,10 +283,6 @@ class Camera
       mediaRecorder.release();
     }
 
-    final PlatformChannel.DeviceOrientation lockedOrientation =
-        ((SensorOrientationFeature) cameraFeatures.getSensorOrientation())
-            .getLockedCaptureOrientation();
-
     MediaRecorderBuilder mediaRecorderBuilder;
 
     if (Build.VERSION.SDK_INT >= 31) {
@@ -211,13 +294,20 @@ class Camera
     mediaRecorder =
         mediaRecorderBuilder
             .setEnableAudio(enableAudio)
-            .setMediaOrientation(
-                lockedOrientation == null
-                    ? getDeviceOrientationManager().getVideoOrientation()
-                    : getDeviceOrientationManager().getVideoOrientation(lockedOrientation))
+            .setMediaOrientation(getMediaOrientation())
             .build();
   }
 
+  /** Returns the clockwise rotation recorded videos are played with, in degrees. */
+  private int getMediaOrientation() {
+    final PlatformChannel.DeviceOrientation lockedOrientation =
+        ((SensorOrientationFeature) cameraFeatures.getSensorOrientation())
+            .getLockedCaptureOrientation();
+    return lockedOrientation == null
+        ? getDeviceOrientationManager().getVideoOrientation()
+        : getDeviceOrientationManager().getVideoOrientation(lockedOrientation);
+  }
+
   @SuppressLint("MissingPermission")
   public void open(String imageFormatGroup) throws CameraAccessException {
     final ResolutionFeature resolutionFeature = cameraFeatures.getResolution();
@@ -233,22 +323,39 @@ class Camera
       return;
     }
 
-    // Always capture using JPEG format.
+    if (pictureImageReader != null) {
+      // The camera was opened ahead of time by a prewarm. It reports it is initialized once it is
+      // open, so only the image stream format may have to change.
+      final int imageFormat = getImageStreamFormat(imageFormatGroup);
+      if (imageFormat != defaultImageStreamFormat) {
+        defaultImageStreamFormat = imageFormat;
+        imageStreamReader.close();
+        imageStreamReader =
+            createImageStreamReader(
+                resolutionFeature.getPreviewSize().getWidth(),
+                resolutionFeature.getPreviewSize().getHeight(),
+                imageFormat,
+                1);
+      }
+      if (cameraDevice != null) {
+        sendCameraInitializedEvent();
+      }
+      return;
+    }
+
+    // Always capture using JPEG format. The reader holds several pictures so new ones can be
+    // taken while earlier ones are still being saved.
     pictureImageReader =
         ImageReader.newInstance(
             resolutionFeature.getCaptureSize().getWidth(),
             resolutionFeature.getCaptureSize().getHeight(),
             ImageFormat.JPEG,
-            1);
+            MAX_PENDING_PICTURES);
 
-    // For image streaming, use the provided image format or fall back to YUV420.
-    Integer imageFormat = supportedImageFormats.get(imageFormatGroup);
-    if (imageFormat == null) {
-      Log.w(TAG, "The selected imageFormatGroup is not supported by Android. Defaulting to yuv420");
-      imageFormat = ImageFormat.YUV_420_888;
-    }
+    final int imageFormat = getImageStreamFormat(imageFormatGroup);
+    defaultImageStreamFormat = imageFormat;
     imageStreamReader =
-        ImageReader.newInstance(
+        createImageStreamReader(
             resolutionFeature.getPreviewSize().getWidth(),
             resolutionFeature.getPreviewSize().getHeight(),
             imageFormat,
@@ -264,13 +371,7 @@ class Camera
             cameraDevice = device;
             try {
               startPreview();
-              dartMessenger.sendCameraInitializedEvent(
-                  resolutionFeature.getPreviewSize().getWidth(),
-                  resolutionFeature.getPreviewSize().getHeight(),
-                  cameraFeatures.getExposureLock().getValue(),
-                  cameraFeatures.getAutoFocus().getValue(),
-                  cameraFeatures.getExposurePoint().checkIsSupported(),
-                  cameraFeatures.getFocusPoint().checkIsSupported());
+              sendCameraInitializedEvent();
             } catch (CameraAccessException e) {
               dartMessenger.sendCameraErrorEvent(e.getMessage());
               close();
@@ -326,6 +427,27 @@ class Camera
         backgroundHandler);
   }
 
+  /** Returns the image stream format for {@code imageFormatGroup}, falling back to YUV420. */
+  private int getImageStreamFormat(String imageFormatGroup) {
+    Integer imageFormat = supportedImageFormats.get(imageFormatGroup);
+    if (imageFormat == null) {
+      Log.w(TAG, "The selected imageFormatGroup is not supported by Android. Defaulting to yuv420");
+      imageFormat = ImageFormat.YUV_420_888;
+    }
+    return imageFormat;
+  }
+
+  private void sendCameraInitializedEvent() {
+    final ResolutionFeature resolutionFeature = cameraFeatures.getResolution();
+    dartMessenger.sendCameraInitializedEvent(
+        resolutionFeature.getPreviewSize().getWidth(),
+        resolutionFeature.getPreviewSize().getHeight(),
+        cameraFeatures.getExposureLock().getValue(),
+        cameraFeatures.getAutoFocus().getValue(),
+        cameraFeatures.getExposurePoint().checkIsSupported(),
+        cameraFeatures.getFocusPoint().checkIsSupported());
+  }
+
   private void createCaptureSession(int templateType, Surface... surfaces)
       throws CameraAccessException {
     createCaptureSession(templateType, null, surfaces);
@@ -334,6 +456,27 @@ class Camera
   private void createCaptureSession(
       int templateType, Runnable onSuccessCallback, Surface... surfaces)
       throws CameraAccessException {
+    if (templateType == CameraDevice.TEMPLATE_PREVIEW) {
+      // In preview mode, the surfaces are only added to the session.
+      createCaptureSession(
+          templateType, onSuccessCallback, Collections.emptyList(), Arrays.asList(surfaces));
+    } else {
+      // If it is not preview mode, add all surfaces as targets.
+      createCaptureSession(
+          templateType, onSuccessCallback, Arrays.asList(surfaces), Collections.emptyList());
+    }
+  }
+
+  /**
+   * Creates a capture session rendering to the Flutter surface and {@code targetSurfaces}, with
+   * {@code otherSurfaces} added to the session for single captures only.
+   */
+  private void createCaptureSession(
+      int templateType,
+      Runnable onSuccessCallback,
+      List<Surface> targetSurfaces,
+      List<Surface> otherSurfaces)
+      throws CameraAccessException {
     // Close any existing capture session.
     closeCaptureSession();
 
@@ -346,15 +489,22 @@ class Camera
     surfaceTexture.setDefaultBufferSize(
         resolutionFeature.getPreviewSize().getWidth(),
         resolutionFeature.getPreviewSize().getHeight());
-    Surface flutterSurface = new Surface(surfaceTexture);
+    flutterSurface = new Surface(surfaceTexture);
     previewRequestBuilder.addTarget(flutterSurface);
 
-    List<Surface> remainingSurfaces = Arrays.asList(surfaces);
-    if (templateType != CameraDevice.TEMPLATE_PREVIEW) {
-      // If it is not preview mode, add all surfaces as targets.
-      for (Surface surface : remainingSurfaces) {
-        previewRequestBuilder.addTarget(surface);
-      }
+    for (Surface surface : targetSurfaces) {
+      previewRequestBuilder.addTarget(surface);
+    }
+    zeroShutterLagActive =
+        zslRingBuffer != null && targetSurfaces.contains(zslRingBuffer.getSurface());
+    List<Surface> remainingSurfaces = new ArrayList<>(targetSurfaces);
+    remainingSurfaces.addAll(otherSurfaces);
+    pictureSurfaceInSession =
+        pictureImageReader != null && remainingSurfaces.contains(pictureImageReader.getSurface());
+    encoderSurfaceInSession =
+        codecRecorder != null && remainingSurfaces.contains(codecRecorder.getSurface());
+    if (!remainingSurfaces.contains(preparedRecorderSurface())) {
+      discardPreparedRecording();
     }
 
     // Update camera regions.
@@ -451,8 +601,13 @@ class Camera
 
     try {
       if (!pausedPreview) {
+        // Only the repeating request is tagged; single captures built later from the same
+        // builder are not.
+        previewRequestBuilder.setTag(PREVIEW_REQUEST_TAG);
+        final CaptureRequest previewRequest = previewRequestBuilder.build();
+        previewRequestBuilder.setTag(null);
         captureSession.setRepeatingRequest(
-            previewRequestBuilder.build(), cameraCaptureCallback, backgroundHandler);
+            previewRequest, cameraCaptureCallback, backgroundHandler);
       }
 
       if (onSuccessCallback != null) {
@@ -472,6 +627,15 @@ class Camera
       result.error("captureAlreadyActive", "Picture is currently already being captured", null);
       return;
     }
+    if (zeroShutterLagActive) {
+      takeZeroShutterLagPicture(result);
+      return;
+    }
+    if (!pictureSurfaceInSession) {
+      result.error(
+          "captureNotSupported", "Pictures cannot be taken with the current session.", null);
+      return;
+    }
 
     flutterResult = result;
 
@@ -497,12 +661,300 @@ class Camera
     }
   }
 
+  /**
+   * Saves the recent frame closest to the time of the call as a picture, without running the
+   * precapture sequence or waiting for a new capture.
+   *
+   * <p>Pictures are encoded on the image saver executor, so several can be in flight at once.
+   */
+  private void takeZeroShutterLagPicture(@NonNull final Result result) {
+    final long timestamp = getSensorClockTime();
+    final File file;
+    try {
+      file = File.createTempFile("CAP", ".jpg", applicationContext.getCacheDir());
+    } catch (IOException | SecurityException e) {
+      dartMessenger.error(result, "cannotCreateFile", e.getMessage(), null);
+      return;
+    }
+    final int orientation = getPictureOrientation();
+    final ZslRingBuffer ring = zslRingBuffer;
+    final ImageSaver.Callback callback =
+        new ImageSaver.Callback() {
+          @Override
+          public void onComplete(String absolutePath) {
+            dartMessenger.finish(result, absolutePath);
+          }
+
+          @Override
+          public void onError(String errorCode, String errorMessage) {
+            dartMessenger.error(result, errorCode, errorMessage, null);
+          }
+        };
+    backgroundHandler.post(
+        () ->
+            ring.takeFrame(
+                timestamp,
+                new ZslRingBuffer.FrameCallback() {
+                  @Override
+                  public void onFrame(
+                      @NonNull Image image, @NonNull CameraCaptureProperties properties) {
+                    imageSaverExecutor.execute(
+                        new YuvImageSaver(
+                            image, properties, orientation, file, timedCallback(callback)));
+                  }
+
+                  @Override
+                  public void onClosed() {
+                    callback.onError(
+                        "cameraAccess", "The camera was closed before the picture was taken.");
+                  }
+                }));
+  }
+
+  /**
+   * Returns the current time in the time base of the sensor timestamps of this camera.
+   *
+   * <p>Sensor timestamps of an unknown source are only guaranteed to be monotonic; in practice
+   * they use the same clock as {@link System#nanoTime}.
+   */
+  private long getSensorClockTime() {
+    return realtimeSensorTimestamps ? SystemClock.elapsedRealtimeNanos() : System.nanoTime();
+  }
+
+  /**
+   * Enables or disables zero shutter lag pictures.
+   *
+   * <p>While enabled, the most recent full resolution frames of the preview are kept, and {@link
+   * #takePicture} saves the one closest to the time of the call instead of capturing a new
+   * picture. This needs a camera of the FULL hardware level or better, which guarantees a full
+   * resolution YUV stream alongside the preview. Bursts cannot be taken while it is enabled.
+   *
+   * @param enabled whether pictures should be served from recent frames.
+   * @param result the result of the {@code setZeroShutterLag} call.
+   */
+  public void setZeroShutterLag(boolean enabled, @NonNull final Result result)
+      throws CameraAccessException {
+    if (enabled == (zslRingBuffer != null)) {
+      result.success(null);
+      return;
+    }
+    if (recordingVideo
+        || burstCapture != null
+        || cameraCaptureCallback.getCameraState() != CameraState.STATE_PREVIEW) {
+      result.error(
+          "zeroShutterLagFailed",
+          "Zero shutter lag cannot be changed while capturing pictures or video.",
+          null);
+      return;
+    }
+
+    if (enabled && codecRecorder != null) {
+      result.error(
+          "zeroShutterLagFailed",
+          "Zero shutter lag cannot be enabled while the video encoder is in use.",
+          null);
+      return;
+    }
+
+    if (enabled) {
+      final int hardwareLevel = cameraProperties.getHardwareLevel();
+      if (hardwareLevel != CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_FULL
+          && hardwareLevel != CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_3) {
+        result.error(
+            "zeroShutterLagNotSupported",
+            "Zero shutter lag needs a camera of the FULL hardware level or better.",
+            null);
+        return;
+      }
+      final Size size = getZeroShutterLagSize();
+      final ImageReader reader =
+          ImageReader.newInstance(
+              size.getWidth(),
+              size.getHeight(),
+              ImageFormat.YUV_420_888,
+              ZslRingBuffer.getMaxImages(ZSL_CAPACITY));
+      zslRingBuffer = new ZslRingBuffer(reader, ZSL_CAPACITY);
+      reader.setOnImageAvailableListener(zslRingBuffer, backgroundHandler);
+    } else {
+      // The current session renders to the ring, so it is closed before the ring.
+      closeCaptureSession();
+      closeZslRingBuffer();
+    }
+    startPreview();
+    result.success(null);
+  }
+
+  /** Returns the YUV size matching the picture size, or the largest YUV size otherwise. */
+  private Size getZeroShutterLagSize() {
+    final Size captureSize = cameraFeatures.getResolution().getCaptureSize();
+    final Size[] sizes = cameraProperties.getOutputSizes(ImageFormat.YUV_420_888);
+    if (sizes == null || sizes.length == 0) {
+      return captureSize;
+    }
+    Size largest = sizes[0];
+    for (Size size : sizes) {
+      if (size.equals(captureSize)) {
+        return size;
+      }
+      if ((long) size.getWidth() * size.getHeight()
+          > (long) largest.getWidth() * largest.getHeight()) {
+        largest = size;
+      }
+    }
+    return largest;
+  }
+
+  private void closeZslRingBuffer() {
+    if (zslRingBuffer == null) {
+      return;
+    }
+    final ZslRingBuffer ring = zslRingBuffer;
+    zslRingBuffer = null;
+    zeroShutterLagActive = false;
+    final Handler handler = backgroundHandler;
+    if (handler != null) {
+      // Frames are only touched on the background thread.
+      handler.post(ring::close);
+    } else {
+      ring.close();
+    }
+  }
+
+  /**
+   * Prepares a burst of full resolution pictures, which starts once Dart listens to {@code
+   * burstChannel}.
+   *
+   * <p>Focus and exposure are locked for the whole burst, so pictures are captured back to back
+   * without running the precapture sequence for each of them. Every saved picture is sent on
+   * {@code burstChannel}, which ends once the burst is over.
+   *
+   * @param burstChannel the event channel saved pictures are sent on.
+   * @param count the number of pictures to take, or 0 to take pictures until {@link #stopBurst}.
+   * @param result the result of the {@code startBurst} call.
+   */
+  public void startBurst(
+      @NonNull EventChannel burstChannel, int count, @NonNull final Result result) {
+    if (burstCapture != null
+        || cameraCaptureCallback.getCameraState() != CameraState.STATE_PREVIEW) {
+      result.error("captureAlreadyActive", "Picture is currently already being captured", null);
+      return;
+    }
+    if (zeroShutterLagActive) {
+      result.error(
+          "burstNotSupported", "Bursts cannot be taken while zero shutter lag is enabled.", null);
+      return;
+    }
+    // Keep other pictures from being taken until the burst is over.
+    cameraCaptureCallback.setCameraState(CameraState.STATE_CAPTURING);
+
+    burstChannel.setStreamHandler(
+        new EventChannel.StreamHandler() {
+          @Override
+          public void onListen(Object o, EventChannel.EventSink burstSink) {
+            if (cameraDevice == null || captureSession == null) {
+              burstSink.error("cameraAccess", "The camera was closed before the burst.", null);
+              burstSink.endOfStream();
+              cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
+              return;
+            }
+            backgroundHandler.post(() -> captureBurst(count, burstSink));
+          }
+
+          @Override
+          public void onCancel(Object o) {
+            stopBurst();
+          }
+        });
+    result.success(null);
+  }
+
+  /** Stops the current burst. Pictures already captured are still saved and sent. */
+  public void stopBurst() {
+    final Handler handler = backgroundHandler;
+    if (handler != null) {
+      handler.post(
+          () -> {
+            if (burstCapture != null) {
+              burstCapture.stop();
+            }
+          });
+    }
+  }
+
+  private void captureBurst(int count, EventChannel.EventSink burstSink) {
+    final BurstCapture burst =
+        new BurstCapture(
+            count,
+            applicationContext.getCacheDir(),
+            imageSaverExecutor,
+            backgroundHandler,
+            burstSink,
+            this::onBurstFinished);
+    burstCapture = burst;
+    pictureImageReader.setOnImageAvailableListener(burst, backgroundHandler);
+
+    try {
+      // Lock focus with a single trigger; the burst requests leave the trigger idle.
+      lockAutoFocus();
+
+      CaptureRequest.Builder burstBuilder =
+          cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
+      burstBuilder.addTarget(flutterSurface);
+      burstBuilder.addTarget(pictureImageReader.getSurface());
+      updateBuilderSettings(burstBuilder);
+      burstBuilder.set(
+          CaptureRequest.SCALER_CROP_REGION,
+          previewRequestBuilder.get(CaptureRequest.SCALER_CROP_REGION));
+      burstBuilder.set(CaptureRequest.CONTROL_AE_LOCK, true);
+      burstBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER, CameraMetadata.CONTROL_AF_TRIGGER_IDLE);
+      burstBuilder.set(CaptureRequest.JPEG_ORIENTATION, getPictureOrientation());
+      final CaptureRequest request = burstBuilder.build();
+
+      final CameraCaptureSession.CaptureCallback burstCallback =
+          new CameraCaptureSession.CaptureCallback() {
+            @Override
+            public void onCaptureCompleted(
+                @NonNull CameraCaptureSession session,
+                @NonNull CaptureRequest request,
+                @NonNull TotalCaptureResult result) {
+              cameraCaptureCallback.onCaptureCompleted(session, request, result);
+            }
+
+            @Override
+            public void onCaptureFailed(
+                @NonNull CameraCaptureSession session,
+                @NonNull CaptureRequest request,
+                @NonNull CaptureFailure failure) {
+              burst.onCaptureFailed();
+            }
+          };
+      if (count > 0) {
+        // A fixed number of pictures is queued at once, interleaved with the preview.
+        captureSession.captureBurst(
+            Collections.nCopies(count, request), burstCallback, backgroundHandler);
+      } else {
+        // Pictures are taken until stopped, replacing the preview request which they also feed.
+        captureSession.setRepeatingRequest(request, burstCallback, backgroundHandler);
+      }
+    } catch (CameraAccessException | IllegalStateException e) {
+      burst.fail("cameraAccess", e.getMessage());
+    }
+  }
+
+  private void onBurstFinished() {
+    burstCapture = null;
+    cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
+    // Unlocking focus also restores the preview request.
+    unlockAutoFocus();
+  }
+
   /**
    * Run the precapture sequence for capturing a still image. This method should be called when a
    * response is received in {@link #cameraCaptureCallback} from lockFocus().
    */
   private void runPrecaptureSequence() {
     Log.i(TAG, "runPrecaptureSequence");
+    cameraStats.onPrecaptureStarted(System.nanoTime());
     try {
       // First set precapture state to idle or else it can hang in STATE_WAITING_PRECAPTURE_START.
       previewRequestBuilder.set(
@@ -562,14 +1014,7 @@ class Camera
     updateBuilderSettings(stillBuilder);
 
     // Orientation.
-    final PlatformChannel.DeviceOrientation lockedOrientation =
-        ((SensorOrientationFeature) cameraFeatures.getSensorOrientation())
-            .getLockedCaptureOrientation();
-    stillBuilder.set(
-        CaptureRequest.JPEG_ORIENTATION,
-        lockedOrientation == null
-            ? getDeviceOrientationManager().getPhotoOrientation()
-            : getDeviceOrientationManager().getPhotoOrientation(lockedOrientation));
+    stillBuilder.set(CaptureRequest.JPEG_ORIENTATION, getPictureOrientation());
 
     CameraCaptureSession.CaptureCallback captureCallback =
         new CameraCaptureSession.CaptureCallback() {
@@ -610,6 +1055,7 @@ class Camera
       // Ignore exception in case the thread has already started.
     }
     backgroundHandler = HandlerFactory.create(backgroundHandlerThread.getLooper());
+    imageSaverExecutor = Executors.newSingleThreadExecutor();
   }
 
   /** Stops the background thread and its {@link Handler}. */
@@ -624,11 +1070,18 @@ class Camera
     }
     backgroundHandlerThread = null;
     backgroundHandler = null;
+
+    if (imageSaverExecutor != null) {
+      // Pictures already queued are still saved.
+      imageSaverExecutor.shutdown();
+      imageSaverExecutor = null;
+    }
   }
 
   /** Start capturing a picture, doing autofocus first. */
   private void runPictureAutoFocus() {
     Log.i(TAG, "runPictureAutoFocus");
+    cameraStats.onFocusStarted(System.nanoTime());
 
     cameraCaptureCallback.setCameraState(CameraState.STATE_WAITING_FOCUS);
     lockAutoFocus();
@@ -681,7 +1134,98 @@ class Camera
             dartMessenger.error(flutterResult, errorCode, errorMessage, null));
   }
 
+  /**
+   * Prepares the media recorder and configures a session that already contains its surface, so a
+   * following {@link #startVideoRecording} only has to start sending frames to it.
+   *
+   * <p>The JPEG surface stays in the prepared session, so pictures can still be taken. On LEGACY
+   * devices, where preview, record and JPEG outputs are not guaranteed together, nothing is
+   * prepared and the session is reconfigured when recording starts.
+   */
+  public void prepareForVideoRecording(@NonNull Result result) {
+    if (recordingVideo || recordingPrepared || encoderSurfaceInSession) {
+      result.success(null);
+      return;
+    }
+    if (pictureImageReader == null
+        || cameraProperties.getHardwareLevel()
+            == CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_LEGACY) {
+      result.success(null);
+      return;
+    }
+    final File outputDir = applicationContext.getCacheDir();
+    try {
+      captureFile = File.createTempFile("REC", ".mp4", outputDir);
+      prepareMediaRecorder(captureFile.getAbsolutePath());
+    } catch (IOException | SecurityException e) {
+      deleteCaptureFile();
+      result.error("videoRecordingFailed", e.getMessage(), null);
+      return;
+    }
+    // Re-create autofocus feature so it's using video focus mode now.
+    cameraFeatures.setAutoFocus(
+        cameraFeatureFactory.createAutoFocusFeature(cameraProperties, true));
+    recordingPrepared = true;
+    try {
+      // Preview, record and a JPEG of the record size are guaranteed together from LIMITED on.
+      createCaptureSession(
+          CameraDevice.TEMPLATE_RECORD,
+          null,
+          Collections.emptyList(),
+          Arrays.asList(mediaRecorder.getSurface(), pictureImageReader.getSurface()));
+      result.success(null);
+    } catch (CameraAccessException e) {
+      discardPreparedRecording();
+      result.error("videoRecordingFailed", e.getMessage(), null);
+    }
+  }
+
+  /** Returns the surface of the prepared media recorder, or null if no recording is prepared. */
+  @Nullable
+  private Surface preparedRecorderSurface() {
+    return recordingPrepared ? mediaRecorder.getSurface() : null;
+  }
+
+  /**
+   * Drops a recording prepared by {@link #prepareForVideoRecording} that was not started, deleting
+   * its output file.
+   */
+  private void discardPreparedRecording() {
+    if (!recordingPrepared) {
+      return;
+    }
+    recordingPrepared = false;
+    mediaRecorder.reset();
+    deleteCaptureFile();
+    // Re-create autofocus feature so it's using continuous capture focus mode again.
+    cameraFeatures.setAutoFocus(
+        cameraFeatureFactory.createAutoFocusFeature(cameraProperties, false));
+  }
+
+  private void deleteCaptureFile() {
+    if (captureFile != null) {
+      captureFile.delete();
+      captureFile = null;
+    }
+  }
+
   public void startVideoRecording(@NonNull Result result) {
+    if (encoderSurfaceInSession && captureSession != null) {
+      startCodecRecording(result);
+      return;
+    }
+    if (recordingPrepared && captureSession != null) {
+      // The recorder surface is already configured, so only the repeating request changes.
+      recordingPrepared = false;
+      recordingVideo = true;
+      previewRequestBuilder.addTarget(mediaRecorder.getSurface());
+      refreshPreviewCaptureSession(
+          () -> mediaRecorder.start(),
+          (code, message) -> dartMessenger.sendCameraErrorEvent(message));
+      result.success(null);
+      return;
+    }
+
     final File outputDir = applicationContext.getCacheDir();
     try {
       captureFile = File.createTempFile("REC", ".mp4", outputDir);
@@ -717,6 +1261,10 @@ class Camera
       result.success(null);
       return;
     }
+    if (recordingWithCodec) {
+      stopCodecRecording(result);
+      return;
+    }
     // Re-create autofocus feature so it's using continuous capture focus mode now.
     cameraFeatures.setAutoFocus(
         cameraFeatureFactory.createAutoFocusFeature(cameraProperties, false));
@@ -738,11 +1286,252 @@ class Camera
     captureFile = null;
   }
 
+  /**
+   * Switches video recording between {@link MediaRecorder} and a {@link CodecRecorder}, whose
+   * encoder surface is part of the session from the start, so recordings start and stop without
+   * reconfiguring the camera.
+   *
+   * @param settings the settings of the encoder, or null to record with {@link MediaRecorder}.
+   * @param result the result of the setVideoEncoder call.
+   */
+  public void setVideoEncoder(@Nullable VideoEncoderSettings settings, @NonNull Result result)
+      throws CameraAccessException {
+    if (settings == null && codecRecorder == null) {
+      result.success(null);
+      return;
+    }
+    if (recordingVideo) {
+      result.error(
+          "videoEncoderFailed", "The video encoder cannot be changed while recording.", null);
+      return;
+    }
+    if (settings != null && VERSION.SDK_INT < VERSION_CODES.M) {
+      result.error(
+          "videoEncoderNotSupported", "The video encoder requires Android API 23 or later.", null);
+      return;
+    }
+    if (zslRingBuffer != null) {
+      result.error(
+          "videoEncoderFailed",
+          "The video encoder cannot be used while zero shutter lag is enabled.",
+          null);
+      return;
+    }
+
+    // The current session renders to the encoder surface, so it is closed before the encoder.
+    closeCaptureSession();
+    releaseCodecRecorder();
+    String error = null;
+    if (settings != null) {
+      try {
+        codecRecorder = createCodecRecorder(settings);
+      } catch (IOException | RuntimeException e) {
+        error = e.getMessage();
+      }
+    }
+    startPreview();
+    if (error != null) {
+      result.error("videoEncoderFailed", error, null);
+    } else {
+      result.success(null);
+    }
+  }
+
+  @TargetApi(VERSION_CODES.M)
+  private CodecRecorder createCodecRecorder(@NonNull VideoEncoderSettings settings)
+      throws IOException {
+    final MediaFormat videoFormat;
+    MediaFormat audioFormat = null;
+    if (Build.VERSION.SDK_INT >= 31) {
+      final EncoderProfiles profile = getRecordingProfile();
+      final EncoderProfiles.VideoProfile video = profile.getVideoProfiles().get(0);
+      videoFormat =
+          settings.createMediaFormat(
+              video.getWidth(), video.getHeight(), video.getFrameRate(), video.getBitrate());
+      if (enableAudio) {
+        final EncoderProfiles.AudioProfile audio = profile.getAudioProfiles().get(0);
+        audioFormat =
+            createAudioFormat(audio.getSampleRate(), audio.getChannels(), audio.getBitrate());
+      }
+    } else {
+      final CamcorderProfile profile = getRecordingProfileLegacy();
+      videoFormat =
+          settings.createMediaFormat(
+              profile.videoFrameWidth,
+              profile.videoFrameHeight,
+              profile.videoFrameRate,
+              profile.videoBitRate);
+      if (enableAudio) {
+        audioFormat =
+            createAudioFormat(
+                profile.audioSampleRate, profile.audioChannels, profile.audioBitRate);
+      }
+    }
+    return new CodecRecorder(videoFormat, audioFormat, realtimeSensorTimestamps);
+  }
+
+  private static MediaFormat createAudioFormat(int sampleRate, int channelCount, int bitrate) {
+    final MediaFormat format =
+        MediaFormat.createAudioFormat(MediaFormat.MIMETYPE_AUDIO_AAC, sampleRate, channelCount);
+    format.setInteger(MediaFormat.KEY_BIT_RATE, bitrate);
+    format.setInteger(
+        MediaFormat.KEY_AAC_PROFILE, MediaCodecInfo.CodecProfileLevel.AACObjectLC);
+    return format;
+  }
+
+  private void startCodecRecording(@NonNull Result result) {
+    final File outputDir = applicationContext.getCacheDir();
+    try {
+      captureFile = File.createTempFile("REC", ".mp4", outputDir);
+      codecRecorder.start(
+          captureFile.getAbsolutePath(),
+          getMediaOrientation(),
+          getSensorClockTime(),
+          new CodecRecordingListener(codecRecorder));
+    } catch (IOException | RuntimeException e) {
+      captureFile = null;
+      result.error("videoRecordingFailed", e.getMessage(), null);
+      return;
+    }
+    recordingVideo = true;
+    recordingWithCodec = true;
+    codecStopResult = null;
+
+    // Re-create autofocus feature so it's using video focus mode now.
+    cameraFeatures.setAutoFocus(
+        cameraFeatureFactory.createAutoFocusFeature(cameraProperties, true));
+    cameraFeatures.getAutoFocus().updateBuilder(previewRequestBuilder);
+    previewRequestBuilder.addTarget(codecRecorder.getSurface());
+    refreshPreviewCaptureSession(
+        () -> result.success(null),
+        (code, message) -> {
+          recordingVideo = false;
+          recordingWithCodec = false;
+          codecRecorder.stop(getSensorClockTime());
+          result.error("videoRecordingFailed", message, null);
+        });
+  }
+
+  private void stopCodecRecording(@NonNull Result result) {
+    // Re-create autofocus feature so it's using continuous capture focus mode now.
+    cameraFeatures.setAutoFocus(
+        cameraFeatureFactory.createAutoFocusFeature(cameraProperties, false));
+    recordingVideo = false;
+    recordingWithCodec = false;
+    captureFile = null;
+    // Replied to once the recorder has written the video.
+    codecStopResult = result;
+    codecRecorder.stop(getSensorClockTime());
+  }
+
+  /** Stops rendering to the encoder surface, keeping it in the session. */
+  private void removeEncoderTarget(@NonNull CodecRecorder recorder) {
+    if (recorder != codecRecorder || captureSession == null) {
+      return;
+    }
+    previewRequestBuilder.removeTarget(recorder.getSurface());
+    cameraFeatures.getAutoFocus().updateBuilder(previewRequestBuilder);
+    refreshPreviewCaptureSession(
+        null, (code, message) -> dartMessenger.sendCameraErrorEvent(message));
+  }
+
+  private void releaseCodecRecorder() {
+    if (codecRecorder == null) {
+      return;
+    }
+    codecRecorder.release();
+    codecRecorder = null;
+    encoderSurfaceInSession = false;
+    if (recordingWithCodec) {
+      recordingVideo = false;
+      recordingWithCodec = false;
+    }
+    if (codecStopResult != null) {
+      dartMessenger.error(
+          codecStopResult, "videoRecordingFailed", "The camera was closed.", null);
+      codecStopResult = null;
+    }
+  }
+
+  /**
+   * Returns the sensor timestamps, in nanoseconds, and the frame count of the last video recorded
+   * with the video encoder, or null if there is none.
+   */
+  @Nullable
+  public Map<String, Object> getLastVideoRecordingInfo() {
+    return lastVideoRecordingInfo;
+  }
+
+  /** Forwards the events of a recording to the camera background thread. */
+  private class CodecRecordingListener implements CodecRecorder.Listener {
+    private final CodecRecorder recorder;
+
+    CodecRecordingListener(CodecRecorder recorder) {
+      this.recorder = recorder;
+    }
+
+    private void post(Runnable runnable) {
+      final Handler handler = backgroundHandler;
+      if (handler != null) {
+        handler.post(runnable);
+      }
+    }
+
+    @Override
+    public void onInputEnded() {
+      post(() -> removeEncoderTarget(recorder));
+    }
+
+    @Override
+    public void onFinished(
+        @NonNull String outputFilePath,
+        long firstFrameTimestamp,
+        long lastFrameTimestamp,
+        int frameCount) {
+      post(
+          () -> {
+            final Map<String, Object> info = new HashMap<>();
+            info.put("path", outputFilePath);
+            info.put("firstFrameTimestamp", firstFrameTimestamp);
+            info.put("lastFrameTimestamp", lastFrameTimestamp);
+            info.put("frameCount", frameCount);
+            lastVideoRecordingInfo = info;
+            if (codecStopResult != null) {
+              dartMessenger.finish(codecStopResult, outputFilePath);
+              codecStopResult = null;
+            }
+          });
+    }
+
+    @Override
+    public void onError(@NonNull String message) {
+      post(
+          () -> {
+            removeEncoderTarget(recorder);
+            if (recorder == codecRecorder && recordingWithCodec) {
+              recordingVideo = false;
+              recordingWithCodec = false;
+            }
+            if (codecStopResult != null) {
+              dartMessenger.error(codecStopResult, "videoRecordingFailed", message, null);
+              codecStopResult = null;
+            } else {
+              dartMessenger.sendCameraErrorEvent(message);
+            }
+          });
+    }
+  }
+
   public void pauseVideoRecording(@NonNull final Result result) {
     if (!recordingVideo) {
       result.success(null);
       return;
     }
+    if (recordingWithCodec) {
+      codecRecorder.pause(getSensorClockTime());
+      result.success(null);
+      return;
+    }
 
     try {
       if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
@@ -764,6 +1553,11 @@ class Camera
       result.success(null);
       return;
     }
+    if (recordingWithCodec) {
+      codecRecorder.resume(getSensorClockTime());
+      result.success(null);
+      return;
+    }
 
     try {
       if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
@@ -952,6 +1746,16 @@ class Camera
     return cameraFeatures.getResolution().getRecordingProfile();
   }
 
+  /** Returns the clockwise rotation that makes pictures and image stream frames upright. */
+  private int getPictureOrientation() {
+    final PlatformChannel.DeviceOrientation lockedOrientation =
+        ((SensorOrientationFeature) cameraFeatures.getSensorOrientation())
+            .getLockedCaptureOrientation();
+    return lockedOrientation == null
+        ? getDeviceOrientationManager().getPhotoOrientation()
+        : getDeviceOrientationManager().getPhotoOrientation(lockedOrientation);
+  }
+
   /** Shortut to get deviceOrientationListener. */
   DeviceOrientationManager getDeviceOrientationManager() {
     return cameraFeatures.getSensorOrientation().getDeviceOrientationManager();
@@ -1018,28 +1822,137 @@ class Camera
     if (pictureImageReader == null || pictureImageReader.getSurface() == null) return;
     Log.i(TAG, "startPreview");
 
+    if (codecRecorder != null) {
+      // The encoder surface stays in the session, so recordings start without reconfiguring it.
+      List<Surface> otherSurfaces = new ArrayList<>();
+      otherSurfaces.add(codecRecorder.getSurface());
+      if (cameraProperties.getHardwareLevel()
+          != CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_LEGACY) {
+        // Preview, record and a JPEG of the record size are guaranteed together from LIMITED on.
+        otherSurfaces.add(pictureImageReader.getSurface());
+      }
+      createCaptureSession(
+          CameraDevice.TEMPLATE_RECORD, null, Collections.emptyList(), otherSurfaces);
+      return;
+    }
+    if (zslRingBuffer != null) {
+      // Every preview frame is also kept in the ring, which pictures are taken from.
+      createCaptureSession(
+          CameraDevice.TEMPLATE_PREVIEW,
+          null,
+          Collections.singletonList(zslRingBuffer.getSurface()),
+          Collections.emptyList());
+      return;
+    }
     createCaptureSession(CameraDevice.TEMPLATE_PREVIEW, pictureImageReader.getSurface());
   }
 
-  public void startPreviewWithImageStream(EventChannel imageStreamChannel)
+  /**
+   * Starts the preview together with an image stream.
+   *
+   * @param imageStreamChannel the event channel Dart listens to for frames.
+   * @param packedImageStreamChannel the channel packed frames are sent on.
+   * @param options the settings of the stream.
+   */
+  public void startPreviewWithImageStream(
+      EventChannel imageStreamChannel,
+      BasicMessageChannel<ByteBuffer> packedImageStreamChannel,
+      ImageStreamOptions options)
       throws CameraAccessException {
-    createCaptureSession(CameraDevice.TEMPLATE_RECORD, imageStreamReader.getSurface());
+    configureImageStreamReader(options);
+    List<Surface> otherSurfaces = new ArrayList<>();
+    if (isStreamWithinPreview()) {
+      // A YUV stream no larger than the preview leaves room for the JPEG surface in every
+      // guaranteed stream combination, so pictures can be taken while streaming.
+      otherSurfaces.add(pictureImageReader.getSurface());
+    }
+    createCaptureSession(
+        CameraDevice.TEMPLATE_RECORD,
+        null,
+        Collections.singletonList(imageStreamReader.getSurface()),
+        otherSurfaces);
     Log.i(TAG, "startPreviewWithImageStream");
 
     imageStreamChannel.setStreamHandler(
         new EventChannel.StreamHandler() {
           @Override
           public void onListen(Object o, EventChannel.EventSink imageStreamSink) {
-            setImageStreamImageAvailableListener(imageStreamSink);
+            imageStreamReader.subscribeListener(
+                options,
+                captureProps,
+                imageStreamSink,
+                packedImageStreamChannel,
+                backgroundHandler);
           }
 
           @Override
           public void onCancel(Object o) {
-            imageStreamReader.setOnImageAvailableListener(null, backgroundHandler);
+            imageStreamReader.removeListener(backgroundHandler);
           }
         });
   }
 
+  /**
+   * Recreates the image stream reader if the size, format or image count requested by {@code
+   * options} differ from the current one. The preview keeps its own size, so a small analysis
+   * stream can run alongside a sharp preview.
+   */
+  private void configureImageStreamReader(ImageStreamOptions options) {
+    Integer imageFormat = supportedImageFormats.get(options.getImageFormatGroup());
+    if (imageFormat == null) {
+      imageFormat = defaultImageStreamFormat;
+    }
+    final Size size =
+        options.resolveSize(
+            cameraProperties.getOutputSizes(imageFormat),
+            cameraFeatures.getResolution().getPreviewSize());
+    if (imageStreamReader != null
+        && imageStreamReader.getWidth() == size.getWidth()
+        && imageStreamReader.getHeight() == size.getHeight()
+        && imageStreamReader.getImageFormat() == imageFormat
+        && imageStreamReader.getMaxImages() == options.getMaxImages()) {
+      return;
+    }
+
+    // The current session renders to the old reader, so it is closed before the reader.
+    closeCaptureSession();
+    if (imageStreamReader != null) {
+      imageStreamReader.close();
+    }
+    imageStreamReader =
+        createImageStreamReader(
+            size.getWidth(), size.getHeight(), imageFormat, options.getMaxImages());
+  }
+
+  private ImageStreamReader createImageStreamReader(
+      int width, int height, int imageFormat, int maxImages) {
+    return new ImageStreamReader(
+        ImageReader.newInstance(width, height, imageFormat, maxImages),
+        this::getPictureOrientation);
+  }
+
+  private boolean isStreamWithinPreview() {
+    final Size previewSize = cameraFeatures.getResolution().getPreviewSize();
+    return pictureImageReader != null
+        && imageStreamReader.getImageFormat() == ImageFormat.YUV_420_888
+        && imageStreamReader.getWidth() <= previewSize.getWidth()
+        && imageStreamReader.getHeight() <= previewSize.getHeight();
+  }
+
+  /**
+   * Returns the number of image stream frames delivered to and dropped before Dart since the
+   * stream was last started.
+   */
+  public Map<String, Object> getImageStreamStats() {
+    if (imageStreamReader == null) {
+      Map<String, Object> stats = new HashMap<>();
+      stats.put("delivered", 0L);
+      stats.put("dropped", 0L);
+      return stats;
+    }
+    return imageStreamReader.getStats();
+  }
+
   /**
    * This a callback object for the {@link ImageReader}. "onImageAvailable" will be called when a
    * still image is ready to be saved.
@@ -1048,63 +1961,103 @@ class Camera
   public void onImageAvailable(ImageReader reader) {
     Log.i(TAG, "onImageAvailable");
 
-    backgroundHandler.post(
+    // The next picture may be taken before this one is saved, so the result and file of this
+    // capture are kept here rather than read from the fields later.
+    final Result result = flutterResult;
+    imageSaverExecutor.execute(
         new ImageSaver(
-            // Use acquireNextImage since image reader is only for one image.
+            // Use acquireNextImage since a single picture becomes available per capture.
             reader.acquireNextImage(),
             captureFile,
-            new ImageSaver.Callback() {
-              @Override
-              public void onComplete(String absolutePath) {
-                dartMessenger.finish(flutterResult, absolutePath);
-              }
-
-              @Override
-              public void onError(String errorCode, String errorMessage) {
-                dartMessenger.error(flutterResult, errorCode, errorMessage, null);
-              }
-            }));
+            timedCallback(
+                new ImageSaver.Callback() {
+                  @Override
+                  public void onComplete(String absolutePath) {
+                    dartMessenger.finish(result, absolutePath);
+                  }
+
+                  @Override
+                  public void onError(String errorCode, String errorMessage) {
+                    dartMessenger.error(result, errorCode, errorMessage, null);
+                  }
+                })));
     cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
   }
 
-  private void setImageStreamImageAvailableListener(final EventChannel.EventSink imageStreamSink) {
-    imageStreamReader.setOnImageAvailableListener(
-        reader -> {
-          Image img = reader.acquireNextImage();
-          // Use acquireNextImage since image reader is only for one image.
-          if (img == null) return;
+  /** Wraps {@code callback} to record how long the picture took to save from now on. */
+  private ImageSaver.Callback timedCallback(final ImageSaver.Callback callback) {
+    final long start = System.nanoTime();
+    return new ImageSaver.Callback() {
+      @Override
+      public void onComplete(String absolutePath) {
+        cameraStats.onPictureSaved(System.nanoTime() - start);
+        callback.onComplete(absolutePath);
+      }
 
-          List<Map<String, Object>> planes = new ArrayList<>();
-          for (Image.Plane plane : img.getPlanes()) {
-            ByteBuffer buffer = plane.getBuffer();
+      @Override
+      public void onError(String errorCode, String errorMessage) {
+        callback.onError(errorCode, errorMessage);
+      }
+    };
+  }
 
-            byte[] bytes = new byte[buffer.remaining()];
-            buffer.get(bytes, 0, bytes.length);
+  /**
+   * Prepares periodic performance stats, which start once Dart listens to {@code statsChannel}
+   * and stop when Dart cancels its subscription.
+   *
+   * <p>Every {@code intervalMillis}, a single event aggregates the preview frame rate, the latency
+   * from the start of exposure of preview frames until their capture results arrive, the image
+   * stream frame counters, the auto focus and precapture durations of pictures and the time
+   * pictures took to save.
+   *
+   * @param statsChannel the event channel stats are sent on.
+   * @param intervalMillis the reporting period, in milliseconds.
+   */
+  public void startPerformanceStats(@NonNull EventChannel statsChannel, long intervalMillis) {
+    statsChannel.setStreamHandler(
+        new EventChannel.StreamHandler() {
+          @Override
+          public void onListen(Object o, EventChannel.EventSink statsSink) {
+            dartMessenger.setStatsSink(statsSink);
+            final Handler handler = backgroundHandler;
+            if (handler != null) {
+              handler.post(() -> startStatsReporter(intervalMillis));
+            }
+          }
 
-            Map<String, Object> planeBuffer = new HashMap<>();
-            planeBuffer.put("bytesPerRow", plane.getRowStride());
-            planeBuffer.put("bytesPerPixel", plane.getPixelStride());
-            planeBuffer.put("bytes", bytes);
+          @Override
+          public void onCancel(Object o) {
+            dartMessenger.setStatsSink(null);
+            final Handler handler = backgroundHandler;
+            if (handler != null) {
+              handler.post(Camera.this::stopStatsReporter);
+            }
+          }
+        });
+  }
 
-            planes.add(planeBuffer);
+  private void startStatsReporter(long intervalMillis) {
+    stopStatsReporter();
+    cameraStats.reset(System.nanoTime());
+    statsReporter =
+        new Runnable() {
+          @Override
+          public void run() {
+            final ImageStreamReader streamReader = imageStreamReader;
+            dartMessenger.sendCameraStatsEvent(
+                cameraStats.collect(
+                    System.nanoTime(), streamReader == null ? null : streamReader.getStats()));
+            backgroundHandler.postDelayed(this, intervalMillis);
           }
+        };
+    backgroundHandler.postDelayed(statsReporter, intervalMillis);
+  }
 
-          Map<String, Object> imageBuffer = new HashMap<>();
-          imageBuffer.put("width", img.getWidth());
-          imageBuffer.put("height", img.getHeight());
-          imageBuffer.put("format", img.getFormat());
-          imageBuffer.put("planes", planes);
-          imageBuffer.put("lensAperture", this.captureProps.getLastLensAperture());
-          imageBuffer.put("sensorExposureTime", this.captureProps.getLastSensorExposureTime());
-          Integer sensorSensitivity = this.captureProps.getLastSensorSensitivity();
-          imageBuffer.put(
-              "sensorSensitivity", sensorSensitivity == null ? null : (double) sensorSensitivity);
-
-          final Handler handler = new Handler(Looper.getMainLooper());
-          handler.post(() -> imageStreamSink.success(imageBuffer));
-          img.close();
-        },
-        backgroundHandler);
+  private void stopStatsReporter() {
+    if (statsReporter != null) {
+      backgroundHandler.removeCallbacks(statsReporter);
+      statsReporter = null;
+    }
   }
 
   private void closeCaptureSession() {
@@ -1132,6 +2085,11 @@ class Camera
       imageStreamReader.close();
       imageStreamReader = null;
     }
+    closeZslRingBuffer();
+    releaseCodecRecorder();
+    // The background thread stops below, taking pending reports with it.
+    statsReporter = null;
+    discardPreparedRecording();
     if (mediaRecorder != null) {
       mediaRecorder.reset();
       mediaRecorder.release();
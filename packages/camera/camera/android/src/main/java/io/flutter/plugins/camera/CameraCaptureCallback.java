@@ -11,6 +11,7 @@ import android.hardware.camera2.CaptureResult;
 import android.hardware.camera2.TotalCaptureResult;
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
 import io.flutter.plugins.camera.types.CaptureTimeoutsWrapper;
 
@@ -24,6 +25,7 @@ class CameraCaptureCallback extends CaptureCallback {
   private CameraState cameraState;
   private final CaptureTimeoutsWrapper captureTimeouts;
   private final CameraCaptureProperties captureProps;
+  @Nullable private CaptureResultListener captureResultListener;
 
   private CameraCaptureCallback(
       @NonNull CameraCaptureStateListener cameraStateListener,
@@ -68,6 +70,16 @@ class CameraCaptureCallback extends CaptureCallback {
     cameraState = state;
   }
 
+  /**
+   * Sets a listener receiving every completed capture result, e.g. to match results with the
+   * frames they describe.
+   *
+   * @param listener the listener, or null to remove the current one.
+   */
+  public void setCaptureResultListener(@Nullable CaptureResultListener listener) {
+    captureResultListener = listener;
+  }
+
   private void process(CaptureResult result) {
     Integer aeState = result.get(CaptureResult.CONTROL_AE_STATE);
     Integer afState = result.get(CaptureResult.CONTROL_AF_STATE);
@@ -167,6 +179,17 @@ class CameraCaptureCallback extends CaptureCallback {
       @NonNull CaptureRequest request,
       @NonNull TotalCaptureResult result) {
     process(result);
+
+    final CaptureResultListener listener = captureResultListener;
+    if (listener != null) {
+      listener.onCaptureResult(result);
+    }
+  }
+
+  /** An interface for receiving completed capture results. */
+  interface CaptureResultListener {
+    /** Called for every completed {@link android.hardware.camera2.CaptureRequest}. */
+    void onCaptureResult(@NonNull TotalCaptureResult result);
   }
 
   /** An interface that describes the different state changes implementers can be informed about. */
@@ -29,6 +29,8 @@ public final class CameraPlugin implements FlutterPlugin, ActivityAware {
   private static final String TAG = "CameraPlugin";
   private @Nullable FlutterPluginBinding flutterPluginBinding;
   private @Nullable MethodCallHandlerImpl methodCallHandler;
+  // Outlives activities, so camera characteristics are only queried once per engine.
+  private final CameraPropertiesCache cameraPropertiesCache = new CameraPropertiesCache();
 
   /**
    * Initialize this within the {@code #configureFlutterEngine} of a Flutter activity or fragment.
@@ -104,6 +106,11 @@ public final class CameraPlugin implements FlutterPlugin, ActivityAware {
 
     methodCallHandler =
         new MethodCallHandlerImpl(
-            activity, messenger, new CameraPermissions(), permissionsRegistry, textureRegistry);
+            activity,
+            messenger,
+            new CameraPermissions(),
+            permissionsRegistry,
+            textureRegistry,
+            cameraPropertiesCache);
   }
 }
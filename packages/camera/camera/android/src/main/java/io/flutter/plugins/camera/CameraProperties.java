@@ -8,11 +8,14 @@ import android.graphics.Rect;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.params.StreamConfigurationMap;
 import android.os.Build.VERSION_CODES;
 import android.util.Range;
 import android.util.Rational;
 import android.util.Size;
 import androidx.annotation.RequiresApi;
+import java.util.HashMap;
+import java.util.Map;
 
 /** An interface allowing access to the different characteristics of the device's camera. */
 public interface CameraProperties {
@@ -191,6 +194,19 @@ public interface CameraProperties {
   @RequiresApi(api = VERSION_CODES.M)
   Rect getSensorInfoPreCorrectionActiveArraySize();
 
+  /**
+   * Returns the time base of the sensor timestamps of this camera device.
+   *
+   * <p>By default maps to the @see
+   * android.hardware.camera2.CameraCharacteristics#SENSOR_INFO_TIMESTAMP_SOURCE key.
+   *
+   * @return int Either @see
+   *     android.hardware.camera2.CameraMetadata#SENSOR_INFO_TIMESTAMP_SOURCE_UNKNOWN or @see
+   *     android.hardware.camera2.CameraMetadata#SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME.
+   */
+  @RequiresApi(api = VERSION_CODES.M)
+  int getSensorInfoTimestampSource();
+
   /**
    * Returns the clockwise angle through which the output image needs to be rotated to be upright on
    * the device screen in its native orientation.
@@ -235,6 +251,19 @@ public interface CameraProperties {
    * @return int[] List of noise reduction modes that are supported by this camera device.
    */
   int[] getAvailableNoiseReductionModes();
+
+  /**
+   * Returns the sizes this camera device can output images of the given format in.
+   *
+   * <p>By default maps to @see
+   * android.hardware.camera2.params.StreamConfigurationMap#getOutputSizes for the @see
+   * android.hardware.camera2.CameraCharacteristics#SCALER_STREAM_CONFIGURATION_MAP key.
+   *
+   * @param format An image format from @see android.graphics.ImageFormat.
+   * @return Size[] The supported output sizes, or null if the format is not supported. The array
+   *     is cached and must not be modified.
+   */
+  Size[] getOutputSizes(int format);
 }
 
 /**
@@ -244,6 +273,8 @@ public interface CameraProperties {
 class CameraPropertiesImpl implements CameraProperties {
   private final CameraCharacteristics cameraCharacteristics;
   private final String cameraName;
+  // Output sizes by image format, guarded by itself.
+  private final Map<Integer, Size[]> outputSizes = new HashMap<>();
 
   public CameraPropertiesImpl(String cameraName, CameraManager cameraManager)
       throws CameraAccessException {
@@ -332,6 +363,12 @@ class CameraPropertiesImpl implements CameraProperties {
         CameraCharacteristics.SENSOR_INFO_PRE_CORRECTION_ACTIVE_ARRAY_SIZE);
   }
 
+  @RequiresApi(api = VERSION_CODES.M)
+  @Override
+  public int getSensorInfoTimestampSource() {
+    return cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE);
+  }
+
   @Override
   public int getSensorOrientation() {
     return cameraCharacteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
@@ -347,4 +384,18 @@ class CameraPropertiesImpl implements CameraProperties {
     return cameraCharacteristics.get(
         CameraCharacteristics.NOISE_REDUCTION_AVAILABLE_NOISE_REDUCTION_MODES);
   }
+
+  @Override
+  public Size[] getOutputSizes(int format) {
+    synchronized (outputSizes) {
+      if (outputSizes.containsKey(format)) {
+        return outputSizes.get(format);
+      }
+      StreamConfigurationMap map =
+          cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+      Size[] sizes = map == null ? null : map.getOutputSizes(format);
+      outputSizes.put(format, sizes);
+      return sizes;
+    }
+  }
 }
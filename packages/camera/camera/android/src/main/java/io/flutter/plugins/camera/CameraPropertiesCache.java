@@ -0,0 +1,42 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraManager;
+import androidx.annotation.NonNull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the {@link CameraProperties} of every camera queried while the Flutter engine is
+ * attached, so camera characteristics are fetched from the camera service only once per camera.
+ *
+ * <p>Characteristics of a camera do not change while the device is running, so listing the
+ * cameras and creating a camera again reuse the properties fetched the first time.
+ */
+class CameraPropertiesCache {
+  private final Map<String, CameraProperties> properties = new HashMap<>();
+
+  /**
+   * Returns the properties of a camera, fetching its characteristics if they are not cached yet.
+   *
+   * @param cameraName the identifier of the camera.
+   * @param cameraManager the camera manager used to fetch characteristics.
+   * @return the properties of the camera.
+   * @throws CameraAccessException if the characteristics could not be fetched.
+   */
+  @NonNull
+  synchronized CameraProperties get(
+      @NonNull String cameraName, @NonNull CameraManager cameraManager)
+      throws CameraAccessException {
+    CameraProperties cameraProperties = properties.get(cameraName);
+    if (cameraProperties == null) {
+      cameraProperties = new CameraPropertiesImpl(cameraName, cameraManager);
+      properties.put(cameraName, cameraProperties);
+    }
+    return cameraProperties;
+  }
+}
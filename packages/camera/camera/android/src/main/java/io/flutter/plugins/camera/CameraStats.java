@@ -0,0 +1,167 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregates camera performance measurements over a reporting period, so they can be sent to Dart
+ * as a single event instead of one message per frame.
+ *
+ * <p>Measurements are recorded from the camera background thread and the image saver executor.
+ * Durations are reported in microseconds.
+ */
+class CameraStats {
+  private final DurationStats sensorLatency = new DurationStats();
+  private final DurationStats focus = new DurationStats();
+  private final DurationStats precapture = new DurationStats();
+  private final DurationStats pictureSave = new DurationStats();
+
+  // Guarded by this.
+  private long periodStart;
+  private long previewFrames;
+  private long focusStart = -1;
+  private long precaptureStart = -1;
+  private long lastStreamAcquired;
+  private long lastStreamDelivered;
+  private long lastStreamDropped;
+
+  /**
+   * Starts a new reporting period, discarding every measurement of the current one.
+   *
+   * @param now the current time, from {@link System#nanoTime}.
+   */
+  synchronized void reset(long now) {
+    periodStart = now;
+    previewFrames = 0;
+    sensorLatency.clear();
+    focus.clear();
+    precapture.clear();
+    pictureSave.clear();
+  }
+
+  /**
+   * Records a completed preview frame.
+   *
+   * @param sensorLatency the time from the start of exposure of the frame until its capture
+   *     result arrived, in nanoseconds.
+   */
+  synchronized void onPreviewFrame(long sensorLatency) {
+    previewFrames++;
+    this.sensorLatency.add(sensorLatency);
+  }
+
+  /** Records the start of auto focus for a picture. */
+  synchronized void onFocusStarted(long now) {
+    focusStart = now;
+  }
+
+  /** Records that auto focus for a picture converged or timed out. */
+  synchronized void onFocusDone(long now) {
+    if (focusStart >= 0) {
+      focus.add(now - focusStart);
+      focusStart = -1;
+    }
+  }
+
+  /** Records the start of the precapture sequence for a picture. */
+  synchronized void onPrecaptureStarted(long now) {
+    precaptureStart = now;
+  }
+
+  /** Records that the precapture sequence for a picture converged or timed out. */
+  synchronized void onPrecaptureDone(long now) {
+    if (precaptureStart >= 0) {
+      precapture.add(now - precaptureStart);
+      precaptureStart = -1;
+    }
+  }
+
+  /**
+   * Records the time it took to save a picture.
+   *
+   * @param duration the time from receiving the picture until it was written, in nanoseconds.
+   */
+  synchronized void onPictureSaved(long duration) {
+    pictureSave.add(duration);
+  }
+
+  /**
+   * Returns the measurements of the current period and starts a new one.
+   *
+   * @param now the current time, from {@link System#nanoTime}.
+   * @param streamStats the cumulative frame counters of the image stream, as returned by {@link
+   *     io.flutter.plugins.camera.media.ImageStreamReader#getStats}, or null without a stream.
+   * @return the event sent to Dart.
+   */
+  @NonNull
+  synchronized Map<String, Object> collect(long now, @Nullable Map<String, Object> streamStats) {
+    final long period = now - periodStart;
+    final Map<String, Object> stats = new HashMap<>();
+    stats.put("period", period / 1000);
+    stats.put("previewFrames", previewFrames);
+    stats.put("previewFrameRate", period > 0 ? previewFrames * 1e9 / period : 0.0);
+    stats.put("sensorLatency", sensorLatency.toMap());
+    stats.put("focus", focus.toMap());
+    stats.put("precapture", precapture.toMap());
+    stats.put("pictureSave", pictureSave.toMap());
+
+    final long acquired = getCounter(streamStats, "acquired");
+    final long delivered = getCounter(streamStats, "delivered");
+    final long dropped = getCounter(streamStats, "dropped");
+    stats.put("streamAcquired", getIncrease(lastStreamAcquired, acquired));
+    stats.put("streamDelivered", getIncrease(lastStreamDelivered, delivered));
+    stats.put("streamDropped", getIncrease(lastStreamDropped, dropped));
+    lastStreamAcquired = acquired;
+    lastStreamDelivered = delivered;
+    lastStreamDropped = dropped;
+
+    reset(now);
+    return stats;
+  }
+
+  /** Returns how much a stream counter increased, counting from zero if the stream restarted. */
+  private static long getIncrease(long last, long current) {
+    return current < last ? current : current - last;
+  }
+
+  private static long getCounter(@Nullable Map<String, Object> streamStats, String key) {
+    if (streamStats == null) {
+      return 0;
+    }
+    final Object value = streamStats.get(key);
+    return value instanceof Long ? (Long) value : 0;
+  }
+
+  /** The count, average and maximum of a kind of duration over a period. */
+  private static class DurationStats {
+    private long count;
+    private long total;
+    private long max;
+
+    void add(long duration) {
+      count++;
+      total += duration;
+      max = Math.max(max, duration);
+    }
+
+    void clear() {
+      count = 0;
+      total = 0;
+      max = 0;
+    }
+
+    Map<String, Object> toMap() {
+      final Map<String, Object> map = new HashMap<>(3);
+      map.put("count", count);
+      map.put("average", count > 0 ? total / count / 1000 : 0L);
+      map.put("max", max / 1000);
+      return map;
+    }
+  }
+}
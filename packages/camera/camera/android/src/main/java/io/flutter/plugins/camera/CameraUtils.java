@@ -7,7 +7,6 @@ package io.flutter.plugins.camera;
 import android.app.Activity;
 import android.content.Context;
 import android.hardware.camera2.CameraAccessException;
-import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
@@ -93,6 +92,20 @@ public final class CameraUtils {
    */
   public static List<Map<String, Object>> getAvailableCameras(Activity activity)
       throws CameraAccessException {
+    return getAvailableCameras(activity, new CameraPropertiesCache());
+  }
+
+  /**
+   * Gets all the available cameras for the device, reading their characteristics from {@code
+   * propertiesCache}.
+   *
+   * @param activity The current Android activity.
+   * @param propertiesCache The cache of camera properties.
+   * @return A map of all the available cameras, with their name as their key.
+   * @throws CameraAccessException when the camera could not be accessed.
+   */
+  static List<Map<String, Object>> getAvailableCameras(
+      Activity activity, CameraPropertiesCache propertiesCache) throws CameraAccessException {
     CameraManager cameraManager = (CameraManager) activity.getSystemService(Context.CAMERA_SERVICE);
     String[] cameraNames = cameraManager.getCameraIdList();
     List<Map<String, Object>> cameras = new ArrayList<>();
@@ -108,12 +121,12 @@ public final class CameraUtils {
       }
 
       HashMap<String, Object> details = new HashMap<>();
-      CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraName);
+      CameraProperties cameraProperties = propertiesCache.get(cameraName, cameraManager);
       details.put("name", cameraName);
-      int sensorOrientation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
+      int sensorOrientation = cameraProperties.getSensorOrientation();
       details.put("sensorOrientation", sensorOrientation);
 
-      int lensFacing = characteristics.get(CameraCharacteristics.LENS_FACING);
+      int lensFacing = cameraProperties.getLensFacing();
       switch (lensFacing) {
         case CameraMetadata.LENS_FACING_FRONT:
           details.put("lensFacing", "front");
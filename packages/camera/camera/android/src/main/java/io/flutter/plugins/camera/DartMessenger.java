@@ -10,6 +10,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
 import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugins.camera.features.autofocus.FocusMode;
 import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
@@ -21,6 +22,8 @@ public class DartMessenger {
   @NonNull private final Handler handler;
   @Nullable private MethodChannel cameraChannel;
   @Nullable private MethodChannel deviceChannel;
+  /** The sink performance stats are sent to, only accessed on the main thread. */
+  @Nullable private EventChannel.EventSink statsSink;
 
   /** Specifies the different device related message types. */
   enum DeviceEventType {
@@ -143,6 +146,31 @@ public class DartMessenger {
         });
   }
 
+  /**
+   * Sets the sink that receives performance stats of the camera.
+   *
+   * <p>Must be called on the main thread.
+   *
+   * @param statsSink the sink, or null when Dart stopped listening.
+   */
+  void setStatsSink(@Nullable EventChannel.EventSink statsSink) {
+    this.statsSink = statsSink;
+  }
+
+  /**
+   * Sends aggregated performance stats of the camera to the Flutter client, if it listens to them.
+   *
+   * @param stats the measurements of the last reporting period.
+   */
+  void sendCameraStatsEvent(@NonNull Map<String, Object> stats) {
+    handler.post(
+        () -> {
+          if (statsSink != null) {
+            statsSink.success(stats);
+          }
+        });
+  }
+
   private void send(CameraEventType eventType) {
     send(eventType, new HashMap<>());
   }
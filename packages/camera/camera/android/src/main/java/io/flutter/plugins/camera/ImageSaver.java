@@ -12,8 +12,14 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
-/** Saves a JPEG {@link Image} into the specified {@link File}. */
+/**
+ * Saves a JPEG {@link Image} into the specified {@link File}.
+ *
+ * <p>The JPEG is written straight from the image buffer through a {@link FileChannel}, without a
+ * copy on the Java heap. The image is closed once it has been written, before the callback runs.
+ */
 public class ImageSaver implements Runnable {
 
   /** The JPEG image */
@@ -40,26 +46,35 @@ public class ImageSaver implements Runnable {
 
   @Override
   public void run() {
-    ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-    byte[] bytes = new byte[buffer.remaining()];
-    buffer.get(bytes);
     FileOutputStream output = null;
+    boolean written = false;
     try {
+      ByteBuffer buffer = image.getPlanes()[0].getBuffer();
       output = FileOutputStreamFactory.create(file);
-      output.write(bytes);
+      FileChannel channel = output.getChannel();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      written = true;
+    } catch (IOException | IllegalStateException e) {
+      // An IllegalStateException means the image was closed with its reader, e.g. when the camera
+      // was closed while the image waited to be saved.
+    } finally {
+      // Closed before the callback runs, so the reader can hand out its next image to whoever the
+      // callback wakes up.
+      image.close();
+    }
 
+    if (written) {
       callback.onComplete(file.getAbsolutePath());
-
-    } catch (IOException e) {
+    } else {
       callback.onError("IOError", "Failed saving image");
-    } finally {
-      image.close();
-      if (null != output) {
-        try {
-          output.close();
-        } catch (IOException e) {
-          callback.onError("cameraAccess", e.getMessage());
-        }
+    }
+    if (null != output) {
+      try {
+        output.close();
+      } catch (IOException e) {
+        callback.onError("cameraAccess", e.getMessage());
       }
     }
   }
@@ -11,6 +11,8 @@ import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
+import io.flutter.plugin.common.BasicMessageChannel;
+import io.flutter.plugin.common.BinaryCodec;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
@@ -23,7 +25,10 @@ import io.flutter.plugins.camera.features.autofocus.FocusMode;
 import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
 import io.flutter.plugins.camera.features.flash.FlashMode;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
+import io.flutter.plugins.camera.media.ImageStreamOptions;
+import io.flutter.plugins.camera.media.VideoEncoderSettings;
 import io.flutter.view.TextureRegistry;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -33,24 +38,42 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
   private final CameraPermissions cameraPermissions;
   private final PermissionsRegistry permissionsRegistry;
   private final TextureRegistry textureRegistry;
+  private final CameraPropertiesCache cameraPropertiesCache;
   private final MethodChannel methodChannel;
   private final EventChannel imageStreamChannel;
+  private final BasicMessageChannel<ByteBuffer> packedImageStreamChannel;
+  private final EventChannel burstChannel;
+  private final EventChannel statsChannel;
   private @Nullable Camera camera;
+  /**
+   * Identifies the camera opened by "prewarm" until a matching "create" claims it, or null when
+   * there is no unclaimed prewarmed camera.
+   */
+  private @Nullable String prewarmedKey;
+
+  private long prewarmedCameraId;
 
   MethodCallHandlerImpl(
       Activity activity,
       BinaryMessenger messenger,
       CameraPermissions cameraPermissions,
       PermissionsRegistry permissionsAdder,
-      TextureRegistry textureRegistry) {
+      TextureRegistry textureRegistry,
+      CameraPropertiesCache cameraPropertiesCache) {
     this.activity = activity;
     this.messenger = messenger;
     this.cameraPermissions = cameraPermissions;
     this.permissionsRegistry = permissionsAdder;
     this.textureRegistry = textureRegistry;
+    this.cameraPropertiesCache = cameraPropertiesCache;
 
     methodChannel = new MethodChannel(messenger, "plugins.flutter.io/camera");
     imageStreamChannel = new EventChannel(messenger, "plugins.flutter.io/camera/imageStream");
+    packedImageStreamChannel =
+        new BasicMessageChannel<>(
+            messenger, "plugins.flutter.io/camera/imageStream/packed", BinaryCodec.INSTANCE);
+    burstChannel = new EventChannel(messenger, "plugins.flutter.io/camera/burst");
+    statsChannel = new EventChannel(messenger, "plugins.flutter.io/camera/stats");
     methodChannel.setMethodCallHandler(this);
   }
 
@@ -59,16 +82,46 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
     switch (call.method) {
       case "availableCameras":
         try {
-          result.success(CameraUtils.getAvailableCameras(activity));
+          result.success(CameraUtils.getAvailableCameras(activity, cameraPropertiesCache));
         } catch (Exception e) {
           handleException(e, result);
         }
         break;
       case "create":
         {
-          if (camera != null) {
-            camera.close();
+          if (prewarmedKey != null && prewarmedKey.equals(getPrewarmKey(call))) {
+            // Hand out the camera that is already opening.
+            prewarmedKey = null;
+            Map<String, Object> reply = new HashMap<>();
+            reply.put("cameraId", prewarmedCameraId);
+            result.success(reply);
+            break;
           }
+          releaseCamera();
+
+          cameraPermissions.requestPermissions(
+              activity,
+              permissionsRegistry,
+              call.argument("enableAudio"),
+              (String errCode, String errDesc) -> {
+                if (errCode == null) {
+                  try {
+                    final long cameraId = instantiateCamera(call);
+                    Map<String, Object> reply = new HashMap<>();
+                    reply.put("cameraId", cameraId);
+                    result.success(reply);
+                  } catch (Exception e) {
+                    handleException(e, result);
+                  }
+                } else {
+                  result.error(errCode, errDesc, null);
+                }
+              });
+          break;
+        }
+      case "prewarm":
+        {
+          releaseCamera();
 
           cameraPermissions.requestPermissions(
               activity,
@@ -77,7 +130,10 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
               (String errCode, String errDesc) -> {
                 if (errCode == null) {
                   try {
-                    instantiateCamera(call, result);
+                    prewarmedCameraId = instantiateCamera(call);
+                    prewarmedKey = getPrewarmKey(call);
+                    camera.open(call.argument("imageFormatGroup"));
+                    result.success(null);
                   } catch (Exception e) {
                     handleException(e, result);
                   }
@@ -109,12 +165,49 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
           camera.takePicture(result);
           break;
         }
-      case "prepareForVideoRecording":
+      case "startBurst":
+        {
+          final Integer count = call.argument("count");
+          camera.startBurst(burstChannel, count == null ? 0 : count, result);
+          break;
+        }
+      case "stopBurst":
         {
-          // This optimization is not required for Android.
+          camera.stopBurst();
           result.success(null);
           break;
         }
+      case "setZeroShutterLag":
+        {
+          final Boolean enabled = call.argument("enabled");
+          try {
+            camera.setZeroShutterLag(enabled != null && enabled, result);
+          } catch (Exception e) {
+            handleException(e, result);
+          }
+          break;
+        }
+      case "prepareForVideoRecording":
+        {
+          camera.prepareForVideoRecording(result);
+          break;
+        }
+      case "setVideoEncoder":
+        {
+          final Map<?, ?> arguments = call.arguments();
+          try {
+            camera.setVideoEncoder(
+                arguments == null ? null : VideoEncoderSettings.fromArguments(arguments), result);
+          } catch (Exception e) {
+            handleException(e, result);
+          }
+          break;
+        }
+      case "getVideoRecordingInfo":
+        {
+          result.success(camera.getLastVideoRecordingInfo());
+          break;
+        }
       case "startVideoRecording":
         {
           camera.startVideoRecording(result);
@@ -251,7 +344,10 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
       case "startImageStream":
         {
           try {
-            camera.startPreviewWithImageStream(imageStreamChannel);
+            camera.startPreviewWithImageStream(
+                imageStreamChannel,
+                packedImageStreamChannel,
+                ImageStreamOptions.fromArguments(call.arguments()));
             result.success(null);
           } catch (Exception e) {
             handleException(e, result);
@@ -268,6 +364,22 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
           }
           break;
         }
+      case "getImageStreamStats":
+        {
+          try {
+            result.success(camera.getImageStreamStats());
+          } catch (Exception e) {
+            handleException(e, result);
+          }
+          break;
+        }
+      case "startPerformanceStats":
+        {
+          final Integer interval = call.argument("interval");
+          camera.startPerformanceStats(statsChannel, interval == null ? 1000 : interval);
+          result.success(null);
+          break;
+        }
       case "getMaxZoomLevel":
         {
           assert camera != null;
@@ -368,7 +480,32 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
     methodChannel.setMethodCallHandler(null);
   }
 
-  private void instantiateCamera(MethodCall call, Result result) throws CameraAccessException {
+  /**
+   * Closes the current camera before another one is created. A prewarmed camera no one claimed is
+   * disposed of, since Dart does not know about its texture.
+   */
+  private void releaseCamera() {
+    if (camera == null) {
+      return;
+    }
+    if (prewarmedKey != null) {
+      prewarmedKey = null;
+      camera.dispose();
+    } else {
+      camera.close();
+    }
+  }
+
+  private static String getPrewarmKey(MethodCall call) {
+    return call.argument("cameraName")
+        + "/"
+        + call.argument("resolutionPreset")
+        + "/"
+        + call.argument("enableAudio");
+  }
+
+  /** Creates the camera described by the arguments of {@code call} and returns its id. */
+  private long instantiateCamera(MethodCall call) throws CameraAccessException {
     String cameraName = call.argument("cameraName");
     String preset = call.argument("resolutionPreset");
     boolean enableAudio = call.argument("enableAudio");
@@ -379,7 +516,7 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         new DartMessenger(
             messenger, flutterSurfaceTexture.id(), new Handler(Looper.getMainLooper()));
     CameraProperties cameraProperties =
-        new CameraPropertiesImpl(cameraName, CameraUtils.getCameraManager(activity));
+        cameraPropertiesCache.get(cameraName, CameraUtils.getCameraManager(activity));
     ResolutionPreset resolutionPreset = ResolutionPreset.valueOf(preset);
 
     camera =
@@ -391,10 +528,7 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
             cameraProperties,
             resolutionPreset,
             enableAudio);
-
-    Map<String, Object> reply = new HashMap<>();
-    reply.put("cameraId", flutterSurfaceTexture.id());
-    result.success(reply);
+    return flutterSurfaceTexture.id();
   }
 
   // We move catching CameraAccessException out of onMethodCall because it causes a crash
@@ -0,0 +1,188 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.YuvImage;
+import android.media.ExifInterface;
+import android.media.Image;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import io.flutter.plugins.camera.types.CameraCaptureProperties;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * Encodes a YUV_420_888 {@link Image} as a JPEG and saves it into the specified {@link File}.
+ *
+ * <p>Used for pictures served from recent preview frames, which the camera did not encode. The
+ * orientation and the capture properties of the frame are written as EXIF tags. The image is
+ * closed as soon as its pixels have been copied, before encoding.
+ */
+public class YuvImageSaver implements Runnable {
+  private static final int JPEG_QUALITY = 95;
+
+  private final Image image;
+  private final CameraCaptureProperties captureProperties;
+  private final int orientation;
+  private final File file;
+  private final ImageSaver.Callback callback;
+
+  /**
+   * Creates an instance of the YuvImageSaver runnable
+   *
+   * @param image - The YUV_420_888 image to save
+   * @param captureProperties - The capture properties of the image
+   * @param orientation - The clockwise rotation that makes the image upright, in degrees
+   * @param file - The file to save the image to
+   * @param callback - The callback that is run on completion, or when an error is encountered.
+   */
+  YuvImageSaver(
+      @NonNull Image image,
+      @NonNull CameraCaptureProperties captureProperties,
+      int orientation,
+      @NonNull File file,
+      @NonNull ImageSaver.Callback callback) {
+    this.image = image;
+    this.captureProperties = captureProperties;
+    this.orientation = orientation;
+    this.file = file;
+    this.callback = callback;
+  }
+
+  @Override
+  public void run() {
+    final int width;
+    final int height;
+    final byte[] nv21;
+    try {
+      width = image.getWidth();
+      height = image.getHeight();
+      nv21 = toNv21(image);
+    } catch (IllegalStateException e) {
+      // The image was closed with its reader, e.g. when the camera was closed.
+      callback.onError("IOError", "Failed saving image");
+      return;
+    } finally {
+      image.close();
+    }
+
+    FileOutputStream output = null;
+    try {
+      output = ImageSaver.FileOutputStreamFactory.create(file);
+      new YuvImage(nv21, ImageFormat.NV21, width, height, null)
+          .compressToJpeg(new Rect(0, 0, width, height), JPEG_QUALITY, output);
+      output.close();
+      output = null;
+
+      writeExif(file.getAbsolutePath());
+      callback.onComplete(file.getAbsolutePath());
+    } catch (IOException e) {
+      callback.onError("IOError", "Failed saving image");
+    } finally {
+      if (null != output) {
+        try {
+          output.close();
+        } catch (IOException e) {
+          callback.onError("cameraAccess", e.getMessage());
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  private void writeExif(String path) throws IOException {
+    final ExifInterface exif = ExifInterfaceFactory.create(path);
+    exif.setAttribute(ExifInterface.TAG_ORIENTATION, String.valueOf(getExifOrientation()));
+    final Float lensAperture = captureProperties.getLastLensAperture();
+    if (lensAperture != null) {
+      exif.setAttribute(ExifInterface.TAG_APERTURE, String.valueOf(lensAperture));
+    }
+    final Long sensorExposureTime = captureProperties.getLastSensorExposureTime();
+    if (sensorExposureTime != null) {
+      exif.setAttribute(
+          ExifInterface.TAG_EXPOSURE_TIME,
+          String.format(Locale.ROOT, "%.6f", sensorExposureTime / 1e9));
+    }
+    final Integer sensorSensitivity = captureProperties.getLastSensorSensitivity();
+    if (sensorSensitivity != null) {
+      exif.setAttribute(ExifInterface.TAG_ISO, String.valueOf(sensorSensitivity));
+    }
+    exif.saveAttributes();
+  }
+
+  private int getExifOrientation() {
+    switch (orientation) {
+      case 90:
+        return ExifInterface.ORIENTATION_ROTATE_90;
+      case 180:
+        return ExifInterface.ORIENTATION_ROTATE_180;
+      case 270:
+        return ExifInterface.ORIENTATION_ROTATE_270;
+      default:
+        return ExifInterface.ORIENTATION_NORMAL;
+    }
+  }
+
+  /** Copies the pixels of a YUV_420_888 image into an NV21 array, whatever its strides. */
+  @VisibleForTesting
+  static byte[] toNv21(Image image) {
+    final int width = image.getWidth();
+    final int height = image.getHeight();
+    final Image.Plane[] planes = image.getPlanes();
+    final byte[] nv21 = new byte[width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2)];
+
+    final ByteBuffer y = planes[0].getBuffer();
+    final int yRowStride = planes[0].getRowStride();
+    final int yPixelStride = planes[0].getPixelStride();
+    int position = 0;
+    for (int row = 0; row < height; row++) {
+      if (yPixelStride == 1) {
+        y.position(row * yRowStride);
+        y.get(nv21, position, width);
+        position += width;
+      } else {
+        for (int column = 0; column < width; column++) {
+          nv21[position++] = y.get(row * yRowStride + column * yPixelStride);
+        }
+      }
+    }
+
+    final ByteBuffer u = planes[1].getBuffer();
+    final ByteBuffer v = planes[2].getBuffer();
+    final int uvRowStride = planes[1].getRowStride();
+    final int uvPixelStride = planes[1].getPixelStride();
+    for (int row = 0; row < (height + 1) / 2; row++) {
+      for (int column = 0; column < (width + 1) / 2; column++) {
+        final int index = row * uvRowStride + column * uvPixelStride;
+        nv21[position++] = v.get(index);
+        nv21[position++] = u.get(index);
+      }
+    }
+    return nv21;
+  }
+
+  /** Factory class that assists in creating an {@link ExifInterface} instance. */
+  static class ExifInterfaceFactory {
+    /**
+     * Creates a new instance of the {@link ExifInterface} class.
+     *
+     * <p>This method is visible for testing purposes only and should never be used outside this
+     * class.
+     *
+     * @param path - The path of the JPEG file to edit
+     * @return new instance of the {@link ExifInterface} class.
+     * @throws IOException when the file could not be read.
+     */
+    @VisibleForTesting
+    public static ExifInterface create(String path) throws IOException {
+      return new ExifInterface(path);
+    }
+  }
+}
@@ -0,0 +1,722 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.annotation.SuppressLint;
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.AudioTimestamp;
+import android.media.MediaCodec;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.media.MediaRecorder;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Records video with a {@link MediaCodec} encoder and a {@link MediaMuxer}, as an alternative to
+ * {@link MediaRecorder}.
+ *
+ * <p>The encoder reads frames from a persistent input surface that outlives recordings, so the
+ * camera session can contain it from the start. A recording starts and stops by adding the surface
+ * to, and removing it from, the repeating request, without reconfiguring the camera.
+ *
+ * <p>Frames are selected by their sensor timestamps: a recording starts with the first key frame
+ * exposed after the time passed to {@link #start} and ends with the last frame exposed before the
+ * time passed to {@link #stop}. Audio, when enabled, is encoded from the microphone by a second
+ * encoder and trimmed to the same frames.
+ *
+ * <p>Encoder callbacks run on threads owned by the recorder. A codec is not released from its own
+ * callbacks, so a recording ends by handing its codecs and muxer to a cleanup thread, which also
+ * prepares the video encoder of the next recording. {@link Listener} methods are called on threads
+ * owned by the recorder, {@link Listener#onFinished} and {@link Listener#onError} only once the
+ * next recording can be started.
+ */
+@RequiresApi(api = Build.VERSION_CODES.M)
+public class CodecRecorder {
+  private static final String TAG = "CodecRecorder";
+  // How long to wait for the first frame exposed after the end of a recording.
+  private static final long STOP_TIMEOUT_MS = 500;
+
+  /** Receives the events of a recording. */
+  public interface Listener {
+    /** Called once the encoder needs no more frames, so the camera can stop rendering to it. */
+    void onInputEnded();
+
+    /**
+     * Called once the recording is written.
+     *
+     * @param outputFilePath the file the video was written to.
+     * @param firstFrameTimestamp the sensor timestamp of the first frame, in nanoseconds.
+     * @param lastFrameTimestamp the sensor timestamp of the last frame, in nanoseconds.
+     * @param frameCount the number of frames in the video.
+     */
+    void onFinished(
+        @NonNull String outputFilePath,
+        long firstFrameTimestamp,
+        long lastFrameTimestamp,
+        int frameCount);
+
+    /** Called instead of {@link #onFinished} if the recording failed. */
+    void onError(@NonNull String message);
+  }
+
+  private final MediaFormat videoFormat;
+  @Nullable private final MediaFormat audioFormat;
+  private final boolean realtimeTimestamps;
+  private final Surface surface = MediaCodec.createPersistentInputSurface();
+  private final HandlerThread encoderThread = new HandlerThread("CameraVideoEncoder");
+  private final Handler encoderHandler;
+  private final Runnable endInputTimeout = this::endInput;
+  private final ExecutorService cleanupExecutor;
+
+  // Guarded by this.
+  private boolean released;
+  private MediaCodec videoCodec;
+  @Nullable private Listener listener;
+  private String outputFilePath;
+  private MediaMuxer muxer;
+  private boolean muxerStarted;
+  private int videoTrack;
+  private int audioTrack;
+  private final List<Sample> pendingSamples = new ArrayList<>();
+  private MediaCodec audioCodec;
+  private AudioRecord audioRecord;
+  private HandlerThread audioThread;
+  private long startTimestamp;
+  private long stopTimestamp;
+  private boolean inputEnded;
+  private boolean videoDone;
+  private boolean audioDone;
+  private boolean awaitingKeyFrame;
+  private boolean keyFrameRequested;
+  private long firstFrameTime;
+  private long lastFrameTime;
+  private int frameCount;
+  private long lastAudioTime;
+  private long pauseStart;
+  // Paused intervals of the current recording, as start and end presentation times.
+  private final List<long[]> pauses = new ArrayList<>();
+
+  /**
+   * Creates a recorder and prepares its video encoder, so {@link #getSurface} can be added to a
+   * camera session right away.
+   *
+   * @param videoFormat the format of the video encoder, as created by {@link
+   *     VideoEncoderSettings#createMediaFormat}.
+   * @param audioFormat the format of the AAC audio encoder, or null to record without audio.
+   * @param realtimeTimestamps whether sensor timestamps use the {@link
+   *     SystemClock#elapsedRealtimeNanos} time base rather than {@link System#nanoTime}.
+   * @throws IOException if no encoder is available for the video format.
+   */
+  public CodecRecorder(
+      @NonNull MediaFormat videoFormat,
+      @Nullable MediaFormat audioFormat,
+      boolean realtimeTimestamps)
+      throws IOException {
+    this(videoFormat, audioFormat, realtimeTimestamps, Executors.newSingleThreadExecutor());
+  }
+
+  @VisibleForTesting
+  CodecRecorder(
+      @NonNull MediaFormat videoFormat,
+      @Nullable MediaFormat audioFormat,
+      boolean realtimeTimestamps,
+      @NonNull ExecutorService cleanupExecutor)
+      throws IOException {
+    this.videoFormat = videoFormat;
+    this.audioFormat = audioFormat;
+    this.realtimeTimestamps = realtimeTimestamps;
+    this.cleanupExecutor = cleanupExecutor;
+    encoderThread.start();
+    encoderHandler = new Handler(encoderThread.getLooper());
+    try {
+      prepareVideoCodec();
+    } catch (IOException | RuntimeException e) {
+      surface.release();
+      encoderThread.quitSafely();
+      cleanupExecutor.shutdown();
+      throw e;
+    }
+  }
+
+  /** Returns the surface the camera renders frames of a recording to. */
+  @NonNull
+  public Surface getSurface() {
+    return surface;
+  }
+
+  /** Configures a video encoder reading from the persistent surface, ready to be started. */
+  private void prepareVideoCodec() throws IOException {
+    final MediaCodec codec =
+        MediaCodec.createEncoderByType(videoFormat.getString(MediaFormat.KEY_MIME));
+    try {
+      codec.setCallback(new VideoCallback(), encoderHandler);
+      codec.configure(videoFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+      codec.setInputSurface(surface);
+    } catch (RuntimeException e) {
+      codec.release();
+      throw e;
+    }
+    videoCodec = codec;
+  }
+
+  /**
+   * Starts a recording. The camera should render to {@link #getSurface} once this returns.
+   *
+   * @param outputFilePath the MPEG-4 file to write the video to.
+   * @param orientation the clockwise rotation to play the video with, in degrees.
+   * @param startTimestamp the sensor time the recording starts at, in nanoseconds.
+   * @param listener receives the events of the recording.
+   * @throws IOException if the file or the microphone could not be opened.
+   * @throws IllegalStateException if a recording is in progress.
+   */
+  public synchronized void start(
+      @NonNull String outputFilePath,
+      int orientation,
+      long startTimestamp,
+      @NonNull Listener listener)
+      throws IOException {
+    if (this.listener != null) {
+      throw new IllegalStateException("A recording is already in progress.");
+    }
+    if (videoCodec == null) {
+      throw new IllegalStateException("The video encoder could not be prepared.");
+    }
+    muxer = new MediaMuxer(outputFilePath, MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+    muxer.setOrientationHint(orientation);
+    this.outputFilePath = outputFilePath;
+    this.listener = listener;
+    this.startTimestamp = startTimestamp;
+    stopTimestamp = Long.MAX_VALUE;
+    muxerStarted = false;
+    videoTrack = -1;
+    audioTrack = -1;
+    inputEnded = false;
+    videoDone = false;
+    audioDone = audioFormat == null;
+    awaitingKeyFrame = true;
+    keyFrameRequested = false;
+    firstFrameTime = -1;
+    lastFrameTime = -1;
+    frameCount = 0;
+    lastAudioTime = -1;
+    pauseStart = -1;
+    pauses.clear();
+    try {
+      if (audioFormat != null) {
+        startAudio(audioFormat);
+      }
+      videoCodec.start();
+    } catch (IOException | RuntimeException e) {
+      // Not called from a codec callback, so the recording is released right away.
+      detachRecording().run();
+      restoreVideoCodec();
+      throw e;
+    }
+  }
+
+  @SuppressLint("MissingPermission")
+  private void startAudio(@NonNull MediaFormat format) throws IOException {
+    final int sampleRate = format.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+    final int channelCount = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+    final int channelConfig =
+        channelCount == 1 ? AudioFormat.CHANNEL_IN_MONO : AudioFormat.CHANNEL_IN_STEREO;
+    final int minBufferSize =
+        AudioRecord.getMinBufferSize(sampleRate, channelConfig, AudioFormat.ENCODING_PCM_16BIT);
+    // The microphone permission is requested with the camera permission when audio is enabled.
+    audioRecord =
+        new AudioRecord(
+            MediaRecorder.AudioSource.MIC,
+            sampleRate,
+            channelConfig,
+            AudioFormat.ENCODING_PCM_16BIT,
+            minBufferSize * 4);
+    if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
+      throw new IOException("The microphone could not be opened.");
+    }
+
+    audioThread = new HandlerThread("CameraAudioEncoder");
+    audioThread.start();
+    audioCodec = MediaCodec.createEncoderByType(MediaFormat.MIMETYPE_AUDIO_AAC);
+    audioCodec.setCallback(
+        new AudioCallback(audioRecord, sampleRate, channelCount * 2),
+        new Handler(audioThread.getLooper()));
+    audioCodec.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+    audioRecord.startRecording();
+    audioCodec.start();
+  }
+
+  /**
+   * Pauses the recording. Frames and audio exposed while paused are left out of the video.
+   *
+   * @param timestamp the sensor time the pause starts at, in nanoseconds.
+   */
+  public synchronized void pause(long timestamp) {
+    if (listener != null && pauseStart < 0) {
+      pauseStart = timestamp / 1000;
+    }
+  }
+
+  /**
+   * Resumes a paused recording.
+   *
+   * @param timestamp the sensor time the pause ends at, in nanoseconds.
+   */
+  public synchronized void resume(long timestamp) {
+    if (listener == null || pauseStart < 0) {
+      return;
+    }
+    pauses.add(new long[] {pauseStart, timestamp / 1000});
+    pauseStart = -1;
+    // Frames after the pause cannot refer to the frames left out.
+    awaitingKeyFrame = true;
+    keyFrameRequested = false;
+  }
+
+  /**
+   * Stops the recording. {@link Listener#onInputEnded} is called once the first frame exposed after
+   * {@code timestamp} arrives, and {@link Listener#onFinished} once the video is written.
+   *
+   * @param timestamp the sensor time the recording ends at, in nanoseconds.
+   */
+  public synchronized void stop(long timestamp) {
+    if (listener == null || stopTimestamp != Long.MAX_VALUE) {
+      return;
+    }
+    stopTimestamp = timestamp;
+    encoderHandler.postDelayed(endInputTimeout, STOP_TIMEOUT_MS);
+  }
+
+  private synchronized void endInput() {
+    if (listener == null || inputEnded) {
+      return;
+    }
+    inputEnded = true;
+    encoderHandler.removeCallbacks(endInputTimeout);
+    try {
+      videoCodec.signalEndOfInputStream();
+    } catch (IllegalStateException e) {
+      fail(e.getMessage());
+      return;
+    }
+    listener.onInputEnded();
+  }
+
+  private synchronized void onVideoOutput(
+      @NonNull MediaCodec codec, int index, @NonNull MediaCodec.BufferInfo info) {
+    if (codec != videoCodec || listener == null) {
+      return;
+    }
+    final boolean endOfStream = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+    try {
+      if (info.size > 0 && (info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) == 0) {
+        final long time = info.presentationTimeUs;
+        if (time * 1000 > stopTimestamp) {
+          // The first frame exposed after the end of the recording.
+          endInput();
+        } else if (time * 1000 >= startTimestamp && !isPaused(time)) {
+          writeVideoFrame(codec, index, info);
+        }
+      }
+      codec.releaseOutputBuffer(index, false);
+    } catch (IllegalStateException | IllegalArgumentException e) {
+      fail(e.getMessage());
+      return;
+    }
+    if (endOfStream) {
+      videoDone = true;
+      finishIfDone();
+    }
+  }
+
+  private void writeVideoFrame(MediaCodec codec, int index, MediaCodec.BufferInfo info) {
+    if (awaitingKeyFrame) {
+      if ((info.flags & MediaCodec.BUFFER_FLAG_KEY_FRAME) == 0) {
+        if (!keyFrameRequested) {
+          final Bundle parameters = new Bundle();
+          parameters.putInt(MediaCodec.PARAMETER_KEY_REQUEST_SYNC_FRAME, 0);
+          codec.setParameters(parameters);
+          keyFrameRequested = true;
+        }
+        return;
+      }
+      awaitingKeyFrame = false;
+    }
+    if (firstFrameTime < 0) {
+      firstFrameTime = info.presentationTimeUs;
+    }
+    lastFrameTime = info.presentationTimeUs;
+    frameCount++;
+    writeSample(true, codec.getOutputBuffer(index), info);
+    startMuxerIfReady();
+  }
+
+  private synchronized void onAudioOutput(
+      @NonNull MediaCodec codec, int index, @NonNull MediaCodec.BufferInfo info) {
+    if (codec != audioCodec || listener == null) {
+      return;
+    }
+    final boolean endOfStream = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+    try {
+      if (info.size > 0 && (info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) == 0) {
+        final long time = info.presentationTimeUs;
+        if (time * 1000 >= startTimestamp
+            && time * 1000 <= stopTimestamp
+            && time > lastAudioTime
+            && !isPaused(time)) {
+          lastAudioTime = time;
+          writeSample(false, codec.getOutputBuffer(index), info);
+        }
+      }
+      codec.releaseOutputBuffer(index, false);
+    } catch (IllegalStateException | IllegalArgumentException e) {
+      fail(e.getMessage());
+      return;
+    }
+    if (endOfStream) {
+      audioDone = true;
+      finishIfDone();
+    }
+  }
+
+  private synchronized void onOutputFormatChanged(
+      @NonNull MediaCodec codec, @NonNull MediaFormat format) {
+    if (listener == null || muxerStarted) {
+      return;
+    }
+    if (codec == videoCodec) {
+      videoTrack = muxer.addTrack(format);
+    } else if (codec == audioCodec) {
+      audioTrack = muxer.addTrack(format);
+    }
+    startMuxerIfReady();
+  }
+
+  /** Writes a sample, or keeps a copy of it until the muxer is started. */
+  private void writeSample(boolean video, ByteBuffer buffer, MediaCodec.BufferInfo info) {
+    final MediaCodec.BufferInfo sampleInfo = new MediaCodec.BufferInfo();
+    sampleInfo.set(
+        info.offset,
+        info.size,
+        info.presentationTimeUs - getPausedDuration(info.presentationTimeUs),
+        info.flags);
+    if (muxerStarted) {
+      muxer.writeSampleData(video ? videoTrack : audioTrack, buffer, sampleInfo);
+      return;
+    }
+    buffer.position(info.offset);
+    buffer.limit(info.offset + info.size);
+    final ByteBuffer copy = ByteBuffer.allocateDirect(info.size);
+    copy.put(buffer);
+    copy.flip();
+    sampleInfo.offset = 0;
+    pendingSamples.add(new Sample(video, copy, sampleInfo, info.presentationTimeUs));
+  }
+
+  /** Starts the muxer once every track has a format and the first key frame was received. */
+  private void startMuxerIfReady() {
+    if (muxerStarted
+        || videoTrack < 0
+        || (audioFormat != null && audioTrack < 0)
+        || firstFrameTime < 0) {
+      return;
+    }
+    muxer.start();
+    muxerStarted = true;
+    for (Sample sample : pendingSamples) {
+      // Audio recorded before the first frame would play over a blank video.
+      if (sample.video || sample.time >= firstFrameTime) {
+        muxer.writeSampleData(sample.video ? videoTrack : audioTrack, sample.data, sample.info);
+      }
+    }
+    pendingSamples.clear();
+  }
+
+  private boolean isPaused(long time) {
+    if (pauseStart >= 0 && time >= pauseStart) {
+      return true;
+    }
+    for (long[] pause : pauses) {
+      if (time >= pause[0] && time < pause[1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private long getPausedDuration(long time) {
+    long duration = 0;
+    for (long[] pause : pauses) {
+      if (pause[1] <= time) {
+        duration += pause[1] - pause[0];
+      }
+    }
+    return duration;
+  }
+
+  private synchronized void finishIfDone() {
+    if (listener == null || !videoDone || !audioDone) {
+      return;
+    }
+    final Listener listener = this.listener;
+    final String outputFilePath = this.outputFilePath;
+    final long firstFrameTimestamp = firstFrameTime * 1000;
+    final long lastFrameTimestamp = lastFrameTime * 1000;
+    final int frameCount = this.frameCount;
+    final boolean written = muxerStarted;
+    String error = null;
+    if (written) {
+      try {
+        muxer.stop();
+      } catch (IllegalStateException e) {
+        error = e.getMessage();
+      }
+    }
+    final String finalError = error;
+    endRecording(
+        () -> {
+          if (!written) {
+            listener.onError("No video frames were recorded.");
+          } else if (finalError != null) {
+            listener.onError(finalError);
+          } else {
+            listener.onFinished(
+                outputFilePath, firstFrameTimestamp, lastFrameTimestamp, frameCount);
+          }
+        });
+  }
+
+  private synchronized void fail(@Nullable String message) {
+    final Listener listener = this.listener;
+    if (listener == null) {
+      return;
+    }
+    Log.w(TAG, "Recording failed: " + message);
+    endRecording(() -> listener.onError(message == null ? "The video encoder failed." : message));
+  }
+
+  /**
+   * Ends the current recording, which may be called from a codec callback. Its codecs and muxer are
+   * released on the cleanup executor, which then prepares the video encoder of the next recording
+   * and runs {@code notifyListener}.
+   */
+  private void endRecording(Runnable notifyListener) {
+    final Runnable releaseRecording = detachRecording();
+    final MediaCodec codec = videoCodec;
+    videoCodec = null;
+    cleanupExecutor.execute(
+        () -> {
+          releaseRecording.run();
+          if (codec != null) {
+            codec.release();
+          }
+          restoreVideoCodec();
+          notifyListener.run();
+        });
+  }
+
+  /**
+   * Detaches the resources of the current recording, except for the video encoder.
+   *
+   * @return releases the detached resources.
+   */
+  private Runnable detachRecording() {
+    listener = null;
+    encoderHandler.removeCallbacks(endInputTimeout);
+    pendingSamples.clear();
+    final MediaMuxer muxer = this.muxer;
+    final MediaCodec audioCodec = this.audioCodec;
+    final AudioRecord audioRecord = this.audioRecord;
+    final HandlerThread audioThread = this.audioThread;
+    this.muxer = null;
+    this.audioCodec = null;
+    this.audioRecord = null;
+    this.audioThread = null;
+    return () -> {
+      if (muxer != null) {
+        muxer.release();
+      }
+      if (audioCodec != null) {
+        audioCodec.release();
+      }
+      if (audioRecord != null) {
+        audioRecord.release();
+      }
+      if (audioThread != null) {
+        audioThread.quitSafely();
+      }
+    };
+  }
+
+  /** Replaces the video encoder of the last recording with a new one for the next recording. */
+  private synchronized void restoreVideoCodec() {
+    if (released) {
+      return;
+    }
+    if (videoCodec != null) {
+      videoCodec.release();
+      videoCodec = null;
+    }
+    try {
+      prepareVideoCodec();
+    } catch (IOException | RuntimeException e) {
+      // Reported when the next recording is started.
+      Log.w(TAG, "The video encoder could not be prepared: " + e.getMessage());
+    }
+  }
+
+  /** Releases the recorder and its surface. A recording in progress is abandoned. */
+  public synchronized void release() {
+    released = true;
+    detachRecording().run();
+    if (videoCodec != null) {
+      videoCodec.release();
+      videoCodec = null;
+    }
+    surface.release();
+    encoderThread.quitSafely();
+    // Recordings that already ended are still released.
+    cleanupExecutor.shutdown();
+  }
+
+  /** An encoded sample waiting for the muxer to start. */
+  private static class Sample {
+    final boolean video;
+    final ByteBuffer data;
+    final MediaCodec.BufferInfo info;
+    // The presentation time before removing paused intervals, in microseconds.
+    final long time;
+
+    Sample(boolean video, ByteBuffer data, MediaCodec.BufferInfo info, long time) {
+      this.video = video;
+      this.data = data;
+      this.info = info;
+      this.time = time;
+    }
+  }
+
+  private class VideoCallback extends MediaCodec.Callback {
+    @Override
+    public void onInputBufferAvailable(@NonNull MediaCodec codec, int index) {
+      // Frames are read from the input surface.
+    }
+
+    @Override
+    public void onOutputBufferAvailable(
+        @NonNull MediaCodec codec, int index, @NonNull MediaCodec.BufferInfo info) {
+      onVideoOutput(codec, index, info);
+    }
+
+    @Override
+    public void onError(@NonNull MediaCodec codec, @NonNull MediaCodec.CodecException e) {
+      if (codec == videoCodec) {
+        fail(e.getMessage());
+      }
+    }
+
+    @Override
+    public void onOutputFormatChanged(@NonNull MediaCodec codec, @NonNull MediaFormat format) {
+      CodecRecorder.this.onOutputFormatChanged(codec, format);
+    }
+  }
+
+  /** Feeds the audio encoder from the microphone, on the audio encoder thread. */
+  private class AudioCallback extends MediaCodec.Callback {
+    private final AudioRecord audioRecord;
+    private final int sampleRate;
+    private final int bytesPerFrame;
+    private final AudioTimestamp audioTimestamp = new AudioTimestamp();
+    private long framesRead;
+
+    AudioCallback(AudioRecord audioRecord, int sampleRate, int bytesPerFrame) {
+      this.audioRecord = audioRecord;
+      this.sampleRate = sampleRate;
+      this.bytesPerFrame = bytesPerFrame;
+    }
+
+    @Override
+    public void onInputBufferAvailable(@NonNull MediaCodec codec, int index) {
+      final boolean ending;
+      synchronized (CodecRecorder.this) {
+        if (codec != audioCodec) {
+          return;
+        }
+        ending = inputEnded;
+      }
+      try {
+        if (ending) {
+          codec.queueInputBuffer(index, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+          return;
+        }
+        final ByteBuffer buffer = codec.getInputBuffer(index);
+        final int read = audioRecord.read(buffer, buffer.remaining());
+        if (read < 0) {
+          fail("The microphone could not be read.");
+          return;
+        }
+        final int frames = read / bytesPerFrame;
+        final long timestamp = getTimestamp(framesRead, frames);
+        framesRead += frames;
+        codec.queueInputBuffer(index, 0, read, timestamp / 1000, 0);
+      } catch (IllegalStateException e) {
+        // The recording was released while the microphone was read.
+      }
+    }
+
+    /**
+     * Returns the sensor clock time the frame at {@code position} was recorded at, for a chunk of
+     * {@code frames} frames that was just read.
+     */
+    private long getTimestamp(long position, int frames) {
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+          && audioRecord.getTimestamp(
+                  audioTimestamp,
+                  realtimeTimestamps
+                      ? AudioTimestamp.TIMEBASE_BOOTTIME
+                      : AudioTimestamp.TIMEBASE_MONOTONIC)
+              == AudioRecord.SUCCESS) {
+        return audioTimestamp.nanoTime
+            + (position - audioTimestamp.framePosition) * 1000000000L / sampleRate;
+      }
+      // Without a timestamp, assume the frames that were just read were recorded last.
+      final long now = realtimeTimestamps ? SystemClock.elapsedRealtimeNanos() : System.nanoTime();
+      return now - frames * 1000000000L / sampleRate;
+    }
+
+    @Override
+    public void onOutputBufferAvailable(
+        @NonNull MediaCodec codec, int index, @NonNull MediaCodec.BufferInfo info) {
+      onAudioOutput(codec, index, info);
+    }
+
+    @Override
+    public void onError(@NonNull MediaCodec codec, @NonNull MediaCodec.CodecException e) {
+      if (codec == audioCodec) {
+        fail(e.getMessage());
+      }
+    }
+
+    @Override
+    public void onOutputFormatChanged(@NonNull MediaCodec codec, @NonNull MediaFormat format) {
+      CodecRecorder.this.onOutputFormatChanged(codec, format);
+    }
+  }
+}
@@ -0,0 +1,290 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.util.Size;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Map;
+
+/** Settings of an image stream, as passed by Dart to {@code startImageStream}. */
+public class ImageStreamOptions {
+
+  /** Decides which frames are dropped when Dart does not keep up with the camera. */
+  public enum Backpressure {
+    /** Every frame is delivered. */
+    none,
+    /** While a frame is in flight, only the newest frame waits to be delivered next. */
+    latestOnly,
+    /** Frames arriving while the maximum number of frames is in flight are dropped. */
+    dropWhenBusy,
+    /** Only every n-th frame is delivered. */
+    everyNth;
+
+    @NonNull
+    static Backpressure getValueForString(@Nullable String name) {
+      for (Backpressure value : values()) {
+        if (value.name().equals(name)) {
+          return value;
+        }
+      }
+      return none;
+    }
+  }
+
+  /** Settings of the native processing applied to YUV frames before they are sent. */
+  public static class Processing {
+    /** How frames are resampled when scaled. */
+    public enum Filter {
+      nearest,
+      bilinear
+    }
+
+    /** The pixel format of processed frames. */
+    public enum OutputFormat {
+      nv21,
+      rgb,
+      gray
+    }
+
+    private double cropLeft;
+    private double cropTop;
+    private double cropWidth = 1;
+    private double cropHeight = 1;
+    private int width;
+    private int height;
+    @NonNull private Filter filter = Filter.bilinear;
+    @NonNull private OutputFormat outputFormat = OutputFormat.nv21;
+    private boolean rotate;
+
+    @NonNull
+    static Processing fromArguments(@NonNull Map<?, ?> arguments) {
+      final Processing processing = new Processing();
+      final Object crop = arguments.get("crop");
+      if (crop instanceof Map) {
+        final Map<?, ?> cropMap = (Map<?, ?>) crop;
+        processing.cropLeft = clamp(getDouble(cropMap, "left", 0));
+        processing.cropTop = clamp(getDouble(cropMap, "top", 0));
+        processing.cropWidth =
+            Math.min(clamp(getDouble(cropMap, "width", 1)), 1 - processing.cropLeft);
+        processing.cropHeight =
+            Math.min(clamp(getDouble(cropMap, "height", 1)), 1 - processing.cropTop);
+      }
+      processing.width = Math.max(0, getInt(arguments, "width", 0));
+      processing.height = Math.max(0, getInt(arguments, "height", 0));
+      if ("nearest".equals(arguments.get("filter"))) {
+        processing.filter = Filter.nearest;
+      }
+      for (OutputFormat value : OutputFormat.values()) {
+        if (value.name().equals(arguments.get("format"))) {
+          processing.outputFormat = value;
+        }
+      }
+      processing.rotate = Boolean.TRUE.equals(arguments.get("rotate"));
+      return processing;
+    }
+
+    private static double clamp(double fraction) {
+      return Math.max(0, Math.min(1, fraction));
+    }
+
+    /** Gets the left edge of the crop, as a fraction of the unrotated frame width. */
+    public double getCropLeft() {
+      return cropLeft;
+    }
+
+    /** Gets the top edge of the crop, as a fraction of the unrotated frame height. */
+    public double getCropTop() {
+      return cropTop;
+    }
+
+    /** Gets the width of the crop, as a fraction of the unrotated frame width. */
+    public double getCropWidth() {
+      return cropWidth;
+    }
+
+    /** Gets the height of the crop, as a fraction of the unrotated frame height. */
+    public double getCropHeight() {
+      return cropHeight;
+    }
+
+    /** Gets the width of processed frames, after rotation, or 0 to derive it from the crop. */
+    public int getWidth() {
+      return width;
+    }
+
+    /** Gets the height of processed frames, after rotation, or 0 to derive it from the crop. */
+    public int getHeight() {
+      return height;
+    }
+
+    @NonNull
+    public Filter getFilter() {
+      return filter;
+    }
+
+    @NonNull
+    public OutputFormat getOutputFormat() {
+      return outputFormat;
+    }
+
+    /** Whether frames are rotated upright, like pictures taken in the current orientation. */
+    public boolean isRotate() {
+      return rotate;
+    }
+  }
+
+  private boolean packed;
+  @NonNull private Backpressure backpressure = Backpressure.none;
+  private int maxFramesInFlight = 1;
+  private int frameInterval = 1;
+  @Nullable private Processing processing;
+  private int width;
+  private int height;
+  @Nullable private String imageFormatGroup;
+  private int maxImages = 1;
+
+  /**
+   * Parses the arguments of a {@code startImageStream} call. Missing arguments keep their
+   * defaults, which match the behavior of the plugin before the options were introduced.
+   *
+   * @param arguments the method call arguments, or null.
+   * @return the parsed options.
+   */
+  @NonNull
+  public static ImageStreamOptions fromArguments(@Nullable Map<?, ?> arguments) {
+    final ImageStreamOptions options = new ImageStreamOptions();
+    if (arguments == null) {
+      return options;
+    }
+    options.packed = "packed".equals(arguments.get("transport"));
+    options.backpressure = Backpressure.getValueForString((String) arguments.get("backpressure"));
+    options.maxFramesInFlight = Math.max(1, getInt(arguments, "maxFramesInFlight", 1));
+    options.frameInterval = Math.max(1, getInt(arguments, "frameInterval", 1));
+    final Object processing = arguments.get("processing");
+    if (processing instanceof Map) {
+      options.processing = Processing.fromArguments((Map<?, ?>) processing);
+    }
+    options.width = Math.max(0, getInt(arguments, "width", 0));
+    options.height = Math.max(0, getInt(arguments, "height", 0));
+    final Object imageFormatGroup = arguments.get("imageFormatGroup");
+    options.imageFormatGroup =
+        imageFormatGroup instanceof String ? (String) imageFormatGroup : null;
+    options.maxImages = Math.max(1, getInt(arguments, "maxImages", 1));
+    return options;
+  }
+
+  private static double getDouble(Map<?, ?> arguments, String key, double defaultValue) {
+    final Object value = arguments.get(key);
+    return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+  }
+
+  private static int getInt(Map<?, ?> arguments, String key, int defaultValue) {
+    final Object value = arguments.get(key);
+    return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+  }
+
+  /**
+   * Whether frames are sent as a single packed binary message instead of a map of planes.
+   *
+   * @return true if frames should be packed.
+   */
+  public boolean isPacked() {
+    return packed;
+  }
+
+  /**
+   * Gets the policy deciding which frames are dropped.
+   *
+   * @return the backpressure policy.
+   */
+  @NonNull
+  public Backpressure getBackpressure() {
+    return backpressure;
+  }
+
+  /**
+   * Gets the number of frames that may be in flight before {@link Backpressure#dropWhenBusy}
+   * drops new ones.
+   *
+   * @return the maximum number of frames in flight, at least 1.
+   */
+  public int getMaxFramesInFlight() {
+    return maxFramesInFlight;
+  }
+
+  /**
+   * Gets the n of {@link Backpressure#everyNth}.
+   *
+   * @return the number of frames between two delivered frames, at least 1.
+   */
+  public int getFrameInterval() {
+    return frameInterval;
+  }
+
+  /**
+   * Gets the native processing applied to YUV frames.
+   *
+   * @return the processing settings, or null if frames are sent as captured.
+   */
+  @Nullable
+  public Processing getProcessing() {
+    return processing;
+  }
+
+  /**
+   * Gets the image format group frames are captured in, which may differ from the one the camera
+   * was opened with.
+   *
+   * @return the name of the image format group, or null to use the one the camera was opened with.
+   */
+  @Nullable
+  public String getImageFormatGroup() {
+    return imageFormatGroup;
+  }
+
+  /**
+   * Gets the maximum number of frames the camera may hold in the stream's {@link
+   * android.media.ImageReader} at once.
+   *
+   * @return the maximum number of images, at least 1.
+   */
+  public int getMaxImages() {
+    return maxImages;
+  }
+
+  /**
+   * Picks the size frames are captured in, independently of the preview size.
+   *
+   * <p>When the stream has a requested width or height, this is the smallest supported size that
+   * covers it, or the largest supported size if none does. Sizes are in the orientation of the
+   * sensor, like the preview size. Without a requested size, frames have the preview size.
+   *
+   * @param supportedSizes the sizes the camera can output in the stream's format, or null.
+   * @param previewSize the size of the preview.
+   * @return the size to capture frames in.
+   */
+  @NonNull
+  public Size resolveSize(@Nullable Size[] supportedSizes, @NonNull Size previewSize) {
+    if ((width == 0 && height == 0) || supportedSizes == null || supportedSizes.length == 0) {
+      return previewSize;
+    }
+    Size smallestCovering = null;
+    Size largest = null;
+    for (Size size : supportedSizes) {
+      final long area = (long) size.getWidth() * size.getHeight();
+      if (largest == null || area > (long) largest.getWidth() * largest.getHeight()) {
+        largest = size;
+      }
+      if (size.getWidth() >= width
+          && size.getHeight() >= height
+          && (smallestCovering == null
+              || area < (long) smallestCovering.getWidth() * smallestCovering.getHeight())) {
+        smallestCovering = size;
+      }
+    }
+    return smallestCovering != null ? smallestCovering : largest;
+  }
+}
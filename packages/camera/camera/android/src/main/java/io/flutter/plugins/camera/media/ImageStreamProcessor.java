@@ -0,0 +1,308 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.graphics.ImageFormat;
+import android.graphics.PixelFormat;
+import android.media.Image;
+import androidx.annotation.NonNull;
+import java.nio.ByteBuffer;
+
+/**
+ * Crops, scales, rotates and converts YUV_420_888 frames of an image stream in a single pass, so
+ * Dart receives a frame sized for its use instead of the full camera frame.
+ *
+ * <p>Processed frames have a single plane holding NV21, packed 8-bit RGB or 8-bit gray pixels.
+ * Sampling positions are computed once per input size and rotation, so steady streaming only
+ * reads and writes pixels. An instance is owned by the camera background thread.
+ */
+public class ImageStreamProcessor {
+  /** Raw format reported for NV21 frames, {@link ImageFormat#NV21}. */
+  public static final int FORMAT_NV21 = ImageFormat.NV21;
+  /** Raw format reported for RGB frames, {@link PixelFormat#RGB_888}. */
+  public static final int FORMAT_RGB = PixelFormat.RGB_888;
+  /** Raw format reported for gray frames, {@code ImageFormat.Y8} which needs API 29. */
+  public static final int FORMAT_GRAY = 0x20203859;
+
+  // Bilinear weights are fixed point with this many fractional bits.
+  private static final int WEIGHT_BITS = 8;
+  private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+
+  private final ImageStreamOptions.Processing settings;
+
+  // The input the sampling positions below were computed for.
+  private int inputWidth = -1;
+  private int inputHeight = -1;
+  private int rotation = -1;
+
+  // Size of the output, after rotation.
+  private int outputWidth;
+  private int outputHeight;
+
+  // Source columns and rows of every scaled column and row, with the weight of the second one.
+  private int[] x0;
+  private int[] x1;
+  private int[] xWeight;
+  private int[] y0;
+  private int[] y1;
+  private int[] yWeight;
+
+  // Maps output coordinates (dx, dy) to scaled coordinates: u = origin + dx * a + dy * b.
+  private int uxOrigin;
+  private int uxA;
+  private int uxB;
+  private int uyOrigin;
+  private int uyA;
+  private int uyB;
+
+  public ImageStreamProcessor(@NonNull ImageStreamOptions.Processing settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * Prepares the processor for frames of the given size, recomputing the sampling positions only
+   * if the size or rotation changed.
+   *
+   * @param inputWidth the width of the camera frame.
+   * @param inputHeight the height of the camera frame.
+   * @param rotationDegrees the clockwise rotation to apply, a multiple of 90.
+   */
+  public void configure(int inputWidth, int inputHeight, int rotationDegrees) {
+    rotationDegrees = settings.isRotate() ? ((rotationDegrees % 360) + 360) % 360 : 0;
+    if (inputWidth == this.inputWidth
+        && inputHeight == this.inputHeight
+        && rotationDegrees == this.rotation) {
+      return;
+    }
+    this.inputWidth = inputWidth;
+    this.inputHeight = inputHeight;
+    this.rotation = rotationDegrees;
+
+    final int cropLeft = (int) Math.round(settings.getCropLeft() * inputWidth);
+    final int cropTop = (int) Math.round(settings.getCropTop() * inputHeight);
+    final int cropWidth =
+        Math.max(
+            1,
+            Math.min(
+                (int) Math.round(settings.getCropWidth() * inputWidth), inputWidth - cropLeft));
+    final int cropHeight =
+        Math.max(
+            1,
+            Math.min(
+                (int) Math.round(settings.getCropHeight() * inputHeight), inputHeight - cropTop));
+
+    // The requested size is upright, so it is swapped for frames rotated by a quarter turn.
+    final boolean swap = rotationDegrees == 90 || rotationDegrees == 270;
+    int width = swap ? settings.getHeight() : settings.getWidth();
+    int height = swap ? settings.getWidth() : settings.getHeight();
+    if (width <= 0 && height <= 0) {
+      width = cropWidth;
+      height = cropHeight;
+    } else if (width <= 0) {
+      width = Math.max(1, (int) Math.round((double) height * cropWidth / cropHeight));
+    } else if (height <= 0) {
+      height = Math.max(1, (int) Math.round((double) width * cropHeight / cropWidth));
+    }
+    if (settings.getOutputFormat() == ImageStreamOptions.Processing.OutputFormat.nv21) {
+      // NV21 subsamples chroma by two in both directions.
+      width = Math.max(2, width & ~1);
+      height = Math.max(2, height & ~1);
+    }
+    outputWidth = swap ? height : width;
+    outputHeight = swap ? width : height;
+
+    final boolean bilinear =
+        settings.getFilter() == ImageStreamOptions.Processing.Filter.bilinear;
+    x0 = new int[width];
+    x1 = new int[width];
+    xWeight = new int[width];
+    computeSamples(cropLeft, cropWidth, width, bilinear, x0, x1, xWeight);
+    y0 = new int[height];
+    y1 = new int[height];
+    yWeight = new int[height];
+    computeSamples(cropTop, cropHeight, height, bilinear, y0, y1, yWeight);
+
+    switch (rotationDegrees) {
+      case 90:
+        setTransform(0, 0, 1, height - 1, -1, 0);
+        break;
+      case 180:
+        setTransform(width - 1, -1, 0, height - 1, 0, -1);
+        break;
+      case 270:
+        setTransform(width - 1, 0, -1, 0, 1, 0);
+        break;
+      default:
+        setTransform(0, 1, 0, 0, 0, 1);
+    }
+  }
+
+  private void setTransform(int uxOrigin, int uxA, int uxB, int uyOrigin, int uyA, int uyB) {
+    this.uxOrigin = uxOrigin;
+    this.uxA = uxA;
+    this.uxB = uxB;
+    this.uyOrigin = uyOrigin;
+    this.uyA = uyA;
+    this.uyB = uyB;
+  }
+
+  private static void computeSamples(
+      int start, int length, int count, boolean bilinear, int[] first, int[] second, int[] weight) {
+    final int last = start + length - 1;
+    final double step = (double) length / count;
+    for (int i = 0; i < count; i++) {
+      if (bilinear) {
+        final double source = Math.max(start, Math.min(last, start + (i + 0.5) * step - 0.5));
+        first[i] = (int) source;
+        second[i] = Math.min(first[i] + 1, last);
+        weight[i] = (int) Math.round((source - first[i]) * WEIGHT_ONE);
+      } else {
+        first[i] = Math.min(last, start + (int) ((i + 0.5) * step));
+        second[i] = first[i];
+        weight[i] = 0;
+      }
+    }
+  }
+
+  public int getOutputWidth() {
+    return outputWidth;
+  }
+
+  public int getOutputHeight() {
+    return outputHeight;
+  }
+
+  /** Returns the raw format reported to Dart for processed frames. */
+  public int getOutputFormat() {
+    switch (settings.getOutputFormat()) {
+      case rgb:
+        return FORMAT_RGB;
+      case gray:
+        return FORMAT_GRAY;
+      default:
+        return FORMAT_NV21;
+    }
+  }
+
+  public int getPixelStride() {
+    return settings.getOutputFormat() == ImageStreamOptions.Processing.OutputFormat.rgb ? 3 : 1;
+  }
+
+  public int getRowStride() {
+    return outputWidth * getPixelStride();
+  }
+
+  /** Returns the number of bytes {@link #process} writes. */
+  public int getOutputSize() {
+    final int pixels = outputWidth * outputHeight;
+    switch (settings.getOutputFormat()) {
+      case rgb:
+        return pixels * 3;
+      case gray:
+        return pixels;
+      default:
+        return pixels + pixels / 2;
+    }
+  }
+
+  /**
+   * Writes the processed {@code image} to {@code out}, starting at its position and leaving the
+   * position after the last byte written. {@link #configure} must have been called for the size of
+   * the image.
+   */
+  public void process(@NonNull Image image, @NonNull ByteBuffer out) {
+    final Image.Plane[] planes = image.getPlanes();
+    final int start = out.position();
+    switch (settings.getOutputFormat()) {
+      case gray:
+        writeGray(planes[0], out, start);
+        break;
+      case rgb:
+        writeRgb(planes, out, start);
+        break;
+      default:
+        writeNv21(planes, out, start);
+    }
+    out.position(start + getOutputSize());
+  }
+
+  private void writeGray(Image.Plane yPlane, ByteBuffer out, int position) {
+    final ByteBuffer y = yPlane.getBuffer();
+    final int rowStride = yPlane.getRowStride();
+    final int pixelStride = yPlane.getPixelStride();
+    for (int dy = 0; dy < outputHeight; dy++) {
+      for (int dx = 0; dx < outputWidth; dx++) {
+        final int ux = uxOrigin + dx * uxA + dy * uxB;
+        final int uy = uyOrigin + dx * uyA + dy * uyB;
+        out.put(position++, (byte) sampleLuma(y, rowStride, pixelStride, ux, uy));
+      }
+    }
+  }
+
+  private void writeRgb(Image.Plane[] planes, ByteBuffer out, int position) {
+    final ByteBuffer y = planes[0].getBuffer();
+    final int yRowStride = planes[0].getRowStride();
+    final int yPixelStride = planes[0].getPixelStride();
+    final ByteBuffer u = planes[1].getBuffer();
+    final ByteBuffer v = planes[2].getBuffer();
+    final int uvRowStride = planes[1].getRowStride();
+    final int uvPixelStride = planes[1].getPixelStride();
+    for (int dy = 0; dy < outputHeight; dy++) {
+      for (int dx = 0; dx < outputWidth; dx++) {
+        final int ux = uxOrigin + dx * uxA + dy * uxB;
+        final int uy = uyOrigin + dx * uyA + dy * uyB;
+        final int luma = sampleLuma(y, yRowStride, yPixelStride, ux, uy);
+        final int chroma = (y0[uy] >> 1) * uvRowStride + (x0[ux] >> 1) * uvPixelStride;
+        final int cb = (u.get(chroma) & 0xff) - 128;
+        final int cr = (v.get(chroma) & 0xff) - 128;
+        // Full range BT.601, the color space of camera YUV_420_888 frames, in 16.16 fixed point.
+        out.put(position++, clampToByte(luma + ((91881 * cr) >> 16)));
+        out.put(position++, clampToByte(luma - ((22554 * cb + 46802 * cr) >> 16)));
+        out.put(position++, clampToByte(luma + ((116130 * cb) >> 16)));
+      }
+    }
+  }
+
+  private void writeNv21(Image.Plane[] planes, ByteBuffer out, int position) {
+    writeGray(planes[0], out, position);
+    position += outputWidth * outputHeight;
+
+    final ByteBuffer u = planes[1].getBuffer();
+    final ByteBuffer v = planes[2].getBuffer();
+    final int uvRowStride = planes[1].getRowStride();
+    final int uvPixelStride = planes[1].getPixelStride();
+    for (int dy = 0; dy < outputHeight; dy += 2) {
+      for (int dx = 0; dx < outputWidth; dx += 2) {
+        final int ux = uxOrigin + dx * uxA + dy * uxB;
+        final int uy = uyOrigin + dx * uyA + dy * uyB;
+        final int chroma = (y0[uy] >> 1) * uvRowStride + (x0[ux] >> 1) * uvPixelStride;
+        out.put(position++, v.get(chroma));
+        out.put(position++, u.get(chroma));
+      }
+    }
+  }
+
+  private int sampleLuma(ByteBuffer y, int rowStride, int pixelStride, int ux, int uy) {
+    final int row0 = y0[uy] * rowStride;
+    final int column0 = x0[ux] * pixelStride;
+    final int xw = xWeight[ux];
+    final int yw = yWeight[uy];
+    if (xw == 0 && yw == 0) {
+      return y.get(row0 + column0) & 0xff;
+    }
+    final int row1 = y1[uy] * rowStride;
+    final int column1 = x1[ux] * pixelStride;
+    final int top =
+        (y.get(row0 + column0) & 0xff) * (WEIGHT_ONE - xw) + (y.get(row0 + column1) & 0xff) * xw;
+    final int bottom =
+        (y.get(row1 + column0) & 0xff) * (WEIGHT_ONE - xw) + (y.get(row1 + column1) & 0xff) * xw;
+    return (top * (WEIGHT_ONE - yw) + bottom * yw + (1 << (2 * WEIGHT_BITS - 1)))
+        >> (2 * WEIGHT_BITS);
+  }
+
+  private static byte clampToByte(int value) {
+    return (byte) (value < 0 ? 0 : value > 255 ? 255 : value);
+  }
+}
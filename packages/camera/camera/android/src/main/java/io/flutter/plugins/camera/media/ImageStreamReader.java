@@ -0,0 +1,479 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.graphics.ImageFormat;
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import io.flutter.plugin.common.BasicMessageChannel;
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugins.camera.types.CameraCaptureProperties;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps the {@link ImageReader} of an image stream and forwards its frames to Dart.
+ *
+ * <p>Frames are sent either as a map of planes over the image stream event channel, which is the
+ * original format, or packed into a single binary message. A packed frame is copied once, from the
+ * image planes into a pooled direct {@link ByteBuffer}, and the engine copies that buffer into Dart
+ * memory before {@link BasicMessageChannel#send} returns, so the buffer goes back to the pool
+ * straight away and steady streaming allocates nothing per frame.
+ *
+ * <p>A frame is in flight from the moment it is accepted until Dart is done with it: for packed
+ * frames, until Dart replies once its callback has completed; for maps, until the frame has been
+ * handed to the event sink, as the event channel has no replies. The {@link
+ * ImageStreamOptions.Backpressure} policy of the stream decides which frames are dropped while
+ * others are in flight. Frames that are dropped before being copied cost nothing but the camera
+ * buffer.
+ *
+ * <p>When the stream has {@link ImageStreamOptions.Processing} settings, YUV frames go through an
+ * {@link ImageStreamProcessor} on the camera background thread while they are copied, and Dart
+ * receives the single processed plane instead of the camera planes.
+ *
+ * <p>A packed frame is laid out in little-endian order as: format, width, height and plane count
+ * as 32-bit integers; lens aperture as a 64-bit float (NaN if unknown); sensor exposure time as a
+ * 64-bit integer (-1 if unknown); sensor sensitivity as a 64-bit float (NaN if unknown); then the
+ * row stride, pixel stride and byte length of every plane as 32-bit integers, followed by the bytes
+ * of every plane.
+ */
+public class ImageStreamReader {
+
+  /** Supplies the clockwise rotation that makes frames upright. */
+  public interface RotationProvider {
+    int getRotationDegrees();
+  }
+
+  @VisibleForTesting static final int HEADER_SIZE = 40;
+  @VisibleForTesting static final int PLANE_HEADER_SIZE = 12;
+  // Buffers kept in the pool on top of the frames that may be in flight.
+  private static final int SPARE_POOLED_BUFFERS = 2;
+
+  private final ImageReader imageReader;
+  private final RotationProvider rotationProvider;
+  private final Handler mainHandler;
+  // Guards the pool, the in-flight state and the counters, which are shared between the camera
+  // background thread and the main thread.
+  private final Object lock = new Object();
+  private final ArrayDeque<ByteBuffer> bufferPool = new ArrayDeque<>();
+  private int maxPooledBuffers = 1 + SPARE_POOLED_BUFFERS;
+
+  // Set when subscribing, before the first frame can arrive.
+  private volatile ImageStreamOptions options;
+  private volatile CameraCaptureProperties captureProperties;
+  private volatile EventChannel.EventSink imageStreamSink;
+  private volatile BasicMessageChannel<ByteBuffer> packedImageStreamChannel;
+  // Only used on the camera background thread once set.
+  @Nullable private volatile ImageStreamProcessor processor;
+
+  // Guarded by lock.
+  private int subscription;
+  private int framesInFlight;
+  private Object pendingFrame;
+  private long frameCount;
+  private long acquiredFrames;
+  private long deliveredFrames;
+  private long droppedFrames;
+
+  /**
+   * Creates a new instance of the {@link ImageStreamReader} class.
+   *
+   * @param imageReader the image reader the camera streams frames into.
+   * @param rotationProvider supplies the rotation of frames processed with rotation enabled.
+   */
+  public ImageStreamReader(
+      @NonNull ImageReader imageReader, @NonNull RotationProvider rotationProvider) {
+    this(imageReader, rotationProvider, new Handler(Looper.getMainLooper()));
+  }
+
+  @VisibleForTesting
+  ImageStreamReader(
+      @NonNull ImageReader imageReader,
+      @NonNull RotationProvider rotationProvider,
+      @NonNull Handler mainHandler) {
+    this.imageReader = imageReader;
+    this.rotationProvider = rotationProvider;
+    this.mainHandler = mainHandler;
+  }
+
+  /** Returns the surface the camera should render stream frames to. */
+  @NonNull
+  public Surface getSurface() {
+    return imageReader.getSurface();
+  }
+
+  /** Returns the width of stream frames. */
+  public int getWidth() {
+    return imageReader.getWidth();
+  }
+
+  /** Returns the height of stream frames. */
+  public int getHeight() {
+    return imageReader.getHeight();
+  }
+
+  /** Returns the {@link android.graphics.ImageFormat} of stream frames. */
+  public int getImageFormat() {
+    return imageReader.getImageFormat();
+  }
+
+  /** Returns the maximum number of frames the camera may hold in the stream at once. */
+  public int getMaxImages() {
+    return imageReader.getMaxImages();
+  }
+
+  /**
+   * Starts forwarding frames to Dart, resetting the frame counters.
+   *
+   * @param options the settings of the stream.
+   * @param captureProperties the last known capture properties, attached to every frame.
+   * @param imageStreamSink the sink that receives frames in the map format.
+   * @param packedImageStreamChannel the channel that receives packed frames.
+   * @param handler the handler frames are acquired on.
+   */
+  public void subscribeListener(
+      @NonNull final ImageStreamOptions options,
+      @NonNull final CameraCaptureProperties captureProperties,
+      @NonNull final EventChannel.EventSink imageStreamSink,
+      @NonNull final BasicMessageChannel<ByteBuffer> packedImageStreamChannel,
+      @NonNull Handler handler) {
+    this.options = options;
+    this.captureProperties = captureProperties;
+    this.imageStreamSink = imageStreamSink;
+    this.packedImageStreamChannel = packedImageStreamChannel;
+    final ImageStreamOptions.Processing processing = options.getProcessing();
+    this.processor = processing == null ? null : new ImageStreamProcessor(processing);
+    synchronized (lock) {
+      resetLocked();
+      frameCount = 0;
+      acquiredFrames = 0;
+      deliveredFrames = 0;
+      droppedFrames = 0;
+      maxPooledBuffers =
+          (options.getBackpressure() == ImageStreamOptions.Backpressure.dropWhenBusy
+                  ? options.getMaxFramesInFlight()
+                  : 1)
+              + SPARE_POOLED_BUFFERS;
+    }
+    imageReader.setOnImageAvailableListener(this::onImageAvailable, handler);
+  }
+
+  /**
+   * Stops forwarding frames to Dart. Frames still waiting to be delivered are discarded.
+   *
+   * @param handler the handler frames were acquired on.
+   */
+  public void removeListener(@NonNull Handler handler) {
+    imageReader.setOnImageAvailableListener(null, handler);
+    synchronized (lock) {
+      resetLocked();
+    }
+  }
+
+  /**
+   * Returns the number of frames acquired from the camera, delivered to Dart and dropped before
+   * Dart since the stream started.
+   */
+  @NonNull
+  public Map<String, Object> getStats() {
+    final Map<String, Object> stats = new HashMap<>(3);
+    synchronized (lock) {
+      stats.put("acquired", acquiredFrames);
+      stats.put("delivered", deliveredFrames);
+      stats.put("dropped", droppedFrames);
+    }
+    return stats;
+  }
+
+  /** Closes the image reader and releases the pooled buffers. */
+  public void close() {
+    imageReader.close();
+    synchronized (lock) {
+      resetLocked();
+      bufferPool.clear();
+    }
+  }
+
+  /** Called on the camera background thread for every frame. */
+  private void onImageAvailable(ImageReader reader) {
+    Image image = reader.acquireNextImage();
+    // Use acquireNextImage since image reader is only for one image.
+    if (image == null) return;
+
+    final ImageStreamOptions options = this.options;
+    final int subscription;
+    synchronized (lock) {
+      acquiredFrames++;
+      if (!acceptFrameLocked(options)) {
+        droppedFrames++;
+        image.close();
+        return;
+      }
+      subscription = this.subscription;
+    }
+
+    final Object frame;
+    try {
+      ImageStreamProcessor processor = this.processor;
+      if (processor != null && image.getFormat() == ImageFormat.YUV_420_888) {
+        processor.configure(
+            image.getWidth(), image.getHeight(), rotationProvider.getRotationDegrees());
+      } else {
+        processor = null;
+      }
+      frame = options.isPacked() ? packFrame(image, processor) : mapFrame(image, processor);
+    } finally {
+      image.close();
+    }
+
+    synchronized (lock) {
+      if (subscription != this.subscription) {
+        discardFrameLocked(frame);
+        return;
+      }
+      if (options.getBackpressure() == ImageStreamOptions.Backpressure.latestOnly
+          && framesInFlight > 0) {
+        // Replace the frame waiting for the one in flight, so Dart gets the freshest frame next.
+        if (pendingFrame != null) {
+          droppedFrames++;
+          discardFrameLocked(pendingFrame);
+        }
+        pendingFrame = frame;
+        return;
+      }
+      framesInFlight++;
+    }
+    mainHandler.post(() -> deliverFrame(frame, subscription));
+  }
+
+  /** Decides, before it is copied, whether a frame can be delivered at all. */
+  private boolean acceptFrameLocked(ImageStreamOptions options) {
+    switch (options.getBackpressure()) {
+      case dropWhenBusy:
+        return framesInFlight < options.getMaxFramesInFlight();
+      case everyNth:
+        return frameCount++ % options.getFrameInterval() == 0;
+      default:
+        return true;
+    }
+  }
+
+  /** Called on the main thread to hand a frame to Dart. */
+  private void deliverFrame(Object frame, final int subscription) {
+    synchronized (lock) {
+      if (subscription != this.subscription) {
+        discardFrameLocked(frame);
+        return;
+      }
+      deliveredFrames++;
+    }
+    if (frame instanceof ByteBuffer) {
+      final ByteBuffer buffer = (ByteBuffer) frame;
+      packedImageStreamChannel.send(buffer, reply -> onFrameProcessed(subscription));
+      recycleBuffer(buffer);
+    } else {
+      imageStreamSink.success(frame);
+      onFrameProcessed(subscription);
+    }
+  }
+
+  /** Called on the main thread once Dart is done with a frame. */
+  private void onFrameProcessed(int subscription) {
+    final Object nextFrame;
+    synchronized (lock) {
+      if (subscription != this.subscription) {
+        return;
+      }
+      framesInFlight--;
+      nextFrame = pendingFrame;
+      pendingFrame = null;
+      if (nextFrame != null) {
+        framesInFlight++;
+      }
+    }
+    if (nextFrame != null) {
+      deliverFrame(nextFrame, subscription);
+    }
+  }
+
+  private void resetLocked() {
+    // Replies and posted deliveries of the previous subscription are ignored from now on.
+    subscription++;
+    framesInFlight = 0;
+    if (pendingFrame != null) {
+      discardFrameLocked(pendingFrame);
+      pendingFrame = null;
+    }
+  }
+
+  private void discardFrameLocked(Object frame) {
+    if (frame instanceof ByteBuffer) {
+      recycleBufferLocked((ByteBuffer) frame);
+    }
+  }
+
+  private ByteBuffer packFrame(Image image, @Nullable ImageStreamProcessor processor) {
+    if (processor == null) {
+      final ByteBuffer buffer = obtainBuffer(getPackedSize(image));
+      packImage(image, captureProperties, buffer);
+      return buffer;
+    }
+    final int size = processor.getOutputSize();
+    final ByteBuffer buffer = obtainBuffer(HEADER_SIZE + PLANE_HEADER_SIZE + size);
+    putHeader(
+        buffer,
+        processor.getOutputFormat(),
+        processor.getOutputWidth(),
+        processor.getOutputHeight(),
+        1,
+        captureProperties);
+    buffer.putInt(processor.getRowStride());
+    buffer.putInt(processor.getPixelStride());
+    buffer.putInt(size);
+    processor.process(image, buffer);
+    return buffer;
+  }
+
+  private Map<String, Object> mapFrame(Image image, @Nullable ImageStreamProcessor processor) {
+    List<Map<String, Object>> planes = new ArrayList<>();
+    if (processor == null) {
+      for (Image.Plane plane : image.getPlanes()) {
+        ByteBuffer buffer = plane.getBuffer();
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes, 0, bytes.length);
+
+        Map<String, Object> planeBuffer = new HashMap<>();
+        planeBuffer.put("bytesPerRow", plane.getRowStride());
+        planeBuffer.put("bytesPerPixel", plane.getPixelStride());
+        planeBuffer.put("bytes", bytes);
+
+        planes.add(planeBuffer);
+      }
+    } else {
+      byte[] bytes = new byte[processor.getOutputSize()];
+      processor.process(image, ByteBuffer.wrap(bytes));
+
+      Map<String, Object> planeBuffer = new HashMap<>();
+      planeBuffer.put("bytesPerRow", processor.getRowStride());
+      planeBuffer.put("bytesPerPixel", processor.getPixelStride());
+      planeBuffer.put("bytes", bytes);
+
+      planes.add(planeBuffer);
+    }
+
+    Map<String, Object> imageBuffer = new HashMap<>();
+    imageBuffer.put("width", processor == null ? image.getWidth() : processor.getOutputWidth());
+    imageBuffer.put("height", processor == null ? image.getHeight() : processor.getOutputHeight());
+    imageBuffer.put("format", processor == null ? image.getFormat() : processor.getOutputFormat());
+    imageBuffer.put("planes", planes);
+    imageBuffer.put("lensAperture", captureProperties.getLastLensAperture());
+    imageBuffer.put("sensorExposureTime", captureProperties.getLastSensorExposureTime());
+    Integer sensorSensitivity = captureProperties.getLastSensorSensitivity();
+    imageBuffer.put(
+        "sensorSensitivity", sensorSensitivity == null ? null : (double) sensorSensitivity);
+    return imageBuffer;
+  }
+
+  /**
+   * Returns a cleared direct buffer of at least {@code size} bytes, reusing a pooled one if
+   * possible.
+   */
+  @VisibleForTesting
+  ByteBuffer obtainBuffer(int size) {
+    synchronized (lock) {
+      while (!bufferPool.isEmpty()) {
+        final ByteBuffer buffer = bufferPool.pop();
+        // Drop buffers sized for smaller frames; they are not coming back.
+        if (buffer.capacity() >= size) {
+          buffer.clear();
+          return buffer;
+        }
+      }
+    }
+    return ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @VisibleForTesting
+  void recycleBuffer(ByteBuffer buffer) {
+    synchronized (lock) {
+      recycleBufferLocked(buffer);
+    }
+  }
+
+  private void recycleBufferLocked(ByteBuffer buffer) {
+    if (bufferPool.size() < maxPooledBuffers) {
+      bufferPool.push(buffer);
+    }
+  }
+
+  /** Returns the number of bytes {@link #packImage} writes for {@code image}. */
+  @VisibleForTesting
+  static int getPackedSize(Image image) {
+    final Image.Plane[] planes = image.getPlanes();
+    int size = HEADER_SIZE + PLANE_HEADER_SIZE * planes.length;
+    for (Image.Plane plane : planes) {
+      size += plane.getBuffer().remaining();
+    }
+    return size;
+  }
+
+  /**
+   * Writes {@code image} to {@code buffer} in the packed layout. The buffer position is left at the
+   * end of the frame, which is where the engine expects it when the buffer is sent.
+   */
+  @VisibleForTesting
+  static void packImage(
+      Image image, CameraCaptureProperties captureProperties, ByteBuffer buffer) {
+    final Image.Plane[] planes = image.getPlanes();
+    putHeader(
+        buffer,
+        image.getFormat(),
+        image.getWidth(),
+        image.getHeight(),
+        planes.length,
+        captureProperties);
+    for (Image.Plane plane : planes) {
+      buffer.putInt(plane.getRowStride());
+      buffer.putInt(plane.getPixelStride());
+      buffer.putInt(plane.getBuffer().remaining());
+    }
+    for (Image.Plane plane : planes) {
+      // Bulk put between direct buffers is a single native copy.
+      buffer.put(plane.getBuffer());
+    }
+  }
+
+  private static void putHeader(
+      ByteBuffer buffer,
+      int format,
+      int width,
+      int height,
+      int planeCount,
+      CameraCaptureProperties captureProperties) {
+    final Float lensAperture = captureProperties.getLastLensAperture();
+    final Long sensorExposureTime = captureProperties.getLastSensorExposureTime();
+    final Integer sensorSensitivity = captureProperties.getLastSensorSensitivity();
+
+    buffer.putInt(format);
+    buffer.putInt(width);
+    buffer.putInt(height);
+    buffer.putInt(planeCount);
+    buffer.putDouble(lensAperture == null ? Double.NaN : lensAperture);
+    buffer.putLong(sensorExposureTime == null ? -1 : sensorExposureTime);
+    buffer.putDouble(sensorSensitivity == null ? Double.NaN : sensorSensitivity);
+  }
+}
@@ -0,0 +1,123 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Map;
+
+/** Settings of the video encoder, as passed by Dart to {@code setVideoEncoder}. */
+public class VideoEncoderSettings {
+
+  /** The video codec to encode with. */
+  public enum Codec {
+    h264(MediaFormat.MIMETYPE_VIDEO_AVC),
+    hevc(MediaFormat.MIMETYPE_VIDEO_HEVC);
+
+    private final String mimeType;
+
+    Codec(String mimeType) {
+      this.mimeType = mimeType;
+    }
+
+    @NonNull
+    static Codec getValueForString(@Nullable String name) {
+      for (Codec value : values()) {
+        if (value.name().equals(name)) {
+          return value;
+        }
+      }
+      return h264;
+    }
+  }
+
+  @NonNull private Codec codec = Codec.h264;
+  private int bitrate;
+  private int frameRate;
+  private int keyFrameInterval = 1;
+
+  /**
+   * Parses the arguments of a {@code setVideoEncoder} call. Missing arguments keep their defaults,
+   * which take the bitrate and frame rate of the recording profile of the resolution preset.
+   *
+   * @param arguments the method call arguments.
+   * @return the parsed settings.
+   */
+  @NonNull
+  public static VideoEncoderSettings fromArguments(@NonNull Map<?, ?> arguments) {
+    final VideoEncoderSettings settings = new VideoEncoderSettings();
+    settings.codec = Codec.getValueForString((String) arguments.get("codec"));
+    settings.bitrate = Math.max(0, getInt(arguments, "bitrate", 0));
+    settings.frameRate = Math.max(0, getInt(arguments, "frameRate", 0));
+    settings.keyFrameInterval = getInt(arguments, "keyFrameInterval", 1);
+    return settings;
+  }
+
+  private static int getInt(Map<?, ?> arguments, String key, int defaultValue) {
+    final Object value = arguments.get(key);
+    return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+  }
+
+  /**
+   * Gets the video codec.
+   *
+   * @return the codec.
+   */
+  @NonNull
+  public Codec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Gets the video bitrate, in bits per second.
+   *
+   * @return the bitrate, or 0 for the bitrate of the recording profile.
+   */
+  public int getBitrate() {
+    return bitrate;
+  }
+
+  /**
+   * Gets the frame rate the encoder is configured for.
+   *
+   * @return the frame rate, or 0 for the frame rate of the recording profile.
+   */
+  public int getFrameRate() {
+    return frameRate;
+  }
+
+  /**
+   * Gets the time between key frames, which bounds the size of a group of pictures.
+   *
+   * @return the interval in seconds, 0 for key frames only, or a negative value for a single key
+   *     frame at the start of the video.
+   */
+  public int getKeyFrameInterval() {
+    return keyFrameInterval;
+  }
+
+  /**
+   * Creates the format to configure a video encoder reading from a surface with.
+   *
+   * @param width the width of the video.
+   * @param height the height of the video.
+   * @param defaultFrameRate the frame rate used if none was set.
+   * @param defaultBitrate the bitrate used if none was set.
+   * @return the format of the encoder.
+   */
+  @NonNull
+  public MediaFormat createMediaFormat(
+      int width, int height, int defaultFrameRate, int defaultBitrate) {
+    final MediaFormat format = MediaFormat.createVideoFormat(codec.mimeType, width, height);
+    format.setInteger(
+        MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatSurface);
+    format.setInteger(MediaFormat.KEY_BIT_RATE, bitrate > 0 ? bitrate : defaultBitrate);
+    format.setInteger(MediaFormat.KEY_FRAME_RATE, frameRate > 0 ? frameRate : defaultFrameRate);
+    format.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, keyFrameInterval);
+    return format;
+  }
+}
@@ -0,0 +1,185 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import android.media.ImageReader;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import io.flutter.plugins.camera.types.CameraCaptureProperties;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the most recent full resolution frames of the preview, with the capture properties they
+ * were taken with, so pictures can be served without waiting for a new capture.
+ *
+ * <p>The camera renders every preview frame to the ring's {@link ImageReader} as well. The oldest
+ * frame is released when a new one arrives and the ring is full. A frame taken from the ring
+ * belongs to the caller, who must close it.
+ *
+ * <p>All methods except the constructor and {@link #getSurface} must be called on the camera
+ * background thread.
+ */
+public class ZslRingBuffer implements ImageReader.OnImageAvailableListener {
+
+  /** Receives a frame taken from the ring. */
+  public interface FrameCallback {
+    /**
+     * Called with the frame closest to the requested time.
+     *
+     * @param image the frame, which the callback must close.
+     * @param properties the capture properties of the frame.
+     */
+    void onFrame(@NonNull Image image, @NonNull CameraCaptureProperties properties);
+
+    /** Called instead of {@link #onFrame} if the ring was closed before any frame arrived. */
+    void onClosed();
+  }
+
+  /**
+   * The number of images the reader should hold for a ring of {@code capacity} frames, leaving
+   * room for frames that were taken and are still being encoded.
+   */
+  public static int getMaxImages(int capacity) {
+    return capacity + 2;
+  }
+
+  private final ImageReader imageReader;
+  private final int capacity;
+  private final ArrayDeque<Image> frames = new ArrayDeque<>();
+  private final List<FrameCallback> pendingCallbacks = new ArrayList<>();
+  // Capture properties by sensor timestamp, for frames that are or will be in the ring.
+  private final Map<Long, CameraCaptureProperties> properties;
+  private boolean closed;
+
+  /**
+   * Creates a new ring.
+   *
+   * @param imageReader the reader the camera renders frames to, holding at least {@link
+   *     #getMaxImages} images.
+   * @param capacity the number of frames to keep.
+   */
+  public ZslRingBuffer(@NonNull ImageReader imageReader, int capacity) {
+    this.imageReader = imageReader;
+    this.capacity = capacity;
+    final int maxResults = imageReader.getMaxImages() * 2;
+    this.properties =
+        new LinkedHashMap<Long, CameraCaptureProperties>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, CameraCaptureProperties> eldest) {
+            return size() > maxResults;
+          }
+        };
+  }
+
+  /** Returns the surface the camera should render frames to. */
+  @NonNull
+  public Surface getSurface() {
+    return imageReader.getSurface();
+  }
+
+  @Override
+  public void onImageAvailable(ImageReader reader) {
+    while (true) {
+      final Image image;
+      try {
+        image = reader.acquireNextImage();
+      } catch (IllegalStateException e) {
+        // Taken frames are still being encoded, so give up the oldest frame of the ring instead.
+        if (frames.isEmpty()) {
+          return;
+        }
+        frames.removeFirst().close();
+        continue;
+      }
+      if (image == null) {
+        return;
+      }
+
+      if (!pendingCallbacks.isEmpty()) {
+        // A picture was requested before the ring had any frame.
+        final FrameCallback callback = pendingCallbacks.remove(0);
+        callback.onFrame(image, getProperties(image));
+        continue;
+      }
+      frames.addLast(image);
+      while (frames.size() > capacity) {
+        frames.removeFirst().close();
+      }
+    }
+  }
+
+  /**
+   * Records the capture properties of a completed capture, so they can be handed out with its
+   * frame.
+   *
+   * @param result the capture result.
+   */
+  public void onCaptureResult(@NonNull TotalCaptureResult result) {
+    final Long timestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+    if (timestamp == null) {
+      return;
+    }
+    final CameraCaptureProperties captureProperties = new CameraCaptureProperties();
+    captureProperties.setLastLensAperture(result.get(CaptureResult.LENS_APERTURE));
+    captureProperties.setLastSensorExposureTime(result.get(CaptureResult.SENSOR_EXPOSURE_TIME));
+    captureProperties.setLastSensorSensitivity(result.get(CaptureResult.SENSOR_SENSITIVITY));
+    properties.put(timestamp, captureProperties);
+  }
+
+  /**
+   * Takes the frame whose sensor timestamp is closest to {@code timestamp} out of the ring. If
+   * the ring is empty, the next frame is taken instead. If the ring is closed, {@link
+   * FrameCallback#onClosed} is called.
+   *
+   * @param timestamp the time to take the frame at, in the time base of sensor timestamps.
+   * @param callback receives the frame.
+   */
+  public void takeFrame(long timestamp, @NonNull FrameCallback callback) {
+    if (closed) {
+      callback.onClosed();
+      return;
+    }
+    Image closest = null;
+    for (Image frame : frames) {
+      if (closest == null
+          || Math.abs(frame.getTimestamp() - timestamp)
+              < Math.abs(closest.getTimestamp() - timestamp)) {
+        closest = frame;
+      }
+    }
+    if (closest == null) {
+      pendingCallbacks.add(callback);
+      return;
+    }
+    frames.remove(closest);
+    callback.onFrame(closest, getProperties(closest));
+  }
+
+  private CameraCaptureProperties getProperties(Image image) {
+    final CameraCaptureProperties captureProperties = properties.get(image.getTimestamp());
+    return captureProperties != null ? captureProperties : new CameraCaptureProperties();
+  }
+
+  /** Releases every frame of the ring and the underlying image reader. */
+  public void close() {
+    closed = true;
+    for (Image frame : frames) {
+      frame.close();
+    }
+    frames.clear();
+    for (FrameCallback callback : pendingCallbacks) {
+      callback.onClosed();
+    }
+    pendingCallbacks.clear();
+    imageReader.close();
+  }
+}
@@ -0,0 +1,211 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+import io.flutter.plugin.common.EventChannel;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+public class BurstCaptureTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private MockedStatic<ImageSaver.FileOutputStreamFactory> mockFileOutputStreamFactory;
+  private Handler mockHandler;
+  private EventChannel.EventSink mockSink;
+  private BurstCapture.Listener mockListener;
+  private ImageReader mockImageReader;
+
+  @Before
+  public void before() throws IOException {
+    FileOutputStream mockFileOutputStream = mock(FileOutputStream.class);
+    when(mockFileOutputStream.getChannel()).thenReturn(mock(FileChannel.class));
+    mockFileOutputStreamFactory = mockStatic(ImageSaver.FileOutputStreamFactory.class);
+    mockFileOutputStreamFactory
+        .when(() -> ImageSaver.FileOutputStreamFactory.create(any()))
+        .thenReturn(mockFileOutputStream);
+
+    // Runs posted tasks right away, standing in for both the main and the background thread.
+    mockHandler = mock(Handler.class);
+    when(mockHandler.post(any()))
+        .thenAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return true;
+            });
+    mockSink = mock(EventChannel.EventSink.class);
+    mockListener = mock(BurstCapture.Listener.class);
+    mockImageReader = mock(ImageReader.class);
+  }
+
+  @After
+  public void after() {
+    mockFileOutputStreamFactory.close();
+  }
+
+  @Test
+  public void onImageAvailable_sendsEveryPictureAndEndsAfterCount() {
+    Image first = mockImage(1000000);
+    Image second = mockImage(101000000);
+    when(mockImageReader.acquireNextImage()).thenReturn(first, second, null);
+    BurstCapture burst = createBurst(2);
+
+    burst.onImageAvailable(mockImageReader);
+
+    ArgumentCaptor<Object> shotCaptor = ArgumentCaptor.forClass(Object.class);
+    verify(mockSink, times(2)).success(shotCaptor.capture());
+    List<Object> shots = shotCaptor.getAllValues();
+    Map<?, ?> firstShot = (Map<?, ?>) shots.get(0);
+    Map<?, ?> secondShot = (Map<?, ?>) shots.get(1);
+    assertEquals(0, firstShot.get("index"));
+    assertEquals(0L, firstShot.get("interval"));
+    assertEquals(1, secondShot.get("index"));
+    assertEquals(101000000L, secondShot.get("timestamp"));
+    assertEquals(100000L, secondShot.get("interval"));
+    verify(first, times(1)).close();
+    verify(second, times(1)).close();
+    verify(mockListener, times(1)).onBurstFinished();
+    verify(mockSink, times(1)).endOfStream();
+  }
+
+  @Test
+  public void onImageAvailable_waitsWhileEveryImageIsInUse() {
+    when(mockImageReader.acquireNextImage())
+        .thenThrow(new IllegalStateException("maxImages (3) has already been acquired"));
+    BurstCapture burst = createBurst(1);
+
+    burst.onImageAvailable(mockImageReader);
+
+    verify(mockSink, never()).success(any());
+    verify(mockSink, never()).endOfStream();
+  }
+
+  @Test
+  public void onImageAvailable_savesBurstLargerThanMaxImages() {
+    final int maxImages = 2;
+    final int count = 5;
+    // Hands out images like a reader with maxImages images, which are all queued up front.
+    final Queue<Image> queued = new ArrayDeque<>();
+    final int[] acquired = {0};
+    for (int i = 0; i < count; i++) {
+      Image image = mockImage(1000000L * (i + 1));
+      doAnswer(
+              invocation -> {
+                acquired[0]--;
+                return null;
+              })
+          .when(image)
+          .close();
+      queued.add(image);
+    }
+    when(mockImageReader.acquireNextImage())
+        .thenAnswer(
+            invocation -> {
+              if (acquired[0] >= maxImages) {
+                throw new IllegalStateException("maxImages (2) has already been acquired");
+              }
+              Image image = queued.poll();
+              if (image != null) {
+                acquired[0]++;
+              }
+              return image;
+            });
+    // Saves pictures only when the test runs them, like the image saver thread.
+    final Queue<Runnable> saves = new ArrayDeque<>();
+    BurstCapture burst =
+        new BurstCapture(
+            count,
+            temporaryFolder.getRoot(),
+            saves::add,
+            mockHandler,
+            mockHandler,
+            mockSink,
+            mockListener);
+
+    // The reader only reports its images once, when they arrive.
+    burst.onImageAvailable(mockImageReader);
+    while (!saves.isEmpty()) {
+      saves.poll().run();
+    }
+
+    verify(mockSink, times(count)).success(any());
+    verify(mockListener, times(1)).onBurstFinished();
+    verify(mockSink, times(1)).endOfStream();
+  }
+
+  @Test
+  public void onCaptureFailed_countsTowardsCount() {
+    Image image = mockImage(1000000);
+    when(mockImageReader.acquireNextImage()).thenReturn(image, (Image) null);
+    BurstCapture burst = createBurst(2);
+
+    burst.onImageAvailable(mockImageReader);
+    burst.onCaptureFailed();
+
+    verify(mockSink, times(1)).success(any());
+    verify(mockListener, times(1)).onBurstFinished();
+    verify(mockSink, times(1)).endOfStream();
+  }
+
+  @Test
+  public void stop_endsContinuousBurstAndDropsLaterPictures() {
+    BurstCapture burst = createBurst(0);
+    burst.stop();
+
+    Image late = mockImage(1000000);
+    when(mockImageReader.acquireNextImage()).thenReturn(late, (Image) null);
+    burst.onImageAvailable(mockImageReader);
+
+    verify(late, times(1)).close();
+    verify(mockSink, never()).success(any());
+    verify(mockListener, times(1)).onBurstFinished();
+    verify(mockSink, times(1)).endOfStream();
+  }
+
+  private BurstCapture createBurst(int count) {
+    return new BurstCapture(
+        count,
+        temporaryFolder.getRoot(),
+        Runnable::run,
+        mockHandler,
+        mockHandler,
+        mockSink,
+        mockListener);
+  }
+
+  private static Image mockImage(long timestamp) {
+    Image image = mock(Image.class);
+    Image.Plane plane = mock(Image.Plane.class);
+    when(plane.getBuffer()).thenReturn(ByteBuffer.allocate(0));
+    when(image.getPlanes()).thenReturn(new Image.Plane[] {plane});
+    when(image.getTimestamp()).thenReturn(timestamp);
+    return image;
+  }
+}
@@ -69,4 +69,18 @@ public class CameraCaptureCallbackTest {
     verify(mockCaptureProps, times(1)).setLastSensorExposureTime(2L);
     verify(mockCaptureProps, times(1)).setLastSensorSensitivity(3);
   }
+
+  @Test
+  public void onCaptureCompleted_notifiesCaptureResultListener() {
+    CameraCaptureSession mockSession = mock(CameraCaptureSession.class);
+    CaptureRequest mockRequest = mock(CaptureRequest.class);
+    TotalCaptureResult mockResult = mock(TotalCaptureResult.class);
+    CameraCaptureCallback.CaptureResultListener mockListener =
+        mock(CameraCaptureCallback.CaptureResultListener.class);
+    cameraCaptureCallback.setCaptureResultListener(mockListener);
+
+    cameraCaptureCallback.onCaptureCompleted(mockSession, mockRequest, mockResult);
+
+    verify(mockListener, times(1)).onCaptureResult(mockResult);
+  }
 }
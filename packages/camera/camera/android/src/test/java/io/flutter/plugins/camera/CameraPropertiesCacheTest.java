@@ -0,0 +1,40 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import org.junit.Test;
+
+public class CameraPropertiesCacheTest {
+  @Test
+  public void get_shouldFetchCharacteristicsOncePerCamera() throws CameraAccessException {
+    CameraManager mockCameraManager = mock(CameraManager.class);
+    when(mockCameraManager.getCameraCharacteristics("0"))
+        .thenReturn(mock(CameraCharacteristics.class));
+    when(mockCameraManager.getCameraCharacteristics("1"))
+        .thenReturn(mock(CameraCharacteristics.class));
+    CameraPropertiesCache cache = new CameraPropertiesCache();
+
+    CameraProperties first = cache.get("0", mockCameraManager);
+    CameraProperties again = cache.get("0", mockCameraManager);
+    CameraProperties other = cache.get("1", mockCameraManager);
+
+    assertSame(first, again);
+    assertNotSame(first, other);
+    assertEquals("1", other.getCameraName());
+    verify(mockCameraManager, times(1)).getCameraCharacteristics("0");
+    verify(mockCameraManager, times(1)).getCameraCharacteristics("1");
+  }
+}
@@ -17,6 +17,7 @@ import android.graphics.Rect;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.params.StreamConfigurationMap;
 import android.util.Range;
 import android.util.Rational;
 import android.util.Size;
@@ -239,6 +240,18 @@ public class CameraPropertiesImplTest {
     assertEquals(actualArraySize, expectedArraySize);
   }
 
+  @Test
+  public void getSensorInfoTimestampSourceTest() {
+    int expectedSource = CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME;
+    when(mockCharacteristics.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE))
+        .thenReturn(expectedSource);
+
+    int actualSource = cameraProperties.getSensorInfoTimestampSource();
+
+    verify(mockCharacteristics, times(1)).get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE);
+    assertEquals(actualSource, expectedSource);
+  }
+
   @Test
   public void getSensorOrientationTest() {
     int expectedOrientation = 42;
@@ -276,4 +289,34 @@ public class CameraPropertiesImplTest {
         .get(CameraCharacteristics.NOISE_REDUCTION_AVAILABLE_NOISE_REDUCTION_MODES);
     assertEquals(actualReductionModes, expectedReductionModes);
   }
+
+  @Test
+  public void getOutputSizesTest() {
+    StreamConfigurationMap mockMap = mock(StreamConfigurationMap.class);
+    Size[] expectedSizes = new Size[] {mock(Size.class), mock(Size.class)};
+    when(mockCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP))
+        .thenReturn(mockMap);
+    when(mockMap.getOutputSizes(35)).thenReturn(expectedSizes);
+
+    Size[] actualSizes = cameraProperties.getOutputSizes(35);
+
+    verify(mockCharacteristics, times(1))
+        .get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+    assertArrayEquals(expectedSizes, actualSizes);
+  }
+
+  @Test
+  public void getOutputSizes_shouldQueryEachFormatOnce() {
+    StreamConfigurationMap mockMap = mock(StreamConfigurationMap.class);
+    Size[] expectedSizes = new Size[] {mock(Size.class)};
+    when(mockCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP))
+        .thenReturn(mockMap);
+    when(mockMap.getOutputSizes(35)).thenReturn(expectedSizes);
+
+    cameraProperties.getOutputSizes(35);
+    Size[] actualSizes = cameraProperties.getOutputSizes(35);
+
+    verify(mockMap, times(1)).getOutputSizes(35);
+    assertArrayEquals(expectedSizes, actualSizes);
+  }
 }
@@ -0,0 +1,97 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CameraStatsTest {
+  private static final long SECOND = 1000000000L;
+
+  private CameraStats cameraStats;
+
+  @Before
+  public void before() {
+    cameraStats = new CameraStats();
+    cameraStats.reset(0);
+  }
+
+  @Test
+  public void collect_aggregatesPreviewFrames() {
+    for (int i = 0; i < 30; i++) {
+      cameraStats.onPreviewFrame(i < 29 ? 10000000L : 40000000L);
+    }
+
+    Map<String, Object> stats = cameraStats.collect(SECOND, null);
+
+    assertEquals(1000000L, stats.get("period"));
+    assertEquals(30L, stats.get("previewFrames"));
+    assertEquals(30.0, (double) stats.get("previewFrameRate"), 0.001);
+    Map<?, ?> sensorLatency = (Map<?, ?>) stats.get("sensorLatency");
+    assertEquals(30L, sensorLatency.get("count"));
+    assertEquals(11000L, sensorLatency.get("average"));
+    assertEquals(40000L, sensorLatency.get("max"));
+  }
+
+  @Test
+  public void collect_startsNewPeriod() {
+    cameraStats.onPreviewFrame(10000000L);
+    cameraStats.onPictureSaved(20000000L);
+    cameraStats.collect(SECOND, null);
+
+    Map<String, Object> stats = cameraStats.collect(2 * SECOND, null);
+
+    assertEquals(0L, stats.get("previewFrames"));
+    assertEquals(0L, ((Map<?, ?>) stats.get("sensorLatency")).get("count"));
+    assertEquals(0L, ((Map<?, ?>) stats.get("pictureSave")).get("count"));
+  }
+
+  @Test
+  public void collect_measuresFocusAndPrecapture() {
+    cameraStats.onFocusStarted(100);
+    cameraStats.onFocusDone(300100);
+    cameraStats.onPrecaptureStarted(400000);
+    cameraStats.onPrecaptureDone(600000);
+    // Convergence without a matching start is ignored.
+    cameraStats.onPrecaptureDone(900000);
+
+    Map<String, Object> stats = cameraStats.collect(SECOND, null);
+
+    Map<?, ?> focus = (Map<?, ?>) stats.get("focus");
+    Map<?, ?> precapture = (Map<?, ?>) stats.get("precapture");
+    assertEquals(1L, focus.get("count"));
+    assertEquals(300L, focus.get("max"));
+    assertEquals(1L, precapture.get("count"));
+    assertEquals(200L, precapture.get("average"));
+  }
+
+  @Test
+  public void collect_reportsStreamCountersOfThePeriod() {
+    cameraStats.collect(SECOND, streamStats(30, 20, 10));
+
+    Map<String, Object> stats = cameraStats.collect(2 * SECOND, streamStats(45, 30, 15));
+    assertEquals(15L, stats.get("streamAcquired"));
+    assertEquals(10L, stats.get("streamDelivered"));
+    assertEquals(5L, stats.get("streamDropped"));
+
+    // A restarted stream counts from zero again.
+    stats = cameraStats.collect(3 * SECOND, streamStats(6, 6, 0));
+    assertEquals(6L, stats.get("streamAcquired"));
+    assertEquals(6L, stats.get("streamDelivered"));
+    assertEquals(0L, stats.get("streamDropped"));
+  }
+
+  private static Map<String, Object> streamStats(long acquired, long delivered, long dropped) {
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("acquired", acquired);
+    stats.put("delivered", delivered);
+    stats.put("dropped", dropped);
+    return stats;
+  }
+}
@@ -7,9 +7,12 @@ package io.flutter.plugins.camera;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
@@ -22,6 +25,9 @@ import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
 import android.hardware.camera2.CameraMetadata;
 import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.ImageReader;
 import android.media.MediaRecorder;
 import android.os.Build;
 import android.os.Handler;
@@ -50,9 +56,12 @@ import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFea
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
 import io.flutter.plugins.camera.utils.TestUtils;
 import io.flutter.view.TextureRegistry;
+import java.io.File;
+import java.io.IOException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.MockedStatic;
 
 public class CameraTest {
@@ -785,6 +794,62 @@ public class CameraTest {
     verify(mockDartMessenger, times(1)).sendCameraErrorEvent(any());
   }
 
+  @Test
+  public void resumePreview_shouldTagOnlyTheRepeatingRequest() {
+    camera.resumePreview();
+
+    InOrder inOrder = inOrder(mockPreviewRequestBuilder);
+    inOrder.verify(mockPreviewRequestBuilder).setTag(Camera.PREVIEW_REQUEST_TAG);
+    inOrder.verify(mockPreviewRequestBuilder).build();
+    inOrder.verify(mockPreviewRequestBuilder).setTag(null);
+  }
+
+  @Test
+  public void onCaptureResult_shouldOnlyCountPreviewRequestsAsPreviewFrames() {
+    CameraStats mockCameraStats = mock(CameraStats.class);
+    TestUtils.setPrivateField(camera, "cameraStats", mockCameraStats);
+    TestUtils.setPrivateField(camera, "statsReporter", mock(Runnable.class));
+    CameraCaptureCallback.CaptureResultListener listener =
+        (CameraCaptureCallback.CaptureResultListener)
+            TestUtils.getPrivateField(
+                TestUtils.getPrivateField(camera, "cameraCaptureCallback"),
+                "captureResultListener");
+
+    listener.onCaptureResult(mockResult(Camera.PREVIEW_REQUEST_TAG));
+    listener.onCaptureResult(mockResult(null));
+
+    verify(mockCameraStats, times(1)).onPreviewFrame(anyLong());
+  }
+
+  @Test
+  public void prepareForVideoRecording_shouldNotReconfigureLegacyDevices() {
+    TestUtils.setPrivateField(camera, "pictureImageReader", mock(ImageReader.class));
+    when(mockCameraProperties.getHardwareLevel())
+        .thenReturn(CameraMetadata.INFO_SUPPORTED_HARDWARE_LEVEL_LEGACY);
+    MethodChannel.Result mockResult = mock(MethodChannel.Result.class);
+
+    camera.prepareForVideoRecording(mockResult);
+
+    verify(mockResult, times(1)).success(null);
+    assertEquals(false, TestUtils.getPrivateField(camera, "recordingPrepared"));
+    assertNull(TestUtils.getPrivateField(camera, "captureFile"));
+  }
+
+  @Test
+  public void close_shouldDeleteTheFileOfAPreparedRecording() throws IOException {
+    File preparedFile = File.createTempFile("REC", ".mp4");
+    MediaRecorder mockMediaRecorder = mock(MediaRecorder.class);
+    TestUtils.setPrivateField(camera, "mediaRecorder", mockMediaRecorder);
+    TestUtils.setPrivateField(camera, "captureFile", preparedFile);
+    TestUtils.setPrivateField(camera, "recordingPrepared", true);
+
+    camera.close();
+
+    assertFalse(preparedFile.exists());
+    assertEquals(false, TestUtils.getPrivateField(camera, "recordingPrepared"));
+    verify(mockMediaRecorder, times(1)).release();
+  }
+
   @Test
   public void startBackgroundThread_shouldStartNewThread() {
     camera.startBackgroundThread();
@@ -801,6 +866,15 @@ public class CameraTest {
     verify(mockHandlerThread, times(1)).start();
   }
 
+  private static TotalCaptureResult mockResult(Object requestTag) {
+    CaptureRequest mockRequest = mock(CaptureRequest.class);
+    when(mockRequest.getTag()).thenReturn(requestTag);
+    TotalCaptureResult mockResult = mock(TotalCaptureResult.class);
+    when(mockResult.getRequest()).thenReturn(mockRequest);
+    when(mockResult.get(CaptureResult.SENSOR_TIMESTAMP)).thenReturn(1000L);
+    return mockResult;
+  }
+
   private static class TestCameraFeatureFactory implements CameraFeatureFactory {
     private final AutoFocusFeature mockAutoFocusFeature;
     private final ExposureLockFeature mockExposureLockFeature;
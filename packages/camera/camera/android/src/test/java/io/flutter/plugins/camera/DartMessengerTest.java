@@ -9,18 +9,24 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import android.os.Handler;
 import androidx.annotation.NonNull;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
 import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.StandardMethodCodec;
 import io.flutter.plugins.camera.features.autofocus.FocusMode;
 import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -114,6 +120,24 @@ public class DartMessengerTest {
     assertEquals(call.argument("orientation"), "portraitUp");
   }
 
+  @Test
+  public void sendCameraStatsEvent_sendsToStatsSink() {
+    doAnswer(createPostHandlerAnswer()).when(mockHandler).post(any(Runnable.class));
+    EventChannel.EventSink mockSink = mock(EventChannel.EventSink.class);
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("previewFrames", 30L);
+
+    dartMessenger.sendCameraStatsEvent(stats);
+    dartMessenger.setStatsSink(mockSink);
+    dartMessenger.sendCameraStatsEvent(stats);
+    dartMessenger.setStatsSink(null);
+    dartMessenger.sendCameraStatsEvent(stats);
+
+    verify(mockSink, times(1)).success(stats);
+    verify(mockSink, never()).endOfStream();
+    assertEquals(0, fakeBinaryMessenger.getMessages().size());
+  }
+
   private static Answer<Boolean> createPostHandlerAnswer() {
     return new Answer<Boolean>() {
       @Override
@@ -35,7 +35,8 @@ public class MethodCallHandlerImplTest {
             mock(BinaryMessenger.class),
             mock(CameraPermissions.class),
             mock(CameraPermissions.PermissionsRegistry.class),
-            mock(TextureRegistry.class));
+            mock(TextureRegistry.class),
+            new CameraPropertiesCache());
     mockResult = mock(MethodChannel.Result.class);
     mockCamera = mock(Camera.class);
     TestUtils.setPrivateField(handler, "camera", mockCamera);
@@ -74,4 +75,11 @@ public class MethodCallHandlerImplTest {
     verify(mockCamera, times(1)).resumePreview();
     verify(mockResult, times(1)).success(null);
   }
+
+  @Test
+  public void onMethodCall_prepareForVideoRecording_shouldPrepareCamera() {
+    handler.onMethodCall(new MethodCall("prepareForVideoRecording", null), mockResult);
+
+    verify(mockCamera, times(1)).prepareForVideoRecording(mockResult);
+  }
 }
@@ -0,0 +1,197 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.media.MediaCodec;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.view.Surface;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedConstruction;
+import org.mockito.MockedStatic;
+
+public class CodecRecorderTest {
+  private MockedStatic<MediaCodec> mockMediaCodec;
+  private MockedConstruction<MediaMuxer> mockMuxers;
+  private MediaCodec firstCodec;
+  private MediaCodec secondCodec;
+  private Surface mockSurface;
+  private ExecutorService mockCleanupExecutor;
+  // Tasks sent to the cleanup executor, run by the tests once the codec callback returned.
+  private final List<Runnable> cleanupTasks = new ArrayList<>();
+  private CodecRecorder.Listener mockListener;
+  private CodecRecorder recorder;
+
+  @Before
+  public void setup() throws IOException {
+    firstCodec = mockCodec();
+    secondCodec = mockCodec();
+    mockSurface = mock(Surface.class);
+    mockMediaCodec = mockStatic(MediaCodec.class);
+    mockMediaCodec.when(MediaCodec::createPersistentInputSurface).thenReturn(mockSurface);
+    mockMediaCodec
+        .when(() -> MediaCodec.createEncoderByType(any()))
+        .thenReturn(firstCodec, secondCodec);
+    mockMuxers = mockConstruction(MediaMuxer.class);
+
+    mockCleanupExecutor = mock(ExecutorService.class);
+    doAnswer(invocation -> cleanupTasks.add(invocation.getArgument(0)))
+        .when(mockCleanupExecutor)
+        .execute(any());
+    mockListener = mock(CodecRecorder.Listener.class);
+    recorder = new CodecRecorder(mock(MediaFormat.class), null, false, mockCleanupExecutor);
+  }
+
+  @After
+  public void teardown() {
+    mockMuxers.close();
+    mockMediaCodec.close();
+  }
+
+  @Test
+  public void startAndStop_writesFramesBetweenTimestampsAndPreparesNextEncoder()
+      throws IOException {
+    MediaCodec.Callback callback = startRecording(1000000L);
+
+    callback.onOutputBufferAvailable(firstCodec, 0, frame(500, MediaCodec.BUFFER_FLAG_KEY_FRAME));
+    callback.onOutputBufferAvailable(firstCodec, 1, frame(2000, MediaCodec.BUFFER_FLAG_KEY_FRAME));
+    recorder.stop(3000000L);
+    callback.onOutputBufferAvailable(firstCodec, 2, frame(4000, 0));
+    callback.onOutputBufferAvailable(firstCodec, 3, endOfStream());
+
+    MediaMuxer muxer = mockMuxers.constructed().get(0);
+    verify(muxer, times(1)).start();
+    verify(muxer, times(1)).writeSampleData(anyInt(), any(), any());
+    verify(firstCodec, times(1)).signalEndOfInputStream();
+    verify(mockListener, times(1)).onInputEnded();
+    verify(muxer, times(1)).stop();
+
+    // Nothing is released from the codec callback.
+    verify(firstCodec, never()).release();
+    verify(muxer, never()).release();
+    verify(mockListener, never()).onFinished(any(), anyLong(), anyLong(), anyInt());
+
+    runCleanupTasks();
+
+    verify(firstCodec, times(1)).release();
+    verify(muxer, times(1)).release();
+    verify(secondCodec, times(1)).setInputSurface(mockSurface);
+    verify(mockListener, times(1)).onFinished("out.mp4", 2000000L, 2000000L, 1);
+  }
+
+  @Test
+  public void stop_ignoresLaterCalls() throws IOException {
+    MediaCodec.Callback callback = startRecording(0);
+
+    callback.onOutputBufferAvailable(firstCodec, 0, frame(1000, MediaCodec.BUFFER_FLAG_KEY_FRAME));
+    recorder.stop(2000000L);
+    recorder.stop(5000000L);
+    callback.onOutputBufferAvailable(firstCodec, 1, frame(3000, 0));
+    callback.onOutputBufferAvailable(firstCodec, 2, endOfStream());
+    runCleanupTasks();
+    recorder.stop(6000000L);
+
+    verify(firstCodec, times(1)).signalEndOfInputStream();
+    verify(mockListener, times(1)).onInputEnded();
+    verify(mockListener, times(1)).onFinished("out.mp4", 1000000L, 1000000L, 1);
+    verify(mockListener, never()).onError(any());
+  }
+
+  @Test
+  public void onError_failsRecordingAndReleasesEncoderOffCallbackThread() throws IOException {
+    MediaCodec.Callback callback = startRecording(0);
+
+    callback.onError(firstCodec, mock(MediaCodec.CodecException.class));
+
+    verify(firstCodec, never()).release();
+    verify(mockListener, never()).onError(any());
+
+    runCleanupTasks();
+
+    verify(firstCodec, times(1)).release();
+    verify(mockMuxers.constructed().get(0), times(1)).release();
+    verify(secondCodec, times(1)).setInputSurface(mockSurface);
+    verify(mockListener, times(1)).onError("The video encoder failed.");
+
+    // Later output of the failed encoder is ignored.
+    callback.onOutputBufferAvailable(firstCodec, 0, endOfStream());
+    verify(mockListener, never()).onFinished(any(), anyLong(), anyLong(), anyInt());
+  }
+
+  @Test
+  public void release_doesNotPrepareEncoderAfterPendingCleanup() throws IOException {
+    MediaCodec.Callback callback = startRecording(0);
+    callback.onError(firstCodec, mock(MediaCodec.CodecException.class));
+
+    recorder.release();
+    runCleanupTasks();
+
+    verify(firstCodec, times(1)).release();
+    verify(mockSurface, times(1)).release();
+    verify(mockCleanupExecutor, times(1)).shutdown();
+    mockMediaCodec.verify(() -> MediaCodec.createEncoderByType(any()), times(1));
+  }
+
+  private MediaCodec.Callback startRecording(long startTimestamp) throws IOException {
+    recorder.start("out.mp4", 0, startTimestamp, mockListener);
+    ArgumentCaptor<MediaCodec.Callback> callbackCaptor =
+        ArgumentCaptor.forClass(MediaCodec.Callback.class);
+    verify(firstCodec).setCallback(callbackCaptor.capture(), any());
+    MediaCodec.Callback callback = callbackCaptor.getValue();
+    callback.onOutputFormatChanged(firstCodec, mock(MediaFormat.class));
+    return callback;
+  }
+
+  private void runCleanupTasks() {
+    List<Runnable> tasks = new ArrayList<>(cleanupTasks);
+    cleanupTasks.clear();
+    for (Runnable task : tasks) {
+      task.run();
+    }
+    assertEquals(0, cleanupTasks.size());
+  }
+
+  private static MediaCodec mockCodec() {
+    MediaCodec codec = mock(MediaCodec.class);
+    when(codec.getOutputBuffer(anyInt())).thenAnswer(invocation -> ByteBuffer.allocate(4));
+    return codec;
+  }
+
+  private static MediaCodec.BufferInfo frame(long presentationTimeUs, int flags) {
+    MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    info.offset = 0;
+    info.size = 4;
+    info.presentationTimeUs = presentationTimeUs;
+    info.flags = flags;
+    return info;
+  }
+
+  private static MediaCodec.BufferInfo endOfStream() {
+    MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    info.flags = MediaCodec.BUFFER_FLAG_END_OF_STREAM;
+    return info;
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.util.Size;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class ImageStreamOptionsTest {
+  private final Size previewSize = mockSize(1920, 1080);
+
+  @Test
+  public void fromArguments_defaultsToPreviewConfiguration() {
+    ImageStreamOptions options = ImageStreamOptions.fromArguments(null);
+
+    assertNull(options.getImageFormatGroup());
+    assertEquals(1, options.getMaxImages());
+    assertSame(previewSize, options.resolveSize(new Size[] {mockSize(640, 480)}, previewSize));
+  }
+
+  @Test
+  public void fromArguments_parsesStreamConfiguration() {
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("imageFormatGroup", "jpeg");
+    arguments.put("maxImages", 3);
+
+    ImageStreamOptions options = ImageStreamOptions.fromArguments(arguments);
+
+    assertEquals("jpeg", options.getImageFormatGroup());
+    assertEquals(3, options.getMaxImages());
+  }
+
+  @Test
+  public void resolveSize_picksSmallestCoveringSize() {
+    Size small = mockSize(320, 240);
+    Size medium = mockSize(640, 480);
+    Size large = mockSize(1280, 720);
+    ImageStreamOptions options = createOptionsWithSize(600, 400);
+
+    assertSame(medium, options.resolveSize(new Size[] {large, small, medium}, previewSize));
+  }
+
+  @Test
+  public void resolveSize_picksLargestSizeWhenNoneCovers() {
+    Size small = mockSize(320, 240);
+    Size medium = mockSize(640, 480);
+    ImageStreamOptions options = createOptionsWithSize(4000, 3000);
+
+    assertSame(medium, options.resolveSize(new Size[] {small, medium}, previewSize));
+  }
+
+  @Test
+  public void resolveSize_fallsBackToPreviewSizeWithoutSupportedSizes() {
+    ImageStreamOptions options = createOptionsWithSize(640, 480);
+
+    assertSame(previewSize, options.resolveSize(null, previewSize));
+  }
+
+  private static ImageStreamOptions createOptionsWithSize(int width, int height) {
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("width", width);
+    arguments.put("height", height);
+    return ImageStreamOptions.fromArguments(arguments);
+  }
+
+  private static Size mockSize(int width, int height) {
+    Size size = mock(Size.class);
+    when(size.getWidth()).thenReturn(width);
+    when(size.getHeight()).thenReturn(height);
+    return size;
+  }
+}
@@ -0,0 +1,158 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.media.Image;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class ImageStreamProcessorTest {
+  private static final byte CHROMA_U = 10;
+  private static final byte CHROMA_V = 20;
+
+  @Test
+  public void gray_rotatesClockwise() {
+    ImageStreamProcessor processor = createProcessor("format", "gray", "rotate", true);
+    Image image = mockYuvImage(3, 2, new byte[] {1, 2, 3, 4, 5, 6});
+
+    processor.configure(3, 2, 90);
+
+    assertEquals(2, processor.getOutputWidth());
+    assertEquals(3, processor.getOutputHeight());
+    assertArrayEquals(new byte[] {4, 1, 5, 2, 6, 3}, process(processor, image));
+  }
+
+  @Test
+  public void configure_ignoresRotationUnlessEnabled() {
+    ImageStreamProcessor processor = createProcessor("format", "gray");
+
+    processor.configure(3, 2, 90);
+
+    assertEquals(3, processor.getOutputWidth());
+    assertEquals(2, processor.getOutputHeight());
+  }
+
+  @Test
+  public void nearest_cropsAndSubsamples() {
+    Map<String, Object> crop = new HashMap<>();
+    crop.put("left", 0.5);
+    crop.put("top", 0.0);
+    crop.put("width", 0.5);
+    crop.put("height", 0.5);
+    ImageStreamProcessor processor =
+        createProcessor("format", "gray", "filter", "nearest", "crop", crop, "width", 1);
+    byte[] luma = new byte[16];
+    for (int i = 0; i < luma.length; i++) {
+      luma[i] = (byte) i;
+    }
+
+    processor.configure(4, 4, 0);
+
+    // The 2x2 crop at (2, 0) is subsampled to its bottom right pixel.
+    assertEquals(1, processor.getOutputHeight());
+    assertArrayEquals(new byte[] {7}, process(processor, mockYuvImage(4, 4, luma)));
+  }
+
+  @Test
+  public void bilinear_averagesNeighbors() {
+    ImageStreamProcessor processor = createProcessor("format", "gray", "width", 1);
+    Image image = mockYuvImage(2, 2, new byte[] {0, 100, 100, (byte) 200});
+
+    processor.configure(2, 2, 0);
+
+    assertArrayEquals(new byte[] {100}, process(processor, image));
+  }
+
+  @Test
+  public void rgb_convertsNeutralColors() {
+    ImageStreamProcessor processor = createProcessor("format", "rgb");
+    byte gray = (byte) 128;
+    Image image = mockYuvImage(2, 2, new byte[] {gray, gray, gray, gray}, gray, gray);
+
+    processor.configure(2, 2, 0);
+
+    assertEquals(ImageStreamProcessor.FORMAT_RGB, processor.getOutputFormat());
+    assertEquals(3, processor.getPixelStride());
+    assertEquals(6, processor.getRowStride());
+    byte[] rgb = process(processor, image);
+    for (byte value : rgb) {
+      assertEquals(gray, value);
+    }
+  }
+
+  @Test
+  public void nv21_interleavesChromaAfterLuma() {
+    ImageStreamProcessor processor = createProcessor();
+    Image image = mockYuvImage(3, 3, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+    processor.configure(3, 3, 0);
+
+    // NV21 needs even sizes, so the odd frame is scaled down to 2x2.
+    assertEquals(ImageStreamProcessor.FORMAT_NV21, processor.getOutputFormat());
+    assertEquals(2, processor.getOutputWidth());
+    assertEquals(2, processor.getOutputHeight());
+    byte[] nv21 = process(processor, image);
+    assertEquals(6, nv21.length);
+    assertEquals(CHROMA_V, nv21[4]);
+    assertEquals(CHROMA_U, nv21[5]);
+  }
+
+  private static ImageStreamProcessor createProcessor(Object... keysAndValues) {
+    Map<String, Object> arguments = new HashMap<>();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      arguments.put((String) keysAndValues[i], keysAndValues[i + 1]);
+    }
+    return new ImageStreamProcessor(ImageStreamOptions.Processing.fromArguments(arguments));
+  }
+
+  private static byte[] process(ImageStreamProcessor processor, Image image) {
+    byte[] out = new byte[processor.getOutputSize()];
+    ByteBuffer buffer = ByteBuffer.wrap(out);
+    processor.process(image, buffer);
+    assertEquals(out.length, buffer.position());
+    return out;
+  }
+
+  private static Image mockYuvImage(int width, int height, byte[] luma) {
+    return mockYuvImage(width, height, luma, CHROMA_U, CHROMA_V);
+  }
+
+  /** Returns a YUV_420_888 image with the given luma and uniform chroma. */
+  private static Image mockYuvImage(
+      int width, int height, byte[] luma, byte chromaU, byte chromaV) {
+    int chromaWidth = (width + 1) / 2;
+    int chromaHeight = (height + 1) / 2;
+    byte[] u = new byte[chromaWidth * chromaHeight];
+    byte[] v = new byte[chromaWidth * chromaHeight];
+    Arrays.fill(u, chromaU);
+    Arrays.fill(v, chromaV);
+
+    Image image = mock(Image.class);
+    Image.Plane[] planes =
+        new Image.Plane[] {
+          mockPlane(luma, width), mockPlane(u, chromaWidth), mockPlane(v, chromaWidth)
+        };
+    when(image.getPlanes()).thenReturn(planes);
+    when(image.getWidth()).thenReturn(width);
+    when(image.getHeight()).thenReturn(height);
+    return image;
+  }
+
+  private static Image.Plane mockPlane(byte[] bytes, int rowStride) {
+    Image.Plane plane = mock(Image.Plane.class);
+    when(plane.getBuffer()).thenReturn(ByteBuffer.wrap(bytes));
+    when(plane.getRowStride()).thenReturn(rowStride);
+    when(plane.getPixelStride()).thenReturn(1);
+    return plane;
+  }
+}
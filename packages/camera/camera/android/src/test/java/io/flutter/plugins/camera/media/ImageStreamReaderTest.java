@@ -0,0 +1,317 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.graphics.ImageFormat;
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+import io.flutter.plugin.common.BasicMessageChannel;
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugins.camera.types.CameraCaptureProperties;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ImageStreamReaderTest {
+  private ImageReader mockImageReader;
+  private Handler mockMainHandler;
+  private EventChannel.EventSink mockSink;
+  private ImageStreamReader imageStreamReader;
+  private ImageReader.OnImageAvailableListener imageListener;
+  private Image lastImage;
+  private int ranDeliveries;
+  private int rotation;
+
+  @Before
+  public void before() {
+    mockImageReader = mock(ImageReader.class);
+    mockMainHandler = mock(Handler.class);
+    mockSink = mock(EventChannel.EventSink.class);
+    imageStreamReader = new ImageStreamReader(mockImageReader, () -> rotation, mockMainHandler);
+  }
+
+  @Test
+  public void packImage_writesHeaderAndPlanes() {
+    Image image = mockImage(new byte[] {1, 2, 3, 4}, new byte[] {5, 6});
+    CameraCaptureProperties captureProperties = new CameraCaptureProperties();
+    captureProperties.setLastLensAperture(1.8f);
+    captureProperties.setLastSensorExposureTime(1000L);
+    captureProperties.setLastSensorSensitivity(100);
+
+    int size = ImageStreamReader.getPackedSize(image);
+    ByteBuffer buffer = imageStreamReader.obtainBuffer(size);
+    ImageStreamReader.packImage(image, captureProperties, buffer);
+
+    assertEquals(
+        ImageStreamReader.HEADER_SIZE + 2 * ImageStreamReader.PLANE_HEADER_SIZE + 6, size);
+    assertEquals(size, buffer.position());
+    buffer.flip();
+    assertEquals(ImageFormat.YUV_420_888, buffer.getInt());
+    assertEquals(4, buffer.getInt());
+    assertEquals(2, buffer.getInt());
+    assertEquals(2, buffer.getInt());
+    assertEquals(1.8, buffer.getDouble(), 1e-6);
+    assertEquals(1000L, buffer.getLong());
+    assertEquals(100.0, buffer.getDouble(), 0);
+    // Row stride, pixel stride and length of each plane.
+    assertEquals(4, buffer.getInt());
+    assertEquals(1, buffer.getInt());
+    assertEquals(4, buffer.getInt());
+    assertEquals(2, buffer.getInt());
+    assertEquals(1, buffer.getInt());
+    assertEquals(2, buffer.getInt());
+    for (int i = 1; i <= 6; i++) {
+      assertEquals(i, buffer.get());
+    }
+  }
+
+  @Test
+  public void packImage_marksUnknownCapturePropertiesAsMissing() {
+    Image image = mockImage(new byte[] {1});
+
+    ByteBuffer buffer = imageStreamReader.obtainBuffer(ImageStreamReader.getPackedSize(image));
+    ImageStreamReader.packImage(image, new CameraCaptureProperties(), buffer);
+
+    assertTrue(Double.isNaN(buffer.getDouble(16)));
+    assertEquals(-1, buffer.getLong(24));
+    assertTrue(Double.isNaN(buffer.getDouble(32)));
+  }
+
+  @Test
+  public void obtainBuffer_reusesRecycledBuffersLargeEnough() {
+    ByteBuffer first = imageStreamReader.obtainBuffer(64);
+    assertTrue(first.isDirect());
+    assertEquals(ByteOrder.LITTLE_ENDIAN, first.order());
+
+    imageStreamReader.recycleBuffer(first);
+    assertSame(first, imageStreamReader.obtainBuffer(32));
+
+    imageStreamReader.recycleBuffer(first);
+    assertNotSame(first, imageStreamReader.obtainBuffer(128));
+  }
+
+  @Test
+  public void subscribeListener_sendsPackedFramesAndRecyclesTheirBuffer() {
+    BasicMessageChannel<ByteBuffer> mockPackedChannel = subscribe("transport", "packed");
+
+    receiveFrame();
+    verify(lastImage).close();
+    runPostedDeliveries(1);
+
+    ArgumentCaptor<ByteBuffer> bufferCaptor = ArgumentCaptor.forClass(ByteBuffer.class);
+    verify(mockPackedChannel).send(bufferCaptor.capture(), any());
+    assertSame(bufferCaptor.getValue(), imageStreamReader.obtainBuffer(1));
+  }
+
+  @Test
+  public void subscribeListener_withoutBackpressureDeliversEveryFrame() {
+    subscribe();
+
+    receiveFrame();
+    receiveFrame();
+    receiveFrame();
+    runPostedDeliveries(3);
+
+    verify(mockSink, times(3)).success(any());
+    assertStats(3, 0);
+  }
+
+  @Test
+  public void dropWhenBusy_dropsFramesWhileTheLimitIsInFlight() {
+    BasicMessageChannel<ByteBuffer> mockPackedChannel =
+        subscribe("transport", "packed", "backpressure", "dropWhenBusy", "maxFramesInFlight", 2);
+
+    receiveFrame();
+    receiveFrame();
+    receiveFrame();
+    Image droppedImage = lastImage;
+    runPostedDeliveries(2);
+
+    verify(droppedImage).close();
+    verify(droppedImage, never()).getPlanes();
+    assertStats(2, 1);
+
+    // Dart finishing a frame makes room for the next one.
+    replyToPackedFrames(mockPackedChannel, 1);
+    receiveFrame();
+    runPostedDeliveries(3);
+    assertStats(3, 1);
+  }
+
+  @Test
+  public void latestOnly_deliversTheNewestWaitingFrameOnceDartIsDone() {
+    BasicMessageChannel<ByteBuffer> mockPackedChannel =
+        subscribe("transport", "packed", "backpressure", "latestOnly");
+
+    receiveFrame();
+    runPostedDeliveries(1);
+    receiveFrame();
+    receiveFrame();
+    receiveFrame();
+    assertStats(1, 2);
+
+    replyToPackedFrames(mockPackedChannel, 1);
+
+    verify(mockPackedChannel, times(2)).send(any(), any());
+    assertStats(2, 2);
+  }
+
+  @Test
+  public void everyNth_deliversOneFrameInN() {
+    subscribe("backpressure", "everyNth", "frameInterval", 3);
+
+    for (int i = 0; i < 7; i++) {
+      receiveFrame();
+    }
+    runPostedDeliveries(3);
+
+    verify(mockSink, times(3)).success(any());
+    assertStats(3, 4);
+    assertEquals(7L, imageStreamReader.getStats().get("acquired"));
+  }
+
+  @Test
+  public void removeListener_discardsFramesNotYetDelivered() {
+    subscribe();
+
+    receiveFrame();
+    imageStreamReader.removeListener(mock(Handler.class));
+    runPostedDeliveries(1);
+
+    verify(mockSink, never()).success(any());
+  }
+
+  @Test
+  public void subscribeListener_sendsProcessedFrames() {
+    Map<String, Object> processing = new HashMap<>();
+    processing.put("format", "gray");
+    processing.put("rotate", true);
+    subscribe("processing", processing);
+    rotation = 90;
+    Image image = mockImage(new byte[] {1, 2, 3, 4});
+    when(image.getPlanes()[0].getRowStride()).thenReturn(2);
+    when(image.getWidth()).thenReturn(2);
+
+    receiveFrame(image);
+    runPostedDeliveries(1);
+
+    ArgumentCaptor<Object> frameCaptor = ArgumentCaptor.forClass(Object.class);
+    verify(mockSink).success(frameCaptor.capture());
+    @SuppressWarnings("unchecked")
+    Map<String, Object> frame = (Map<String, Object>) frameCaptor.getValue();
+    assertEquals(ImageStreamProcessor.FORMAT_GRAY, frame.get("format"));
+    // The 2x2 frame is rotated by a quarter turn.
+    assertEquals(2, frame.get("width"));
+    assertEquals(2, frame.get("height"));
+    @SuppressWarnings("unchecked")
+    List<Map<String, Object>> planes = (List<Map<String, Object>>) frame.get("planes");
+    assertEquals(1, planes.size());
+    assertEquals(2, planes.get(0).get("bytesPerRow"));
+  }
+
+  @Test
+  public void fromArguments_defaultsToTheMapTransport() {
+    assertFalse(ImageStreamOptions.fromArguments(null).isPacked());
+    assertFalse(ImageStreamOptions.fromArguments(new HashMap<>()).isPacked());
+  }
+
+  @SuppressWarnings("unchecked")
+  private BasicMessageChannel<ByteBuffer> subscribe(Object... keysAndValues) {
+    Map<String, Object> arguments = new HashMap<>();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      arguments.put((String) keysAndValues[i], keysAndValues[i + 1]);
+    }
+    BasicMessageChannel<ByteBuffer> mockPackedChannel = mock(BasicMessageChannel.class);
+    imageStreamReader.subscribeListener(
+        ImageStreamOptions.fromArguments(arguments),
+        new CameraCaptureProperties(),
+        mockSink,
+        mockPackedChannel,
+        mock(Handler.class));
+    ArgumentCaptor<ImageReader.OnImageAvailableListener> listenerCaptor =
+        ArgumentCaptor.forClass(ImageReader.OnImageAvailableListener.class);
+    verify(mockImageReader)
+        .setOnImageAvailableListener(listenerCaptor.capture(), any(Handler.class));
+    imageListener = listenerCaptor.getValue();
+    return mockPackedChannel;
+  }
+
+  private void receiveFrame() {
+    receiveFrame(mockImage(new byte[] {1, 2}));
+  }
+
+  private void receiveFrame(Image image) {
+    lastImage = image;
+    when(mockImageReader.acquireNextImage()).thenReturn(lastImage);
+    imageListener.onImageAvailable(mockImageReader);
+  }
+
+  /** Runs the deliveries posted to the main thread so far, which must number {@code count}. */
+  private void runPostedDeliveries(int count) {
+    ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(mockMainHandler, times(count)).post(runnableCaptor.capture());
+    List<Runnable> runnables = runnableCaptor.getAllValues();
+    for (Runnable runnable : runnables.subList(ranDeliveries, runnables.size())) {
+      runnable.run();
+    }
+    ranDeliveries = runnables.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void replyToPackedFrames(BasicMessageChannel<ByteBuffer> mockPackedChannel, int count) {
+    ArgumentCaptor<BasicMessageChannel.Reply<ByteBuffer>> replyCaptor =
+        ArgumentCaptor.forClass(BasicMessageChannel.Reply.class);
+    verify(mockPackedChannel, atLeast(count)).send(any(), replyCaptor.capture());
+    List<BasicMessageChannel.Reply<ByteBuffer>> replies = replyCaptor.getAllValues();
+    for (BasicMessageChannel.Reply<ByteBuffer> reply : replies.subList(0, count)) {
+      reply.reply(null);
+    }
+  }
+
+  private void assertStats(long delivered, long dropped) {
+    Map<String, Object> stats = imageStreamReader.getStats();
+    assertEquals(delivered, stats.get("delivered"));
+    assertEquals(dropped, stats.get("dropped"));
+  }
+
+  private static Image mockImage(byte[]... planeBytes) {
+    Image image = mock(Image.class);
+    Image.Plane[] planes = new Image.Plane[planeBytes.length];
+    for (int i = 0; i < planeBytes.length; i++) {
+      Image.Plane plane = mock(Image.Plane.class);
+      ByteBuffer buffer = ByteBuffer.allocateDirect(planeBytes[i].length);
+      buffer.put(planeBytes[i]);
+      buffer.flip();
+      when(plane.getBuffer()).thenReturn(buffer);
+      when(plane.getRowStride()).thenReturn(planeBytes[i].length);
+      when(plane.getPixelStride()).thenReturn(1);
+      planes[i] = plane;
+    }
+    when(image.getPlanes()).thenReturn(planes);
+    when(image.getFormat()).thenReturn(ImageFormat.YUV_420_888);
+    when(image.getWidth()).thenReturn(planeBytes[0].length);
+    when(image.getHeight()).thenReturn(2);
+    return image;
+  }
+}
@@ -0,0 +1,53 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class VideoEncoderSettingsTest {
+  @Test
+  public void fromArguments_defaultsToRecordingProfile() {
+    VideoEncoderSettings settings = VideoEncoderSettings.fromArguments(new HashMap<>());
+
+    assertEquals(VideoEncoderSettings.Codec.h264, settings.getCodec());
+    assertEquals(0, settings.getBitrate());
+    assertEquals(0, settings.getFrameRate());
+    assertEquals(1, settings.getKeyFrameInterval());
+  }
+
+  @Test
+  public void fromArguments_parsesEncoderSettings() {
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("codec", "hevc");
+    arguments.put("bitrate", 8000000);
+    arguments.put("frameRate", 60);
+    arguments.put("keyFrameInterval", -1);
+
+    VideoEncoderSettings settings = VideoEncoderSettings.fromArguments(arguments);
+
+    assertEquals(VideoEncoderSettings.Codec.hevc, settings.getCodec());
+    assertEquals(8000000, settings.getBitrate());
+    assertEquals(60, settings.getFrameRate());
+    assertEquals(-1, settings.getKeyFrameInterval());
+  }
+
+  @Test
+  public void fromArguments_ignoresInvalidValues() {
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("codec", "vp9");
+    arguments.put("bitrate", -1);
+    arguments.put("frameRate", "fast");
+
+    VideoEncoderSettings settings = VideoEncoderSettings.fromArguments(arguments);
+
+    assertEquals(VideoEncoderSettings.Codec.h264, settings.getCodec());
+    assertEquals(0, settings.getBitrate());
+    assertEquals(0, settings.getFrameRate());
+  }
+}
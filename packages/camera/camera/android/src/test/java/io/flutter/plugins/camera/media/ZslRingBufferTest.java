@@ -0,0 +1,168 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import android.media.ImageReader;
+import io.flutter.plugins.camera.types.CameraCaptureProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class ZslRingBufferTest {
+  private ImageReader mockImageReader;
+  private ZslRingBuffer ringBuffer;
+
+  @Before
+  public void before() {
+    mockImageReader = mock(ImageReader.class);
+    when(mockImageReader.getMaxImages()).thenReturn(ZslRingBuffer.getMaxImages(2));
+    ringBuffer = new ZslRingBuffer(mockImageReader, 2);
+  }
+
+  @Test
+  public void onImageAvailable_closesOldestFramesBeyondCapacity() {
+    Image first = mockImage(1000);
+    Image second = mockImage(2000);
+    Image third = mockImage(3000);
+    when(mockImageReader.acquireNextImage()).thenReturn(first, second, third, null);
+
+    ringBuffer.onImageAvailable(mockImageReader);
+
+    verify(first, times(1)).close();
+    verify(second, never()).close();
+    verify(third, never()).close();
+  }
+
+  @Test
+  public void onImageAvailable_closesOldestFrameWhenReaderIsFull() {
+    Image first = mockImage(1000);
+    Image second = mockImage(2000);
+    when(mockImageReader.acquireNextImage())
+        .thenReturn(first)
+        .thenThrow(new IllegalStateException("maxImages (4) has already been acquired"))
+        .thenReturn(second, null);
+
+    ringBuffer.onImageAvailable(mockImageReader);
+
+    verify(first, times(1)).close();
+    verify(second, never()).close();
+  }
+
+  @Test
+  public void takeFrame_takesClosestFrame() {
+    Image first = mockImage(1000);
+    Image second = mockImage(2000);
+    when(mockImageReader.acquireNextImage()).thenReturn(first, second, null);
+    ringBuffer.onImageAvailable(mockImageReader);
+    ZslRingBuffer.FrameCallback mockCallback = mock(ZslRingBuffer.FrameCallback.class);
+
+    ringBuffer.takeFrame(1400, mockCallback);
+
+    verify(mockCallback).onFrame(eq(first), any());
+
+    // The taken frame is no longer in the ring.
+    ZslRingBuffer.FrameCallback otherCallback = mock(ZslRingBuffer.FrameCallback.class);
+    ringBuffer.takeFrame(1400, otherCallback);
+    verify(otherCallback).onFrame(eq(second), any());
+  }
+
+  @Test
+  public void takeFrame_waitsForNextFrameWhenEmpty() {
+    ZslRingBuffer.FrameCallback mockCallback = mock(ZslRingBuffer.FrameCallback.class);
+    ringBuffer.takeFrame(1000, mockCallback);
+    verify(mockCallback, never()).onFrame(any(), any());
+
+    Image image = mockImage(5000);
+    when(mockImageReader.acquireNextImage()).thenReturn(image, (Image) null);
+    ringBuffer.onImageAvailable(mockImageReader);
+
+    verify(mockCallback, times(1)).onFrame(eq(image), any());
+    verify(image, never()).close();
+  }
+
+  @Test
+  public void takeFrame_handsOutPropertiesOfTheFrame() {
+    ringBuffer.onCaptureResult(mockResult(1000, 1.8f, 10000000L, 100));
+    ringBuffer.onCaptureResult(mockResult(2000, 1.8f, 20000000L, 200));
+    Image image = mockImage(2000);
+    when(mockImageReader.acquireNextImage()).thenReturn(image, (Image) null);
+    ringBuffer.onImageAvailable(mockImageReader);
+    ZslRingBuffer.FrameCallback mockCallback = mock(ZslRingBuffer.FrameCallback.class);
+
+    ringBuffer.takeFrame(2000, mockCallback);
+
+    ArgumentCaptor<CameraCaptureProperties> propertiesCaptor =
+        ArgumentCaptor.forClass(CameraCaptureProperties.class);
+    verify(mockCallback).onFrame(any(), propertiesCaptor.capture());
+    assertEquals(Long.valueOf(20000000L), propertiesCaptor.getValue().getLastSensorExposureTime());
+    assertEquals(Integer.valueOf(200), propertiesCaptor.getValue().getLastSensorSensitivity());
+  }
+
+  @Test
+  public void takeFrame_handsOutEmptyPropertiesWithoutCaptureResult() {
+    Image image = mockImage(2000);
+    when(mockImageReader.acquireNextImage()).thenReturn(image, (Image) null);
+    ringBuffer.onImageAvailable(mockImageReader);
+    ZslRingBuffer.FrameCallback mockCallback = mock(ZslRingBuffer.FrameCallback.class);
+
+    ringBuffer.takeFrame(2000, mockCallback);
+
+    ArgumentCaptor<CameraCaptureProperties> propertiesCaptor =
+        ArgumentCaptor.forClass(CameraCaptureProperties.class);
+    verify(mockCallback).onFrame(any(), propertiesCaptor.capture());
+    assertNull(propertiesCaptor.getValue().getLastSensorExposureTime());
+  }
+
+  @Test
+  public void close_closesFramesAndNotifiesPendingCallbacks() {
+    Image image = mockImage(1000);
+    when(mockImageReader.acquireNextImage()).thenReturn(image, (Image) null);
+    ringBuffer.onImageAvailable(mockImageReader);
+    ringBuffer.takeFrame(1000, mock(ZslRingBuffer.FrameCallback.class));
+    ZslRingBuffer.FrameCallback pendingCallback = mock(ZslRingBuffer.FrameCallback.class);
+    ringBuffer.takeFrame(1000, pendingCallback);
+
+    ringBuffer.close();
+
+    verify(pendingCallback, times(1)).onClosed();
+    verify(mockImageReader, times(1)).close();
+
+    ZslRingBuffer.FrameCallback lateCallback = mock(ZslRingBuffer.FrameCallback.class);
+    ringBuffer.takeFrame(1000, lateCallback);
+    verify(lateCallback, times(1)).onClosed();
+  }
+
+  private static Image mockImage(long timestamp) {
+    Image image = mock(Image.class);
+    when(image.getTimestamp()).thenReturn(timestamp);
+    return image;
+  }
+
+  private static TotalCaptureResult mockResult(
+      long timestamp, float aperture, long exposureTime, int sensitivity) {
+    TotalCaptureResult result = mock(TotalCaptureResult.class);
+    when(result.get(CaptureResult.SENSOR_TIMESTAMP)).thenReturn(timestamp);
+    when(result.get(CaptureResult.LENS_APERTURE)).thenReturn(aperture);
+    when(result.get(CaptureResult.SENSOR_EXPOSURE_TIME)).thenReturn(exposureTime);
+    when(result.get(CaptureResult.SENSOR_SENSITIVITY)).thenReturn(sensitivity);
+    return result;
+  }
+}
@@ -2,9 +2,13 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+export 'src/burst_shot.dart';
 export 'src/camera_controller.dart';
+export 'src/camera_performance_stats.dart';
 export 'src/camera_image.dart';
 export 'src/camera_preview.dart';
+export 'src/image_stream_options.dart';
+export 'src/video_encoder_settings.dart';
 
 export 'package:camera_platform_interface/camera_platform_interface.dart'
     show
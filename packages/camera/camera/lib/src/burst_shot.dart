@@ -0,0 +1,58 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera_platform_interface/camera_platform_interface.dart'
+    show XFile;
+import 'package:flutter/foundation.dart';
+
+/// A picture of a burst taken by [CameraController.takeBurst], with its
+/// timing.
+@immutable
+class BurstShot {
+  /// Creates a new burst picture.
+  const BurstShot({
+    required this.index,
+    required this.file,
+    required this.timestamp,
+    required this.interval,
+    required this.elapsed,
+    required this.saveDuration,
+  });
+
+  /// Creates a burst picture from the platform's event.
+  BurstShot.fromPlatformData(Map<dynamic, dynamic> data)
+      : index = data['index'] as int,
+        file = XFile(data['path'] as String),
+        timestamp = data['timestamp'] as int,
+        interval = Duration(microseconds: data['interval'] as int),
+        elapsed = Duration(microseconds: data['elapsed'] as int),
+        saveDuration = Duration(microseconds: data['saveDuration'] as int);
+
+  /// The position of the picture in the burst, starting at 0.
+  final int index;
+
+  /// The file the picture was saved to.
+  final XFile file;
+
+  /// The time the sensor started exposing the picture, in nanoseconds.
+  ///
+  /// The time base is the one of the camera's sensor timestamps, so it is
+  /// only meaningful relative to other pictures.
+  final int timestamp;
+
+  /// The time between the start of exposure of the previous picture of the
+  /// burst and this one, or [Duration.zero] for the first picture.
+  final Duration interval;
+
+  /// The time from the start of the burst until the picture was received from
+  /// the camera.
+  final Duration elapsed;
+
+  /// The time from receiving the picture until it was saved to [file].
+  final Duration saveDuration;
+
+  @override
+  String toString() => 'BurstShot(index: $index, path: ${file.path}, '
+      'interval: $interval, elapsed: $elapsed, saveDuration: $saveDuration)';
+}
@@ -15,12 +15,29 @@ import 'package:quiver/core.dart';
 
 final MethodChannel _channel = const MethodChannel('plugins.flutter.io/camera');
 
+const BasicMessageChannel<ByteData?> _packedImageStreamChannel =
+    BasicMessageChannel<ByteData?>(
+        'plugins.flutter.io/camera/imageStream/packed', BinaryCodec());
+
 /// Signature for a callback receiving the a camera image.
 ///
 /// This is used by [CameraController.startImageStream].
 // ignore: inference_failure_on_function_return_type
 typedef onLatestImageAvailable = Function(CameraImage image);
 
+/// Signature for a callback receiving a picture of a burst.
+///
+/// This is used by [CameraController.takeBurst].
+// ignore: inference_failure_on_function_return_type
+typedef onBurstShotAvailable = Function(BurstShot shot);
+
+/// Signature for a callback receiving camera performance measurements.
+///
+/// This is used by [CameraController.startPerformanceStats].
+// ignore: inference_failure_on_function_return_type
+typedef onCameraPerformanceStatsAvailable = Function(
+    CameraPerformanceStats stats);
+
 /// Completes with a list of available cameras.
 ///
 /// May throw a [CameraException].
@@ -253,6 +270,8 @@ class CameraController extends ValueNotifier<CameraValue> {
 
   bool _isDisposed = false;
   StreamSubscription<dynamic>? _imageStreamSubscription;
+  StreamSubscription<dynamic>? _burstSubscription;
+  StreamSubscription<dynamic>? _statsSubscription;
   FutureOr<bool>? _initCalled;
   StreamSubscription? _deviceOrientationSubscription;
 
@@ -330,18 +349,55 @@ class CameraController extends ValueNotifier<CameraValue> {
   /// Prepare the capture session for video recording.
   ///
   /// Use of this method is optional, but it may be called for performance
-  /// reasons on iOS.
+  /// reasons on iOS and Android.
   ///
   /// Preparing audio can cause a minor delay in the CameraPreview view on iOS.
   /// If video recording is intended, calling this early eliminates this delay
   /// that would otherwise be experienced when video recording is started.
-  /// This operation is a no-op on Android and Web.
+  ///
+  /// On Android, the video encoder is prepared and the camera is reconfigured
+  /// for recording, so [startVideoRecording] starts without interrupting the
+  /// preview. Pictures can still be taken in the prepared session. Devices with
+  /// a LEGACY camera prepare nothing and reconfigure when recording starts.
+  ///
+  /// This operation is a no-op on Web.
   ///
   /// Throws a [CameraException] if the prepare fails.
   Future<void> prepareForVideoRecording() async {
     await CameraPlatform.instance.prepareForVideoRecording();
   }
 
+  /// Starts opening a camera before a [CameraController] is created for it.
+  ///
+  /// Opening a camera takes a noticeable time, which can overlap with other
+  /// work, e.g. building the screen that shows the preview. A controller
+  /// created afterwards with the same camera, resolution preset and audio
+  /// setting takes over the opened camera, so [initialize] completes sooner.
+  /// Any other camera created afterwards releases the prewarmed one.
+  ///
+  /// Throws a [CameraException] if the camera could not be opened.
+  ///
+  /// The `prewarm` method is only available on Android.
+  static Future<void> prewarm(
+    CameraDescription description,
+    ResolutionPreset resolutionPreset, {
+    bool enableAudio = true,
+    ImageFormatGroup? imageFormatGroup,
+  }) async {
+    assert(defaultTargetPlatform == TargetPlatform.android);
+    try {
+      await _channel.invokeMethod<void>('prewarm', <String, dynamic>{
+        'cameraName': description.name,
+        'resolutionPreset': describeEnum(resolutionPreset),
+        'enableAudio': enableAudio,
+        'imageFormatGroup':
+            (imageFormatGroup ?? ImageFormatGroup.unknown).name(),
+      });
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   /// Pauses the current camera preview
   Future<void> pausePreview() async {
     if (value.isPreviewPaused) {
@@ -393,6 +449,121 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
   }
 
+  /// Takes a burst of full resolution pictures, calling [onShot] as soon as
+  /// each picture is saved.
+  ///
+  /// Focus and exposure are locked at the start of the burst, and pictures
+  /// are captured back to back without the precapture sequence run by
+  /// [takePicture]. When [count] is given, that many pictures are taken.
+  /// Otherwise pictures are taken until [stopBurst] is called.
+  ///
+  /// The returned future completes once the last picture has been passed to
+  /// [onShot]. It completes with a [CameraException] if any picture could not
+  /// be captured or saved.
+  ///
+  /// Throws a [CameraException] if a burst or a picture is already being
+  /// taken, or if a video recording has started.
+  ///
+  /// The `takeBurst` method is only available on Android.
+  Future<void> takeBurst(onBurstShotAvailable onShot, {int? count}) async {
+    assert(defaultTargetPlatform == TargetPlatform.android);
+    assert(count == null || count > 0);
+    _throwIfNotInitialized("takeBurst");
+    if (value.isRecordingVideo) {
+      throw CameraException(
+        'A video recording is already started.',
+        'takeBurst was called while a video is being recorded.',
+      );
+    }
+    if (_burstSubscription != null) {
+      throw CameraException(
+        'A burst is already being taken.',
+        'takeBurst was called before the previous burst was done.',
+      );
+    }
+
+    try {
+      await _channel.invokeMethod<void>(
+          'startBurst', <String, dynamic>{'count': count ?? 0});
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+    final Completer<void> completer = Completer<void>();
+    CameraException? error;
+    const EventChannel burstChannel =
+        EventChannel('plugins.flutter.io/camera/burst');
+    _burstSubscription = burstChannel.receiveBroadcastStream().listen(
+      (dynamic data) => onShot(BurstShot.fromPlatformData(data)),
+      onError: (Object e) {
+        if (e is PlatformException) {
+          error ??= CameraException(e.code, e.message);
+        }
+      },
+      onDone: () {
+        _burstSubscription = null;
+        if (error != null) {
+          completer.completeError(error!);
+        } else {
+          completer.complete();
+        }
+      },
+    );
+    return completer.future;
+  }
+
+  /// Stops the burst started by [takeBurst].
+  ///
+  /// Pictures captured before the burst is stopped are still saved and passed
+  /// to the callback given to [takeBurst].
+  ///
+  /// The `stopBurst` method is only available on Android.
+  Future<void> stopBurst() async {
+    assert(defaultTargetPlatform == TargetPlatform.android);
+    _throwIfNotInitialized("stopBurst");
+    if (_burstSubscription == null) {
+      throw CameraException(
+        'No burst is being taken.',
+        'stopBurst was called when no burst is being taken.',
+      );
+    }
+    try {
+      await _channel.invokeMethod<void>('stopBurst');
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Enables or disables zero shutter lag pictures.
+  ///
+  /// While enabled, the camera keeps its most recent full resolution frames,
+  /// and [takePicture] saves the frame closest to the moment it was called
+  /// instead of focusing, metering and capturing a new picture. Pictures are
+  /// then taken without delay, and several can be taken at once. Bursts
+  /// cannot be taken while zero shutter lag is enabled.
+  ///
+  /// Throws a [CameraException] if the camera does not support it, which
+  /// needs a camera of the FULL hardware level or better, or if images are
+  /// being streamed, a video is being recorded or a picture is being taken.
+  ///
+  /// The `setZeroShutterLag` method is only available on Android.
+  Future<void> setZeroShutterLag(bool enabled) async {
+    assert(defaultTargetPlatform == TargetPlatform.android);
+    _throwIfNotInitialized("setZeroShutterLag");
+    if (value.isStreamingImages || value.isRecordingVideo) {
+      throw CameraException(
+        'The camera is busy.',
+        'setZeroShutterLag was called while streaming images or recording '
+            'a video.',
+      );
+    }
+    try {
+      await _channel.invokeMethod<void>(
+          'setZeroShutterLag', <String, dynamic>{'enabled': enabled});
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   /// Start streaming images from platform camera.
   ///
   /// Settings for capturing images on iOS and Android is set to always use the
@@ -409,8 +580,13 @@ class CameraController extends ValueNotifier<CameraValue> {
   /// The `startImageStream` method is only available on Android and iOS (other
   /// platforms won't be supported in current setup).
   ///
+  /// The optional [options] configure the stream on Android, for example to
+  /// receive frames with [ImageStreamTransport.packed] or to choose which
+  /// frames are dropped with an [ImageStreamBackpressure] policy.
+  ///
   // TODO(bmparr): Add settings for resolution and fps.
-  Future<void> startImageStream(onLatestImageAvailable onAvailable) async {
+  Future<void> startImageStream(onLatestImageAvailable onAvailable,
+      {ImageStreamOptions? options}) async {
     assert(defaultTargetPlatform == TargetPlatform.android ||
         defaultTargetPlatform == TargetPlatform.iOS);
     _throwIfNotInitialized("startImageStream");
@@ -427,10 +603,25 @@ class CameraController extends ValueNotifier<CameraValue> {
       );
     }
 
+    if (options?.transport == ImageStreamTransport.packed) {
+      _packedImageStreamChannel.setMessageHandler((ByteData? data) async {
+        if (data != null) {
+          // Replying only once the callback is done lets the platform apply
+          // the backpressure policy to the app's actual processing time.
+          final dynamic result =
+              onAvailable(CameraImage.fromPackedPlatformData(data));
+          if (result is Future) {
+            await result;
+          }
+        }
+        return null;
+      });
+    }
     try {
-      await _channel.invokeMethod<void>('startImageStream');
+      await _channel.invokeMethod<void>('startImageStream', options?.toJson());
       value = value.copyWith(isStreamingImages: true);
     } on PlatformException catch (e) {
+      _packedImageStreamChannel.setMessageHandler(null);
       throw CameraException(e.code, e.message);
     }
     const EventChannel cameraEventChannel =
@@ -476,6 +667,121 @@ class CameraController extends ValueNotifier<CameraValue> {
 
     await _imageStreamSubscription?.cancel();
     _imageStreamSubscription = null;
+    _packedImageStreamChannel.setMessageHandler(null);
+  }
+
+  /// Starts reporting performance measurements of the camera to [onStats].
+  ///
+  /// Measurements are aggregated on the platform and reported once every
+  /// [interval], so monitoring does not add a message per frame. They cover
+  /// the preview frame rate, the latency from the start of exposure of
+  /// preview frames until they are complete, the image stream frame counters,
+  /// the auto focus and precapture durations of [takePicture] and the time
+  /// pictures take to save.
+  ///
+  /// Throws a [CameraException] if performance stats are already reported.
+  ///
+  /// The `startPerformanceStats` method is only available on Android.
+  Future<void> startPerformanceStats(
+    onCameraPerformanceStatsAvailable onStats, {
+    Duration interval = const Duration(seconds: 1),
+  }) async {
+    assert(defaultTargetPlatform == TargetPlatform.android);
+    assert(interval > Duration.zero);
+    _throwIfNotInitialized("startPerformanceStats");
+    if (_statsSubscription != null) {
+      throw CameraException(
+        'Performance stats are already reported.',
+        'startPerformanceStats was called before stopPerformanceStats.',
+      );
+    }
+
+    try {
+      await _channel.invokeMethod<void>('startPerformanceStats',
+          <String, dynamic>{'interval': interval.inMilliseconds});
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+    const EventChannel statsChannel =
+        EventChannel('plugins.flutter.io/camera/stats');
+    _statsSubscription = statsChannel.receiveBroadcastStream().listen(
+        (dynamic data) => onStats(CameraPerformanceStats.fromPlatformData(
+            data as Map<dynamic, dynamic>)));
+  }
+
+  /// Stops reporting the performance measurements started by
+  /// [startPerformanceStats].
+  ///
+  /// The `stopPerformanceStats` method is only available on Android.
+  Future<void> stopPerformanceStats() async {
+    assert(defaultTargetPlatform == TargetPlatform.android);
+    await _statsSubscription?.cancel();
+    _statsSubscription = null;
+  }
+
+  /// Returns the frame counters of the current or last image stream.
+  ///
+  /// The counters are reset every time [startImageStream] is called.
+  ///
+  /// The `getImageStreamStats` method is only available on Android.
+  Future<ImageStreamStats> getImageStreamStats() async {
+    assert(defaultTargetPlatform == TargetPlatform.android);
+    _throwIfNotInitialized("getImageStreamStats");
+    try {
+      final Map<String, dynamic>? stats = await _channel
+          .invokeMapMethod<String, dynamic>('getImageStreamStats');
+      return ImageStreamStats.fromJson(stats!);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Records videos with a hardware video encoder whose input is part of the
+  /// camera session from the start, or with the default recorder when
+  /// [settings] is null.
+  ///
+  /// With the encoder, [startVideoRecording] and [stopVideoRecording] do not
+  /// reconfigure the camera, so the preview keeps running and recording
+  /// starts without delay. A video starts with the first frame exposed after
+  /// [startVideoRecording] was called and ends with the last frame exposed
+  /// before [stopVideoRecording] was called; [getLastVideoRecordingInfo]
+  /// returns the timestamps of those frames.
+  ///
+  /// Throws a [CameraException] if a video is being recorded, if zero shutter
+  /// lag is enabled, or if the encoder is not available, which needs Android
+  /// 6.0 or later.
+  ///
+  /// The `setVideoEncoder` method is only available on Android.
+  Future<void> setVideoEncoder(VideoEncoderSettings? settings) async {
+    assert(defaultTargetPlatform == TargetPlatform.android);
+    _throwIfNotInitialized("setVideoEncoder");
+    if (value.isRecordingVideo) {
+      throw CameraException(
+        'A video recording is already started.',
+        'setVideoEncoder was called while a video is being recorded.',
+      );
+    }
+    try {
+      await _channel.invokeMethod<void>('setVideoEncoder', settings?.toJson());
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Returns the frames of the last video recorded with the encoder enabled by
+  /// [setVideoEncoder], or null if no such video was recorded.
+  ///
+  /// The `getLastVideoRecordingInfo` method is only available on Android.
+  Future<VideoRecordingInfo?> getLastVideoRecordingInfo() async {
+    assert(defaultTargetPlatform == TargetPlatform.android);
+    _throwIfNotInitialized("getLastVideoRecordingInfo");
+    try {
+      final Map<String, dynamic>? info = await _channel
+          .invokeMapMethod<String, dynamic>('getVideoRecordingInfo');
+      return info == null ? null : VideoRecordingInfo.fromJson(info);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
   }
 
   /// Start a video recording.
@@ -802,6 +1108,7 @@ class CameraController extends ValueNotifier<CameraValue> {
       return;
     }
     unawaited(_deviceOrientationSubscription?.cancel());
+    unawaited(_statsSubscription?.cancel());
     _isDisposed = true;
     super.dispose();
     if (_initCalled != null) {
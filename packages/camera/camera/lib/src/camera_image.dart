@@ -8,6 +8,8 @@ import 'package:flutter/foundation.dart';
 import 'package:flutter/material.dart';
 import 'package:camera_platform_interface/camera_platform_interface.dart';
 
+import 'image_stream_options.dart';
+
 /// A single color plane of image data.
 ///
 /// The number and meaning of the planes in an image are determined by the
@@ -20,6 +22,10 @@ class Plane {
         height = data['height'],
         width = data['width'];
 
+  Plane._fromPackedData(this.bytes, this.bytesPerRow, this.bytesPerPixel)
+      : height = null,
+        width = null;
+
   /// Bytes representing this plane.
   final Uint8List bytes;
 
@@ -106,6 +112,55 @@ class CameraImage {
         planes = List<Plane>.unmodifiable(data['planes']
             .map((dynamic planeData) => Plane._fromPlatformData(planeData)));
 
+  /// Creates a [CameraImage] from a frame sent with
+  /// [ImageStreamTransport.packed].
+  ///
+  /// The planes are views into [data], which is not copied.
+  factory CameraImage.fromPackedPlatformData(ByteData data) {
+    final int planeCount = data.getInt32(12, Endian.little);
+    final double lensAperture = data.getFloat64(16, Endian.little);
+    final int sensorExposureTime = data.getInt64(24, Endian.little);
+    final double sensorSensitivity = data.getFloat64(32, Endian.little);
+
+    final List<Plane> planes = <Plane>[];
+    int headerOffset = _packedHeaderSize;
+    int bytesOffset = _packedHeaderSize + _packedPlaneHeaderSize * planeCount;
+    for (int i = 0; i < planeCount; i++) {
+      final int length = data.getInt32(headerOffset + 8, Endian.little);
+      planes.add(Plane._fromPackedData(
+        data.buffer.asUint8List(data.offsetInBytes + bytesOffset, length),
+        data.getInt32(headerOffset, Endian.little),
+        data.getInt32(headerOffset + 4, Endian.little),
+      ));
+      headerOffset += _packedPlaneHeaderSize;
+      bytesOffset += length;
+    }
+
+    return CameraImage._(
+      format: ImageFormat._fromPlatformData(data.getInt32(0, Endian.little)),
+      width: data.getInt32(4, Endian.little),
+      height: data.getInt32(8, Endian.little),
+      lensAperture: lensAperture.isNaN ? null : lensAperture,
+      sensorExposureTime: sensorExposureTime < 0 ? null : sensorExposureTime,
+      sensorSensitivity: sensorSensitivity.isNaN ? null : sensorSensitivity,
+      planes: List<Plane>.unmodifiable(planes),
+    );
+  }
+
+  CameraImage._({
+    required this.format,
+    required this.height,
+    required this.width,
+    required this.planes,
+    this.lensAperture,
+    this.sensorExposureTime,
+    this.sensorSensitivity,
+  });
+
+  // Layout of a packed frame, see ImageStreamReader.java.
+  static const int _packedHeaderSize = 40;
+  static const int _packedPlaneHeaderSize = 12;
+
   /// Format of the image provided.
   ///
   /// Determines the number of planes needed to represent the image, and
@@ -0,0 +1,114 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:flutter/foundation.dart';
+
+/// The count, average and maximum of a kind of duration measured during a
+/// [CameraPerformanceStats] period.
+@immutable
+class DurationStats {
+  /// Creates a new set of duration measurements.
+  const DurationStats({
+    required this.count,
+    required this.average,
+    required this.max,
+  });
+
+  /// Creates duration measurements from the platform's event.
+  DurationStats.fromPlatformData(Map<dynamic, dynamic> data)
+      : count = data['count'] as int,
+        average = Duration(microseconds: data['average'] as int),
+        max = Duration(microseconds: data['max'] as int);
+
+  /// The number of measured durations.
+  final int count;
+
+  /// The average of the measured durations, or [Duration.zero] if none was
+  /// measured.
+  final Duration average;
+
+  /// The longest of the measured durations, or [Duration.zero] if none was
+  /// measured.
+  final Duration max;
+
+  @override
+  String toString() =>
+      'DurationStats(count: $count, average: $average, max: $max)';
+}
+
+/// Performance measurements of the camera, aggregated over a reporting period
+/// by [CameraController.startPerformanceStats].
+@immutable
+class CameraPerformanceStats {
+  /// Creates a new set of performance measurements.
+  const CameraPerformanceStats({
+    required this.period,
+    required this.previewFrames,
+    required this.previewFrameRate,
+    required this.sensorLatency,
+    required this.streamFramesAcquired,
+    required this.streamFramesDelivered,
+    required this.streamFramesDropped,
+    required this.focus,
+    required this.precapture,
+    required this.pictureSave,
+  });
+
+  /// Creates performance measurements from the platform's event.
+  CameraPerformanceStats.fromPlatformData(Map<dynamic, dynamic> data)
+      : period = Duration(microseconds: data['period'] as int),
+        previewFrames = data['previewFrames'] as int,
+        previewFrameRate = (data['previewFrameRate'] as num).toDouble(),
+        sensorLatency = DurationStats.fromPlatformData(
+            data['sensorLatency'] as Map<dynamic, dynamic>),
+        streamFramesAcquired = data['streamAcquired'] as int,
+        streamFramesDelivered = data['streamDelivered'] as int,
+        streamFramesDropped = data['streamDropped'] as int,
+        focus = DurationStats.fromPlatformData(
+            data['focus'] as Map<dynamic, dynamic>),
+        precapture = DurationStats.fromPlatformData(
+            data['precapture'] as Map<dynamic, dynamic>),
+        pictureSave = DurationStats.fromPlatformData(
+            data['pictureSave'] as Map<dynamic, dynamic>);
+
+  /// The time covered by these measurements.
+  final Duration period;
+
+  /// The number of preview frames completed by the camera.
+  final int previewFrames;
+
+  /// The number of preview frames completed per second.
+  final double previewFrameRate;
+
+  /// The time from the start of exposure of preview frames until the camera
+  /// reported them complete.
+  final DurationStats sensorLatency;
+
+  /// The number of image stream frames received from the camera.
+  final int streamFramesAcquired;
+
+  /// The number of image stream frames sent to the app.
+  final int streamFramesDelivered;
+
+  /// The number of image stream frames dropped by the backpressure policy.
+  final int streamFramesDropped;
+
+  /// The time auto focus took to converge before pictures were taken.
+  final DurationStats focus;
+
+  /// The time the precapture sequence took to converge before pictures were
+  /// taken.
+  final DurationStats precapture;
+
+  /// The time from receiving pictures from the camera until they were saved.
+  final DurationStats pictureSave;
+
+  @override
+  String toString() => 'CameraPerformanceStats(period: $period, '
+      'previewFrameRate: $previewFrameRate, sensorLatency: $sensorLatency, '
+      'streamFramesAcquired: $streamFramesAcquired, '
+      'streamFramesDelivered: $streamFramesDelivered, '
+      'streamFramesDropped: $streamFramesDropped, focus: $focus, '
+      'precapture: $precapture, pictureSave: $pictureSave)';
+}
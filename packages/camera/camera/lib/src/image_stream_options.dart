@@ -0,0 +1,304 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:ui';
+
+import 'package:camera_platform_interface/camera_platform_interface.dart'
+    show ImageFormatGroup, ImageFormatGroupName;
+import 'package:flutter/foundation.dart';
+import 'package:quiver/core.dart';
+
+/// How frames of an image stream are encoded on their way from the platform.
+enum ImageStreamTransport {
+  /// Every frame is sent as a map holding a copy of each plane.
+  ///
+  /// This is the format used by every platform, and the default.
+  map,
+
+  /// Every frame is sent as a single binary message.
+  ///
+  /// The planes of a [CameraImage] received this way are views into that
+  /// message, so no per-plane copies are made on either side of the channel.
+  /// Only supported on Android; other platforms fall back to [map].
+  packed,
+}
+
+/// Decides which frames of an image stream are dropped when the app does not
+/// keep up with the camera.
+///
+/// A frame is in flight from the moment the platform accepts it until the app
+/// is done with it. With [ImageStreamTransport.packed], the app is done once
+/// the callback passed to [CameraController.startImageStream] has returned,
+/// or once the [Future] it returned has completed. With
+/// [ImageStreamTransport.map], a frame stops being in flight as soon as it is
+/// sent.
+///
+/// Only supported on Android; other platforms always deliver the latest frame.
+enum ImageStreamBackpressure {
+  /// Every frame is delivered.
+  none,
+
+  /// While a frame is in flight, only the newest frame waits to be delivered
+  /// next, so the app always works on the freshest frame.
+  latestOnly,
+
+  /// Frames arriving while [ImageStreamOptions.maxFramesInFlight] frames are
+  /// in flight are dropped.
+  dropWhenBusy,
+
+  /// Only one in every [ImageStreamOptions.frameInterval] frames is
+  /// delivered.
+  everyNth,
+}
+
+/// How frames are resampled when [ImageStreamProcessing] scales them.
+enum ImageStreamFilter {
+  /// Every output pixel copies the nearest source pixel.
+  ///
+  /// When the frame is scaled down by a whole factor, this picks one pixel in
+  /// every block, which is the cheapest option.
+  nearest,
+
+  /// Every output pixel blends the four nearest source pixels.
+  bilinear,
+}
+
+/// The pixel format of frames processed by [ImageStreamProcessing].
+///
+/// Processed frames have a single [Plane], and report the raw
+/// [ImageFormat.raw] value given below with an [ImageFormatGroup.unknown]
+/// group.
+enum ImageStreamOutputFormat {
+  /// NV21: a full resolution luma plane followed by interleaved V and U
+  /// samples at half resolution. The raw format is 17.
+  nv21,
+
+  /// Packed 8-bit red, green and blue samples. The raw format is 3.
+  rgb,
+
+  /// 8-bit luma samples only. The raw format is 0x20203859.
+  gray,
+}
+
+/// Native processing applied to YUV frames before they are sent to the app.
+///
+/// Processing runs on the camera's background thread and sends a single
+/// plane, sized for the app's use, instead of the full camera frame. It is
+/// only supported on Android, for streams in the
+/// [ImageFormatGroup.yuv420] format.
+@immutable
+class ImageStreamProcessing {
+  /// Creates a new set of image stream processing settings.
+  const ImageStreamProcessing({
+    this.crop,
+    this.width,
+    this.height,
+    this.filter = ImageStreamFilter.bilinear,
+    this.format = ImageStreamOutputFormat.nv21,
+    this.rotate = false,
+  })  : assert(width == null || width > 0),
+        assert(height == null || height > 0);
+
+  /// The region of the frame to keep, with coordinates between 0 and 1
+  /// relative to the frame as captured by the sensor, before any rotation.
+  ///
+  /// The whole frame is kept if null.
+  final Rect? crop;
+
+  /// The width of processed frames, after rotation.
+  ///
+  /// If only one of [width] and [height] is given, the other one keeps the
+  /// aspect ratio of the [crop]. If neither is given, the crop is not scaled.
+  final int? width;
+
+  /// The height of processed frames, after rotation.
+  final int? height;
+
+  /// How frames are resampled when scaled.
+  final ImageStreamFilter filter;
+
+  /// The pixel format of processed frames.
+  final ImageStreamOutputFormat format;
+
+  /// Whether frames are rotated upright, like pictures taken in the current
+  /// device orientation, or in the locked capture orientation.
+  final bool rotate;
+
+  /// Converts the settings to the arguments of the `startImageStream` call.
+  Map<String, dynamic> toJson() => <String, dynamic>{
+        if (crop != null)
+          'crop': <String, double>{
+            'left': crop!.left,
+            'top': crop!.top,
+            'width': crop!.width,
+            'height': crop!.height,
+          },
+        if (width != null) 'width': width,
+        if (height != null) 'height': height,
+        'filter': describeEnum(filter),
+        'format': describeEnum(format),
+        'rotate': rotate,
+      };
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) {
+      return true;
+    }
+    return other is ImageStreamProcessing &&
+        crop == other.crop &&
+        width == other.width &&
+        height == other.height &&
+        filter == other.filter &&
+        format == other.format &&
+        rotate == other.rotate;
+  }
+
+  @override
+  int get hashCode =>
+      hashObjects(<Object?>[crop, width, height, filter, format, rotate]);
+}
+
+/// Settings of an image stream started by [CameraController.startImageStream].
+@immutable
+class ImageStreamOptions {
+  /// Creates a new set of image stream options.
+  const ImageStreamOptions({
+    this.transport = ImageStreamTransport.map,
+    this.backpressure = ImageStreamBackpressure.none,
+    this.maxFramesInFlight = 1,
+    this.frameInterval = 1,
+    this.processing,
+    this.width,
+    this.height,
+    this.imageFormatGroup,
+    this.maxImages,
+  })  : assert(maxFramesInFlight > 0),
+        assert(frameInterval > 0),
+        assert(width == null || width > 0),
+        assert(height == null || height > 0),
+        assert(maxImages == null || maxImages > 0);
+
+  /// How frames are encoded on their way from the platform.
+  final ImageStreamTransport transport;
+
+  /// Decides which frames are dropped when the app does not keep up.
+  final ImageStreamBackpressure backpressure;
+
+  /// The number of frames that may be in flight before
+  /// [ImageStreamBackpressure.dropWhenBusy] drops new ones.
+  final int maxFramesInFlight;
+
+  /// The n of [ImageStreamBackpressure.everyNth].
+  final int frameInterval;
+
+  /// Native processing applied to frames before they are sent, or null to
+  /// send frames as captured.
+  final ImageStreamProcessing? processing;
+
+  /// The minimum width of captured frames, in the orientation of the sensor.
+  ///
+  /// When [width] or [height] is given, frames are captured in the smallest
+  /// size supported by the camera that covers them, independently of the
+  /// preview size. This lets a small analysis stream run alongside a sharp
+  /// preview. Otherwise frames have the size of the preview. Only supported
+  /// on Android.
+  final int? width;
+
+  /// The minimum height of captured frames, in the orientation of the sensor.
+  ///
+  /// See [width].
+  final int? height;
+
+  /// The format frames are captured in, or null to use the
+  /// [CameraController.imageFormatGroup] the camera was created with.
+  ///
+  /// Only supported on Android.
+  final ImageFormatGroup? imageFormatGroup;
+
+  /// The maximum number of frames the camera may hold for the stream at once,
+  /// or null for one.
+  ///
+  /// Only supported on Android.
+  final int? maxImages;
+
+  /// Converts the options to the arguments of the `startImageStream` call.
+  Map<String, dynamic> toJson() => <String, dynamic>{
+        'transport': describeEnum(transport),
+        'backpressure': describeEnum(backpressure),
+        'maxFramesInFlight': maxFramesInFlight,
+        'frameInterval': frameInterval,
+        if (processing != null) 'processing': processing!.toJson(),
+        if (width != null) 'width': width,
+        if (height != null) 'height': height,
+        if (imageFormatGroup != null)
+          'imageFormatGroup': imageFormatGroup!.name(),
+        if (maxImages != null) 'maxImages': maxImages,
+      };
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) {
+      return true;
+    }
+    return other is ImageStreamOptions &&
+        transport == other.transport &&
+        backpressure == other.backpressure &&
+        maxFramesInFlight == other.maxFramesInFlight &&
+        frameInterval == other.frameInterval &&
+        processing == other.processing &&
+        width == other.width &&
+        height == other.height &&
+        imageFormatGroup == other.imageFormatGroup &&
+        maxImages == other.maxImages;
+  }
+
+  @override
+  int get hashCode => hashObjects(<Object?>[
+        transport,
+        backpressure,
+        maxFramesInFlight,
+        frameInterval,
+        processing,
+        width,
+        height,
+        imageFormatGroup,
+        maxImages,
+      ]);
+}
+
+/// Frame counters of the current or last image stream.
+@immutable
+class ImageStreamStats {
+  /// Creates a new set of image stream counters.
+  const ImageStreamStats({required this.delivered, required this.dropped});
+
+  /// Creates image stream counters from the platform's reply.
+  ImageStreamStats.fromJson(Map<String, dynamic> json)
+      : delivered = json['delivered'] as int,
+        dropped = json['dropped'] as int;
+
+  /// The number of frames sent to the app.
+  final int delivered;
+
+  /// The number of frames dropped by the backpressure policy.
+  final int dropped;
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) {
+      return true;
+    }
+    return other is ImageStreamStats &&
+        delivered == other.delivered &&
+        dropped == other.dropped;
+  }
+
+  @override
+  int get hashCode => hash2(delivered, dropped);
+
+  @override
+  String toString() =>
+      'ImageStreamStats(delivered: $delivered, dropped: $dropped)';
+}
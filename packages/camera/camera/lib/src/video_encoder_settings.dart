@@ -0,0 +1,118 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera_platform_interface/camera_platform_interface.dart'
+    show XFile;
+import 'package:flutter/foundation.dart';
+import 'package:quiver/core.dart';
+
+/// The codec videos are encoded with by [VideoEncoderSettings].
+enum VideoCodec {
+  /// H.264, also known as AVC, which every device can encode.
+  h264,
+
+  /// H.265, also known as HEVC, which compresses better but is not available
+  /// on every device.
+  hevc,
+}
+
+/// Settings of the video encoder enabled by [CameraController.setVideoEncoder].
+///
+/// Settings left null keep the values of the recording profile of the
+/// controller's [ResolutionPreset].
+@immutable
+class VideoEncoderSettings {
+  /// Creates new video encoder settings.
+  const VideoEncoderSettings({
+    this.codec = VideoCodec.h264,
+    this.bitrate,
+    this.frameRate,
+    this.keyFrameInterval = 1,
+  });
+
+  /// The codec videos are encoded with.
+  final VideoCodec codec;
+
+  /// The video bitrate, in bits per second.
+  final int? bitrate;
+
+  /// The frame rate the encoder is configured for, in frames per second.
+  ///
+  /// This only sets the rate the encoder budgets its bitrate for; the camera
+  /// keeps delivering frames at the rate of its exposure settings.
+  final int? frameRate;
+
+  /// The time between key frames, in seconds, which bounds the size of a
+  /// group of pictures.
+  ///
+  /// A value of 0 makes every frame a key frame, and a negative value only
+  /// encodes a key frame at the start of the video.
+  final int keyFrameInterval;
+
+  /// Converts the settings to the arguments of the `setVideoEncoder` call.
+  Map<String, dynamic> toJson() => <String, dynamic>{
+        'codec': describeEnum(codec),
+        if (bitrate != null) 'bitrate': bitrate,
+        if (frameRate != null) 'frameRate': frameRate,
+        'keyFrameInterval': keyFrameInterval,
+      };
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) {
+      return true;
+    }
+    return other is VideoEncoderSettings &&
+        codec == other.codec &&
+        bitrate == other.bitrate &&
+        frameRate == other.frameRate &&
+        keyFrameInterval == other.keyFrameInterval;
+  }
+
+  @override
+  int get hashCode =>
+      hashObjects(<Object?>[codec, bitrate, frameRate, keyFrameInterval]);
+}
+
+/// The frames of the last video recorded with the video encoder enabled by
+/// [CameraController.setVideoEncoder].
+@immutable
+class VideoRecordingInfo {
+  /// Creates a new description of a recording.
+  const VideoRecordingInfo({
+    required this.file,
+    required this.firstFrameTimestamp,
+    required this.lastFrameTimestamp,
+    required this.frameCount,
+  });
+
+  /// Creates a description of a recording from the platform's reply.
+  VideoRecordingInfo.fromJson(Map<String, dynamic> json)
+      : file = XFile(json['path'] as String),
+        firstFrameTimestamp = json['firstFrameTimestamp'] as int,
+        lastFrameTimestamp = json['lastFrameTimestamp'] as int,
+        frameCount = json['frameCount'] as int;
+
+  /// The file the video was written to.
+  final XFile file;
+
+  /// The time the sensor started exposing the first frame of the video, in
+  /// nanoseconds.
+  ///
+  /// The time base is the one of the camera's sensor timestamps, the same as
+  /// [BurstShot.timestamp].
+  final int firstFrameTimestamp;
+
+  /// The time the sensor started exposing the last frame of the video, in
+  /// nanoseconds.
+  final int lastFrameTimestamp;
+
+  /// The number of frames in the video.
+  final int frameCount;
+
+  @override
+  String toString() => 'VideoRecordingInfo(path: ${file.path}, '
+      'firstFrameTimestamp: $firstFrameTimestamp, '
+      'lastFrameTimestamp: $lastFrameTimestamp, frameCount: $frameCount)';
+}
@@ -0,0 +1,112 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera/camera.dart';
+import 'package:camera_platform_interface/camera_platform_interface.dart';
+import 'package:flutter/services.dart';
+import 'package:flutter_test/flutter_test.dart';
+
+import 'camera_test.dart';
+import 'utils/method_channel_mock.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  setUp(() {
+    CameraPlatform.instance = MockCameraPlatform();
+  });
+
+  test('takeBurst() throws $CameraException when uninitialized', () {
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+
+    expect(
+      () => cameraController.takeBurst((shot) => null),
+      throwsA(
+        isA<CameraException>().having(
+          (error) => error.code,
+          'code',
+          'Uninitialized CameraController',
+        ),
+      ),
+    );
+  });
+
+  test('takeBurst() delivers saved pictures until the burst ends', () async {
+    const String burstChannel = 'plugins.flutter.io/camera/burst';
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'startBurst': null});
+    ServicesBinding.instance!.defaultBinaryMessenger
+        .setMockMessageHandler(burstChannel, (ByteData? message) async {
+      final MethodCall call =
+          const StandardMethodCodec().decodeMethodCall(message);
+      if (call.method == 'listen') {
+        await ServicesBinding.instance!.defaultBinaryMessenger
+            .handlePlatformMessage(
+                burstChannel,
+                const StandardMethodCodec()
+                    .encodeSuccessEnvelope(<String, dynamic>{
+                  'index': 0,
+                  'path': '/tmp/CAP0.jpg',
+                  'timestamp': 1000000,
+                  'interval': 0,
+                  'elapsed': 120000,
+                  'saveDuration': 15000,
+                }),
+                (ByteData? data) {});
+        await ServicesBinding.instance!.defaultBinaryMessenger
+            .handlePlatformMessage(burstChannel, null, (ByteData? data) {});
+      }
+      return const StandardMethodCodec().encodeSuccessEnvelope(null);
+    });
+
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    final List<BurstShot> shots = <BurstShot>[];
+    await cameraController.takeBurst(shots.add, count: 1);
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('startBurst', arguments: <String, dynamic>{'count': 1}),
+    ]);
+    expect(shots, hasLength(1));
+    expect(shots.single.index, 0);
+    expect(shots.single.file.path, '/tmp/CAP0.jpg');
+    expect(shots.single.elapsed, const Duration(milliseconds: 120));
+    expect(shots.single.saveDuration, const Duration(milliseconds: 15));
+
+    ServicesBinding.instance!.defaultBinaryMessenger
+        .setMockMessageHandler(burstChannel, null);
+  });
+
+  test('stopBurst() throws $CameraException when no burst is taken',
+      () async {
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    expect(
+      cameraController.stopBurst,
+      throwsA(isA<CameraException>().having(
+        (error) => error.description,
+        'description',
+        'stopBurst was called when no burst is being taken.',
+      )),
+    );
+  });
+}
@@ -2,6 +2,8 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:ui' show Rect;
+
 import 'package:camera/camera.dart';
 import 'package:camera_platform_interface/camera_platform_interface.dart';
 import 'package:flutter_test/flutter_test.dart';
@@ -110,6 +112,142 @@ void main() {
         <Matcher>[isMethodCall('listen', arguments: null)]);
   });
 
+  test('startImageStream() passes options to the platform', () async {
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'startImageStream': {}});
+    MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera/imageStream',
+        methods: {'listen': {}});
+
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    await cameraController.startImageStream((image) => null,
+        options: ImageStreamOptions(
+            transport: ImageStreamTransport.packed,
+            backpressure: ImageStreamBackpressure.dropWhenBusy,
+            maxFramesInFlight: 2));
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('startImageStream', arguments: <String, dynamic>{
+        'transport': 'packed',
+        'backpressure': 'dropWhenBusy',
+        'maxFramesInFlight': 2,
+        'frameInterval': 1,
+      })
+    ]);
+  });
+
+  test('startImageStream() passes processing settings to the platform',
+      () async {
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'startImageStream': {}});
+    MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera/imageStream',
+        methods: {'listen': {}});
+
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    await cameraController.startImageStream((image) => null,
+        options: ImageStreamOptions(
+            processing: ImageStreamProcessing(
+                crop: Rect.fromLTWH(0.25, 0, 0.5, 1),
+                width: 224,
+                format: ImageStreamOutputFormat.rgb,
+                rotate: true)));
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('startImageStream', arguments: <String, dynamic>{
+        'transport': 'map',
+        'backpressure': 'none',
+        'maxFramesInFlight': 1,
+        'frameInterval': 1,
+        'processing': <String, dynamic>{
+          'crop': <String, double>{
+            'left': 0.25,
+            'top': 0,
+            'width': 0.5,
+            'height': 1,
+          },
+          'width': 224,
+          'filter': 'bilinear',
+          'format': 'rgb',
+          'rotate': true,
+        },
+      })
+    ]);
+  });
+
+  test('startImageStream() passes the stream configuration to the platform',
+      () async {
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'startImageStream': {}});
+    MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera/imageStream',
+        methods: {'listen': {}});
+
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    await cameraController.startImageStream((image) => null,
+        options: ImageStreamOptions(
+            width: 640,
+            height: 480,
+            imageFormatGroup: ImageFormatGroup.yuv420,
+            maxImages: 2));
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('startImageStream', arguments: <String, dynamic>{
+        'transport': 'map',
+        'backpressure': 'none',
+        'maxFramesInFlight': 1,
+        'frameInterval': 1,
+        'width': 640,
+        'height': 480,
+        'imageFormatGroup': 'yuv420',
+        'maxImages': 2,
+      })
+    ]);
+  });
+
+  test('getImageStreamStats() returns the platform counters', () async {
+    MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {
+          'getImageStreamStats': {'delivered': 3, 'dropped': 1}
+        });
+
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    expect(await cameraController.getImageStreamStats(),
+        ImageStreamStats(delivered: 3, dropped: 1));
+  });
+
   test('stopImageStream() throws $CameraException when uninitialized', () {
     CameraController cameraController = CameraController(
         CameraDescription(
@@ -125,5 +125,43 @@ void main() {
       });
       expect(cameraImage.format.group, ImageFormatGroup.unknown);
     });
+
+    test('$CameraImage can be created from packed data', () {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      final ByteData data = ByteData(40 + 2 * 12 + 6)
+        ..setInt32(0, 35, Endian.little)
+        ..setInt32(4, 4, Endian.little)
+        ..setInt32(8, 1, Endian.little)
+        ..setInt32(12, 2, Endian.little)
+        ..setFloat64(16, 1.8, Endian.little)
+        ..setInt64(24, 9991324, Endian.little)
+        ..setFloat64(32, double.nan, Endian.little)
+        ..setInt32(40, 4, Endian.little)
+        ..setInt32(44, 1, Endian.little)
+        ..setInt32(48, 4, Endian.little)
+        ..setInt32(52, 2, Endian.little)
+        ..setInt32(56, 2, Endian.little)
+        ..setInt32(60, 2, Endian.little);
+      for (int i = 0; i < 6; i++) {
+        data.setUint8(64 + i, i + 1);
+      }
+
+      CameraImage cameraImage = CameraImage.fromPackedPlatformData(data);
+
+      expect(cameraImage.format.group, ImageFormatGroup.yuv420);
+      expect(cameraImage.width, 4);
+      expect(cameraImage.height, 1);
+      expect(cameraImage.lensAperture, 1.8);
+      expect(cameraImage.sensorExposureTime, 9991324);
+      expect(cameraImage.sensorSensitivity, isNull);
+      expect(cameraImage.planes.length, 2);
+      expect(cameraImage.planes[0].bytes, <int>[1, 2, 3, 4]);
+      expect(cameraImage.planes[0].bytesPerRow, 4);
+      expect(cameraImage.planes[0].bytesPerPixel, 1);
+      expect(cameraImage.planes[1].bytes, <int>[5, 6]);
+      expect(cameraImage.planes[1].bytesPerRow, 2);
+      expect(cameraImage.planes[1].bytesPerPixel, 2);
+      expect(cameraImage.planes[1].bytes.buffer, same(data.buffer));
+    });
   });
 }
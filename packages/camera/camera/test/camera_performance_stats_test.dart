@@ -0,0 +1,138 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera/camera.dart';
+import 'package:camera_platform_interface/camera_platform_interface.dart';
+import 'package:flutter/services.dart';
+import 'package:flutter_test/flutter_test.dart';
+
+import 'camera_test.dart';
+import 'utils/method_channel_mock.dart';
+
+const Map<String, dynamic> _noDurations = <String, dynamic>{
+  'count': 0,
+  'average': 0,
+  'max': 0,
+};
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  setUp(() {
+    CameraPlatform.instance = MockCameraPlatform();
+  });
+
+  test('CameraPerformanceStats.fromPlatformData() parses the event', () {
+    final CameraPerformanceStats stats =
+        CameraPerformanceStats.fromPlatformData(<dynamic, dynamic>{
+      'period': 1000000,
+      'previewFrames': 30,
+      'previewFrameRate': 29.97,
+      'sensorLatency': <dynamic, dynamic>{
+        'count': 30,
+        'average': 11000,
+        'max': 40000,
+      },
+      'streamAcquired': 30,
+      'streamDelivered': 20,
+      'streamDropped': 10,
+      'focus': _noDurations,
+      'precapture': _noDurations,
+      'pictureSave': <dynamic, dynamic>{
+        'count': 1,
+        'average': 15000,
+        'max': 15000,
+      },
+    });
+
+    expect(stats.period, const Duration(seconds: 1));
+    expect(stats.previewFrames, 30);
+    expect(stats.previewFrameRate, 29.97);
+    expect(stats.sensorLatency.count, 30);
+    expect(stats.sensorLatency.average, const Duration(milliseconds: 11));
+    expect(stats.sensorLatency.max, const Duration(milliseconds: 40));
+    expect(stats.streamFramesAcquired, 30);
+    expect(stats.streamFramesDelivered, 20);
+    expect(stats.streamFramesDropped, 10);
+    expect(stats.focus.count, 0);
+    expect(stats.pictureSave.average, const Duration(milliseconds: 15));
+  });
+
+  test('startPerformanceStats() throws $CameraException when uninitialized',
+      () {
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+
+    expect(
+      () => cameraController.startPerformanceStats((stats) => null),
+      throwsA(
+        isA<CameraException>().having(
+          (error) => error.code,
+          'code',
+          'Uninitialized CameraController',
+        ),
+      ),
+    );
+  });
+
+  test('startPerformanceStats() delivers periodic stats', () async {
+    const String statsChannel = 'plugins.flutter.io/camera/stats';
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'startPerformanceStats': null});
+    ServicesBinding.instance!.defaultBinaryMessenger
+        .setMockMessageHandler(statsChannel, (ByteData? message) async {
+      final MethodCall call =
+          const StandardMethodCodec().decodeMethodCall(message);
+      if (call.method == 'listen') {
+        await ServicesBinding.instance!.defaultBinaryMessenger
+            .handlePlatformMessage(
+                statsChannel,
+                const StandardMethodCodec()
+                    .encodeSuccessEnvelope(<String, dynamic>{
+                  'period': 500000,
+                  'previewFrames': 15,
+                  'previewFrameRate': 30.0,
+                  'sensorLatency': _noDurations,
+                  'streamAcquired': 0,
+                  'streamDelivered': 0,
+                  'streamDropped': 0,
+                  'focus': _noDurations,
+                  'precapture': _noDurations,
+                  'pictureSave': _noDurations,
+                }),
+                (ByteData? data) {});
+      }
+      return const StandardMethodCodec().encodeSuccessEnvelope(null);
+    });
+
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    final List<CameraPerformanceStats> reports = <CameraPerformanceStats>[];
+    await cameraController.startPerformanceStats(reports.add,
+        interval: const Duration(milliseconds: 500));
+    await pumpEventQueue();
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('startPerformanceStats',
+          arguments: <String, dynamic>{'interval': 500}),
+    ]);
+    expect(reports, hasLength(1));
+    expect(reports.single.previewFrameRate, 30.0);
+
+    await cameraController.stopPerformanceStats();
+    ServicesBinding.instance!.defaultBinaryMessenger
+        .setMockMessageHandler(statsChannel, null);
+  });
+}
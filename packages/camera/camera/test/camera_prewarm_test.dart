@@ -0,0 +1,53 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera/camera.dart';
+import 'package:camera_platform_interface/camera_platform_interface.dart';
+import 'package:flutter/services.dart';
+import 'package:flutter_test/flutter_test.dart';
+
+import 'utils/method_channel_mock.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  final CameraDescription description = CameraDescription(
+      name: 'cam',
+      lensDirection: CameraLensDirection.back,
+      sensorOrientation: 90);
+
+  test('prewarm() sends the camera settings to the platform', () async {
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera', methods: {'prewarm': null});
+
+    await CameraController.prewarm(description, ResolutionPreset.veryHigh,
+        enableAudio: false, imageFormatGroup: ImageFormatGroup.jpeg);
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('prewarm', arguments: <String, dynamic>{
+        'cameraName': 'cam',
+        'resolutionPreset': 'veryHigh',
+        'enableAudio': false,
+        'imageFormatGroup': 'jpeg',
+      }),
+    ]);
+  });
+
+  test('prewarm() throws $CameraException on $PlatformException', () {
+    MethodChannelMock(channelName: 'plugins.flutter.io/camera', methods: {
+      'prewarm': PlatformException(
+        code: 'CameraAccess',
+        message: 'Camera in use',
+      )
+    });
+
+    expect(
+      () => CameraController.prewarm(description, ResolutionPreset.max),
+      throwsA(isA<CameraException>()
+          .having((error) => error.code, 'code', 'CameraAccess')
+          .having((error) => error.description, 'description',
+              'Camera in use')),
+    );
+  });
+}
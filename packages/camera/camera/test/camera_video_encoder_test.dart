@@ -0,0 +1,133 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera/camera.dart';
+import 'package:camera_platform_interface/camera_platform_interface.dart';
+import 'package:flutter/services.dart';
+import 'package:flutter_test/flutter_test.dart';
+
+import 'camera_test.dart';
+import 'utils/method_channel_mock.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  setUp(() {
+    CameraPlatform.instance = MockCameraPlatform();
+  });
+
+  CameraController createController() => CameraController(
+      CameraDescription(
+          name: 'cam',
+          lensDirection: CameraLensDirection.back,
+          sensorOrientation: 90),
+      ResolutionPreset.max);
+
+  test('VideoEncoderSettings.toJson() leaves out unset values', () {
+    expect(const VideoEncoderSettings().toJson(), <String, dynamic>{
+      'codec': 'h264',
+      'keyFrameInterval': 1,
+    });
+    expect(
+        const VideoEncoderSettings(
+          codec: VideoCodec.hevc,
+          bitrate: 8000000,
+          frameRate: 30,
+          keyFrameInterval: 2,
+        ).toJson(),
+        <String, dynamic>{
+          'codec': 'hevc',
+          'bitrate': 8000000,
+          'frameRate': 30,
+          'keyFrameInterval': 2,
+        });
+  });
+
+  test('setVideoEncoder() throws $CameraException when uninitialized', () {
+    expect(
+      () => createController().setVideoEncoder(const VideoEncoderSettings()),
+      throwsA(
+        isA<CameraException>().having(
+          (error) => error.code,
+          'code',
+          'Uninitialized CameraController',
+        ),
+      ),
+    );
+  });
+
+  test('setVideoEncoder() sends the settings to the platform', () async {
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'setVideoEncoder': null});
+    CameraController cameraController = createController();
+    await cameraController.initialize();
+
+    await cameraController
+        .setVideoEncoder(const VideoEncoderSettings(bitrate: 4000000));
+    await cameraController.setVideoEncoder(null);
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('setVideoEncoder', arguments: <String, dynamic>{
+        'codec': 'h264',
+        'bitrate': 4000000,
+        'keyFrameInterval': 1,
+      }),
+      isMethodCall('setVideoEncoder', arguments: null),
+    ]);
+  });
+
+  test('setVideoEncoder() throws $CameraException on $PlatformException',
+      () async {
+    MethodChannelMock(channelName: 'plugins.flutter.io/camera', methods: {
+      'setVideoEncoder': PlatformException(
+        code: 'videoEncoderNotSupported',
+        message: 'Not supported',
+      ),
+    });
+    CameraController cameraController = createController();
+    await cameraController.initialize();
+
+    expect(
+      cameraController.setVideoEncoder(const VideoEncoderSettings()),
+      throwsA(isA<CameraException>().having(
+        (error) => error.code,
+        'code',
+        'videoEncoderNotSupported',
+      )),
+    );
+  });
+
+  test('getLastVideoRecordingInfo() parses the platform reply', () async {
+    MethodChannelMock(channelName: 'plugins.flutter.io/camera', methods: {
+      'getVideoRecordingInfo': <String, dynamic>{
+        'path': '/tmp/REC.mp4',
+        'firstFrameTimestamp': 1000000,
+        'lastFrameTimestamp': 3000000,
+        'frameCount': 3,
+      },
+    });
+    CameraController cameraController = createController();
+    await cameraController.initialize();
+
+    final VideoRecordingInfo? info =
+        await cameraController.getLastVideoRecordingInfo();
+
+    expect(info!.file.path, '/tmp/REC.mp4');
+    expect(info.firstFrameTimestamp, 1000000);
+    expect(info.lastFrameTimestamp, 3000000);
+    expect(info.frameCount, 3);
+  });
+
+  test('getLastVideoRecordingInfo() returns null without a recording',
+      () async {
+    MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'getVideoRecordingInfo': null});
+    CameraController cameraController = createController();
+    await cameraController.initialize();
+
+    expect(await cameraController.getLastVideoRecordingInfo(), isNull);
+  });
+}
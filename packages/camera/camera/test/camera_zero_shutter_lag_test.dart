@@ -0,0 +1,87 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera/camera.dart';
+import 'package:camera_platform_interface/camera_platform_interface.dart';
+import 'package:flutter/services.dart';
+import 'package:flutter_test/flutter_test.dart';
+
+import 'camera_test.dart';
+import 'utils/method_channel_mock.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  setUp(() {
+    CameraPlatform.instance = MockCameraPlatform();
+  });
+
+  test('setZeroShutterLag() throws $CameraException when uninitialized', () {
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+
+    expect(
+      () => cameraController.setZeroShutterLag(true),
+      throwsA(
+        isA<CameraException>().having(
+          (error) => error.code,
+          'code',
+          'Uninitialized CameraController',
+        ),
+      ),
+    );
+  });
+
+  test('setZeroShutterLag() calls the platform', () async {
+    MethodChannelMock cameraChannelMock = MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {'setZeroShutterLag': null});
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    await cameraController.setZeroShutterLag(true);
+
+    expect(cameraChannelMock.log, <Matcher>[
+      isMethodCall('setZeroShutterLag',
+          arguments: <String, dynamic>{'enabled': true}),
+    ]);
+  });
+
+  test('setZeroShutterLag() throws $CameraException on $PlatformException',
+      () async {
+    MethodChannelMock(
+        channelName: 'plugins.flutter.io/camera',
+        methods: {
+          'setZeroShutterLag': PlatformException(
+            code: 'zeroShutterLagNotSupported',
+            message: 'Not supported',
+          ),
+        });
+    CameraController cameraController = CameraController(
+        CameraDescription(
+            name: 'cam',
+            lensDirection: CameraLensDirection.back,
+            sensorOrientation: 90),
+        ResolutionPreset.max);
+    await cameraController.initialize();
+
+    expect(
+      cameraController.setZeroShutterLag(true),
+      throwsA(isA<CameraException>().having(
+        (error) => error.code,
+        'code',
+        'zeroShutterLagNotSupported',
+      )),
+    );
+  });
+}
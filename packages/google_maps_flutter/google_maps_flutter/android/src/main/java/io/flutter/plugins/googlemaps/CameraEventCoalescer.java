@@ -0,0 +1,171 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.Nullable;
+import com.google.android.gms.maps.model.CameraPosition;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends {@code camera#onMove} events to Dart, throttled and filtered by the map's camera event
+ * options.
+ *
+ * <p>A move that arrives too soon after the previous event, or that changes the camera by less than
+ * every threshold, is held back and replaced by later moves. A held back move is sent once the
+ * throttling interval has passed, and always before the camera becomes idle, so Dart sees the
+ * final position. The payload maps are allocated once and refilled for every event, which is safe
+ * because the method channel encodes them before {@code invokeMethod} returns. Must be used on the
+ * main thread.
+ */
+class CameraEventCoalescer {
+
+  private final MethodChannel methodChannel;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Runnable flushPending = this::flushPending;
+
+  private final Map<String, Object> arguments = new HashMap<>(2);
+  private final Map<String, Object> position = new HashMap<>(8);
+  private final List<Double> target = new ArrayList<>(2);
+
+  private long minIntervalMillis;
+  private float minPixelDelta;
+  private float minZoomDelta;
+  private float minAngleDelta;
+
+  @Nullable private CameraPosition lastSent;
+  private long lastSentMillis;
+  @Nullable private CameraPosition pending;
+  private boolean flushScheduled;
+  private int received;
+  private int sent;
+
+  CameraEventCoalescer(MethodChannel methodChannel) {
+    this.methodChannel = methodChannel;
+    arguments.put("position", position);
+    target.add(0.0);
+    target.add(0.0);
+  }
+
+  /**
+   * Sets the maximum number of events per second, 0 for no limit, and the changes below which a
+   * move is not reported on its own.
+   */
+  void setOptions(
+      double maxFrequency, float minPixelDelta, float minZoomDelta, float minAngleDelta) {
+    this.minIntervalMillis = maxFrequency > 0 ? (long) Math.ceil(1000 / maxFrequency) : 0;
+    this.minPixelDelta = minPixelDelta;
+    this.minZoomDelta = minZoomDelta;
+    this.minAngleDelta = minAngleDelta;
+  }
+
+  void onCameraMove(CameraPosition cameraPosition) {
+    received++;
+    if (!exceedsThresholds(lastSent, cameraPosition)) {
+      pending = cameraPosition;
+      return;
+    }
+    final long waitMillis = lastSentMillis + minIntervalMillis - SystemClock.uptimeMillis();
+    if (lastSent != null && waitMillis > 0) {
+      pending = cameraPosition;
+      if (!flushScheduled) {
+        flushScheduled = true;
+        handler.postDelayed(flushPending, waitMillis);
+      }
+      return;
+    }
+    send(cameraPosition);
+  }
+
+  /** Sends the move held back for the camera's final position, if any. */
+  void onCameraIdle() {
+    if (pending != null) {
+      send(pending);
+    }
+    lastSent = null;
+  }
+
+  Map<String, Object> getStats() {
+    final Map<String, Object> stats = new HashMap<>(2);
+    stats.put("received", received);
+    stats.put("sent", sent);
+    return stats;
+  }
+
+  void dispose() {
+    handler.removeCallbacks(flushPending);
+    flushScheduled = false;
+    pending = null;
+  }
+
+  private void flushPending() {
+    flushScheduled = false;
+    if (pending != null && exceedsThresholds(lastSent, pending)) {
+      send(pending);
+    }
+  }
+
+  private void send(CameraPosition cameraPosition) {
+    handler.removeCallbacks(flushPending);
+    flushScheduled = false;
+    pending = null;
+    lastSent = cameraPosition;
+    lastSentMillis = SystemClock.uptimeMillis();
+    sent++;
+
+    target.set(0, cameraPosition.target.latitude);
+    target.set(1, cameraPosition.target.longitude);
+    position.put("bearing", cameraPosition.bearing);
+    position.put("target", target);
+    position.put("tilt", cameraPosition.tilt);
+    position.put("zoom", cameraPosition.zoom);
+    methodChannel.invokeMethod("camera#onMove", arguments);
+  }
+
+  private boolean exceedsThresholds(@Nullable CameraPosition from, CameraPosition to) {
+    if (from == null || (minPixelDelta <= 0 && minZoomDelta <= 0 && minAngleDelta <= 0)) {
+      return true;
+    }
+    if (minZoomDelta > 0 && Math.abs(to.zoom - from.zoom) >= minZoomDelta) {
+      return true;
+    }
+    if (minAngleDelta > 0
+        && (angleBetween(from.bearing, to.bearing) >= minAngleDelta
+            || Math.abs(to.tilt - from.tilt) >= minAngleDelta)) {
+      return true;
+    }
+    return minPixelDelta > 0 && pixelDistance(from, to) >= minPixelDelta;
+  }
+
+  private static float angleBetween(float a, float b) {
+    final float delta = Math.abs(a - b) % 360;
+    return delta > 180 ? 360 - delta : delta;
+  }
+
+  /** Returns how far the target moved, in logical pixels at the destination zoom. */
+  private static double pixelDistance(CameraPosition from, CameraPosition to) {
+    // One world is 256 logical pixels wide at zoom 0, and doubles with every zoom level.
+    final double worldSize = 256 * Math.pow(2, to.zoom);
+    double dx = (to.target.longitude - from.target.longitude) / 360;
+    if (dx > 0.5) {
+      dx -= 1;
+    } else if (dx < -0.5) {
+      dx += 1;
+    }
+    final double dy = mercatorY(to.target.latitude) - mercatorY(from.target.latitude);
+    return Math.hypot(dx, dy) * worldSize;
+  }
+
+  private static double mercatorY(double latitude) {
+    final double sin = Math.sin(Math.toRadians(Math.max(-85, Math.min(85, latitude))));
+    return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+  }
+}
@@ -7,6 +7,7 @@ package io.flutter.plugins.googlemaps;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.Circle;
 import com.google.android.gms.maps.model.CircleOptions;
+import com.google.android.gms.maps.model.LatLngBounds;
 import io.flutter.plugin.common.MethodChannel;
 import java.util.HashMap;
 import java.util.List;
@@ -16,6 +17,7 @@ class CirclesController {
 
   private final Map<String, CircleController> circleIdToController;
   private final Map<String, String> googleMapsCircleIdToDartCircleId;
+  private final ViewportCuller viewportCuller = new ViewportCuller(new CullingDelegate());
   private final MethodChannel methodChannel;
   private final float density;
   private GoogleMap googleMap;
@@ -31,10 +33,20 @@ class CirclesController {
     this.googleMap = googleMap;
   }
 
+  void setViewportCullingEnabled(boolean enabled) {
+    viewportCuller.setEnabled(enabled);
+  }
+
+  void setVisibleRegion(LatLngBounds visibleRegion) {
+    viewportCuller.setVisibleRegion(visibleRegion);
+  }
+
   void addCircles(List<Object> circlesToAdd) {
     if (circlesToAdd != null) {
       for (Object circleToAdd : circlesToAdd) {
-        addCircle(circleToAdd);
+        if (circleToAdd != null) {
+          viewportCuller.add(getCircleId(circleToAdd), circleToAdd);
+        }
       }
     }
   }
@@ -42,7 +54,10 @@ class CirclesController {
   void changeCircles(List<Object> circlesToChange) {
     if (circlesToChange != null) {
       for (Object circleToChange : circlesToChange) {
-        changeCircle(circleToChange);
+        if (circleToChange != null
+            && !viewportCuller.change(getCircleId(circleToChange), circleToChange)) {
+          changeCircle(circleToChange);
+        }
       }
     }
   }
@@ -56,10 +71,8 @@ class CirclesController {
         continue;
       }
       String circleId = (String) rawCircleId;
-      final CircleController circleController = circleIdToController.remove(circleId);
-      if (circleController != null) {
-        circleController.remove();
-        googleMapsCircleIdToDartCircleId.remove(circleController.getGoogleMapsCircleId());
+      if (!viewportCuller.remove(circleId)) {
+        removeCircle(circleId);
       }
     }
   }
@@ -105,9 +118,40 @@ class CirclesController {
     }
   }
 
+  private void removeCircle(String circleId) {
+    final CircleController circleController = circleIdToController.remove(circleId);
+    if (circleController != null) {
+      circleController.remove();
+      googleMapsCircleIdToDartCircleId.remove(circleController.getGoogleMapsCircleId());
+    }
+  }
+
   @SuppressWarnings("unchecked")
   private static String getCircleId(Object circle) {
     Map<String, Object> circleMap = (Map<String, Object>) circle;
     return (String) circleMap.get("circleId");
   }
+
+  /** Adds and removes circles as the viewport culler materializes them. */
+  private final class CullingDelegate implements ViewportCuller.Delegate {
+    @Override
+    public LatLngBounds boundsOf(Object circle) {
+      return Convert.toObjectBounds(circle);
+    }
+
+    @Override
+    public void add(Object circle) {
+      addCircle(circle);
+    }
+
+    @Override
+    public void change(Object circle) {
+      changeCircle(circle);
+    }
+
+    @Override
+    public void remove(String circleId) {
+      removeCircle(circleId);
+    }
+  }
 }
@@ -2,15 +2,33 @@ package io.flutter.plugins.googlemaps;
 
 import android.graphics.Bitmap;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class ClusterIcon {
     private final List<Bitmap> icons;
     private final List<Integer> bucket;
+    private final int[] sortedBuckets;
 
     public ClusterIcon(List<Bitmap> icon, List<Integer> bucket) {
-        this.icons = icon;
-        this.bucket = bucket;
+        // Keep the buckets sorted by size, each with its own icon, so lookups can bisect them.
+        final Integer[] order = new Integer[bucket.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(bucket.get(a), bucket.get(b)));
+        final List<Bitmap> sortedIcons = new ArrayList<>(order.length);
+        final List<Integer> sortedBucketList = new ArrayList<>(order.length);
+        this.sortedBuckets = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedIcons.add(icon.get(order[i]));
+            sortedBucketList.add(bucket.get(order[i]));
+            sortedBuckets[i] = bucket.get(order[i]);
+        }
+        this.icons = Collections.unmodifiableList(sortedIcons);
+        this.bucket = Collections.unmodifiableList(sortedBucketList);
     }
 
     public List<Bitmap> getIcon() {
@@ -20,4 +38,22 @@ public class ClusterIcon {
     public List<Integer> getBucket() {
         return bucket;
     }
+
+    /**
+     * Returns the index of the first bucket larger than {@code clusterSize}, or of the last bucket
+     * if the cluster is larger than all of them.
+     */
+    int bucketIndexOf(int clusterSize) {
+        int low = 0;
+        int high = sortedBuckets.length - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (clusterSize < sortedBuckets[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
 }
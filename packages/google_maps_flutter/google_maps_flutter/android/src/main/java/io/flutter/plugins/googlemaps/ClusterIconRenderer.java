@@ -0,0 +1,164 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.ImageView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.maps.android.ui.IconGenerator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders labelled cluster and cluster item icons on a background thread.
+ *
+ * <p>Rendered icons are memoized in the map's {@link IconCache}, keyed by their source icon and
+ * label, so each (bucket, count) pair is only rendered once. Until an icon is ready, callers show
+ * the unlabelled source icon and are notified on the main thread to swap the rendered one in.
+ */
+class ClusterIconRenderer {
+
+  /** Receives a rendered icon on the main thread. */
+  interface OnIconReadyListener {
+    void onIconReady(@NonNull BitmapDescriptor icon);
+  }
+
+  private final Context context;
+  private final IconCache iconCache;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  // IconGenerator and its views are not thread safe, so a single worker owns them.
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  // Only accessed on the main thread.
+  private final Map<String, List<OnIconReadyListener>> pending = new HashMap<>();
+  private boolean disposed;
+
+  // Only accessed on the worker thread.
+  private IconGenerator clusterIconGenerator;
+  private ImageView clusterImageView;
+  private IconGenerator itemIconGenerator;
+  private ImageView itemImageView;
+
+  ClusterIconRenderer(Context context, IconCache iconCache) {
+    this.context = context;
+    this.iconCache = iconCache;
+  }
+
+  /**
+   * Returns the icon of a cluster drawn over {@code background}, or the unlabelled background if
+   * the icon is still being rendered, in which case {@code listener} receives it once it is ready.
+   */
+  @NonNull
+  BitmapDescriptor getClusterIcon(
+      @NonNull Bitmap background, @NonNull String label, @NonNull OnIconReadyListener listener) {
+    return getIcon("cluster", background, label, listener);
+  }
+
+  /** Like {@link #getClusterIcon}, for a single item with a custom icon and a label. */
+  @NonNull
+  BitmapDescriptor getItemIcon(
+      @NonNull Bitmap icon, @Nullable String label, @NonNull OnIconReadyListener listener) {
+    if (label == null || label.isEmpty()) {
+      return getSourceIcon(icon);
+    }
+    return getIcon("clusterItem", icon, label, listener);
+  }
+
+  void dispose() {
+    disposed = true;
+    pending.clear();
+    executor.shutdownNow();
+    handler.removeCallbacksAndMessages(null);
+  }
+
+  private BitmapDescriptor getIcon(
+      String kind, Bitmap source, String label, OnIconReadyListener listener) {
+    final String key = kind + ":" + sourceKey(source) + ":" + label;
+    final BitmapDescriptor icon = iconCache.getDescriptor(key);
+    if (icon != null) {
+      return icon;
+    }
+    if (!disposed) {
+      List<OnIconReadyListener> listeners = pending.get(key);
+      if (listeners == null) {
+        listeners = new ArrayList<>();
+        pending.put(key, listeners);
+        final boolean isCluster = kind.equals("cluster");
+        executor.execute(
+            () -> {
+              final Bitmap rendered =
+                  isCluster ? renderCluster(source, label) : renderItem(source, label);
+              handler.post(() -> onRendered(key, rendered));
+            });
+      }
+      listeners.add(listener);
+    }
+    return getSourceIcon(source);
+  }
+
+  private void onRendered(String key, Bitmap rendered) {
+    final List<OnIconReadyListener> listeners = pending.remove(key);
+    if (disposed || listeners == null) {
+      return;
+    }
+    final BitmapDescriptor icon = BitmapDescriptorFactory.fromBitmap(rendered);
+    iconCache.putDescriptor(key, rendered.getByteCount(), icon);
+    for (OnIconReadyListener listener : listeners) {
+      listener.onIconReady(icon);
+    }
+  }
+
+  private BitmapDescriptor getSourceIcon(Bitmap source) {
+    return iconCache.getDescriptor(
+        "source:" + sourceKey(source),
+        source.getByteCount(),
+        () -> BitmapDescriptorFactory.fromBitmap(source));
+  }
+
+  private String sourceKey(Bitmap source) {
+    final String key = iconCache.keyOf(source);
+    return key != null ? key : "bitmap@" + System.identityHashCode(source);
+  }
+
+  @SuppressLint("InflateParams")
+  private Bitmap renderCluster(Bitmap background, String label) {
+    if (clusterIconGenerator == null) {
+      final View view = LayoutInflater.from(context).inflate(R.layout.multi_cluster, null);
+      clusterIconGenerator = new IconGenerator(context);
+      clusterIconGenerator.setContentView(view);
+      clusterIconGenerator.setBackground(new ColorDrawable(Color.TRANSPARENT));
+      clusterImageView = view.findViewById(R.id.cluster_image);
+    }
+    clusterImageView.setImageBitmap(background);
+    return clusterIconGenerator.makeIcon(label);
+  }
+
+  @SuppressLint("InflateParams")
+  private Bitmap renderItem(Bitmap icon, String label) {
+    if (itemIconGenerator == null) {
+      final View view = LayoutInflater.from(context).inflate(R.layout.custom_marker, null);
+      itemIconGenerator = new IconGenerator(context);
+      itemIconGenerator.setContentView(view);
+      itemIconGenerator.setBackground(new ColorDrawable(Color.TRANSPARENT));
+      itemImageView = view.findViewById(R.id.custom_marker_image);
+    }
+    itemImageView.setImageBitmap(icon);
+    return itemIconGenerator.makeIcon(label);
+  }
+}
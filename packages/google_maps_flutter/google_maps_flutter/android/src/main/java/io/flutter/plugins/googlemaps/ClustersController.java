@@ -1,15 +1,8 @@
 package io.flutter.plugins.googlemaps;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.Color;
-import android.graphics.drawable.ColorDrawable;
-import android.os.AsyncTask;
 import android.util.DisplayMetrics;
-import android.view.LayoutInflater;
-import android.view.View;
-import android.widget.ImageView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -17,7 +10,6 @@ import androidx.annotation.Nullable;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.BitmapDescriptor;
-import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
@@ -26,12 +18,12 @@ import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.maps.android.clustering.Cluster;
 import com.google.maps.android.clustering.ClusterItem;
 import com.google.maps.android.clustering.ClusterManager;
+import com.google.maps.android.clustering.algo.Algorithm;
 import com.google.maps.android.clustering.algo.NonHierarchicalViewBasedAlgorithm;
+import com.google.maps.android.clustering.algo.ScreenBasedAlgorithm;
 import com.google.maps.android.clustering.view.DefaultClusterRenderer;
-import com.google.maps.android.ui.IconGenerator;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +33,11 @@ import io.flutter.plugin.common.MethodChannel;
 @SuppressWarnings("unused")
 class ClustersController implements GoogleMap.OnCameraIdleListener {
 
+    static final int ALGORITHM_VIEW_BASED = 0;
+    static final int ALGORITHM_HIERARCHICAL = 1;
+    static final float DEFAULT_MAX_CLUSTER_ZOOM = 13;
+    static final int DEFAULT_RADIUS = 100;
+
     private final Map<String, MyClusterItem> clusterItemIdToController;
     private final Map<String, String> googleMapsClusterItemIdToDartMarkerId;
     private ClusterManager<MyClusterItem> clusterManager;
@@ -48,14 +45,23 @@ class ClustersController implements GoogleMap.OnCameraIdleListener {
     private CameraPosition mPreviousCameraPosition;
     private ClusterIcon clusterIcon;
     private final Context context;
+    private final IconCache iconCache;
+    private final ClusterIconRenderer iconRenderer;
     private GoogleMap googleMap;
     private int id;
+    private int algorithm = ALGORITHM_VIEW_BASED;
+    private volatile float maxClusterZoom = DEFAULT_MAX_CLUSTER_ZOOM;
+    private int radius = DEFAULT_RADIUS;
+    // Zoom of the last camera idle, unknown (NaN) until the first one.
+    private volatile float cameraZoom = Float.NaN;
 
-    ClustersController(MethodChannel methodChannel, Context context) {
+    ClustersController(MethodChannel methodChannel, Context context, IconCache iconCache) {
         this.clusterItemIdToController = new HashMap<>();
         this.googleMapsClusterItemIdToDartMarkerId = new HashMap<>();
         this.methodChannel = methodChannel;
         this.context = context;
+        this.iconCache = iconCache;
+        this.iconRenderer = new ClusterIconRenderer(context, iconCache);
     }
 
     void setGoogleMap(GoogleMap googleMap) {
@@ -71,24 +77,59 @@ class ClustersController implements GoogleMap.OnCameraIdleListener {
             List<Bitmap> icons = new ArrayList<>();
             List<Integer> bucket = new ArrayList<>();
             for (Object iconToAdd : iconsToAdd) {
-                Convert.interpretClusterIcons(iconToAdd, icons, bucket, context);
+                Convert.interpretClusterIcons(iconToAdd, icons, bucket, context, iconCache);
+            }
+            if (!icons.isEmpty()) {
+                clusterIcon = new ClusterIcon(icons, bucket);
             }
-            clusterIcon = new ClusterIcon(icons, bucket);
         }
     }
 
+    void dispose() {
+        iconRenderer.dispose();
+    }
+
     void setClusterManager(ClusterManager<MyClusterItem> mClusterManager) {
+        this.clusterManager = mClusterManager;
+        this.clusterManager.setAlgorithm(createAlgorithm());
+        this.clusterManager.setRenderer(new ClustersController.CustomCluster());
+    }
+
+    /**
+     * Selects the clustering algorithm, the zoom level above which items are no longer clustered,
+     * and the distance in dp within which items are clustered.
+     */
+    void setClusterOptions(int algorithm, float maxClusterZoom, int radius) {
+        if (algorithm == this.algorithm
+                && maxClusterZoom == this.maxClusterZoom
+                && radius == this.radius) {
+            return;
+        }
+        this.algorithm = algorithm;
+        this.maxClusterZoom = maxClusterZoom;
+        this.radius = radius;
+        if (clusterManager != null) {
+            // Moves the items to the new algorithm and reclusters them.
+            clusterManager.setAlgorithm(createAlgorithm());
+        }
+    }
+
+    private Algorithm<MyClusterItem> createAlgorithm() {
         DisplayMetrics metrics = context.getResources().getDisplayMetrics();
         int widthDp = (int) (metrics.widthPixels / metrics.density);
         int heightDp = (int) (metrics.heightPixels / metrics.density);
 
-        this.clusterManager = mClusterManager;
-        this.clusterManager.setAlgorithm(new NonHierarchicalViewBasedAlgorithm<>(widthDp, heightDp));
-        this.clusterManager.setRenderer(new ClustersController.CustomCluster());
+        if (algorithm == ALGORITHM_HIERARCHICAL) {
+            return new HierarchicalClusterAlgorithm<>(
+                    widthDp, heightDp, (int) Math.floor(maxClusterZoom), radius);
+        }
+        NonHierarchicalViewBasedAlgorithm<MyClusterItem> viewBasedAlgorithm =
+                new NonHierarchicalViewBasedAlgorithm<>(widthDp, heightDp);
+        viewBasedAlgorithm.setMaxDistanceBetweenClusteredItems(radius);
+        return viewBasedAlgorithm;
     }
 
     void setClusterListeners(@Nullable ClusterListener listener) {
-        googleMap.setOnCameraIdleListener(this);
         this.clusterManager.setOnClusterClickListener(listener);
         this.clusterManager.setOnClusterItemClickListener(listener);
         this.clusterManager.setOnClusterInfoWindowClickListener(listener);
@@ -98,9 +139,11 @@ class ClustersController implements GoogleMap.OnCameraIdleListener {
 
     @Override
     public void onCameraIdle() {
-        methodChannel.invokeMethod("camera#onIdle", Collections.singletonMap("map", id));
-
-        NonHierarchicalViewBasedAlgorithm<?> algo = (NonHierarchicalViewBasedAlgorithm<?>) clusterManager.getAlgorithm();
+        if (clusterManager == null) {
+            return;
+        }
+        ScreenBasedAlgorithm<?> algo = (ScreenBasedAlgorithm<?>) clusterManager.getAlgorithm();
+        cameraZoom = googleMap.getCameraPosition().zoom;
         algo.onCameraChange(googleMap.getCameraPosition());
         // delegate clustering to the algorithm
         if (algo.shouldReclusterOnMapMovement()) {
@@ -114,79 +157,124 @@ class ClustersController implements GoogleMap.OnCameraIdleListener {
     }
 
     void addClusterItems(List<Object> itemsToAdd) {
-        if (itemsToAdd != null) {
-            for (Object itemToAdd : itemsToAdd) {
-                addClusterItem(itemToAdd);
-            }
-            clusterManager.cluster();
-        }
+        updateClusterItems(itemsToAdd, null, null);
     }
 
-    void changeClusterItems(List<Object> ClusterItemToChange) {
-        if (ClusterItemToChange != null) {
-            for (Object markerToChange : ClusterItemToChange) {
-                changeClusterItem(markerToChange);
-            }
-        }
+    void changeClusterItems(List<Object> clusterItemsToChange) {
+        updateClusterItems(null, clusterItemsToChange, null);
     }
 
     void removeClusterItems(List<Object> clusterItemIdsToRemove) {
-        if (clusterItemIdsToRemove == null) {
-            return;
+        updateClusterItems(null, null, clusterItemIdsToRemove);
+    }
+
+    /**
+     * Applies a {@code cluster#update} diff as a single transaction.
+     *
+     * <p>Removed, replaced and moved items leave the algorithm in one batch and come back in one
+     * batch, and the items are reclustered once at the end. Items that only moved keep their
+     * {@link MyClusterItem}, so the renderer moves their existing marker instead of recreating it.
+     */
+    void updateClusterItems(
+            List<Object> itemsToAdd, List<Object> itemsToChange, List<Object> itemIdsToRemove) {
+        final List<MyClusterItem> outgoing = new ArrayList<>();
+        final List<MyClusterItem> incoming = new ArrayList<>();
+        final Map<MyClusterItem, LatLng> moves = new HashMap<>();
+
+        if (itemIdsToRemove != null) {
+            for (Object rawClusterItemId : itemIdsToRemove) {
+                if (rawClusterItemId == null) {
+                    continue;
+                }
+                final MyClusterItem clusterItem =
+                        clusterItemIdToController.remove((String) rawClusterItemId);
+                if (clusterItem != null) {
+                    googleMapsClusterItemIdToDartMarkerId.remove(
+                            clusterItem.getGoogleMapsClusterItemId());
+                    outgoing.add(clusterItem);
+                }
+            }
         }
-        for (Object rawClusterItemId : clusterItemIdsToRemove) {
-            if (rawClusterItemId == null) {
-                continue;
+        if (itemsToChange != null) {
+            for (Object itemToChange : itemsToChange) {
+                changeClusterItem(itemToChange, outgoing, incoming, moves);
             }
-            String clusterItemId = (String) rawClusterItemId;
-            final MyClusterItem clusterItemController =
-                    clusterItemIdToController.remove(clusterItemId);
-            if (clusterItemController != null) {
-                googleMapsClusterItemIdToDartMarkerId.remove(
-                        clusterItemController.getGoogleMapsClusterItemId());
-                clusterManager.removeItem(clusterItemController);
-                clusterManager.cluster();
+        }
+        if (itemsToAdd != null) {
+            for (Object itemToAdd : itemsToAdd) {
+                final MyClusterItem clusterItem = buildClusterItem(itemToAdd);
+                if (clusterItem != null) {
+                    final MyClusterItem previous =
+                            clusterItemIdToController.put(
+                                    clusterItem.getGoogleMapsClusterItemId(), clusterItem);
+                    if (previous != null) {
+                        outgoing.add(previous);
+                    }
+                    incoming.add(clusterItem);
+                }
             }
         }
+        if (outgoing.isEmpty() && incoming.isEmpty()) {
+            return;
+        }
+
+        // The algorithm indexes items by position, so moved items must leave it at their old
+        // position and come back at the new one.
+        clusterManager.removeItems(outgoing);
+        for (Map.Entry<MyClusterItem, LatLng> move : moves.entrySet()) {
+            move.getKey().setPosition(move.getValue());
+        }
+        clusterManager.addItems(incoming);
+        clusterManager.cluster();
     }
 
-    private void addClusterItem(Object item) {
+    @Nullable
+    private MyClusterItem buildClusterItem(Object item) {
         if (item == null) {
-            return;
+            return null;
         }
         MarkerBuilder markerBuilder = new MarkerBuilder();
-        String markerId = Convert.interpretMarkerOptions(item, markerBuilder, context);
-        addClusterItem(markerId, markerBuilder, markerBuilder.consumeTapEvents());
-    }
-
-    private void addClusterItem(String markerId, MarkerBuilder markerBuilder, boolean consumeTapEvents) {
+        String markerId = Convert.interpretMarkerOptions(item, markerBuilder, context, iconCache);
         MarkerOptions markerOptions = markerBuilder.build();
         LatLng latLng = markerOptions.getPosition();
-        MyClusterItem clusterItem =
-                new MyClusterItem(
-                        latLng.latitude,
-                        latLng.longitude,
-                        markerOptions.getTitle(),
-                        markerBuilder.label(),
-                        markerBuilder.customIcon(),
-                        markerOptions.getSnippet(),
-                        markerId,
-                        consumeTapEvents,
-                        markerOptions.getIcon());
-        this.clusterManager.addItem(clusterItem);
-        clusterItemIdToController.put(markerId, clusterItem);
+        return new MyClusterItem(
+                latLng.latitude,
+                latLng.longitude,
+                markerOptions.getTitle(),
+                markerBuilder.label(),
+                markerBuilder.customIcon(),
+                markerOptions.getSnippet(),
+                markerId,
+                markerBuilder.consumeTapEvents(),
+                markerOptions.getIcon());
     }
 
-    private void changeClusterItem(Object clusterItem) {
-        if (clusterItem == null) {
+    private void changeClusterItem(
+            Object item,
+            List<MyClusterItem> outgoing,
+            List<MyClusterItem> incoming,
+            Map<MyClusterItem, LatLng> moves) {
+        if (item == null) {
             return;
         }
-        String markerId = getClusterItemId(clusterItem);
-        MyClusterItem clusterItemController = clusterItemIdToController.get(markerId);
-        // TODO: to be done
-//         if (clusterItemController != null) {
-//         Convert.interpretMarkerOptions(clusterItem, clusterItemController);
-//         }
+        final MyClusterItem current = clusterItemIdToController.get(getClusterItemId(item));
+        if (current == null) {
+            return;
+        }
+        final MyClusterItem changed = buildClusterItem(item);
+        if (!current.hasSameAppearance(changed)) {
+            // The renderer keys markers by item, so a new item gets a freshly rendered marker.
+            clusterItemIdToController.put(changed.getGoogleMapsClusterItemId(), changed);
+            outgoing.add(current);
+            incoming.add(changed);
+            return;
+        }
+        current.setConsumeTapEvents(changed.consumeTapEvents());
+        if (!current.getPosition().equals(changed.getPosition())) {
+            moves.put(current, changed.getPosition());
+            outgoing.add(current);
+            incoming.add(current);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -256,62 +344,44 @@ class ClustersController implements GoogleMap.OnCameraIdleListener {
      * Custom Cluster class that extends DefaultClusterRenderer
      */
     private class CustomCluster extends DefaultClusterRenderer<MyClusterItem> {
-        private final IconGenerator mClusterIconGenerator = new IconGenerator(context);
-        private final IconGenerator mMarkerIconGenerator = new IconGenerator(context);
-        private final ImageView mClusterImageView;
-        private final ImageView mMarkerImageView;
 
-        @SuppressLint("InflateParams")
         public CustomCluster() {
             super(context, googleMap, clusterManager);
-            LayoutInflater inflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-
-            View mView = inflater.inflate(R.layout.multi_cluster, null);
-            mClusterIconGenerator.setContentView(mView);
-            mClusterIconGenerator.setBackground(new ColorDrawable(Color.TRANSPARENT));
-
-            View mMarkerView = inflater.inflate(R.layout.custom_marker, null);
-            mMarkerIconGenerator.setContentView(mMarkerView);
-            mMarkerIconGenerator.setBackground(new ColorDrawable(Color.TRANSPARENT));
-
-            mClusterImageView = mView.findViewById(R.id.cluster_image);
-            mMarkerImageView = mMarkerView.findViewById(R.id.custom_marker_image);
         }
 
         @Override
         protected void onBeforeClusterItemRendered(@NonNull MyClusterItem clusterItem, @NonNull MarkerOptions markerOptions) {
             // Draw a single cluster
             if (clusterItem.getCustomIcon() != null) {
-//                markerOptions.visible(false);
-//                new LoadClusterMarkersAsync(clusterItem, false).execute();
-                markerOptions.icon(getItemIcon(clusterItem.getLabel(), clusterItem.getCustomIcon()));
+                markerOptions.icon(getItemIcon(clusterItem));
             }
         }
 
         @Override
         protected void onClusterItemUpdated(@NonNull MyClusterItem clusterItem, @NonNull Marker marker) {
+            // Moves the cached marker of an item whose position was changed in place.
+            super.onClusterItemUpdated(clusterItem, marker);
             // Same implementation as onBeforeClusterItemRendered() (to update cached markers)
             if (clusterItem.getCustomIcon() != null) {
-//                marker.setVisible(false);
-//                new LoadClusterMarkersAsync(clusterItem, false).execute();
-                marker.setIcon(getItemIcon(clusterItem.getLabel(), clusterItem.getCustomIcon()));
+                marker.setIcon(getItemIcon(clusterItem));
             }
         }
 
-        private BitmapDescriptor getItemIcon(String label, @NonNull Bitmap bitmap) {
-            if (label != null && !label.equals("")) {
-                mMarkerImageView.setImageBitmap(bitmap);
-                bitmap = mMarkerIconGenerator.makeIcon(label);
-            }
-            return BitmapDescriptorFactory.fromBitmap(bitmap);
+        private BitmapDescriptor getItemIcon(MyClusterItem clusterItem) {
+            return iconRenderer.getItemIcon(
+                    clusterItem.getCustomIcon(),
+                    clusterItem.getLabel(),
+                    icon -> {
+                        Marker marker = getMarker(clusterItem);
+                        if (marker != null) {
+                            marker.setIcon(icon);
+                        }
+                    });
         }
 
         @Override
         protected void onBeforeClusterRendered(@NonNull Cluster<MyClusterItem> cluster, @NonNull MarkerOptions markerOptions) {
-            // Note: this method runs on the UI thread. Don't spend too much time in here (like in this example).
             if (clusterIcon != null) {
-//                markerOptions.visible(false);
-//                new LoadClusterMarkersAsync(cluster, true).execute();
                 markerOptions.icon(getClusterIcon(cluster));
             }
         }
@@ -320,84 +390,35 @@ class ClustersController implements GoogleMap.OnCameraIdleListener {
         protected void onClusterUpdated(@NonNull Cluster<MyClusterItem> cluster, @NonNull Marker marker) {
             // Same implementation as onBeforeClusterRendered() (to update cached markers)
             if (clusterIcon != null) {
-//                marker.setVisible(false);
-//                new LoadClusterMarkersAsync(cluster, true).execute();
                 marker.setIcon(getClusterIcon(cluster));
             }
         }
 
         /**
-         * Get a descriptor for custom icon (a cluster) to be used for a marker icon. Note: this
-         * method runs on the UI thread. Don't spend too much time in here (like in this example).
+         * Get a descriptor for custom icon (a cluster) to be used for a marker icon. Icons are
+         * rendered off the UI thread; until then the cluster shows its unlabelled bucket icon.
          *
          * @param cluster cluster to draw a BitmapDescriptor for
          * @return a BitmapDescriptor representing a cluster
          */
         private BitmapDescriptor getClusterIcon(Cluster<MyClusterItem> cluster) {
             int clusterSize = cluster.getSize();
-            List<Integer> bucketList = clusterIcon.getBucket();
-            for (int i = 0; i < bucketList.size(); i++) {
-                if (clusterSize < bucketList.get(i)) {
-                    mClusterImageView.setImageBitmap(clusterIcon.getIcon().get(i));
-                    break;
-                } else if (i == bucketList.size() - 1) {
-                    mClusterImageView.setImageBitmap(clusterIcon.getIcon().get(i));
-                }
-            }
-            Bitmap icon = mClusterIconGenerator.makeIcon(String.valueOf(cluster.getSize()));
-            return BitmapDescriptorFactory.fromBitmap(icon);
+            Bitmap background = clusterIcon.getIcon().get(clusterIcon.bucketIndexOf(clusterSize));
+            return iconRenderer.getClusterIcon(
+                    background,
+                    String.valueOf(clusterSize),
+                    icon -> {
+                        Marker marker = getMarker(cluster);
+                        if (marker != null) {
+                            marker.setIcon(icon);
+                        }
+                    });
         }
 
         @Override
         protected boolean shouldRenderAsCluster(Cluster cluster) {
-            final boolean[] shouldCluster = {true};
-            try {
-                shouldCluster[0] =  googleMap.getCameraPosition().zoom <= 13;
-            } catch (Exception ignored) {
-            }
-            return cluster.getSize() > 1 && shouldCluster[0];
-        }
-
-        @SuppressLint("StaticFieldLeak")
-        private class LoadClusterMarkersAsync extends AsyncTask<Void, Void, BitmapDescriptor> {
-            private Cluster<MyClusterItem> cluster;
-            private MyClusterItem clusterItem;
-            private final boolean isCluster;
-
-            public LoadClusterMarkersAsync(Cluster<MyClusterItem> cluster, boolean isCluster) {
-                super();
-                this.cluster = cluster;
-                this.isCluster = isCluster;
-            }
-
-            public LoadClusterMarkersAsync(MyClusterItem clusterItem, boolean isCluster) {
-                super();
-                this.clusterItem = clusterItem;
-                this.isCluster = isCluster;
-            }
-
-            @Override
-            protected BitmapDescriptor doInBackground(Void... v) {
-                if (isCluster) {
-                    return getClusterIcon(cluster);
-                }
-                return getItemIcon(clusterItem.getLabel(), clusterItem.getCustomIcon());
-            }
-
-            @Override
-            protected void onPostExecute(BitmapDescriptor v) {
-                super.onPostExecute(v);
-                Marker marker;
-                if (isCluster) {
-                    marker = getMarker(cluster);
-                } else {
-                    marker = getMarker(clusterItem);
-                }
-                if (marker != null) {
-                    marker.setIcon(v);
-//                    marker.setVisible(true);
-                }
-            }
+            // Runs on the renderer's background thread, where the camera can't be queried.
+            return cluster.getSize() > 1 && !(cameraZoom > maxClusterZoom);
         }
     }
 }
@@ -40,6 +40,14 @@ import java.util.Map;
 /** Conversions between JSON-like values and GoogleMaps data types. */
 class Convert {
 
+  private static final double METERS_PER_DEGREE = 111_320;
+
+  // Bits of the per-marker flags of the packed marker format.
+  private static final int PACKED_MARKER_CONSUME_TAP_EVENTS = 1;
+  private static final int PACKED_MARKER_DRAGGABLE = 2;
+  private static final int PACKED_MARKER_FLAT = 4;
+  private static final int PACKED_MARKER_HIDDEN = 8;
+
   // TODO(hamdikahloun): FlutterMain has been deprecated and should be replaced with FlutterLoader
   //  when it's available in Stable channel: https://github.com/flutter/flutter/issues/70923.
   @SuppressWarnings("deprecation")
@@ -99,6 +107,26 @@ class Convert {
     }
   }
 
+  /** Returns the descriptor of a Dart icon, shared with identical icons via {@code iconCache}. */
+  private static BitmapDescriptor toBitmapDescriptor(Object o, IconCache iconCache) {
+    final List<?> data = toList(o);
+    final String key = IconCache.keyOf(data);
+    if ("fromBytes".equals(toString(data.get(0)))) {
+      final Bitmap bitmap = iconCache.getBitmap(key, () -> getBitmapOnlyFromBytes(data));
+      if (bitmap == null) {
+        throw new IllegalArgumentException("Unable to interpret bytes as a valid image.");
+      }
+      return iconCache.getDescriptor(
+          key, bitmap.getByteCount(), () -> BitmapDescriptorFactory.fromBitmap(bitmap));
+    }
+    return iconCache.getDescriptor(key, 0, () -> toBitmapDescriptor(o));
+  }
+
+  /** Returns the bitmap of a Dart icon, decoding identical icons once via {@code iconCache}. */
+  private static Bitmap toBitmapFromDart(Object o, Context context, IconCache iconCache) {
+    return iconCache.getBitmap(IconCache.keyOf(toList(o)), () -> toBitmapFromDart(o, context));
+  }
+
   private static BitmapDescriptor getBitmapFromBytes(List<?> data) {
     if (data.size() == 2) {
       try {
@@ -191,6 +219,10 @@ class Convert {
     return ((Number) o).intValue();
   }
 
+  private static long toLong(Object o) {
+    return ((Number) o).longValue();
+  }
+
   static Object cameraPositionToJson(CameraPosition position) {
     if (position == null) {
       return null;
@@ -260,6 +292,21 @@ class Convert {
     return data;
   }
 
+  static Map<String, Object> tileOverlayBatchArgumentsToJson(
+      String tileOverlayId, List<TileProviderController.TileKey> tiles) {
+    if (tileOverlayId == null) {
+      return null;
+    }
+    final List<Object> tilesData = new ArrayList<>(tiles.size());
+    for (TileProviderController.TileKey tile : tiles) {
+      tilesData.add(Arrays.asList(tile.x, tile.y, tile.zoom));
+    }
+    final Map<String, Object> data = new HashMap<>(2);
+    data.put("tileOverlayId", tileOverlayId);
+    data.put("tiles", tilesData);
+    return data;
+  }
+
   static Object latLngToJson(LatLng latLng) {
     return Arrays.asList(latLng.latitude, latLng.longitude);
   }
@@ -416,6 +463,31 @@ class Convert {
     if (trafficEnabled != null) {
       sink.setTrafficEnabled(toBoolean(trafficEnabled));
     }
+    final Object geometrySimplificationTolerance = data.get("geometrySimplificationTolerance");
+    if (geometrySimplificationTolerance != null) {
+      sink.setGeometrySimplificationTolerance(toFloat(geometrySimplificationTolerance));
+    }
+    final Object cameraEventOptions = data.get("cameraEventOptions");
+    if (cameraEventOptions != null) {
+      final Map<?, ?> cameraEventData = toMap(cameraEventOptions);
+      sink.setCameraEventOptions(
+          toDouble(cameraEventData.get("maxFrequency")),
+          toFloat(cameraEventData.get("minPixelDelta")),
+          toFloat(cameraEventData.get("minZoomDelta")),
+          toFloat(cameraEventData.get("minAngleDelta")));
+    }
+    final Object viewportCulling = data.get("viewportCulling");
+    if (viewportCulling != null) {
+      sink.setViewportCullingEnabled(toBoolean(viewportCulling));
+    }
+    final Object clusterOptions = data.get("clusterOptions");
+    if (clusterOptions != null) {
+      final Map<?, ?> clusterData = toMap(clusterOptions);
+      sink.setClusterOptions(
+          toInt(clusterData.get("algorithm")),
+          toFloat(clusterData.get("maxClusterZoom")),
+          toInt(clusterData.get("radius")));
+    }
     final Object buildingsEnabled = data.get("buildingsEnabled");
     if (buildingsEnabled != null) {
       sink.setBuildingsEnabled(toBoolean(buildingsEnabled));
@@ -423,7 +495,8 @@ class Convert {
   }
 
   /** Returns the dartMarkerId of the interpreted marker. */
-  static String interpretMarkerOptions(Object o, MarkerOptionsSink sink, Context context) {
+  static String interpretMarkerOptions(
+      Object o, MarkerOptionsSink sink, Context context, IconCache iconCache) {
     final Map<?, ?> data = toMap(o);
     final Object alpha = data.get("alpha");
     if (alpha != null) {
@@ -440,7 +513,7 @@ class Convert {
     }
     final Object customIcon = data.get("icon");
     if (customIcon != null) {
-      sink.setCustomIcon(toBitmapFromDart(customIcon, context));
+      sink.setCustomIcon(toBitmapFromDart(customIcon, context, iconCache));
     }
     final Object consumeTapEvents = data.get("consumeTapEvents");
     if (consumeTapEvents != null) {
@@ -456,7 +529,7 @@ class Convert {
     }
     final Object icon = data.get("icon");
     if (icon != null) {
-      sink.setIcon(toBitmapDescriptor(icon));
+      sink.setIcon(toBitmapDescriptor(icon, iconCache));
     }
 
     final Object infoWindow = data.get("infoWindow");
@@ -487,13 +560,90 @@ class Convert {
     }
   }
 
+  /**
+   * Interprets a batch of markers in the packed columnar format into one {@link MarkerBuilder} per
+   * marker, adding the dart marker ids to {@code markerIds} in the same order.
+   *
+   * <p>Each distinct icon of the batch is decoded once and shared by the markers using it.
+   */
+  static List<MarkerBuilder> interpretPackedMarkers(
+      Object o, List<String> markerIds, IconCache iconCache) {
+    final Map<?, ?> data = toMap(o);
+    final List<?> ids = toList(data.get("markerIds"));
+    final double[] positions = (double[]) data.get("positions");
+    final float[] alphas = (float[]) data.get("alphas");
+    final float[] anchors = (float[]) data.get("anchors");
+    final float[] zIndices = (float[]) data.get("zIndices");
+    final float[] rotations = (float[]) data.get("rotations");
+    final byte[] flags = (byte[]) data.get("flags");
+    final int[] iconIndices = (int[]) data.get("iconIndices");
+    final List<?> titles = (List<?>) data.get("titles");
+    final List<?> snippets = (List<?>) data.get("snippets");
+    final int count = ids.size();
+    if (positions == null || positions.length != count * 2) {
+      throw new IllegalArgumentException("positions must hold a lat/lng pair per marker");
+    }
+
+    final Object iconsData = data.get("icons");
+    final BitmapDescriptor[] icons;
+    if (iconsData == null) {
+      icons = new BitmapDescriptor[0];
+    } else {
+      final List<?> iconList = toList(iconsData);
+      icons = new BitmapDescriptor[iconList.size()];
+      for (int i = 0; i < icons.length; i++) {
+        icons[i] = toBitmapDescriptor(iconList.get(i), iconCache);
+      }
+    }
+
+    final List<MarkerBuilder> builders = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final MarkerBuilder builder = new MarkerBuilder();
+      builder.setPosition(new LatLng(positions[i * 2], positions[i * 2 + 1]));
+      if (alphas != null) {
+        builder.setAlpha(alphas[i]);
+      }
+      if (anchors != null) {
+        builder.setAnchor(anchors[i * 2], anchors[i * 2 + 1]);
+      }
+      if (zIndices != null) {
+        builder.setZIndex(zIndices[i]);
+      }
+      if (rotations != null) {
+        builder.setRotation(rotations[i]);
+      }
+      if (flags != null) {
+        final int flag = flags[i];
+        builder.setConsumeTapEvents((flag & PACKED_MARKER_CONSUME_TAP_EVENTS) != 0);
+        builder.setDraggable((flag & PACKED_MARKER_DRAGGABLE) != 0);
+        builder.setFlat((flag & PACKED_MARKER_FLAT) != 0);
+        builder.setVisible((flag & PACKED_MARKER_HIDDEN) == 0);
+      }
+      if (iconIndices != null && iconIndices[i] >= 0 && iconIndices[i] < icons.length) {
+        builder.setIcon(icons[iconIndices[i]]);
+      }
+      final String title = titles == null ? null : (String) titles.get(i);
+      if (title != null) {
+        builder.setInfoWindowText(title, snippets == null ? null : (String) snippets.get(i));
+      }
+      final String markerId = (String) ids.get(i);
+      if (markerId == null) {
+        throw new IllegalArgumentException("markerId was null");
+      }
+      markerIds.add(markerId);
+      builders.add(builder);
+    }
+    return builders;
+  }
+
   /** Returns the dartMarkerLabel of the interpreted marker. */
-  static void interpretClusterIcons(Object o, List<Bitmap> icons, List<Integer> buckets, Context context) {
+  static void interpretClusterIcons(
+      Object o, List<Bitmap> icons, List<Integer> buckets, Context context, IconCache iconCache) {
     final Map<?, ?> data = toMap(o);
     final Object icon = data.get("icon");
     final Object bucket = data.get("bucket");
     if (icon != null && bucket != null) {
-      Bitmap bitmap = toBitmapFromDart(icon, context);
+      Bitmap bitmap = toBitmapFromDart(icon, context, iconCache);
       int bucketSize = toInt(bucket);
       icons.add(bitmap);
       buckets.add(bucketSize);
@@ -657,7 +807,66 @@ class Convert {
     }
   }
 
+  /**
+   * Returns the bounds of a marker, circle, polygon or polyline from its "position", its "center"
+   * and "radius", or its "points", or null if it has none of them.
+   */
+  static LatLngBounds toObjectBounds(Object o) {
+    final Map<?, ?> data = toMap(o);
+    final Object position = data.get("position");
+    if (position != null) {
+      final LatLng latLng = toLatLng(position);
+      return new LatLngBounds(latLng, latLng);
+    }
+    final Object center = data.get("center");
+    if (center != null) {
+      final LatLng latLng = toLatLng(center);
+      final Object radius = data.get("radius");
+      final double meters = radius == null ? 0 : toDouble(radius);
+      final double latDelta = meters / METERS_PER_DEGREE;
+      final double lngDelta =
+          latDelta / Math.max(Math.cos(Math.toRadians(latLng.latitude)), 0.01);
+      return new LatLngBounds(
+          new LatLng(Math.max(-90, latLng.latitude - latDelta), latLng.longitude - lngDelta),
+          new LatLng(Math.min(90, latLng.latitude + latDelta), latLng.longitude + lngDelta));
+    }
+    final Object points = data.get("points");
+    if (points != null) {
+      final List<LatLng> pointsData = toPoints(points);
+      if (pointsData.isEmpty()) {
+        return null;
+      }
+      double south = 90;
+      double west = 180;
+      double north = -90;
+      double east = -180;
+      for (LatLng point : pointsData) {
+        final double latitude = point.latitude;
+        final double longitude = point.longitude;
+        south = Math.min(south, latitude);
+        north = Math.max(north, latitude);
+        west = Math.min(west, longitude);
+        east = Math.max(east, longitude);
+      }
+      if (east - west > 180) {
+        // Likely crosses the antimeridian; never cull it rather than guess.
+        return null;
+      }
+      return new LatLngBounds(new LatLng(south, west), new LatLng(north, east));
+    }
+    return null;
+  }
+
   private static List<LatLng> toPoints(Object o) {
+    if (o instanceof double[]) {
+      // Packed by the Dart side as alternating latitudes and longitudes.
+      final double[] packed = (double[]) o;
+      final List<LatLng> points = new ArrayList<>(packed.length / 2);
+      for (int i = 0; i + 1 < packed.length; i += 2) {
+        points.add(new LatLng(packed[i], packed[i + 1]));
+      }
+      return points;
+    }
     final List<?> data = toList(o);
     final List<LatLng> points = new ArrayList<>(data.size());
 
@@ -744,6 +953,12 @@ class Convert {
     if (visible != null) {
       sink.setVisible(toBoolean(visible));
     }
+    // The cache settings are left out when null, which turns them off.
+    final Object cacheTtl = data.get("cacheTtl");
+    sink.setCacheTtl(cacheTtl == null ? 0 : toLong(cacheTtl));
+    final Object cacheVersion = data.get("cacheVersion");
+    sink.setCacheVersion(cacheVersion == null ? null : toInt(cacheVersion));
+    sink.setDiskCacheName((String) data.get("diskCacheName"));
     final String tileOverlayId = (String) data.get("tileOverlayId");
     if (tileOverlayId == null) {
       throw new IllegalArgumentException("tileOverlayId was null");
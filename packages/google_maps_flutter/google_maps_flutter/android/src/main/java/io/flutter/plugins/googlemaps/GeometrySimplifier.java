@@ -0,0 +1,197 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Simplifies polyline and polygon geometry for the current zoom level on a background thread.
+ *
+ * <p>Points are simplified with the Douglas-Peucker algorithm in Web Mercator coordinates, so the
+ * tolerance is a distance on screen. Results are computed for whole zoom levels, rounded up, and
+ * are delivered on the main thread; a result is dropped if a newer request for the same key was
+ * made in the meantime.
+ */
+class GeometrySimplifier {
+
+  /** Receives the simplified rings, in the order they were given, on the main thread. */
+  interface OnSimplifiedListener {
+    void onSimplified(@NonNull List<List<LatLng>> rings);
+  }
+
+  // Geometry with fewer points than this is cheap to draw and is never simplified.
+  private static final int MIN_POINTS = 64;
+  // Web Mercator stops at this latitude; beyond it y is unbounded.
+  private static final double MAX_LATITUDE = 85.05112878;
+
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  // Only accessed on the main thread.
+  private final Map<String, Integer> generations = new HashMap<>();
+  private int generation;
+  private float tolerance;
+  private int zoom;
+  private boolean disposed;
+
+  /**
+   * Sets the tolerance in logical pixels, 0 disabling simplification. Returns true if it changed.
+   */
+  boolean setTolerance(float tolerance) {
+    final float previous = this.tolerance;
+    this.tolerance = Math.max(tolerance, 0);
+    return this.tolerance != previous;
+  }
+
+  /**
+   * Records the camera zoom, returning true if geometry simplified for the previous zoom should
+   * be simplified again.
+   */
+  boolean setZoom(float zoom) {
+    final int previous = this.zoom;
+    this.zoom = (int) Math.ceil(zoom);
+    return this.zoom != previous && tolerance > 0;
+  }
+
+  /** Returns whether geometry with {@code pointCount} points should be simplified. */
+  boolean shouldSimplify(int pointCount) {
+    return tolerance > 0 && pointCount >= MIN_POINTS;
+  }
+
+  /**
+   * Simplifies {@code rings} for the current zoom and hands the result to {@code listener},
+   * superseding any pending request for the same {@code key}.
+   */
+  void simplify(
+      @NonNull String key,
+      @NonNull final List<List<LatLng>> rings,
+      @NonNull final OnSimplifiedListener listener) {
+    if (disposed) {
+      return;
+    }
+    final int generation = ++this.generation;
+    generations.put(key, generation);
+    // One world is 256 logical pixels wide at zoom 0, and doubles with every zoom level.
+    final double worldTolerance = tolerance / (256 * Math.pow(2, zoom));
+    executor.execute(
+        () -> {
+          final List<List<LatLng>> simplified = new ArrayList<>(rings.size());
+          for (List<LatLng> ring : rings) {
+            simplified.add(simplify(ring, worldTolerance));
+          }
+          handler.post(
+              () -> {
+                final Integer current = generations.get(key);
+                if (!disposed && current != null && current == generation) {
+                  generations.remove(key);
+                  listener.onSimplified(simplified);
+                }
+              });
+        });
+  }
+
+  /** Drops the pending result for {@code key}, if any. */
+  void cancel(@NonNull String key) {
+    generations.remove(key);
+  }
+
+  void dispose() {
+    disposed = true;
+    generations.clear();
+    executor.shutdownNow();
+    handler.removeCallbacksAndMessages(null);
+  }
+
+  /**
+   * Returns the points of {@code points} that must be kept so that no dropped point is further
+   * than {@code tolerance}, in normalized Web Mercator units, from the simplified line.
+   */
+  static List<LatLng> simplify(List<LatLng> points, double tolerance) {
+    final int count = points.size();
+    if (count < 3 || tolerance <= 0) {
+      return points;
+    }
+    final double[] x = new double[count];
+    final double[] y = new double[count];
+    for (int i = 0; i < count; i++) {
+      final LatLng point = points.get(i);
+      final double latitude = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, point.latitude));
+      final double sin = Math.sin(Math.toRadians(latitude));
+      x[i] = point.longitude / 360 + 0.5;
+      y[i] = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    final double sqTolerance = tolerance * tolerance;
+    final boolean[] keep = new boolean[count];
+    keep[0] = true;
+    keep[count - 1] = true;
+    // Explicit stack of (first, last) ranges; long tracks would overflow a recursive version.
+    int[] stack = new int[64];
+    int top = 0;
+    stack[top++] = 0;
+    stack[top++] = count - 1;
+    while (top > 0) {
+      final int last = stack[--top];
+      final int first = stack[--top];
+      double maxSqDistance = 0;
+      int index = -1;
+      for (int i = first + 1; i < last; i++) {
+        final double sqDistance = sqSegmentDistance(x, y, i, first, last);
+        if (sqDistance > maxSqDistance) {
+          maxSqDistance = sqDistance;
+          index = i;
+        }
+      }
+      if (index >= 0 && maxSqDistance > sqTolerance) {
+        keep[index] = true;
+        if (top + 4 > stack.length) {
+          final int[] grown = new int[stack.length * 2];
+          System.arraycopy(stack, 0, grown, 0, top);
+          stack = grown;
+        }
+        stack[top++] = first;
+        stack[top++] = index;
+        stack[top++] = index;
+        stack[top++] = last;
+      }
+    }
+
+    final List<LatLng> simplified = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      if (keep[i]) {
+        simplified.add(points.get(i));
+      }
+    }
+    return simplified;
+  }
+
+  private static double sqSegmentDistance(double[] x, double[] y, int i, int first, int last) {
+    double px = x[first];
+    double py = y[first];
+    double dx = x[last] - px;
+    double dy = y[last] - py;
+    if (dx != 0 || dy != 0) {
+      final double t = ((x[i] - px) * dx + (y[i] - py) * dy) / (dx * dx + dy * dy);
+      if (t > 1) {
+        px = x[last];
+        py = y[last];
+      } else if (t > 0) {
+        px += dx * t;
+        py += dy * t;
+      }
+    }
+    dx = x[i] - px;
+    dy = y[i] - py;
+    return dx * dx + dy * dy;
+  }
+}
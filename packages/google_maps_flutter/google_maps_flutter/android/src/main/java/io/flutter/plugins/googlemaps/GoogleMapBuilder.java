@@ -24,9 +24,18 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
   private boolean indoorEnabled = true;
   private boolean trafficEnabled = false;
   private boolean buildingsEnabled = true;
+  private boolean viewportCullingEnabled = false;
+  private float geometrySimplificationTolerance = 0;
+  private double cameraEventMaxFrequency = 0;
+  private float cameraEventMinPixelDelta = 0;
+  private float cameraEventMinZoomDelta = 0;
+  private float cameraEventMinAngleDelta = 0;
   private Object initialMarkers;
   private Object initialClusters;
   private Object clusterIcons;
+  private int clusterAlgorithm = ClustersController.ALGORITHM_VIEW_BASED;
+  private float maxClusterZoom = ClustersController.DEFAULT_MAX_CLUSTER_ZOOM;
+  private int clusterRadius = ClustersController.DEFAULT_RADIUS;
   private Object initialPolygons;
   private Object initialPolylines;
   private Object initialCircles;
@@ -46,10 +55,18 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     controller.setIndoorEnabled(indoorEnabled);
     controller.setTrafficEnabled(trafficEnabled);
     controller.setBuildingsEnabled(buildingsEnabled);
+    controller.setViewportCullingEnabled(viewportCullingEnabled);
+    controller.setGeometrySimplificationTolerance(geometrySimplificationTolerance);
+    controller.setCameraEventOptions(
+        cameraEventMaxFrequency,
+        cameraEventMinPixelDelta,
+        cameraEventMinZoomDelta,
+        cameraEventMinAngleDelta);
     controller.setTrackCameraPosition(trackCameraPosition);
     controller.setInitialMarkers(initialMarkers);
     controller.setInitialClusters(initialClusters);
     controller.setClusterIcons(clusterIcons);
+    controller.setClusterOptions(clusterAlgorithm, maxClusterZoom, clusterRadius);
     controller.setInitialPolygons(initialPolygons);
     controller.setInitialPolylines(initialPolylines);
     controller.setInitialCircles(initialCircles);
@@ -142,6 +159,25 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     this.buildingsEnabled = buildingsEnabled;
   }
 
+  @Override
+  public void setViewportCullingEnabled(boolean viewportCullingEnabled) {
+    this.viewportCullingEnabled = viewportCullingEnabled;
+  }
+
+  @Override
+  public void setGeometrySimplificationTolerance(float tolerance) {
+    this.geometrySimplificationTolerance = tolerance;
+  }
+
+  @Override
+  public void setCameraEventOptions(
+      double maxFrequency, float minPixelDelta, float minZoomDelta, float minAngleDelta) {
+    this.cameraEventMaxFrequency = maxFrequency;
+    this.cameraEventMinPixelDelta = minPixelDelta;
+    this.cameraEventMinZoomDelta = minZoomDelta;
+    this.cameraEventMinAngleDelta = minAngleDelta;
+  }
+
   @Override
   public void setMyLocationEnabled(boolean myLocationEnabled) {
     this.myLocationEnabled = myLocationEnabled;
@@ -172,6 +208,13 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     this.clusterIcons = clusterIcons;
   }
 
+  @Override
+  public void setClusterOptions(int algorithm, float maxClusterZoom, int radius) {
+    this.clusterAlgorithm = algorithm;
+    this.maxClusterZoom = maxClusterZoom;
+    this.clusterRadius = radius;
+  }
+
   @Override
   public void setInitialPolygons(Object initialPolygons) {
     this.initialPolygons = initialPolygons;
@@ -11,6 +11,7 @@ import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.Point;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
@@ -60,6 +61,8 @@ final class GoogleMapController
         PlatformView {
 
   private static final String TAG = "GoogleMapController";
+  /** Minimum time between viewport culling passes while the camera moves. */
+  private static final long VIEWPORT_UPDATE_INTERVAL_MILLIS = 200;
   private final int id;
   private final MethodChannel methodChannel;
   private final GoogleMapOptions options;
@@ -72,6 +75,8 @@ final class GoogleMapController
   private boolean indoorEnabled = true;
   private boolean trafficEnabled = false;
   private boolean buildingsEnabled = true;
+  private boolean viewportCullingEnabled = false;
+  private long lastViewportUpdateMillis;
   private boolean disposed = false;
   private final float density;
   private MethodChannel.Result mapReadyResult;
@@ -79,6 +84,8 @@ final class GoogleMapController
   private final LifecycleProvider lifecycleProvider;
   private final MarkersController markersController;
   private final ClustersController clustersController;
+  private final GeometrySimplifier geometrySimplifier = new GeometrySimplifier();
+  private final CameraEventCoalescer cameraEventCoalescer;
   private final PolygonsController polygonsController;
   private final PolylinesController polylinesController;
   private final CirclesController circlesController;
@@ -104,13 +111,17 @@ final class GoogleMapController
     this.density = context.getResources().getDisplayMetrics().density;
     methodChannel = new MethodChannel(binaryMessenger, "plugins.flutter.io/google_maps_" + id);
     methodChannel.setMethodCallHandler(this);
+    this.cameraEventCoalescer = new CameraEventCoalescer(methodChannel);
     this.lifecycleProvider = lifecycleProvider;
-    this.markersController = new MarkersController(methodChannel, context);
-    this.clustersController = new ClustersController(methodChannel, context);
-    this.polygonsController = new PolygonsController(methodChannel, density);
-    this.polylinesController = new PolylinesController(methodChannel, density);
+    final IconCache iconCache = new IconCache();
+    this.markersController = new MarkersController(methodChannel, context, iconCache);
+    this.clustersController = new ClustersController(methodChannel, context, iconCache);
+    this.polygonsController = new PolygonsController(methodChannel, geometrySimplifier, density);
+    this.polylinesController =
+        new PolylinesController(methodChannel, geometrySimplifier, density);
     this.circlesController = new CirclesController(methodChannel, density);
-    this.tileOverlaysController = new TileOverlaysController(methodChannel);
+    this.tileOverlaysController =
+        new TileOverlaysController(methodChannel, TileCache.getInstance(context));
   }
 
   @Override
@@ -158,6 +169,7 @@ final class GoogleMapController
         clustersController.setClusterManager(new ClusterManager<>(context, googleMap, markersController.getMarkerManager()));
         clustersController.setClusterListeners(this);
 
+        geometrySimplifier.setZoom(googleMap.getCameraPosition().zoom);
         polygonsController.setGoogleMap(googleMap);
         polylinesController.setGoogleMap(googleMap);
         circlesController.setGoogleMap(googleMap);
@@ -168,6 +180,7 @@ final class GoogleMapController
         updateInitialPolylines();
         updateInitialCircles();
         updateInitialTileOverlays();
+        updateViewport();
     }
 
   @Override
@@ -272,14 +285,18 @@ final class GoogleMapController
           result.success(null);
           break;
         }
+      case "markers#addPacked":
+        {
+          markersController.addPackedMarkers(call.arguments, result);
+          break;
+        }
       case "cluster#update":
         {
             List<Object> clusterItemsToAdd = call.argument("clusterItemsToAdd");
-            clustersController.addClusterItems(clusterItemsToAdd);
             List<Object> clusterItemsToChange = call.argument("clusterItemsToChange");
-            clustersController.changeClusterItems(clusterItemsToChange);
             List<Object> clusterItemsIdsToRemove = call.argument("clusterItemIdsToRemove");
-            clustersController.removeClusterItems(clusterItemsIdsToRemove);
+            clustersController.updateClusterItems(
+                clusterItemsToAdd, clusterItemsToChange, clusterItemsIdsToRemove);
             result.success(null);
             break;
         }
@@ -402,6 +419,11 @@ final class GoogleMapController
           result.success(googleMap.getCameraPosition().zoom);
           break;
         }
+      case "camera#getEventStats":
+        {
+          result.success(cameraEventCoalescer.getStats());
+          break;
+        }
       case "map#setStyle":
         {
           String mapStyle = (String) call.arguments;
@@ -478,17 +500,40 @@ final class GoogleMapController
 
   @Override
   public void onCameraMove() {
+    if (viewportCullingEnabled
+        && SystemClock.uptimeMillis() - lastViewportUpdateMillis
+            >= VIEWPORT_UPDATE_INTERVAL_MILLIS) {
+      updateViewport();
+    }
     if (!trackCameraPosition) {
       return;
     }
-    final Map<String, Object> arguments = new HashMap<>(2);
-    arguments.put("position", Convert.cameraPositionToJson(googleMap.getCameraPosition()));
-    methodChannel.invokeMethod("camera#onMove", arguments);
+    cameraEventCoalescer.onCameraMove(googleMap.getCameraPosition());
   }
 
   @Override
   public void onCameraIdle() {
+    cameraEventCoalescer.onCameraIdle();
     methodChannel.invokeMethod("camera#onIdle", Collections.singletonMap("map", id));
+    clustersController.onCameraIdle();
+    updateViewport();
+    if (geometrySimplifier.setZoom(googleMap.getCameraPosition().zoom)) {
+      polygonsController.updateSimplification();
+      polylinesController.updateSimplification();
+    }
+  }
+
+  /** Materializes the objects near the visible region when viewport culling is enabled. */
+  private void updateViewport() {
+    if (!viewportCullingEnabled || googleMap == null) {
+      return;
+    }
+    lastViewportUpdateMillis = SystemClock.uptimeMillis();
+    final LatLngBounds visibleRegion = googleMap.getProjection().getVisibleRegion().latLngBounds;
+    markersController.setVisibleRegion(visibleRegion);
+    polygonsController.setVisibleRegion(visibleRegion);
+    polylinesController.setVisibleRegion(visibleRegion);
+    circlesController.setVisibleRegion(visibleRegion);
   }
 
   @Override
@@ -565,6 +610,11 @@ final class GoogleMapController
     methodChannel.setMethodCallHandler(null);
     setGoogleMapListener(null);
     clustersController.setClusterListeners(null);
+    markersController.dispose();
+    clustersController.dispose();
+    geometrySimplifier.dispose();
+    cameraEventCoalescer.dispose();
+    tileOverlaysController.dispose();
     destroyMapViewIfNecessary();
     Lifecycle lifecycle = lifecycleProvider.getLifecycle();
     if (lifecycle != null) {
@@ -579,7 +629,7 @@ final class GoogleMapController
     }
     googleMap.setOnCameraMoveStartedListener(listener);
     googleMap.setOnCameraMoveListener(listener);
-//    googleMap.setOnCameraIdleListener(listener);
+    googleMap.setOnCameraIdleListener(listener);
 //    googleMap.setOnMarkerClickListener(listener);
 //    googleMap.setOnMarkerDragListener(listener);
     googleMap.setOnPolygonClickListener(listener);
@@ -802,6 +852,11 @@ final class GoogleMapController
     this.clusterIcons = icons != null ? new ArrayList<>(icons) : null;
   }
 
+  @Override
+  public void setClusterOptions(int algorithm, float maxClusterZoom, int radius) {
+    clustersController.setClusterOptions(algorithm, maxClusterZoom, radius);
+  }
+
   private void updateInitialMarkers() {
     markersController.addMarkers(initialMarkers);
   }
@@ -916,4 +971,31 @@ final class GoogleMapController
   public void setBuildingsEnabled(boolean buildingsEnabled) {
     this.buildingsEnabled = buildingsEnabled;
   }
+
+  @Override
+  public void setViewportCullingEnabled(boolean viewportCullingEnabled) {
+    if (this.viewportCullingEnabled == viewportCullingEnabled) {
+      return;
+    }
+    this.viewportCullingEnabled = viewportCullingEnabled;
+    markersController.setViewportCullingEnabled(viewportCullingEnabled);
+    polygonsController.setViewportCullingEnabled(viewportCullingEnabled);
+    polylinesController.setViewportCullingEnabled(viewportCullingEnabled);
+    circlesController.setViewportCullingEnabled(viewportCullingEnabled);
+    updateViewport();
+  }
+
+  @Override
+  public void setCameraEventOptions(
+      double maxFrequency, float minPixelDelta, float minZoomDelta, float minAngleDelta) {
+    cameraEventCoalescer.setOptions(maxFrequency, minPixelDelta, minZoomDelta, minAngleDelta);
+  }
+
+  @Override
+  public void setGeometrySimplificationTolerance(float tolerance) {
+    if (geometrySimplifier.setTolerance(tolerance) && googleMap != null) {
+      polygonsController.updateSimplification();
+      polylinesController.updateSimplification();
+    }
+  }
 }
@@ -46,12 +46,21 @@ interface GoogleMapOptionsSink {
 
   void setBuildingsEnabled(boolean buildingsEnabled);
 
+  void setViewportCullingEnabled(boolean viewportCullingEnabled);
+
+  void setGeometrySimplificationTolerance(float tolerance);
+
+  void setCameraEventOptions(
+      double maxFrequency, float minPixelDelta, float minZoomDelta, float minAngleDelta);
+
   void setInitialMarkers(Object initialMarkers);
   
   void setInitialClusters(Object initialClusters);
   
   void setClusterIcons(Object clusterIcons);
 
+  void setClusterOptions(int algorithm, float maxClusterZoom, int radius);
+
   void setInitialPolygons(Object initialPolygons);
 
   void setInitialPolylines(Object initialPolylines);
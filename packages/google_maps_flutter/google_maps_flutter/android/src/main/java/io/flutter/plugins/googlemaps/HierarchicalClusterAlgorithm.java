@@ -0,0 +1,603 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import androidx.annotation.NonNull;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.maps.android.clustering.Cluster;
+import com.google.maps.android.clustering.ClusterItem;
+import com.google.maps.android.clustering.algo.ScreenBasedAlgorithm;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Clustering algorithm that precomputes clusters for every zoom level, in the style of
+ * supercluster.
+ *
+ * <p>Items are clustered greedily from the deepest zoom level up, each level merging the points of
+ * the level below that lie within {@code radius} dp of each other, and every level is indexed by a
+ * static k-d tree. The hierarchy is rebuilt lazily when items change, from {@link #getClusters},
+ * which the {@code ClusterManager} calls on its background executor. A camera move then only costs
+ * a range query for the visible clusters of the current zoom level.
+ */
+class HierarchicalClusterAlgorithm<T extends ClusterItem> implements ScreenBasedAlgorithm<T> {
+
+  /** Size in dp of the whole world at zoom level 0. */
+  private static final double WORLD_SIZE_DP = 256;
+  /** Fraction of the screen size queried around the visible region, to ease panning. */
+  private static final double VIEWPORT_MARGIN = 0.5;
+
+  private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+  private final Set<T> items = new LinkedHashSet<>();
+  private final int screenWidthDp;
+  private final int screenHeightDp;
+  private final int maxZoom;
+  private int radiusDp;
+  private Hierarchy<T> hierarchy;
+  private volatile CameraPosition cameraPosition;
+
+  /**
+   * @param maxZoom the deepest zoom level at which items are clustered; above it, every item is
+   *     returned on its own.
+   */
+  HierarchicalClusterAlgorithm(int screenWidthDp, int screenHeightDp, int maxZoom, int radiusDp) {
+    this.screenWidthDp = screenWidthDp;
+    this.screenHeightDp = screenHeightDp;
+    this.maxZoom = maxZoom;
+    this.radiusDp = radiusDp;
+  }
+
+  @Override
+  public boolean addItem(T item) {
+    synchronized (items) {
+      return invalidateIf(items.add(item));
+    }
+  }
+
+  @Override
+  public boolean addItems(Collection<T> items) {
+    synchronized (this.items) {
+      return invalidateIf(this.items.addAll(items));
+    }
+  }
+
+  @Override
+  public void clearItems() {
+    synchronized (items) {
+      items.clear();
+      hierarchy = null;
+    }
+  }
+
+  @Override
+  public boolean removeItem(T item) {
+    synchronized (items) {
+      return invalidateIf(items.remove(item));
+    }
+  }
+
+  @Override
+  public boolean removeItems(Collection<T> items) {
+    synchronized (this.items) {
+      return invalidateIf(this.items.removeAll(items));
+    }
+  }
+
+  @Override
+  public boolean updateItem(T item) {
+    synchronized (items) {
+      return invalidateIf(items.remove(item) && items.add(item));
+    }
+  }
+
+  @Override
+  public Collection<T> getItems() {
+    synchronized (items) {
+      return new ArrayList<>(items);
+    }
+  }
+
+  @Override
+  public void setMaxDistanceBetweenClusteredItems(int maxDistance) {
+    synchronized (items) {
+      radiusDp = maxDistance;
+      hierarchy = null;
+    }
+  }
+
+  @Override
+  public int getMaxDistanceBetweenClusteredItems() {
+    return radiusDp;
+  }
+
+  @Override
+  public void lock() {
+    readWriteLock.writeLock().lock();
+  }
+
+  @Override
+  public void unlock() {
+    readWriteLock.writeLock().unlock();
+  }
+
+  @Override
+  public boolean shouldReclusterOnMapMovement() {
+    return true;
+  }
+
+  @Override
+  public void onCameraChange(CameraPosition cameraPosition) {
+    this.cameraPosition = cameraPosition;
+  }
+
+  @Override
+  public Set<? extends Cluster<T>> getClusters(float zoom) {
+    final Hierarchy<T> hierarchy;
+    synchronized (items) {
+      if (this.hierarchy == null) {
+        this.hierarchy = new Hierarchy<>(new ArrayList<>(items), maxZoom, radiusDp);
+      }
+      hierarchy = this.hierarchy;
+    }
+    final int level = Math.max(0, Math.min((int) Math.floor(zoom), maxZoom + 1));
+    final CameraPosition camera = cameraPosition;
+    if (camera == null) {
+      return hierarchy.getClusters(level, 0, 0, 1, 1);
+    }
+    final double scale = WORLD_SIZE_DP * Math.pow(2, zoom);
+    final double halfWidth = screenWidthDp * (0.5 + VIEWPORT_MARGIN) / scale;
+    final double halfHeight = screenHeightDp * (0.5 + VIEWPORT_MARGIN) / scale;
+    final double x = lngX(camera.target.longitude);
+    final double y = latY(camera.target.latitude);
+    if (halfWidth >= 0.5) {
+      return hierarchy.getClusters(level, 0, y - halfHeight, 1, y + halfHeight);
+    }
+    final Set<Cluster<T>> clusters =
+        hierarchy.getClusters(level, x - halfWidth, y - halfHeight, x + halfWidth, y + halfHeight);
+    // Add the part of the viewport that wraps around the antimeridian.
+    if (x - halfWidth < 0) {
+      clusters.addAll(
+          hierarchy.getClusters(level, x - halfWidth + 1, y - halfHeight, 1, y + halfHeight));
+    } else if (x + halfWidth > 1) {
+      clusters.addAll(
+          hierarchy.getClusters(level, 0, y - halfHeight, x + halfWidth - 1, y + halfHeight));
+    }
+    return clusters;
+  }
+
+  private boolean invalidateIf(boolean changed) {
+    if (changed) {
+      hierarchy = null;
+    }
+    return changed;
+  }
+
+  /** Projects a longitude to a world coordinate in [0, 1]. */
+  static double lngX(double lng) {
+    return lng / 360 + 0.5;
+  }
+
+  /** Projects a latitude to a world coordinate in [0, 1], using the Web Mercator projection. */
+  static double latY(double lat) {
+    final double sin = Math.sin(Math.toRadians(lat));
+    final double y = 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+    return y < 0 ? 0 : y > 1 ? 1 : y;
+  }
+
+  static double xLng(double x) {
+    return (x - 0.5) * 360;
+  }
+
+  static double yLat(double y) {
+    final double y2 = (180 - y * 360) * Math.PI / 180;
+    return 360 * Math.atan(Math.exp(y2)) / Math.PI - 90;
+  }
+
+  /** Immutable cluster hierarchy of a snapshot of the items. */
+  private static final class Hierarchy<T extends ClusterItem> {
+    private final List<T> items;
+    // levels[z] holds the clusters of zoom level z; levels[maxZoom + 1] holds the items.
+    private final Level[] levels;
+
+    Hierarchy(List<T> items, int maxZoom, int radiusDp) {
+      this.items = items;
+      this.levels = new Level[maxZoom + 2];
+      final int count = items.size();
+      final double[] xs = new double[count];
+      final double[] ys = new double[count];
+      final int[] weights = new int[count];
+      for (int i = 0; i < count; i++) {
+        final LatLng position = items.get(i).getPosition();
+        xs[i] = lngX(position.longitude);
+        ys[i] = latY(position.latitude);
+        weights[i] = 1;
+      }
+      levels[maxZoom + 1] = new Level(xs, ys, weights, null, null);
+      for (int zoom = maxZoom; zoom >= 0; zoom--) {
+        levels[zoom] =
+            levels[zoom + 1].clusterUp(radiusDp / (WORLD_SIZE_DP * Math.pow(2, zoom)));
+      }
+    }
+
+    Set<Cluster<T>> getClusters(int zoom, double minX, double minY, double maxX, double maxY) {
+      final Level level = levels[zoom];
+      final IntList ids = new IntList();
+      level.index.range(minX, minY, maxX, maxY, ids);
+      final Set<Cluster<T>> clusters = new HashSet<>();
+      for (int i = 0; i < ids.size(); i++) {
+        clusters.add(new HierarchyCluster(zoom, ids.get(i)));
+      }
+      return clusters;
+    }
+
+    /** Appends the indices of the items under a cluster of {@code zoom} to {@code out}. */
+    void collectItems(int zoom, int id, IntList out) {
+      final Level level = levels[zoom];
+      if (level.childOffsets == null) {
+        out.add(id);
+        return;
+      }
+      for (int i = level.childOffsets[id]; i < level.childOffsets[id + 1]; i++) {
+        collectItems(zoom + 1, level.children[i], out);
+      }
+    }
+
+    private final class HierarchyCluster implements Cluster<T> {
+      private final int zoom;
+      private final int id;
+      private List<T> clusterItems;
+
+      HierarchyCluster(int zoom, int id) {
+        this.zoom = zoom;
+        this.id = id;
+      }
+
+      @NonNull
+      @Override
+      public LatLng getPosition() {
+        final Level level = levels[zoom];
+        return new LatLng(yLat(level.ys[id]), xLng(level.xs[id]));
+      }
+
+      @Override
+      public synchronized Collection<T> getItems() {
+        if (clusterItems == null) {
+          final IntList ids = new IntList();
+          collectItems(zoom, id, ids);
+          clusterItems =
+              Collections.unmodifiableList(
+                  new AbstractList<T>() {
+                    @Override
+                    public T get(int index) {
+                      return items.get(ids.get(index));
+                    }
+
+                    @Override
+                    public int size() {
+                      return ids.size();
+                    }
+                  });
+        }
+        return clusterItems;
+      }
+
+      @Override
+      public int getSize() {
+        return levels[zoom].weights[id];
+      }
+
+      private Hierarchy<T> hierarchy() {
+        return Hierarchy.this;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        if (this == o) {
+          return true;
+        }
+        if (!(o instanceof Hierarchy.HierarchyCluster)) {
+          return false;
+        }
+        final HierarchyCluster other = (HierarchyCluster) o;
+        return hierarchy() == other.hierarchy() && zoom == other.zoom && id == other.id;
+      }
+
+      @Override
+      public int hashCode() {
+        return 31 * (31 * System.identityHashCode(Hierarchy.this) + zoom) + id;
+      }
+    }
+  }
+
+  /** The clusters of one zoom level, and how they split into the clusters of the next one. */
+  private static final class Level {
+    final double[] xs;
+    final double[] ys;
+    final int[] weights;
+    // The children of cluster i are children[childOffsets[i]..childOffsets[i + 1]), or null for
+    // the item level.
+    final int[] childOffsets;
+    final int[] children;
+    final KdIndex index;
+
+    Level(double[] xs, double[] ys, int[] weights, int[] childOffsets, int[] children) {
+      this.xs = xs;
+      this.ys = ys;
+      this.weights = weights;
+      this.childOffsets = childOffsets;
+      this.children = children;
+      this.index = new KdIndex(xs, ys);
+    }
+
+    /** Merges the points of this level that lie within {@code radius} of each other. */
+    Level clusterUp(double radius) {
+      final int count = xs.length;
+      final boolean[] visited = new boolean[count];
+      final IntList neighbors = new IntList();
+      final DoubleList parentXs = new DoubleList();
+      final DoubleList parentYs = new DoubleList();
+      final IntList parentWeights = new IntList();
+      final IntList offsets = new IntList();
+      final IntList parentChildren = new IntList();
+      for (int i = 0; i < count; i++) {
+        if (visited[i]) {
+          continue;
+        }
+        visited[i] = true;
+        offsets.add(parentChildren.size());
+        parentChildren.add(i);
+        double weightedX = xs[i] * weights[i];
+        double weightedY = ys[i] * weights[i];
+        int weight = weights[i];
+        neighbors.clear();
+        index.within(xs[i], ys[i], radius, neighbors);
+        for (int n = 0; n < neighbors.size(); n++) {
+          final int neighbor = neighbors.get(n);
+          if (visited[neighbor]) {
+            continue;
+          }
+          visited[neighbor] = true;
+          parentChildren.add(neighbor);
+          weightedX += xs[neighbor] * weights[neighbor];
+          weightedY += ys[neighbor] * weights[neighbor];
+          weight += weights[neighbor];
+        }
+        parentXs.add(weightedX / weight);
+        parentYs.add(weightedY / weight);
+        parentWeights.add(weight);
+      }
+      offsets.add(parentChildren.size());
+      return new Level(
+          parentXs.toArray(),
+          parentYs.toArray(),
+          parentWeights.toArray(),
+          offsets.toArray(),
+          parentChildren.toArray());
+    }
+  }
+
+  /** Static k-d tree over points, in the style of kdbush. */
+  private static final class KdIndex {
+    private static final int NODE_SIZE = 64;
+
+    private final int[] ids;
+    private final double[] coords;
+
+    KdIndex(double[] xs, double[] ys) {
+      final int count = xs.length;
+      ids = new int[count];
+      coords = new double[count * 2];
+      for (int i = 0; i < count; i++) {
+        ids[i] = i;
+        coords[2 * i] = xs[i];
+        coords[2 * i + 1] = ys[i];
+      }
+      sort(0, count - 1, 0);
+    }
+
+    void range(double minX, double minY, double maxX, double maxY, IntList out) {
+      final IntList stack = new IntList();
+      stack.add(0);
+      stack.add(ids.length - 1);
+      stack.add(0);
+      while (stack.size() > 0) {
+        final int axis = stack.pop();
+        final int right = stack.pop();
+        final int left = stack.pop();
+        if (right - left <= NODE_SIZE) {
+          for (int i = left; i <= right; i++) {
+            final double x = coords[2 * i];
+            final double y = coords[2 * i + 1];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+              out.add(ids[i]);
+            }
+          }
+          continue;
+        }
+        final int m = (left + right) >> 1;
+        final double x = coords[2 * m];
+        final double y = coords[2 * m + 1];
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+          out.add(ids[m]);
+        }
+        if (axis == 0 ? minX <= x : minY <= y) {
+          stack.add(left);
+          stack.add(m - 1);
+          stack.add(1 - axis);
+        }
+        if (axis == 0 ? maxX >= x : maxY >= y) {
+          stack.add(m + 1);
+          stack.add(right);
+          stack.add(1 - axis);
+        }
+      }
+    }
+
+    void within(double qx, double qy, double radius, IntList out) {
+      final double r2 = radius * radius;
+      final IntList stack = new IntList();
+      stack.add(0);
+      stack.add(ids.length - 1);
+      stack.add(0);
+      while (stack.size() > 0) {
+        final int axis = stack.pop();
+        final int right = stack.pop();
+        final int left = stack.pop();
+        if (right - left <= NODE_SIZE) {
+          for (int i = left; i <= right; i++) {
+            if (squaredDistance(coords[2 * i], coords[2 * i + 1], qx, qy) <= r2) {
+              out.add(ids[i]);
+            }
+          }
+          continue;
+        }
+        final int m = (left + right) >> 1;
+        final double x = coords[2 * m];
+        final double y = coords[2 * m + 1];
+        if (squaredDistance(x, y, qx, qy) <= r2) {
+          out.add(ids[m]);
+        }
+        if (axis == 0 ? qx - radius <= x : qy - radius <= y) {
+          stack.add(left);
+          stack.add(m - 1);
+          stack.add(1 - axis);
+        }
+        if (axis == 0 ? qx + radius >= x : qy + radius >= y) {
+          stack.add(m + 1);
+          stack.add(right);
+          stack.add(1 - axis);
+        }
+      }
+    }
+
+    private void sort(int left, int right, int axis) {
+      if (right - left <= NODE_SIZE) {
+        return;
+      }
+      final int m = (left + right) >> 1;
+      select(m, left, right, axis);
+      sort(left, m - 1, 1 - axis);
+      sort(m + 1, right, 1 - axis);
+    }
+
+    /** Partially sorts [left, right] so that the k-th element along {@code axis} is in place. */
+    private void select(int k, int left, int right, int axis) {
+      while (right > left) {
+        final double t = coords[2 * k + axis];
+        int i = left;
+        int j = right;
+        swap(left, k);
+        if (coords[2 * right + axis] > t) {
+          swap(left, right);
+        }
+        while (i < j) {
+          swap(i, j);
+          i++;
+          j--;
+          while (coords[2 * i + axis] < t) {
+            i++;
+          }
+          while (coords[2 * j + axis] > t) {
+            j--;
+          }
+        }
+        if (coords[2 * left + axis] == t) {
+          swap(left, j);
+        } else {
+          j++;
+          swap(j, right);
+        }
+        if (j <= k) {
+          left = j + 1;
+        }
+        if (k <= j) {
+          right = j - 1;
+        }
+      }
+    }
+
+    private void swap(int i, int j) {
+      final int id = ids[i];
+      ids[i] = ids[j];
+      ids[j] = id;
+      final double x = coords[2 * i];
+      final double y = coords[2 * i + 1];
+      coords[2 * i] = coords[2 * j];
+      coords[2 * i + 1] = coords[2 * j + 1];
+      coords[2 * j] = x;
+      coords[2 * j + 1] = y;
+    }
+
+    private static double squaredDistance(double ax, double ay, double bx, double by) {
+      final double dx = ax - bx;
+      final double dy = ay - by;
+      return dx * dx + dy * dy;
+    }
+  }
+
+  private static final class IntList {
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        final int[] grown = new int[size * 2];
+        System.arraycopy(values, 0, grown, 0, size);
+        values = grown;
+      }
+      values[size++] = value;
+    }
+
+    int get(int index) {
+      return values[index];
+    }
+
+    int pop() {
+      return values[--size];
+    }
+
+    int size() {
+      return size;
+    }
+
+    void clear() {
+      size = 0;
+    }
+
+    int[] toArray() {
+      final int[] array = new int[size];
+      System.arraycopy(values, 0, array, 0, size);
+      return array;
+    }
+  }
+
+  private static final class DoubleList {
+    private double[] values = new double[16];
+    private int size;
+
+    void add(double value) {
+      if (size == values.length) {
+        final double[] grown = new double[size * 2];
+        System.arraycopy(values, 0, grown, 0, size);
+        values = grown;
+      }
+      values[size++] = value;
+    }
+
+    double[] toArray() {
+      final double[] array = new double[size];
+      System.arraycopy(values, 0, array, 0, size);
+      return array;
+    }
+  }
+}
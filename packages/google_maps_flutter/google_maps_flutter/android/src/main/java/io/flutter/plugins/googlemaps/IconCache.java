@@ -0,0 +1,162 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Memory-budgeted cache of decoded and rasterized icons of a single map.
+ *
+ * <p>Icons are keyed by their content: the asset name and scale for asset icons, a digest of the
+ * bytes for {@code fromBytes} icons. Markers, cluster items and cluster buckets that use identical
+ * icons therefore share one decoded {@link Bitmap} and one {@link BitmapDescriptor}.
+ */
+class IconCache {
+
+  private static final int MAX_BYTES = 16 * 1024 * 1024;
+  /** Nominal size of descriptors whose bitmap is owned by the Maps SDK, like default markers. */
+  private static final int NOMINAL_DESCRIPTOR_BYTES = 1024;
+
+  /** Produces a value on a cache miss. */
+  interface Loader<T> {
+    T load();
+  }
+
+  private final LruCache<String, Bitmap> bitmaps;
+  private final LruCache<String, DescriptorEntry> descriptors;
+  // Reverse lookup so derived icons, like labelled cluster items, can be keyed by their source.
+  private final Map<Bitmap, String> bitmapKeys = new WeakHashMap<>();
+
+  IconCache() {
+    this((int) Math.min(Runtime.getRuntime().maxMemory() / 32, MAX_BYTES));
+  }
+
+  IconCache(int maxBytes) {
+    bitmaps =
+        new LruCache<String, Bitmap>(maxBytes / 2) {
+          @Override
+          protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getByteCount();
+          }
+        };
+    descriptors =
+        new LruCache<String, DescriptorEntry>(maxBytes / 2) {
+          @Override
+          protected int sizeOf(String key, DescriptorEntry entry) {
+            return entry.byteCount;
+          }
+        };
+  }
+
+  /** Returns the content key of an icon in its Dart JSON form. */
+  @NonNull
+  static String keyOf(List<?> data) {
+    final StringBuilder key = new StringBuilder((String) data.get(0));
+    for (int i = 1; i < data.size(); i++) {
+      final Object argument = data.get(i);
+      // Arrays only have an identity string, so bytes are keyed by a digest of their content.
+      key.append(':').append(argument instanceof byte[] ? digest((byte[]) argument) : argument);
+    }
+    return key.toString();
+  }
+
+  /** Returns the key under which {@code bitmap} was cached, or null if it was not. */
+  @Nullable
+  synchronized String keyOf(@Nullable Bitmap bitmap) {
+    return bitmap == null ? null : bitmapKeys.get(bitmap);
+  }
+
+  /** Returns the bitmap cached under {@code key}, decoding it with {@code loader} on a miss. */
+  @Nullable
+  Bitmap getBitmap(@NonNull String key, @NonNull Loader<Bitmap> loader) {
+    Bitmap bitmap = bitmaps.get(key);
+    if (bitmap != null) {
+      return bitmap;
+    }
+    bitmap = loader.load();
+    if (bitmap != null) {
+      bitmaps.put(key, bitmap);
+      synchronized (this) {
+        bitmapKeys.put(bitmap, key);
+      }
+    }
+    return bitmap;
+  }
+
+  /**
+   * Returns the descriptor cached under {@code key}, creating it with {@code loader} on a miss.
+   *
+   * @param byteCount the memory held by the descriptor's bitmap, or 0 if the SDK owns it.
+   */
+  BitmapDescriptor getDescriptor(
+      @NonNull String key, int byteCount, @NonNull Loader<BitmapDescriptor> loader) {
+    final DescriptorEntry entry = descriptors.get(key);
+    if (entry != null) {
+      return entry.descriptor;
+    }
+    final BitmapDescriptor descriptor = loader.load();
+    if (descriptor != null) {
+      descriptors.put(
+          key,
+          new DescriptorEntry(descriptor, byteCount > 0 ? byteCount : NOMINAL_DESCRIPTOR_BYTES));
+    }
+    return descriptor;
+  }
+
+  /** Returns the descriptor cached under {@code key}, or null if there is none. */
+  @Nullable
+  BitmapDescriptor getDescriptor(@NonNull String key) {
+    final DescriptorEntry entry = descriptors.get(key);
+    return entry == null ? null : entry.descriptor;
+  }
+
+  /** Caches a descriptor that was created asynchronously, like a rendered cluster icon. */
+  void putDescriptor(@NonNull String key, int byteCount, @NonNull BitmapDescriptor descriptor) {
+    descriptors.put(
+        key, new DescriptorEntry(descriptor, byteCount > 0 ? byteCount : NOMINAL_DESCRIPTOR_BYTES));
+  }
+
+  void clear() {
+    bitmaps.evictAll();
+    descriptors.evictAll();
+    synchronized (this) {
+      bitmapKeys.clear();
+    }
+  }
+
+  private static String digest(byte[] bytes) {
+    try {
+      final byte[] hash = MessageDigest.getInstance("SHA-1").digest(bytes);
+      final StringBuilder hex = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Android device provides SHA-1; fall back to a weaker content hash just in case.
+      return bytes.length + "-" + Arrays.hashCode(bytes);
+    }
+  }
+
+  private static final class DescriptorEntry {
+    final BitmapDescriptor descriptor;
+    final int byteCount;
+
+    DescriptorEntry(BitmapDescriptor descriptor, int byteCount) {
+      this.descriptor = descriptor;
+      this.byteCount = byteCount;
+    }
+  }
+}
@@ -8,24 +8,28 @@ import android.graphics.Bitmap;
 import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
+import com.google.maps.android.collections.MarkerManager;
 
 /** Controller of a single Marker on the map. */
 class MarkerController implements MarkerOptionsSink {
 
   private final Marker marker;
+  private final MarkerManager.Collection collection;
   private final String googleMapsMarkerId;
   private boolean consumeTapEvents;
   private String label;
   private Bitmap customIcon;
 
-  MarkerController(Marker marker, boolean consumeTapEvents) {
+  MarkerController(Marker marker, MarkerManager.Collection collection, boolean consumeTapEvents) {
     this.marker = marker;
+    this.collection = collection;
     this.consumeTapEvents = consumeTapEvents;
     this.googleMapsMarkerId = marker.getId();
   }
 
   void remove() {
-    marker.remove();
+    // Also forgets the marker in the MarkerManager, which would otherwise keep it forever.
+    collection.remove(marker);
   }
 
   @Override
@@ -5,35 +5,57 @@
 package io.flutter.plugins.googlemaps;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import androidx.annotation.Nullable;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.maps.android.collections.MarkerManager;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 class MarkersController {
 
   private static final String TAG = "MarkersController";
+  /** Main thread time spent adding packed markers before yielding to the next frame. */
+  private static final long PACKED_MARKERS_FRAME_BUDGET_NANOS = 8_000_000L;
   private final Map<String, MarkerController> markerIdToController;
   private final Map<String, String> googleMapsMarkerIdToDartMarkerId;
+  // Packed markers bypass the culler and are always on the map.
+  private final ViewportCuller viewportCuller = new ViewportCuller(new CullingDelegate());
   private final MethodChannel methodChannel;
   private MarkerManager markerManager;
   private GoogleMap googleMap;
   private final Context context;
+  private final IconCache iconCache;
   private GoogleMap.OnMarkerClickListener onMarkerClickListener;
   private GoogleMap.OnMarkerDragListener onMarkerDragListener;
   private GoogleMap.OnInfoWindowClickListener onInfoWindowClickListener;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  // Shared by every packed marker, instead of one collection per marker.
+  private MarkerManager.Collection packedMarkersCollection;
+  // Results of packed batches that have not been completed yet. Only accessed on the main thread.
+  private final Set<MethodChannel.Result> pendingPackedMarkersResults = new HashSet<>();
+  private boolean disposed;
 
-  MarkersController(MethodChannel methodChannel, Context context) {
+  MarkersController(MethodChannel methodChannel, Context context, IconCache iconCache) {
     this.markerIdToController = new HashMap<>();
     this.googleMapsMarkerIdToDartMarkerId = new HashMap<>();
     this.methodChannel = methodChannel;
     this.context = context;
+    this.iconCache = iconCache;
   }
 
   void setGoogleMap(GoogleMap googleMap) {
@@ -54,18 +76,71 @@ class MarkersController {
     this.onInfoWindowClickListener = listener;
   }
 
+  void setViewportCullingEnabled(boolean enabled) {
+    viewportCuller.setEnabled(enabled);
+  }
+
+  void setVisibleRegion(LatLngBounds visibleRegion) {
+    viewportCuller.setVisibleRegion(visibleRegion);
+  }
+
   void addMarkers(List<Object> markersToAdd) {
     if (markersToAdd != null) {
       for (Object markerToAdd : markersToAdd) {
-        addMarker(markerToAdd);
+        if (markerToAdd != null) {
+          viewportCuller.add(getMarkerId(markerToAdd), markerToAdd);
+        }
       }
     }
   }
 
+  /**
+   * Adds a batch of markers in the packed format. The batch is decoded on a background thread and
+   * the markers are added to the map in frame-sized chunks; {@code result} is completed once all of
+   * them have been added, or with an error if the map is disposed first.
+   */
+  void addPackedMarkers(final Object packedMarkers, final MethodChannel.Result result) {
+    if (disposed) {
+      result.error("Map disposed", "addPackedMarkers called after the map was disposed", null);
+      return;
+    }
+    pendingPackedMarkersResults.add(result);
+    executor.execute(
+        () -> {
+          final List<String> markerIds = new ArrayList<>();
+          final List<MarkerBuilder> markerBuilders;
+          try {
+            markerBuilders = Convert.interpretPackedMarkers(packedMarkers, markerIds, iconCache);
+          } catch (Exception e) {
+            handler.post(
+                () -> {
+                  if (pendingPackedMarkersResults.remove(result)) {
+                    result.error("Invalid packed markers", e.getMessage(), null);
+                  }
+                });
+            return;
+          }
+          handler.post(new PackedMarkersAdder(markerIds, markerBuilders, result));
+        });
+  }
+
+  void dispose() {
+    disposed = true;
+    executor.shutdownNow();
+    handler.removeCallbacksAndMessages(null);
+    for (MethodChannel.Result result : pendingPackedMarkersResults) {
+      result.error("Map disposed", "The map was disposed before all markers were added", null);
+    }
+    pendingPackedMarkersResults.clear();
+  }
+
   void changeMarkers(List<Object> markersToChange) {
     if (markersToChange != null) {
       for (Object markerToChange : markersToChange) {
-        changeMarker(markerToChange);
+        if (markerToChange != null
+            && !viewportCuller.change(getMarkerId(markerToChange), markerToChange)) {
+          changeMarker(markerToChange);
+        }
       }
     }
   }
@@ -79,15 +154,14 @@ class MarkersController {
         continue;
       }
       String markerId = (String) rawMarkerId;
-      final MarkerController markerController = markerIdToController.remove(markerId);
-      if (markerController != null) {
-        markerController.remove();
-        googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+      if (!viewportCuller.remove(markerId)) {
+        removeMarker(markerId);
       }
     }
   }
 
   void showMarkerInfoWindow(String markerId, MethodChannel.Result result) {
+    viewportCuller.ensureMaterialized(markerId);
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
       markerController.showInfoWindow();
@@ -175,7 +249,7 @@ class MarkersController {
       return;
     }
     MarkerBuilder markerBuilder = new MarkerBuilder();
-    String markerId = Convert.interpretMarkerOptions(marker, markerBuilder, context);
+    String markerId = Convert.interpretMarkerOptions(marker, markerBuilder, context, iconCache);
     MarkerOptions options = markerBuilder.build();
     addMarker(markerId, options, markerBuilder.consumeTapEvents());
   }
@@ -184,7 +258,26 @@ class MarkersController {
     MarkerManager.Collection collection = markerManager.newCollection();
     final Marker marker = collection.addMarker(markerOptions);
     setMarkersListener(collection);
-    MarkerController controller = new MarkerController(marker, consumeTapEvents);
+    MarkerController controller = new MarkerController(marker, collection, consumeTapEvents);
+    markerIdToController.put(markerId, controller);
+    googleMapsMarkerIdToDartMarkerId.put(marker.getId(), markerId);
+  }
+
+  private void addPackedMarker(
+      String markerId, MarkerOptions markerOptions, boolean consumeTapEvents) {
+    if (packedMarkersCollection == null) {
+      packedMarkersCollection = markerManager.newCollection();
+      setMarkersListener(packedMarkersCollection);
+    }
+    viewportCuller.remove(markerId);
+    final MarkerController previous = markerIdToController.get(markerId);
+    if (previous != null) {
+      previous.remove();
+      googleMapsMarkerIdToDartMarkerId.remove(previous.getGoogleMapsMarkerId());
+    }
+    final Marker marker = packedMarkersCollection.addMarker(markerOptions);
+    MarkerController controller =
+        new MarkerController(marker, packedMarkersCollection, consumeTapEvents);
     markerIdToController.put(markerId, controller);
     googleMapsMarkerIdToDartMarkerId.put(marker.getId(), markerId);
   }
@@ -202,7 +295,15 @@ class MarkersController {
     String markerId = getMarkerId(marker);
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
-      Convert.interpretMarkerOptions(marker, markerController, context);
+      Convert.interpretMarkerOptions(marker, markerController, context, iconCache);
+    }
+  }
+
+  private void removeMarker(String markerId) {
+    final MarkerController markerController = markerIdToController.remove(markerId);
+    if (markerController != null) {
+      markerController.remove();
+      googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
     }
   }
 
@@ -211,4 +312,64 @@ class MarkersController {
     Map<String, Object> markerMap = (Map<String, Object>) marker;
     return (String) markerMap.get("markerId");
   }
+
+  /** Adds and removes markers as the viewport culler materializes them. */
+  private final class CullingDelegate implements ViewportCuller.Delegate {
+    @Override
+    public LatLngBounds boundsOf(Object marker) {
+      return Convert.toObjectBounds(marker);
+    }
+
+    @Override
+    public void add(Object marker) {
+      addMarker(marker);
+    }
+
+    @Override
+    public void change(Object marker) {
+      changeMarker(marker);
+    }
+
+    @Override
+    public void remove(String markerId) {
+      removeMarker(markerId);
+    }
+  }
+
+  /** Adds decoded packed markers on the main thread, yielding between frames. */
+  private final class PackedMarkersAdder implements Runnable {
+    private final List<String> markerIds;
+    private final List<MarkerBuilder> markerBuilders;
+    private final MethodChannel.Result result;
+    private int next;
+
+    PackedMarkersAdder(
+        List<String> markerIds, List<MarkerBuilder> markerBuilders, MethodChannel.Result result) {
+      this.markerIds = markerIds;
+      this.markerBuilders = markerBuilders;
+      this.result = result;
+    }
+
+    @Override
+    public void run() {
+      if (disposed) {
+        return;
+      }
+      final long deadline = SystemClock.elapsedRealtimeNanos() + PACKED_MARKERS_FRAME_BUDGET_NANOS;
+      while (next < markerBuilders.size()) {
+        final MarkerBuilder markerBuilder = markerBuilders.get(next);
+        addPackedMarker(
+            markerIds.get(next), markerBuilder.build(), markerBuilder.consumeTapEvents());
+        next++;
+        if (SystemClock.elapsedRealtimeNanos() >= deadline) {
+          break;
+        }
+      }
+      if (next < markerBuilders.size()) {
+        handler.post(this);
+      } else if (pendingPackedMarkersResults.remove(result)) {
+        result.success(null);
+      }
+    }
+  }
 }
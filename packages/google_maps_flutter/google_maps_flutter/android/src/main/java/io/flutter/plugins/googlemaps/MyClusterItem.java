@@ -10,11 +10,12 @@ import androidx.annotation.NonNull;
 import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.maps.android.clustering.ClusterItem;
+import java.util.Objects;
 
 
 public class MyClusterItem implements ClusterItem {
 
-    private final LatLng position;
+    private LatLng position;
     private final String title;
     private final String snippet;
     private final String googleMapsClusterItemId;
@@ -63,6 +64,14 @@ public class MyClusterItem implements ClusterItem {
         return position;
     }
 
+    /**
+     * Moves this item. Must only be called while the item is not part of a {@code ClusterManager},
+     * whose algorithm indexes items by position.
+     */
+    void setPosition(@NonNull LatLng position) {
+        this.position = position;
+    }
+
     @Override
     public String getTitle() {
         return title;
@@ -96,4 +105,13 @@ public class MyClusterItem implements ClusterItem {
     public Bitmap getCustomIcon() {
         return this.customIcon;
     }
+
+    /** Whether {@code other} renders to the same marker as this item, ignoring its position. */
+    boolean hasSameAppearance(MyClusterItem other) {
+        return Objects.equals(title, other.title)
+                && Objects.equals(snippet, other.snippet)
+                && Objects.equals(label, other.label)
+                && customIcon == other.customIcon
+                && bitmapDescriptor == other.bitmapDescriptor;
+    }
 }
@@ -6,22 +6,37 @@ package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.PolygonOptions;
+import java.util.Collections;
 import java.util.List;
 
 class PolygonBuilder implements PolygonOptionsSink {
   private final PolygonOptions polygonOptions;
   private final float density;
   private boolean consumeTapEvents;
+  private List<LatLng> points = Collections.emptyList();
+  private List<List<LatLng>> holes = Collections.emptyList();
 
   PolygonBuilder(float density) {
     this.polygonOptions = new PolygonOptions();
     this.density = density;
   }
 
+  /**
+   * Returns the options without their points and holes, which {@link PolygonsController} adds,
+   * simplified if needed.
+   */
   PolygonOptions build() {
     return polygonOptions;
   }
 
+  List<LatLng> getPoints() {
+    return points;
+  }
+
+  List<List<LatLng>> getHoles() {
+    return holes;
+  }
+
   boolean consumeTapEvents() {
     return consumeTapEvents;
   }
@@ -38,14 +53,12 @@ class PolygonBuilder implements PolygonOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polygonOptions.addAll(points);
+    this.points = points;
   }
 
   @Override
   public void setHoles(List<List<LatLng>> holes) {
-    for (List<LatLng> hole : holes) {
-      polygonOptions.addHole(hole);
-    }
+    this.holes = holes;
   }
 
   @Override
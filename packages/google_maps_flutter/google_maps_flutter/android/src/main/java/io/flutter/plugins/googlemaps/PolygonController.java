@@ -6,6 +6,8 @@ package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Polygon;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /** Controller of a single Polygon on the map. */
@@ -14,14 +16,69 @@ class PolygonController implements PolygonOptionsSink {
   private final String googleMapsPolygonId;
   private final float density;
   private boolean consumeTapEvents;
+  // The geometry as given by Dart, which differs from the drawn one while simplified.
+  private List<LatLng> points;
+  private List<List<LatLng>> holes;
+  private boolean simplified;
 
   PolygonController(Polygon polygon, boolean consumeTapEvents, float density) {
+    this(
+        polygon,
+        Collections.<LatLng>emptyList(),
+        Collections.<List<LatLng>>emptyList(),
+        false,
+        consumeTapEvents,
+        density);
+  }
+
+  PolygonController(
+      Polygon polygon,
+      List<LatLng> points,
+      List<List<LatLng>> holes,
+      boolean simplified,
+      boolean consumeTapEvents,
+      float density) {
     this.polygon = polygon;
+    this.points = points;
+    this.holes = holes;
+    this.simplified = simplified;
     this.density = density;
     this.consumeTapEvents = consumeTapEvents;
     this.googleMapsPolygonId = polygon.getId();
   }
 
+  /** Returns the outline followed by the holes. */
+  List<List<LatLng>> getRings() {
+    final List<List<LatLng>> rings = new ArrayList<>(holes.size() + 1);
+    rings.add(points);
+    rings.addAll(holes);
+    return rings;
+  }
+
+  boolean isSimplified() {
+    return simplified;
+  }
+
+  /**
+   * Sets whether the polygon draws simplified rings given to {@link #setSimplifiedRings} instead
+   * of {@link #getRings}.
+   */
+  void setSimplified(boolean simplified) {
+    if (this.simplified && !simplified) {
+      polygon.setPoints(points);
+      polygon.setHoles(holes);
+    }
+    this.simplified = simplified;
+  }
+
+  /** Draws simplified rings, the outline followed by the holes. */
+  void setSimplifiedRings(List<List<LatLng>> rings) {
+    if (simplified) {
+      polygon.setPoints(rings.get(0));
+      polygon.setHoles(rings.subList(1, rings.size()));
+    }
+  }
+
   void remove() {
     polygon.remove();
   }
@@ -49,11 +106,17 @@ class PolygonController implements PolygonOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polygon.setPoints(points);
+    this.points = points;
+    if (!simplified) {
+      polygon.setPoints(points);
+    }
   }
 
   public void setHoles(List<List<LatLng>> holes) {
-    polygon.setHoles(holes);
+    this.holes = holes;
+    if (!simplified) {
+      polygon.setHoles(holes);
+    }
   }
 
   @Override
@@ -5,6 +5,8 @@
 package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Polygon;
 import com.google.android.gms.maps.model.PolygonOptions;
 import io.flutter.plugin.common.MethodChannel;
@@ -13,17 +15,22 @@ import java.util.List;
 import java.util.Map;
 
 class PolygonsController {
+  // Keeps polygon keys apart from polyline keys in the shared simplifier.
+  private static final String SIMPLIFIER_KEY_PREFIX = "polygon:";
 
   private final Map<String, PolygonController> polygonIdToController;
   private final Map<String, String> googleMapsPolygonIdToDartPolygonId;
+  private final ViewportCuller viewportCuller = new ViewportCuller(new CullingDelegate());
   private final MethodChannel methodChannel;
+  private final GeometrySimplifier simplifier;
   private final float density;
   private GoogleMap googleMap;
 
-  PolygonsController(MethodChannel methodChannel, float density) {
+  PolygonsController(MethodChannel methodChannel, GeometrySimplifier simplifier, float density) {
     this.polygonIdToController = new HashMap<>();
     this.googleMapsPolygonIdToDartPolygonId = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.simplifier = simplifier;
     this.density = density;
   }
 
@@ -31,10 +38,27 @@ class PolygonsController {
     this.googleMap = googleMap;
   }
 
+  void setViewportCullingEnabled(boolean enabled) {
+    viewportCuller.setEnabled(enabled);
+  }
+
+  void setVisibleRegion(LatLngBounds visibleRegion) {
+    viewportCuller.setVisibleRegion(visibleRegion);
+  }
+
+  /** Simplifies every polygon again, after a zoom or tolerance change. */
+  void updateSimplification() {
+    for (Map.Entry<String, PolygonController> entry : polygonIdToController.entrySet()) {
+      updateSimplification(entry.getKey(), entry.getValue());
+    }
+  }
+
   void addPolygons(List<Object> polygonsToAdd) {
     if (polygonsToAdd != null) {
       for (Object polygonToAdd : polygonsToAdd) {
-        addPolygon(polygonToAdd);
+        if (polygonToAdd != null) {
+          viewportCuller.add(getPolygonId(polygonToAdd), polygonToAdd);
+        }
       }
     }
   }
@@ -42,7 +66,10 @@ class PolygonsController {
   void changePolygons(List<Object> polygonsToChange) {
     if (polygonsToChange != null) {
       for (Object polygonToChange : polygonsToChange) {
-        changePolygon(polygonToChange);
+        if (polygonToChange != null
+            && !viewportCuller.change(getPolygonId(polygonToChange), polygonToChange)) {
+          changePolygon(polygonToChange);
+        }
       }
     }
   }
@@ -56,10 +83,8 @@ class PolygonsController {
         continue;
       }
       String polygonId = (String) rawPolygonId;
-      final PolygonController polygonController = polygonIdToController.remove(polygonId);
-      if (polygonController != null) {
-        polygonController.remove();
-        googleMapsPolygonIdToDartPolygonId.remove(polygonController.getGoogleMapsPolygonId());
+      if (!viewportCuller.remove(polygonId)) {
+        removePolygon(polygonId);
       }
     }
   }
@@ -84,15 +109,35 @@ class PolygonsController {
     PolygonBuilder polygonBuilder = new PolygonBuilder(density);
     String polygonId = Convert.interpretPolygonOptions(polygon, polygonBuilder);
     PolygonOptions options = polygonBuilder.build();
-    addPolygon(polygonId, options, polygonBuilder.consumeTapEvents());
+    final List<LatLng> points = polygonBuilder.getPoints();
+    final List<List<LatLng>> holes = polygonBuilder.getHoles();
+    // Detailed polygons start without points rather than drawing every point once.
+    final boolean simplified = simplifier.shouldSimplify(points.size() + pointCount(holes));
+    if (!simplified) {
+      options.addAll(points);
+      for (List<LatLng> hole : holes) {
+        options.addHole(hole);
+      }
+    }
+    addPolygon(
+        polygonId, options, points, holes, simplified, polygonBuilder.consumeTapEvents());
   }
 
   private void addPolygon(
-      String polygonId, PolygonOptions polygonOptions, boolean consumeTapEvents) {
+      String polygonId,
+      PolygonOptions polygonOptions,
+      List<LatLng> points,
+      List<List<LatLng>> holes,
+      boolean simplified,
+      boolean consumeTapEvents) {
     final Polygon polygon = googleMap.addPolygon(polygonOptions);
-    PolygonController controller = new PolygonController(polygon, consumeTapEvents, density);
+    PolygonController controller =
+        new PolygonController(polygon, points, holes, simplified, consumeTapEvents, density);
     polygonIdToController.put(polygonId, controller);
     googleMapsPolygonIdToDartPolygonId.put(polygon.getId(), polygonId);
+    if (simplified) {
+      updateSimplification(polygonId, controller);
+    }
   }
 
   private void changePolygon(Object polygon) {
@@ -102,8 +147,41 @@ class PolygonsController {
     String polygonId = getPolygonId(polygon);
     PolygonController polygonController = polygonIdToController.get(polygonId);
     if (polygonController != null) {
+      final List<List<LatLng>> previousRings = polygonController.getRings();
       Convert.interpretPolygonOptions(polygon, polygonController);
+      if (!polygonController.getRings().equals(previousRings)) {
+        updateSimplification(polygonId, polygonController);
+      }
+    }
+  }
+
+  private void updateSimplification(String polygonId, PolygonController polygonController) {
+    final List<List<LatLng>> rings = polygonController.getRings();
+    final boolean simplify = simplifier.shouldSimplify(pointCount(rings));
+    polygonController.setSimplified(simplify);
+    if (!simplify) {
+      simplifier.cancel(SIMPLIFIER_KEY_PREFIX + polygonId);
+      return;
     }
+    simplifier.simplify(
+        SIMPLIFIER_KEY_PREFIX + polygonId, rings, polygonController::setSimplifiedRings);
+  }
+
+  private void removePolygon(String polygonId) {
+    final PolygonController polygonController = polygonIdToController.remove(polygonId);
+    if (polygonController != null) {
+      simplifier.cancel(SIMPLIFIER_KEY_PREFIX + polygonId);
+      polygonController.remove();
+      googleMapsPolygonIdToDartPolygonId.remove(polygonController.getGoogleMapsPolygonId());
+    }
+  }
+
+  private static int pointCount(List<List<LatLng>> rings) {
+    int count = 0;
+    for (List<LatLng> ring : rings) {
+      count += ring.size();
+    }
+    return count;
   }
 
   @SuppressWarnings("unchecked")
@@ -111,4 +189,27 @@ class PolygonsController {
     Map<String, Object> polygonMap = (Map<String, Object>) polygon;
     return (String) polygonMap.get("polygonId");
   }
+
+  /** Adds and removes polygons as the viewport culler materializes them. */
+  private final class CullingDelegate implements ViewportCuller.Delegate {
+    @Override
+    public LatLngBounds boundsOf(Object polygon) {
+      return Convert.toObjectBounds(polygon);
+    }
+
+    @Override
+    public void add(Object polygon) {
+      addPolygon(polygon);
+    }
+
+    @Override
+    public void change(Object polygon) {
+      changePolygon(polygon);
+    }
+
+    @Override
+    public void remove(String polygonId) {
+      removePolygon(polygonId);
+    }
+  }
 }
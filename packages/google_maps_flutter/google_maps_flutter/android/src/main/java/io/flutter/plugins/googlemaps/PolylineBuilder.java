@@ -8,22 +8,32 @@ import com.google.android.gms.maps.model.Cap;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.PatternItem;
 import com.google.android.gms.maps.model.PolylineOptions;
+import java.util.Collections;
 import java.util.List;
 
 class PolylineBuilder implements PolylineOptionsSink {
   private final PolylineOptions polylineOptions;
   private boolean consumeTapEvents;
   private final float density;
+  private List<LatLng> points = Collections.emptyList();
 
   PolylineBuilder(float density) {
     this.polylineOptions = new PolylineOptions();
     this.density = density;
   }
 
+  /**
+   * Returns the options without their points, which {@link PolylinesController} adds, simplified
+   * if needed.
+   */
   PolylineOptions build() {
     return polylineOptions;
   }
 
+  List<LatLng> getPoints() {
+    return points;
+  }
+
   boolean consumeTapEvents() {
     return consumeTapEvents;
   }
@@ -50,7 +60,7 @@ class PolylineBuilder implements PolylineOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polylineOptions.addAll(points);
+    this.points = points;
   }
 
   @Override
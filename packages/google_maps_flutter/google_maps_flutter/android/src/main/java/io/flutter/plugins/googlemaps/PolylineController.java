@@ -8,6 +8,7 @@ import com.google.android.gms.maps.model.Cap;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.PatternItem;
 import com.google.android.gms.maps.model.Polyline;
+import java.util.Collections;
 import java.util.List;
 
 /** Controller of a single Polyline on the map. */
@@ -16,14 +17,53 @@ class PolylineController implements PolylineOptionsSink {
   private final String googleMapsPolylineId;
   private boolean consumeTapEvents;
   private final float density;
+  // The points as given by Dart, which differ from the drawn ones while simplified.
+  private List<LatLng> points;
+  private boolean simplified;
 
   PolylineController(Polyline polyline, boolean consumeTapEvents, float density) {
+    this(polyline, Collections.<LatLng>emptyList(), false, consumeTapEvents, density);
+  }
+
+  PolylineController(
+      Polyline polyline,
+      List<LatLng> points,
+      boolean simplified,
+      boolean consumeTapEvents,
+      float density) {
     this.polyline = polyline;
+    this.points = points;
+    this.simplified = simplified;
     this.consumeTapEvents = consumeTapEvents;
     this.density = density;
     this.googleMapsPolylineId = polyline.getId();
   }
 
+  List<LatLng> getPoints() {
+    return points;
+  }
+
+  boolean isSimplified() {
+    return simplified;
+  }
+
+  /**
+   * Sets whether the polyline draws simplified points given to {@link #setSimplifiedPoints}
+   * instead of {@link #getPoints}.
+   */
+  void setSimplified(boolean simplified) {
+    if (this.simplified && !simplified) {
+      polyline.setPoints(points);
+    }
+    this.simplified = simplified;
+  }
+
+  void setSimplifiedPoints(List<LatLng> simplifiedPoints) {
+    if (simplified) {
+      polyline.setPoints(simplifiedPoints);
+    }
+  }
+
   void remove() {
     polyline.remove();
   }
@@ -61,7 +101,10 @@ class PolylineController implements PolylineOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polyline.setPoints(points);
+    this.points = points;
+    if (!simplified) {
+      polyline.setPoints(points);
+    }
   }
 
   @Override
@@ -5,25 +5,33 @@
 package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Polyline;
 import com.google.android.gms.maps.model.PolylineOptions;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 class PolylinesController {
+  // Keeps polyline keys apart from polygon keys in the shared simplifier.
+  private static final String SIMPLIFIER_KEY_PREFIX = "polyline:";
 
   private final Map<String, PolylineController> polylineIdToController;
   private final Map<String, String> googleMapsPolylineIdToDartPolylineId;
+  private final ViewportCuller viewportCuller = new ViewportCuller(new CullingDelegate());
   private final MethodChannel methodChannel;
+  private final GeometrySimplifier simplifier;
   private GoogleMap googleMap;
   private final float density;
 
-  PolylinesController(MethodChannel methodChannel, float density) {
+  PolylinesController(MethodChannel methodChannel, GeometrySimplifier simplifier, float density) {
     this.polylineIdToController = new HashMap<>();
     this.googleMapsPolylineIdToDartPolylineId = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.simplifier = simplifier;
     this.density = density;
   }
 
@@ -31,10 +39,27 @@ class PolylinesController {
     this.googleMap = googleMap;
   }
 
+  void setViewportCullingEnabled(boolean enabled) {
+    viewportCuller.setEnabled(enabled);
+  }
+
+  void setVisibleRegion(LatLngBounds visibleRegion) {
+    viewportCuller.setVisibleRegion(visibleRegion);
+  }
+
+  /** Simplifies every polyline again, after a zoom or tolerance change. */
+  void updateSimplification() {
+    for (Map.Entry<String, PolylineController> entry : polylineIdToController.entrySet()) {
+      updateSimplification(entry.getKey(), entry.getValue());
+    }
+  }
+
   void addPolylines(List<Object> polylinesToAdd) {
     if (polylinesToAdd != null) {
       for (Object polylineToAdd : polylinesToAdd) {
-        addPolyline(polylineToAdd);
+        if (polylineToAdd != null) {
+          viewportCuller.add(getPolylineId(polylineToAdd), polylineToAdd);
+        }
       }
     }
   }
@@ -42,7 +67,10 @@ class PolylinesController {
   void changePolylines(List<Object> polylinesToChange) {
     if (polylinesToChange != null) {
       for (Object polylineToChange : polylinesToChange) {
-        changePolyline(polylineToChange);
+        if (polylineToChange != null
+            && !viewportCuller.change(getPolylineId(polylineToChange), polylineToChange)) {
+          changePolyline(polylineToChange);
+        }
       }
     }
   }
@@ -56,10 +84,8 @@ class PolylinesController {
         continue;
       }
       String polylineId = (String) rawPolylineId;
-      final PolylineController polylineController = polylineIdToController.remove(polylineId);
-      if (polylineController != null) {
-        polylineController.remove();
-        googleMapsPolylineIdToDartPolylineId.remove(polylineController.getGoogleMapsPolylineId());
+      if (!viewportCuller.remove(polylineId)) {
+        removePolyline(polylineId);
       }
     }
   }
@@ -84,15 +110,29 @@ class PolylinesController {
     PolylineBuilder polylineBuilder = new PolylineBuilder(density);
     String polylineId = Convert.interpretPolylineOptions(polyline, polylineBuilder);
     PolylineOptions options = polylineBuilder.build();
-    addPolyline(polylineId, options, polylineBuilder.consumeTapEvents());
+    final List<LatLng> points = polylineBuilder.getPoints();
+    // Long polylines start without points rather than drawing every point once.
+    final boolean simplified = simplifier.shouldSimplify(points.size());
+    if (!simplified) {
+      options.addAll(points);
+    }
+    addPolyline(polylineId, options, points, simplified, polylineBuilder.consumeTapEvents());
   }
 
   private void addPolyline(
-      String polylineId, PolylineOptions polylineOptions, boolean consumeTapEvents) {
+      String polylineId,
+      PolylineOptions polylineOptions,
+      List<LatLng> points,
+      boolean simplified,
+      boolean consumeTapEvents) {
     final Polyline polyline = googleMap.addPolyline(polylineOptions);
-    PolylineController controller = new PolylineController(polyline, consumeTapEvents, density);
+    PolylineController controller =
+        new PolylineController(polyline, points, simplified, consumeTapEvents, density);
     polylineIdToController.put(polylineId, controller);
     googleMapsPolylineIdToDartPolylineId.put(polyline.getId(), polylineId);
+    if (simplified) {
+      updateSimplification(polylineId, controller);
+    }
   }
 
   private void changePolyline(Object polyline) {
@@ -102,7 +142,34 @@ class PolylinesController {
     String polylineId = getPolylineId(polyline);
     PolylineController polylineController = polylineIdToController.get(polylineId);
     if (polylineController != null) {
+      final List<LatLng> previousPoints = polylineController.getPoints();
       Convert.interpretPolylineOptions(polyline, polylineController);
+      if (!polylineController.getPoints().equals(previousPoints)) {
+        updateSimplification(polylineId, polylineController);
+      }
+    }
+  }
+
+  private void updateSimplification(String polylineId, PolylineController polylineController) {
+    final List<LatLng> points = polylineController.getPoints();
+    final boolean simplify = simplifier.shouldSimplify(points.size());
+    polylineController.setSimplified(simplify);
+    if (!simplify) {
+      simplifier.cancel(SIMPLIFIER_KEY_PREFIX + polylineId);
+      return;
+    }
+    simplifier.simplify(
+        SIMPLIFIER_KEY_PREFIX + polylineId,
+        Collections.singletonList(points),
+        rings -> polylineController.setSimplifiedPoints(rings.get(0)));
+  }
+
+  private void removePolyline(String polylineId) {
+    final PolylineController polylineController = polylineIdToController.remove(polylineId);
+    if (polylineController != null) {
+      simplifier.cancel(SIMPLIFIER_KEY_PREFIX + polylineId);
+      polylineController.remove();
+      googleMapsPolylineIdToDartPolylineId.remove(polylineController.getGoogleMapsPolylineId());
     }
   }
 
@@ -111,4 +178,27 @@ class PolylinesController {
     Map<String, Object> polylineMap = (Map<String, Object>) polyline;
     return (String) polylineMap.get("polylineId");
   }
+
+  /** Adds and removes polylines as the viewport culler materializes them. */
+  private final class CullingDelegate implements ViewportCuller.Delegate {
+    @Override
+    public LatLngBounds boundsOf(Object polyline) {
+      return Convert.toObjectBounds(polyline);
+    }
+
+    @Override
+    public void add(Object polyline) {
+      addPolyline(polyline);
+    }
+
+    @Override
+    public void change(Object polyline) {
+      changePolyline(polyline);
+    }
+
+    @Override
+    public void remove(String polylineId) {
+      removePolyline(polylineId);
+    }
+  }
 }
@@ -0,0 +1,540 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.content.Context;
+import android.util.Base64;
+import android.util.Log;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-level cache of overlay tiles keyed by cache id and tile coordinates.
+ *
+ * <p>A cache id names one overlay on one map, see {@link #cacheId(String, String)}, so maps that
+ * use the same overlay id don't see each other's tiles. Tiles are kept in a byte-budgeted
+ * in-memory LRU. Overlays that opt in with a disk cache name are also written through to a
+ * size-capped directory in the app's cache dir, one sub-directory per name; overlays with the
+ * same disk cache name share those tiles. Each overlay has its own TTL and cache version; a
+ * version change or {@link #clear(String)} only drops that overlay's tiles.
+ *
+ * <p>{@link #get} may hit the disk and must not be called on the main thread. All disk work
+ * happens on a single background thread.
+ */
+class TileCache {
+
+  private static final String TAG = "TileCache";
+  private static final String DIRECTORY_NAME = "google_maps_flutter_tiles";
+  private static final String VERSION_FILE_NAME = ".version";
+  private static final int MAX_MEMORY_BYTES = 32 * 1024 * 1024;
+  private static final long MAX_DISK_BYTES = 64L * 1024 * 1024;
+  /** Fraction of the disk budget that is kept after a trim. */
+  private static final float DISK_TRIM_RATIO = 0.9f;
+
+  private static final AtomicInteger nextScope = new AtomicInteger();
+  private static TileCache instance;
+
+  private final File directory;
+  private final long maxDiskBytes;
+  private final LruCache<CacheKey, Entry> memoryCache;
+  // Keys of the tiles known to be on disk, by disk cache name, so lookups can skip I/O on a miss.
+  private final Set<CacheKey> diskIndex =
+      Collections.newSetFromMap(new ConcurrentHashMap<CacheKey, Boolean>());
+  private final Map<String, OverlayConfig> overlays = new ConcurrentHashMap<>();
+  private final Executor diskExecutor;
+  private final AtomicLong diskBytes = new AtomicLong();
+  // Only accessed on the disk thread.
+  private boolean diskIndexed;
+
+  /** Returns the cache shared by all maps of this process. */
+  static synchronized TileCache getInstance(Context context) {
+    if (instance == null) {
+      final int memoryBytes =
+          (int) Math.min(Runtime.getRuntime().maxMemory() / 16, MAX_MEMORY_BYTES);
+      instance =
+          new TileCache(
+              new File(context.getApplicationContext().getCacheDir(), DIRECTORY_NAME),
+              memoryBytes,
+              MAX_DISK_BYTES,
+              Executors.newSingleThreadExecutor());
+    }
+    return instance;
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param diskExecutor runs all disk work, in order; must not run tasks concurrently.
+   */
+  @VisibleForTesting
+  TileCache(File directory, int maxMemoryBytes, long maxDiskBytes, Executor diskExecutor) {
+    this.directory = directory;
+    this.maxDiskBytes = maxDiskBytes;
+    this.diskExecutor = diskExecutor;
+    this.memoryCache =
+        new LruCache<CacheKey, Entry>(maxMemoryBytes) {
+          @Override
+          protected int sizeOf(CacheKey key, Entry entry) {
+            return entry.tile.data == null ? 1 : entry.tile.data.length;
+          }
+        };
+  }
+
+  /** Returns a new scope, which keeps the cache ids of one map apart from those of other maps. */
+  static String newScope() {
+    return String.valueOf(nextScope.getAndIncrement());
+  }
+
+  /** Returns the cache id of the overlay {@code overlayId} in {@code scope}. */
+  static String cacheId(@NonNull String scope, @NonNull String overlayId) {
+    // Scopes never contain the separator, so the first one ends the scope.
+    return scope + ":" + overlayId;
+  }
+
+  /**
+   * Registers the caching parameters of an overlay.
+   *
+   * @param ttlMillis how long a tile stays valid, or 0 for no expiry.
+   * @param version the overlay's cache version; tiles stored under another version are dropped.
+   * @param diskCacheName the name the overlay's tiles are also cached on disk under, or null to
+   *     only cache them in memory.
+   */
+  void configureOverlay(
+      @NonNull String cacheId,
+      long ttlMillis,
+      @Nullable Integer version,
+      @Nullable String diskCacheName) {
+    final OverlayConfig config = new OverlayConfig(ttlMillis, version, diskCacheName);
+    final OverlayConfig previous = overlays.put(cacheId, config);
+    if (previous != null && previous.version != null && !previous.version.equals(version)) {
+      removeMemoryEntries(cacheId);
+    }
+    if (diskCacheName == null) {
+      return;
+    }
+    if (version == null
+        && previous != null
+        && previous.diskReady
+        && diskCacheName.equals(previous.diskCacheName)) {
+      config.diskReady = true;
+    }
+    diskExecutor.execute(
+        () -> {
+          indexDiskIfNeeded();
+          final File versionFile = new File(diskDirectory(diskCacheName), VERSION_FILE_NAME);
+          final Integer storedVersion = readVersion(versionFile);
+          if (version != null && !version.equals(storedVersion)) {
+            removeMemoryEntries(cacheId);
+            deleteDiskFiles(diskCacheName);
+            writeVersion(versionFile, version);
+          }
+          config.diskReady = true;
+        });
+  }
+
+  /** Returns the cached tile, or null on a miss. May read from disk. */
+  @Nullable
+  Tile get(@NonNull String cacheId, int x, int y, int zoom) {
+    final CacheKey key = new CacheKey(cacheId, x, y, zoom);
+    final OverlayConfig config = overlays.get(cacheId);
+    final long ttlMillis = config == null ? 0 : config.ttlMillis;
+    final Entry entry = memoryCache.get(key);
+    if (entry != null) {
+      if (!entry.isExpired(ttlMillis)) {
+        return entry.tile;
+      }
+      memoryCache.remove(key);
+    }
+    if (config == null || config.diskCacheName == null || !config.diskReady) {
+      return null;
+    }
+    final CacheKey diskKey = new CacheKey(config.diskCacheName, x, y, zoom);
+    if (!diskIndex.contains(diskKey)) {
+      return null;
+    }
+    final Entry diskEntry = readEntry(diskFile(diskKey));
+    if (diskEntry == null || diskEntry.isExpired(ttlMillis)) {
+      diskIndex.remove(diskKey);
+      diskExecutor.execute(() -> deleteDiskFile(diskKey));
+      return null;
+    }
+    memoryCache.put(key, diskEntry);
+    return diskEntry.tile;
+  }
+
+  /** Whether a tile is cached in memory or on disk, without touching the disk. */
+  boolean contains(@NonNull String cacheId, int x, int y, int zoom) {
+    if (memoryCache.get(new CacheKey(cacheId, x, y, zoom)) != null) {
+      return true;
+    }
+    final OverlayConfig config = overlays.get(cacheId);
+    return config != null
+        && config.diskCacheName != null
+        && diskIndex.contains(new CacheKey(config.diskCacheName, x, y, zoom));
+  }
+
+  /** Stores a tile in memory and, if the overlay opted in, schedules it to be written to disk. */
+  void put(@NonNull String cacheId, int x, int y, int zoom, @NonNull Tile tile) {
+    final Entry entry = new Entry(tile, System.currentTimeMillis());
+    memoryCache.put(new CacheKey(cacheId, x, y, zoom), entry);
+    final OverlayConfig config = overlays.get(cacheId);
+    if (config == null || config.diskCacheName == null) {
+      return;
+    }
+    final CacheKey diskKey = new CacheKey(config.diskCacheName, x, y, zoom);
+    diskExecutor.execute(
+        () -> {
+          final File file = diskFile(diskKey);
+          final long previousLength = file.length();
+          if (writeEntry(file, entry)) {
+            diskIndex.add(diskKey);
+            if (diskBytes.addAndGet(file.length() - previousLength) > maxDiskBytes) {
+              trimDisk();
+            }
+          }
+        });
+  }
+
+  /** Drops every tile of the given overlay, in memory and, if it opted in, on disk. */
+  void clear(@NonNull String cacheId) {
+    removeMemoryEntries(cacheId);
+    final OverlayConfig config = overlays.get(cacheId);
+    if (config != null && config.diskCacheName != null) {
+      final String diskCacheName = config.diskCacheName;
+      diskExecutor.execute(() -> deleteDiskFiles(diskCacheName));
+    }
+  }
+
+  /** Forgets an overlay that is no longer shown and drops its in-memory tiles; disk is kept. */
+  void release(@NonNull String cacheId) {
+    overlays.remove(cacheId);
+    removeMemoryEntries(cacheId);
+  }
+
+  /** Whether any overlay config or in-memory tile is still held under the given scope. */
+  @VisibleForTesting
+  boolean hasEntries(@NonNull String scope) {
+    final String prefix = cacheId(scope, "");
+    for (String cacheId : overlays.keySet()) {
+      if (cacheId.startsWith(prefix)) {
+        return true;
+      }
+    }
+    for (CacheKey key : memoryCache.snapshot().keySet()) {
+      if (key.name.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void removeMemoryEntries(String cacheId) {
+    for (CacheKey key : memoryCache.snapshot().keySet()) {
+      if (key.name.equals(cacheId)) {
+        memoryCache.remove(key);
+      }
+    }
+  }
+
+  private void deleteDiskFiles(String diskCacheName) {
+    for (CacheKey key : new ArrayList<>(diskIndex)) {
+      if (key.name.equals(diskCacheName)) {
+        diskIndex.remove(key);
+      }
+    }
+    final File[] files = diskDirectory(diskCacheName).listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      if (file.getName().equals(VERSION_FILE_NAME)) {
+        continue;
+      }
+      final long length = file.length();
+      if (file.delete()) {
+        diskBytes.addAndGet(-length);
+      }
+    }
+  }
+
+  private void deleteDiskFile(CacheKey key) {
+    final File file = diskFile(key);
+    final long length = file.length();
+    if (file.delete()) {
+      diskBytes.addAndGet(-length);
+    }
+  }
+
+  /**
+   * Builds the disk index and size counter the first time an overlay opts into the disk cache;
+   * runs on the disk thread.
+   */
+  private void indexDiskIfNeeded() {
+    if (diskIndexed) {
+      return;
+    }
+    diskIndexed = true;
+    final File[] diskDirectories = directory.listFiles();
+    if (diskDirectories == null) {
+      return;
+    }
+    long total = 0;
+    for (File diskDirectory : diskDirectories) {
+      final String diskCacheName = decodeDiskCacheName(diskDirectory.getName());
+      final File[] files = diskDirectory.listFiles();
+      if (diskCacheName == null || files == null) {
+        continue;
+      }
+      for (File file : files) {
+        final CacheKey key = CacheKey.fromFileName(diskCacheName, file.getName());
+        if (key == null) {
+          continue;
+        }
+        total += file.length();
+        diskIndex.add(key);
+      }
+    }
+    diskBytes.addAndGet(total);
+  }
+
+  /** Deletes the least recently written tiles until the disk usage is under budget. */
+  private void trimDisk() {
+    final List<File> files = new ArrayList<>();
+    final File[] overlayDirectories = directory.listFiles();
+    if (overlayDirectories == null) {
+      return;
+    }
+    for (File overlayDirectory : overlayDirectories) {
+      final File[] overlayFiles = overlayDirectory.listFiles();
+      if (overlayFiles != null) {
+        files.addAll(Arrays.asList(overlayFiles));
+      }
+    }
+    Collections.sort(
+        files,
+        new Comparator<File>() {
+          @Override
+          public int compare(File a, File b) {
+            return Long.compare(a.lastModified(), b.lastModified());
+          }
+        });
+    final long target = (long) (maxDiskBytes * DISK_TRIM_RATIO);
+    for (File file : files) {
+      if (diskBytes.get() <= target) {
+        break;
+      }
+      if (file.getName().equals(VERSION_FILE_NAME)) {
+        continue;
+      }
+      final String diskCacheName = decodeDiskCacheName(file.getParentFile().getName());
+      final long length = file.length();
+      if (file.delete()) {
+        diskBytes.addAndGet(-length);
+        if (diskCacheName != null) {
+          final CacheKey key = CacheKey.fromFileName(diskCacheName, file.getName());
+          if (key != null) {
+            diskIndex.remove(key);
+          }
+        }
+      }
+    }
+  }
+
+  private File diskDirectory(String diskCacheName) {
+    return new File(
+        directory,
+        Base64.encodeToString(
+            diskCacheName.getBytes(Charset.forName("UTF-8")),
+            Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING));
+  }
+
+  @Nullable
+  private static String decodeDiskCacheName(String directoryName) {
+    try {
+      return new String(
+          Base64.decode(directoryName, Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING),
+          Charset.forName("UTF-8"));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private File diskFile(CacheKey key) {
+    return new File(diskDirectory(key.name), key.fileName());
+  }
+
+  @Nullable
+  private static Entry readEntry(File file) {
+    try (DataInputStream input =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      final long timestamp = input.readLong();
+      final int width = input.readInt();
+      final int height = input.readInt();
+      final int length = input.readInt();
+      if (length < 0) {
+        return new Entry(TileProvider.NO_TILE, timestamp);
+      }
+      final byte[] data = new byte[length];
+      input.readFully(data);
+      return new Entry(new Tile(width, height, data), timestamp);
+    } catch (IOException e) {
+      Log.w(TAG, "Can't read cached tile " + file.getName(), e);
+      return null;
+    }
+  }
+
+  private static boolean writeEntry(File file, Entry entry) {
+    final File parent = file.getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+      return false;
+    }
+    try (DataOutputStream output =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      output.writeLong(entry.timestamp);
+      output.writeInt(entry.tile.width);
+      output.writeInt(entry.tile.height);
+      if (entry.tile.data == null) {
+        output.writeInt(-1);
+      } else {
+        output.writeInt(entry.tile.data.length);
+        output.write(entry.tile.data);
+      }
+      return true;
+    } catch (IOException e) {
+      Log.w(TAG, "Can't write cached tile " + file.getName(), e);
+      return false;
+    }
+  }
+
+  @Nullable
+  private static Integer readVersion(File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+      return input.readInt();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static void writeVersion(File file, int version) {
+    final File parent = file.getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+      return;
+    }
+    try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+      output.writeInt(version);
+    } catch (IOException e) {
+      Log.w(TAG, "Can't write tile cache version", e);
+    }
+  }
+
+  private static final class OverlayConfig {
+    final long ttlMillis;
+    @Nullable final Integer version;
+    @Nullable final String diskCacheName;
+    // Set once pending version checks for this overlay have run on the disk thread.
+    volatile boolean diskReady;
+
+    OverlayConfig(long ttlMillis, @Nullable Integer version, @Nullable String diskCacheName) {
+      this.ttlMillis = ttlMillis;
+      this.version = version;
+      this.diskCacheName = diskCacheName;
+    }
+  }
+
+  /** A tile of an overlay, named by its cache id in memory and its disk cache name on disk. */
+  private static final class CacheKey {
+    final String name;
+    final int x;
+    final int y;
+    final int zoom;
+
+    CacheKey(String name, int x, int y, int zoom) {
+      this.name = name;
+      this.x = x;
+      this.y = y;
+      this.zoom = zoom;
+    }
+
+    @Nullable
+    static CacheKey fromFileName(String name, String fileName) {
+      final String[] parts = fileName.split("_");
+      if (parts.length != 3) {
+        return null;
+      }
+      try {
+        return new CacheKey(
+            name,
+            Integer.parseInt(parts[1]),
+            Integer.parseInt(parts[2]),
+            Integer.parseInt(parts[0]));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    String fileName() {
+      return zoom + "_" + x + "_" + y;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      final CacheKey other = (CacheKey) o;
+      return x == other.x && y == other.y && zoom == other.zoom && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return ((name.hashCode() * 31 + x) * 31 + y) * 31 + zoom;
+    }
+  }
+
+  private static final class Entry {
+    final Tile tile;
+    final long timestamp;
+
+    Entry(Tile tile, long timestamp) {
+      this.tile = tile;
+      this.timestamp = timestamp;
+    }
+
+    boolean isExpired(long ttlMillis) {
+      return ttlMillis > 0 && System.currentTimeMillis() - timestamp > ttlMillis;
+    }
+  }
+}
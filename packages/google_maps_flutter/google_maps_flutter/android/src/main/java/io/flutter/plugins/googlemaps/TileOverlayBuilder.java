@@ -4,12 +4,16 @@
 
 package io.flutter.plugins.googlemaps;
 
+import androidx.annotation.Nullable;
 import com.google.android.gms.maps.model.TileOverlayOptions;
 import com.google.android.gms.maps.model.TileProvider;
 
 class TileOverlayBuilder implements TileOverlaySink {
 
   private final TileOverlayOptions tileOverlayOptions;
+  private long cacheTtlMillis;
+  @Nullable private Integer cacheVersion;
+  @Nullable private String diskCacheName;
 
   TileOverlayBuilder() {
     this.tileOverlayOptions = new TileOverlayOptions();
@@ -19,6 +23,20 @@ class TileOverlayBuilder implements TileOverlaySink {
     return tileOverlayOptions;
   }
 
+  long cacheTtl() {
+    return cacheTtlMillis;
+  }
+
+  @Nullable
+  Integer cacheVersion() {
+    return cacheVersion;
+  }
+
+  @Nullable
+  String diskCacheName() {
+    return diskCacheName;
+  }
+
   @Override
   public void setFadeIn(boolean fadeIn) {
     tileOverlayOptions.fadeIn(fadeIn);
@@ -43,4 +61,19 @@ class TileOverlayBuilder implements TileOverlaySink {
   public void setTileProvider(TileProvider tileProvider) {
     tileOverlayOptions.tileProvider(tileProvider);
   }
+
+  @Override
+  public void setCacheTtl(long cacheTtlMillis) {
+    this.cacheTtlMillis = cacheTtlMillis;
+  }
+
+  @Override
+  public void setCacheVersion(@Nullable Integer cacheVersion) {
+    this.cacheVersion = cacheVersion;
+  }
+
+  @Override
+  public void setDiskCacheName(@Nullable String diskCacheName) {
+    this.diskCacheName = diskCacheName;
+  }
 }
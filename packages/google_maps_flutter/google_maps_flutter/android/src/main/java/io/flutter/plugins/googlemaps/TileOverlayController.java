@@ -4,24 +4,47 @@
 
 package io.flutter.plugins.googlemaps;
 
+import androidx.annotation.Nullable;
 import com.google.android.gms.maps.model.TileOverlay;
 import com.google.android.gms.maps.model.TileProvider;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 class TileOverlayController implements TileOverlaySink {
 
   private final TileOverlay tileOverlay;
+  private final TileProviderController tileProviderController;
+  private long cacheTtlMillis;
+  @Nullable private Integer cacheVersion;
+  @Nullable private String diskCacheName;
 
-  TileOverlayController(TileOverlay tileOverlay) {
+  TileOverlayController(
+      TileOverlay tileOverlay,
+      TileProviderController tileProviderController,
+      long cacheTtlMillis,
+      @Nullable Integer cacheVersion,
+      @Nullable String diskCacheName) {
     this.tileOverlay = tileOverlay;
+    this.tileProviderController = tileProviderController;
+    this.cacheTtlMillis = cacheTtlMillis;
+    this.cacheVersion = cacheVersion;
+    this.diskCacheName = diskCacheName;
+    tileProviderController.setOnStaleTilesListener(this::refreshTiles);
   }
 
   void remove() {
+    tileProviderController.dispose();
     tileOverlay.remove();
   }
 
   void clearTileCache() {
+    tileProviderController.clearCache();
+    tileOverlay.clearTileCache();
+  }
+
+  /** Makes the map ask for its tiles again without dropping the tiles the provider holds. */
+  void refreshTiles() {
     tileOverlay.clearTileCache();
   }
 
@@ -59,4 +82,31 @@ class TileOverlayController implements TileOverlaySink {
   public void setTileProvider(TileProvider tileProvider) {
     // You can not change tile provider after creation
   }
+
+  @Override
+  public void setCacheTtl(long cacheTtlMillis) {
+    if (this.cacheTtlMillis != cacheTtlMillis) {
+      this.cacheTtlMillis = cacheTtlMillis;
+      tileProviderController.configureCache(cacheTtlMillis, cacheVersion, diskCacheName);
+    }
+  }
+
+  @Override
+  public void setCacheVersion(@Nullable Integer cacheVersion) {
+    if (!Objects.equals(this.cacheVersion, cacheVersion)) {
+      this.cacheVersion = cacheVersion;
+      tileProviderController.configureCache(cacheTtlMillis, cacheVersion, diskCacheName);
+      if (cacheVersion != null) {
+        tileOverlay.clearTileCache();
+      }
+    }
+  }
+
+  @Override
+  public void setDiskCacheName(@Nullable String diskCacheName) {
+    if (!Objects.equals(this.diskCacheName, diskCacheName)) {
+      this.diskCacheName = diskCacheName;
+      tileProviderController.configureCache(cacheTtlMillis, cacheVersion, diskCacheName);
+    }
+  }
 }
@@ -4,6 +4,7 @@
 
 package io.flutter.plugins.googlemaps;
 
+import androidx.annotation.Nullable;
 import com.google.android.gms.maps.model.TileProvider;
 
 /** Receiver of TileOverlayOptions configuration. */
@@ -17,4 +18,10 @@ interface TileOverlaySink {
   void setVisible(boolean visible);
 
   void setTileProvider(TileProvider tileProvider);
+
+  void setCacheTtl(long cacheTtlMillis);
+
+  void setCacheVersion(@Nullable Integer cacheVersion);
+
+  void setDiskCacheName(@Nullable String diskCacheName);
 }
@@ -4,6 +4,7 @@
 
 package io.flutter.plugins.googlemaps;
 
+import androidx.annotation.VisibleForTesting;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.TileOverlay;
 import com.google.android.gms.maps.model.TileOverlayOptions;
@@ -16,11 +17,15 @@ class TileOverlaysController {
 
   private final Map<String, TileOverlayController> tileOverlayIdToController;
   private final MethodChannel methodChannel;
+  private final TileCache tileCache;
+  // Keeps the cached tiles of this map apart from those of other maps using the same overlay ids.
+  private final String cacheScope = TileCache.newScope();
   private GoogleMap googleMap;
 
-  TileOverlaysController(MethodChannel methodChannel) {
+  TileOverlaysController(MethodChannel methodChannel, TileCache tileCache) {
     this.tileOverlayIdToController = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.tileCache = tileCache;
   }
 
   void setGoogleMap(GoogleMap googleMap) {
@@ -78,6 +83,19 @@ class TileOverlaysController {
     return tileOverlayController.getTileOverlayInfo();
   }
 
+  /** Removes every tile overlay, releasing the tiles this map holds in the shared cache. */
+  void dispose() {
+    for (TileOverlayController tileOverlayController : tileOverlayIdToController.values()) {
+      tileOverlayController.remove();
+    }
+    tileOverlayIdToController.clear();
+  }
+
+  @VisibleForTesting
+  String getCacheScope() {
+    return cacheScope;
+  }
+
   private void addTileOverlay(Map<String, ?> tileOverlayOptions) {
     if (tileOverlayOptions == null) {
       return;
@@ -86,11 +104,21 @@ class TileOverlaysController {
     String tileOverlayId =
         Convert.interpretTileOverlayOptions(tileOverlayOptions, tileOverlayOptionsBuilder);
     TileProviderController tileProviderController =
-        new TileProviderController(methodChannel, tileOverlayId);
+        new TileProviderController(methodChannel, tileOverlayId, tileCache, cacheScope);
+    tileProviderController.configureCache(
+        tileOverlayOptionsBuilder.cacheTtl(),
+        tileOverlayOptionsBuilder.cacheVersion(),
+        tileOverlayOptionsBuilder.diskCacheName());
     tileOverlayOptionsBuilder.setTileProvider(tileProviderController);
     TileOverlayOptions options = tileOverlayOptionsBuilder.build();
     TileOverlay tileOverlay = googleMap.addTileOverlay(options);
-    TileOverlayController tileOverlayController = new TileOverlayController(tileOverlay);
+    TileOverlayController tileOverlayController =
+        new TileOverlayController(
+            tileOverlay,
+            tileProviderController,
+            tileOverlayOptionsBuilder.cacheTtl(),
+            tileOverlayOptionsBuilder.cacheVersion(),
+            tileOverlayOptionsBuilder.diskCacheName());
     tileOverlayIdToController.put(tileOverlayId, tileOverlayController);
   }
 
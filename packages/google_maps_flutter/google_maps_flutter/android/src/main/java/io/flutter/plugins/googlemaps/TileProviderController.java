@@ -4,80 +4,471 @@
 
 package io.flutter.plugins.googlemaps;
 
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import com.google.android.gms.maps.model.Tile;
 import com.google.android.gms.maps.model.TileProvider;
 import io.flutter.plugin.common.MethodChannel;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Serves tiles for a single tile overlay by asking Dart for them.
+ *
+ * <p>Tiles are looked up in the shared {@link TileCache} first. Requests made by the Maps SDK tile
+ * threads that miss the cache are coalesced into a single {@code tileOverlay#getTiles} call per
+ * main looper pass, together with a bounded set of prefetched neighbouring, parent and next-zoom
+ * tiles. Waits are bounded by {@link #TILE_TIMEOUT_MILLIS};
+ * when a tile is late, a lower-zoom tile that is already known is cropped and scaled in its place
+ * and the overlay is refreshed once the real tile arrives.
+ */
 class TileProviderController implements TileProvider {
 
   private static final String TAG = "TileProviderController";
 
+  /** How long a tile thread waits for Dart before falling back. */
+  static final long TILE_TIMEOUT_MILLIS = 1500;
+  /** How long requests are collected before they are sent to Dart as one batch. */
+  private static final long BATCH_WINDOW_MILLIS = 8;
+  /** Upper bound of speculative tiles added to a single batch. */
+  private static final int MAX_PREFETCH_PER_BATCH = 32;
+  /** How many zoom levels up a fallback tile is looked for. */
+  private static final int MAX_FALLBACK_ZOOM_DELTA = 3;
+  /** Delay used to coalesce overlay refreshes after late tiles arrive. */
+  private static final long REFRESH_DELAY_MILLIS = 100;
+
   private final String tileOverlayId;
   private final MethodChannel methodChannel;
+  private final TileCache tileCache;
+  private final String cacheId;
+  private final long tileTimeoutMillis;
   private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Object lock = new Object();
+  // Requests that have not been sent to Dart yet, in arrival order.
+  private final Map<TileKey, TileRequest> pendingRequests = new LinkedHashMap<>();
+  private final Map<TileKey, TileRequest> inFlightRequests = new HashMap<>();
+  private final Runnable flushRunnable = this::flush;
+  private final Runnable refreshRunnable = this::refresh;
+  private boolean flushScheduled;
+  private boolean disposed;
+  // Bumped when the cache is cleared, so answers to older requests are not cached.
+  private volatile int cacheGeneration;
+  private volatile boolean batchingSupported = true;
+  @Nullable private Runnable onStaleTilesListener;
+
+  /**
+   * Creates the provider of an overlay.
+   *
+   * @param cacheScope the scope of the map showing the overlay, see {@link TileCache#newScope()}.
+   */
+  TileProviderController(
+      MethodChannel methodChannel, String tileOverlayId, TileCache tileCache, String cacheScope) {
+    this(methodChannel, tileOverlayId, tileCache, cacheScope, TILE_TIMEOUT_MILLIS);
+  }
 
-  TileProviderController(MethodChannel methodChannel, String tileOverlayId) {
+  @VisibleForTesting
+  TileProviderController(
+      MethodChannel methodChannel,
+      String tileOverlayId,
+      TileCache tileCache,
+      String cacheScope,
+      long tileTimeoutMillis) {
     this.tileOverlayId = tileOverlayId;
     this.methodChannel = methodChannel;
+    this.tileCache = tileCache;
+    this.cacheId = TileCache.cacheId(cacheScope, tileOverlayId);
+    this.tileTimeoutMillis = tileTimeoutMillis;
+  }
+
+  /** Updates the TTL, version and disk cache name of the cached tiles of this overlay. */
+  void configureCache(long ttlMillis, @Nullable Integer version, @Nullable String diskCacheName) {
+    tileCache.configureOverlay(cacheId, ttlMillis, version, diskCacheName);
+  }
+
+  /**
+   * Sets the callback that is invoked on the main thread when tiles that were served from a
+   * fallback have been replaced by the real tiles, so the overlay can redraw them.
+   */
+  void setOnStaleTilesListener(@Nullable Runnable onStaleTilesListener) {
+    this.onStaleTilesListener = onStaleTilesListener;
   }
 
   @Override
   public Tile getTile(final int x, final int y, final int zoom) {
-    Worker worker = new Worker(x, y, zoom);
-    return worker.getTile();
+    final TileKey key = new TileKey(x, y, zoom);
+    Tile tile = tileCache.get(cacheId, x, y, zoom);
+    if (tile != null) {
+      return tile;
+    }
+    final TileRequest request;
+    synchronized (lock) {
+      if (disposed) {
+        return TileProvider.NO_TILE;
+      }
+      request = obtainRequestLocked(key);
+      request.requested = true;
+    }
+    try {
+      tile = request.await(tileTimeoutMillis);
+    } catch (InterruptedException e) {
+      Log.e(
+          TAG,
+          String.format("countDownLatch: can't get tile: x = %d, y= %d, zoom = %d", x, y, zoom),
+          e);
+      return TileProvider.NO_TILE;
+    }
+    if (tile != null) {
+      return tile;
+    }
+    final Tile fallback = fallbackTile(key);
+    if (fallback != null) {
+      request.servedFallback = true;
+      return fallback;
+    }
+    // Returning null makes the Maps SDK ask for this tile again later.
+    return null;
   }
 
-  private final class Worker implements MethodChannel.Result {
+  /** Drops every cached tile of this overlay. */
+  void clearCache() {
+    cacheGeneration++;
+    tileCache.clear(cacheId);
+  }
 
-    private final CountDownLatch countDownLatch = new CountDownLatch(1);
-    private final int x;
-    private final int y;
-    private final int zoom;
-    private Map<String, ?> result;
+  /** Releases every waiting tile thread; no further requests are sent to Dart. */
+  void dispose() {
+    final List<TileRequest> requests;
+    synchronized (lock) {
+      disposed = true;
+      requests = new ArrayList<>(pendingRequests.values());
+      requests.addAll(inFlightRequests.values());
+      pendingRequests.clear();
+      inFlightRequests.clear();
+    }
+    handler.removeCallbacks(flushRunnable);
+    handler.removeCallbacks(refreshRunnable);
+    for (TileRequest request : requests) {
+      request.complete(TileProvider.NO_TILE);
+    }
+    tileCache.release(cacheId);
+  }
 
-    Worker(int x, int y, int zoom) {
-      this.x = x;
-      this.y = y;
-      this.zoom = zoom;
+  private TileRequest obtainRequestLocked(TileKey key) {
+    TileRequest request = inFlightRequests.get(key);
+    if (request == null) {
+      request = pendingRequests.get(key);
     }
+    if (request == null) {
+      request = new TileRequest(key, cacheGeneration);
+      pendingRequests.put(key, request);
+      if (!flushScheduled) {
+        flushScheduled = true;
+        handler.postDelayed(flushRunnable, BATCH_WINDOW_MILLIS);
+      }
+    }
+    return request;
+  }
 
-    @NonNull
-    Tile getTile() {
-      handler.post(
-          () ->
-              methodChannel.invokeMethod(
-                  "tileOverlay#getTile",
-                  Convert.tileOverlayArgumentsToJson(tileOverlayId, x, y, zoom),
-                  this));
-      try {
-        // Because `methodChannel.invokeMethod` is async, we use a `countDownLatch` make it synchronized.
-        countDownLatch.await();
-      } catch (InterruptedException e) {
-        Log.e(
-            TAG,
-            String.format("countDownLatch: can't get tile: x = %d, y= %d, zoom = %d", x, y, zoom),
-            e);
-        return TileProvider.NO_TILE;
+  private void flush() {
+    final List<TileRequest> batch;
+    synchronized (lock) {
+      flushScheduled = false;
+      if (disposed || pendingRequests.isEmpty()) {
+        return;
+      }
+      addPrefetchRequestsLocked();
+      batch = new ArrayList<>(pendingRequests.values());
+      pendingRequests.clear();
+      for (TileRequest request : batch) {
+        inFlightRequests.put(request.key, request);
+      }
+    }
+    if (batchingSupported) {
+      methodChannel.invokeMethod(
+          "tileOverlay#getTiles",
+          Convert.tileOverlayBatchArgumentsToJson(tileOverlayId, keysOf(batch)),
+          new BatchWorker(batch));
+    } else {
+      for (TileRequest request : batch) {
+        invokeGetTile(request);
       }
+    }
+  }
+
+  /**
+   * Adds the ring around the requested tiles, their parents (used as fallbacks) and their children
+   * on the next zoom level to the pending batch, in that order of priority.
+   */
+  private void addPrefetchRequestsLocked() {
+    final List<TileKey> requested = new ArrayList<>();
+    for (TileRequest request : pendingRequests.values()) {
+      if (request.requested) {
+        requested.add(request.key);
+      }
+    }
+    if (requested.isEmpty()) {
+      return;
+    }
+    final List<TileKey> candidates = new ArrayList<>();
+    for (TileKey key : requested) {
+      if (key.zoom > 0) {
+        candidates.add(new TileKey(key.x >> 1, key.y >> 1, key.zoom - 1));
+      }
+    }
+    for (TileKey key : requested) {
+      for (int dy = -1; dy <= 1; dy++) {
+        for (int dx = -1; dx <= 1; dx++) {
+          if (dx != 0 || dy != 0) {
+            TileKey neighbour = key.offset(dx, dy);
+            if (neighbour != null) {
+              candidates.add(neighbour);
+            }
+          }
+        }
+      }
+    }
+    for (TileKey key : requested) {
+      for (int dy = 0; dy <= 1; dy++) {
+        for (int dx = 0; dx <= 1; dx++) {
+          candidates.add(new TileKey(key.x * 2 + dx, key.y * 2 + dy, key.zoom + 1));
+        }
+      }
+    }
+    int added = 0;
+    for (TileKey candidate : candidates) {
+      if (added >= MAX_PREFETCH_PER_BATCH) {
+        break;
+      }
+      if (pendingRequests.containsKey(candidate)
+          || inFlightRequests.containsKey(candidate)
+          || tileCache.contains(cacheId, candidate.x, candidate.y, candidate.zoom)) {
+        continue;
+      }
+      pendingRequests.put(candidate, new TileRequest(candidate, cacheGeneration));
+      added++;
+    }
+  }
+
+  private void invokeGetTile(TileRequest request) {
+    methodChannel.invokeMethod(
+        "tileOverlay#getTile",
+        Convert.tileOverlayArgumentsToJson(
+            tileOverlayId, request.key.x, request.key.y, request.key.zoom),
+        new Worker(request));
+  }
+
+  private void complete(TileRequest request, @Nullable Map<String, ?> data) {
+    Tile tile = TileProvider.NO_TILE;
+    if (data != null) {
       try {
-        return Convert.interpretTile(result);
+        tile = Convert.interpretTile(data);
       } catch (Exception e) {
         Log.e(TAG, "Can't parse tile data", e);
-        return TileProvider.NO_TILE;
       }
     }
+    synchronized (lock) {
+      if (inFlightRequests.get(request.key) == request) {
+        inFlightRequests.remove(request.key);
+      }
+    }
+    if (tile != TileProvider.NO_TILE && request.cacheGeneration == cacheGeneration) {
+      tileCache.put(cacheId, request.key.x, request.key.y, request.key.zoom, tile);
+    }
+    request.complete(tile);
+    if (request.servedFallback && tile != TileProvider.NO_TILE) {
+      handler.removeCallbacks(refreshRunnable);
+      handler.postDelayed(refreshRunnable, REFRESH_DELAY_MILLIS);
+    }
+  }
+
+  private void refresh() {
+    if (onStaleTilesListener != null) {
+      onStaleTilesListener.run();
+    }
+  }
+
+  /**
+   * Builds a stand-in for {@code key} out of the closest cached ancestor tile, or returns null
+   * when none is cached.
+   */
+  @Nullable
+  private Tile fallbackTile(TileKey key) {
+    for (int delta = 1; delta <= MAX_FALLBACK_ZOOM_DELTA && delta <= key.zoom; delta++) {
+      final Tile ancestor =
+          tileCache.get(cacheId, key.x >> delta, key.y >> delta, key.zoom - delta);
+      if (ancestor == null || ancestor.data == null) {
+        continue;
+      }
+      final Bitmap source = BitmapFactory.decodeByteArray(ancestor.data, 0, ancestor.data.length);
+      if (source == null) {
+        continue;
+      }
+      final int scale = 1 << delta;
+      final int width = source.getWidth() / scale;
+      final int height = source.getHeight() / scale;
+      if (width == 0 || height == 0) {
+        source.recycle();
+        continue;
+      }
+      final int left = (key.x & (scale - 1)) * width;
+      final int top = (key.y & (scale - 1)) * height;
+      final Bitmap region = Bitmap.createBitmap(source, left, top, width, height);
+      final Bitmap scaled =
+          Bitmap.createScaledBitmap(region, source.getWidth(), source.getHeight(), true);
+      final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      scaled.compress(Bitmap.CompressFormat.PNG, 100, stream);
+      source.recycle();
+      region.recycle();
+      scaled.recycle();
+      return new Tile(ancestor.width, ancestor.height, stream.toByteArray());
+    }
+    return null;
+  }
+
+  private static List<TileKey> keysOf(List<TileRequest> requests) {
+    final List<TileKey> keys = new ArrayList<>(requests.size());
+    for (TileRequest request : requests) {
+      keys.add(request.key);
+    }
+    return keys;
+  }
+
+  /** Coordinates of a single tile. */
+  static final class TileKey {
+    final int x;
+    final int y;
+    final int zoom;
+
+    TileKey(int x, int y, int zoom) {
+      this.x = x;
+      this.y = y;
+      this.zoom = zoom;
+    }
+
+    /** Returns the tile at the given offset, wrapping around the antimeridian, or null. */
+    @Nullable
+    TileKey offset(int dx, int dy) {
+      final int size = 1 << zoom;
+      final int newY = y + dy;
+      if (newY < 0 || newY >= size) {
+        return null;
+      }
+      final int newX = ((x + dx) % size + size) % size;
+      return new TileKey(newX, newY, zoom);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof TileKey)) {
+        return false;
+      }
+      TileKey other = (TileKey) o;
+      return x == other.x && y == other.y && zoom == other.zoom;
+    }
+
+    @Override
+    public int hashCode() {
+      return (31 * (31 * x + y)) + zoom;
+    }
+  }
+
+  /** A tile that has been asked for, either by the Maps SDK or speculatively. */
+  private static final class TileRequest {
+    private final CountDownLatch countDownLatch = new CountDownLatch(1);
+    final TileKey key;
+    final int cacheGeneration;
+    // Whether a tile thread is waiting for this tile, as opposed to a prefetch.
+    volatile boolean requested;
+    volatile boolean servedFallback;
+    private volatile Tile tile;
+
+    TileRequest(TileKey key, int cacheGeneration) {
+      this.key = key;
+      this.cacheGeneration = cacheGeneration;
+    }
+
+    @Nullable
+    Tile await(long timeoutMillis) throws InterruptedException {
+      countDownLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+      return tile;
+    }
+
+    void complete(@NonNull Tile tile) {
+      this.tile = tile;
+      countDownLatch.countDown();
+    }
+  }
+
+  private final class BatchWorker implements MethodChannel.Result {
+
+    private final List<TileRequest> batch;
+
+    BatchWorker(List<TileRequest> batch) {
+      this.batch = batch;
+    }
 
     @Override
     @SuppressWarnings("unchecked")
     public void success(Object data) {
-      result = (Map<String, ?>) data;
-      countDownLatch.countDown();
+      final List<?> tiles = (List<?>) data;
+      for (int i = 0; i < batch.size(); i++) {
+        Map<String, ?> tile = null;
+        if (tiles != null && i < tiles.size()) {
+          tile = (Map<String, ?>) tiles.get(i);
+        }
+        complete(batch.get(i), tile);
+      }
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object data) {
+      Log.e(
+          TAG,
+          String.format(
+              "Can't get tiles: errorCode = %s, errorMessage = %s, date = %s",
+              errorCode, errorMessage, data));
+      for (TileRequest request : batch) {
+        complete(request, null);
+      }
+    }
+
+    @Override
+    public void notImplemented() {
+      // Older Dart side; fall back to one call per tile from now on.
+      batchingSupported = false;
+      for (TileRequest request : batch) {
+        invokeGetTile(request);
+      }
+    }
+  }
+
+  private final class Worker implements MethodChannel.Result {
+
+    private final TileRequest request;
+
+    Worker(TileRequest request) {
+      this.request = request;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void success(Object data) {
+      complete(request, (Map<String, ?>) data);
     }
 
     @Override
@@ -86,16 +477,14 @@ class TileProviderController implements TileProvider {
           TAG,
           String.format(
               "Can't get tile: errorCode = %s, errorMessage = %s, date = %s",
-              errorCode, errorCode, data));
-      result = null;
-      countDownLatch.countDown();
+              errorCode, errorMessage, data));
+      complete(request, null);
     }
 
     @Override
     public void notImplemented() {
       Log.e(TAG, "Can't get tile: notImplemented");
-      result = null;
-      countDownLatch.countDown();
+      complete(request, null);
     }
   }
 }
@@ -0,0 +1,341 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import androidx.annotation.Nullable;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the map objects of one kind on the map only while they are near the visible region.
+ *
+ * <p>While culling is enabled, the culler holds the latest Dart description of every object added
+ * to it, whether or not it is on the map, indexed by a grid of {@link #CELL_DEGREES} cells. Only
+ * the objects whose bounds intersect the visible region plus a margin of {@link #MARGIN} screens
+ * are kept on the map; the others are removed from the map without Dart being told.
+ *
+ * <p>While culling is disabled, objects are handed straight to the delegate and the culler keeps
+ * nothing. {@link #change} and {@link #remove} return false for the objects the culler doesn't
+ * hold, and the caller updates those itself. Objects that are already on the map when culling is
+ * enabled are therefore never culled.
+ */
+class ViewportCuller {
+
+  /** Adds, changes and removes the map objects of one kind on behalf of a culler. */
+  interface Delegate {
+    /** Returns the bounds of an object, or null if it should never be culled. */
+    @Nullable
+    LatLngBounds boundsOf(Object object);
+
+    void add(Object object);
+
+    void change(Object object);
+
+    void remove(String id);
+  }
+
+  private static final double CELL_DEGREES = 0.5;
+  private static final double MARGIN = 0.5;
+  // Objects spanning more cells than this are tested on every pass instead of being indexed.
+  private static final int MAX_INDEXED_CELLS = 64;
+
+  private final Delegate delegate;
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final Map<Long, List<Entry>> cells = new HashMap<>();
+  private final Set<Entry> unindexed = new LinkedHashSet<>();
+  private final Set<Entry> materialized = new LinkedHashSet<>();
+  private boolean enabled;
+  // Visible region plus margin, or null until the first camera update.
+  @Nullable private double[] region;
+  private int pass;
+
+  ViewportCuller(Delegate delegate) {
+    this.delegate = delegate;
+  }
+
+  void setEnabled(boolean enabled) {
+    if (this.enabled == enabled) {
+      return;
+    }
+    this.enabled = enabled;
+    if (!enabled) {
+      // Puts every object back on the map and hands it over to the caller.
+      for (Entry entry : entries.values()) {
+        if (!entry.materialized) {
+          materialize(entry);
+        }
+      }
+      entries.clear();
+      cells.clear();
+      unindexed.clear();
+      materialized.clear();
+    } else if (region != null) {
+      cull();
+    }
+  }
+
+  /** Materializes the objects near {@code visibleRegion} and removes the others from the map. */
+  void setVisibleRegion(LatLngBounds visibleRegion) {
+    final double latMargin =
+        (visibleRegion.northeast.latitude - visibleRegion.southwest.latitude) * MARGIN;
+    double lngSpan = visibleRegion.northeast.longitude - visibleRegion.southwest.longitude;
+    if (lngSpan < 0) {
+      lngSpan += 360;
+    }
+    final double lngMargin = lngSpan * MARGIN;
+    region =
+        new double[] {
+          visibleRegion.southwest.latitude - latMargin,
+          visibleRegion.southwest.longitude - lngMargin,
+          visibleRegion.northeast.latitude + latMargin,
+          visibleRegion.southwest.longitude + lngSpan + lngMargin
+        };
+    if (enabled) {
+      cull();
+    }
+  }
+
+  /** Adds an object, or updates it in place if the culler already holds an object with its id. */
+  void add(String id, Object object) {
+    if (change(id, object)) {
+      return;
+    }
+    if (!enabled) {
+      delegate.add(object);
+      return;
+    }
+    final Entry entry = new Entry(id, object, delegate.boundsOf(object));
+    entries.put(id, entry);
+    index(entry);
+    if (isNearViewport(entry)) {
+      materialize(entry);
+    }
+  }
+
+  /** Updates an object, returning false if the culler doesn't hold it. */
+  boolean change(String id, Object object) {
+    final Entry entry = entries.get(id);
+    if (entry == null) {
+      return false;
+    }
+    unindex(entry);
+    entry.object = object;
+    entry.bounds = toBounds(delegate.boundsOf(object));
+    index(entry);
+    if (entry.materialized) {
+      if (isNearViewport(entry)) {
+        delegate.change(object);
+      } else {
+        dematerialize(entry);
+      }
+    } else if (isNearViewport(entry)) {
+      materialize(entry);
+    }
+    return true;
+  }
+
+  /** Removes an object, returning false if the culler doesn't hold it. */
+  boolean remove(String id) {
+    final Entry entry = entries.remove(id);
+    if (entry == null) {
+      return false;
+    }
+    unindex(entry);
+    if (entry.materialized) {
+      dematerialize(entry);
+    }
+    return true;
+  }
+
+  /**
+   * Puts an object on the map even if it is far from the viewport, for example to show its info
+   * window. Returns false if the culler doesn't hold the object.
+   */
+  boolean ensureMaterialized(String id) {
+    final Entry entry = entries.get(id);
+    if (entry == null) {
+      return false;
+    }
+    if (!entry.materialized) {
+      materialize(entry);
+    }
+    return true;
+  }
+
+  private boolean isNearViewport(Entry entry) {
+    return !enabled || region == null || entry.bounds == null || intersects(entry.bounds, region);
+  }
+
+  private void cull() {
+    final int pass = ++this.pass;
+    final List<Entry> visible = new ArrayList<>();
+    final double[] region = this.region;
+    final long cellCount =
+        (long) (cellRow(region[2]) - cellRow(region[0]) + 1)
+            * (cellColumn(region[3]) - cellColumn(region[1]) + 1);
+    if (cellCount > entries.size()) {
+      for (Entry entry : entries.values()) {
+        if (isNearViewport(entry)) {
+          entry.pass = pass;
+          visible.add(entry);
+        }
+      }
+    } else {
+      for (int row = cellRow(region[0]); row <= cellRow(region[2]); row++) {
+        for (int column = cellColumn(region[1]); column <= cellColumn(region[3]); column++) {
+          final List<Entry> cell = cells.get(cellKey(row, wrapColumn(column)));
+          if (cell == null) {
+            continue;
+          }
+          for (Entry entry : cell) {
+            if (entry.pass != pass && isNearViewport(entry)) {
+              entry.pass = pass;
+              visible.add(entry);
+            }
+          }
+        }
+      }
+      for (Entry entry : unindexed) {
+        if (entry.pass != pass && isNearViewport(entry)) {
+          entry.pass = pass;
+          visible.add(entry);
+        }
+      }
+    }
+    for (Entry entry : new ArrayList<>(materialized)) {
+      if (entry.pass != pass) {
+        dematerialize(entry);
+      }
+    }
+    for (Entry entry : visible) {
+      if (!entry.materialized) {
+        materialize(entry);
+      }
+    }
+  }
+
+  private void materialize(Entry entry) {
+    entry.materialized = true;
+    materialized.add(entry);
+    delegate.add(entry.object);
+  }
+
+  private void dematerialize(Entry entry) {
+    entry.materialized = false;
+    materialized.remove(entry);
+    delegate.remove(entry.id);
+  }
+
+  private void index(Entry entry) {
+    final double[] bounds = entry.bounds;
+    if (bounds == null) {
+      unindexed.add(entry);
+      return;
+    }
+    final int rows = cellRow(bounds[2]) - cellRow(bounds[0]) + 1;
+    final int columns = cellColumn(bounds[3]) - cellColumn(bounds[1]) + 1;
+    if (rows * columns > MAX_INDEXED_CELLS) {
+      unindexed.add(entry);
+      return;
+    }
+    for (int row = cellRow(bounds[0]); row <= cellRow(bounds[2]); row++) {
+      for (int column = cellColumn(bounds[1]); column <= cellColumn(bounds[3]); column++) {
+        final long key = cellKey(row, wrapColumn(column));
+        List<Entry> cell = cells.get(key);
+        if (cell == null) {
+          cell = new ArrayList<>(4);
+          cells.put(key, cell);
+        }
+        cell.add(entry);
+      }
+    }
+  }
+
+  private void unindex(Entry entry) {
+    if (unindexed.remove(entry)) {
+      return;
+    }
+    final double[] bounds = entry.bounds;
+    for (int row = cellRow(bounds[0]); row <= cellRow(bounds[2]); row++) {
+      for (int column = cellColumn(bounds[1]); column <= cellColumn(bounds[3]); column++) {
+        final long key = cellKey(row, wrapColumn(column));
+        final List<Entry> cell = cells.get(key);
+        if (cell != null) {
+          cell.remove(entry);
+          if (cell.isEmpty()) {
+            cells.remove(key);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the bounds as {south, west, north, east}, with east >= west, possibly past 180 for
+   * objects that cross the antimeridian.
+   */
+  @Nullable
+  private static double[] toBounds(@Nullable LatLngBounds bounds) {
+    if (bounds == null) {
+      return null;
+    }
+    double east = bounds.northeast.longitude;
+    if (east < bounds.southwest.longitude) {
+      east += 360;
+    }
+    return new double[] {
+      bounds.southwest.latitude, bounds.southwest.longitude, bounds.northeast.latitude, east
+    };
+  }
+
+  private static boolean intersects(double[] a, double[] b) {
+    if (a[0] > b[2] || a[2] < b[0]) {
+      return false;
+    }
+    // Compare longitudes on both sides of the antimeridian.
+    for (int shift = -360; shift <= 360; shift += 360) {
+      if (a[1] + shift <= b[3] && a[3] + shift >= b[1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int cellRow(double latitude) {
+    return (int) Math.floor(Math.max(-90, Math.min(90, latitude)) / CELL_DEGREES);
+  }
+
+  private static int cellColumn(double longitude) {
+    return (int) Math.floor(longitude / CELL_DEGREES);
+  }
+
+  private static int wrapColumn(int column) {
+    final int columns = (int) (360 / CELL_DEGREES);
+    return ((column % columns) + columns) % columns;
+  }
+
+  private static long cellKey(int row, int column) {
+    return ((long) row << 32) | (column & 0xffffffffL);
+  }
+
+  private static final class Entry {
+    final String id;
+    Object object;
+    @Nullable double[] bounds;
+    boolean materialized;
+    int pass;
+
+    Entry(String id, Object object, @Nullable LatLngBounds bounds) {
+      this.id = id;
+      this.object = object;
+      this.bounds = toBounds(bounds);
+    }
+  }
+}
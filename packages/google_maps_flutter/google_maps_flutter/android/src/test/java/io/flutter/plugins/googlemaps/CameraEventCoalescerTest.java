@@ -0,0 +1,103 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.os.Build;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class CameraEventCoalescerTest {
+
+  private final MethodChannel methodChannel = mock(MethodChannel.class);
+  private final CameraEventCoalescer coalescer = new CameraEventCoalescer(methodChannel);
+
+  @Test
+  public void onCameraMove_SendsEveryMoveByDefault() {
+    coalescer.onCameraMove(position(0, 0, 10));
+    coalescer.onCameraMove(position(0, 0, 10));
+    coalescer.onCameraMove(position(0, 0, 10));
+
+    verify(methodChannel, times(3)).invokeMethod(eq("camera#onMove"), any());
+  }
+
+  @Test
+  public void onCameraMove_ThrottlesAndSendsTheLatestMove() {
+    coalescer.setOptions(10, 0, 0, 0);
+
+    coalescer.onCameraMove(position(0, 0, 10));
+    coalescer.onCameraMove(position(0, 1, 10));
+    coalescer.onCameraMove(position(0, 2, 10));
+    verify(methodChannel, times(1)).invokeMethod(eq("camera#onMove"), any());
+
+    ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+
+    assertEquals(Arrays.asList(0.0, 2.0), lastTarget(2));
+    final Map<String, Object> stats = coalescer.getStats();
+    assertEquals(3, stats.get("received"));
+    assertEquals(2, stats.get("sent"));
+  }
+
+  @Test
+  public void onCameraMove_HoldsBackSmallChangesUntilIdle() {
+    coalescer.setOptions(0, 0, 1, 0);
+
+    coalescer.onCameraMove(position(0, 0, 10));
+    coalescer.onCameraMove(position(0, 0, 10.5f));
+    verify(methodChannel, times(1)).invokeMethod(eq("camera#onMove"), any());
+
+    coalescer.onCameraMove(position(0, 0, 11));
+    verify(methodChannel, times(2)).invokeMethod(eq("camera#onMove"), any());
+
+    coalescer.onCameraMove(position(0, 3, 11.2f));
+    coalescer.onCameraIdle();
+
+    assertEquals(Arrays.asList(0.0, 3.0), lastTarget(3));
+  }
+
+  @Test
+  public void onCameraMove_SendsTargetMovesBeyondThePixelDelta() {
+    coalescer.setOptions(0, 20, 0, 0);
+
+    coalescer.onCameraMove(position(0, 0, 0));
+    // 1 degree is about 0.7 logical pixels at zoom 0 and 23 at zoom 5.
+    coalescer.onCameraMove(position(0, 1, 0));
+    coalescer.onCameraMove(position(0, 1, 5));
+
+    verify(methodChannel, times(2)).invokeMethod(eq("camera#onMove"), any());
+  }
+
+  private static CameraPosition position(double latitude, double longitude, float zoom) {
+    return CameraPosition.fromLatLngZoom(new LatLng(latitude, longitude), zoom);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object lastTarget(int expectedEvents) {
+    final ArgumentCaptor<Object> arguments = ArgumentCaptor.forClass(Object.class);
+    verify(methodChannel, times(expectedEvents))
+        .invokeMethod(eq("camera#onMove"), arguments.capture());
+    final Map<String, Object> position =
+        (Map<String, Object>) ((Map<String, Object>) arguments.getValue()).get("position");
+    return position.get("target");
+  }
+}
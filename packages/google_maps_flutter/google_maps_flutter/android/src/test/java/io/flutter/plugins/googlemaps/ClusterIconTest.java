@@ -0,0 +1,34 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+
+import android.graphics.Bitmap;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class ClusterIconTest {
+
+  @Test
+  public void constructor_SortsBucketsWithTheirIcons() {
+    final ClusterIcon clusterIcon =
+        new ClusterIcon(Arrays.<Bitmap>asList(null, null, null), Arrays.asList(1000, 100, 500));
+
+    assertEquals(Arrays.asList(100, 500, 1000), clusterIcon.getBucket());
+  }
+
+  @Test
+  public void bucketIndexOf_ReturnsFirstLargerBucket() {
+    final ClusterIcon clusterIcon =
+        new ClusterIcon(Arrays.<Bitmap>asList(null, null, null), Arrays.asList(100, 500, 1000));
+
+    assertEquals(0, clusterIcon.bucketIndexOf(2));
+    assertEquals(1, clusterIcon.bucketIndexOf(100));
+    assertEquals(1, clusterIcon.bucketIndexOf(499));
+    assertEquals(2, clusterIcon.bucketIndexOf(500));
+    assertEquals(2, clusterIcon.bucketIndexOf(5000));
+  }
+}
@@ -0,0 +1,172 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.content.Context;
+import android.os.Build;
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.maps.android.clustering.ClusterManager;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class ClustersControllerTest {
+
+  private ClusterManager<MyClusterItem> clusterManager;
+  private ClustersController controller;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void before() {
+    final Context context = ApplicationProvider.getApplicationContext();
+    clusterManager = mock(ClusterManager.class);
+    controller = new ClustersController(mock(MethodChannel.class), context, new IconCache());
+    controller.setGoogleMap(mock(GoogleMap.class));
+    controller.setClusterManager(clusterManager);
+    reset(clusterManager);
+  }
+
+  @Test
+  public void updateClusterItems_AppliesAddsAndRemovesInOneBatch() {
+    controller.addClusterItems(Arrays.<Object>asList(item("a", 1, 1, "A"), item("b", 2, 2, "B")));
+    final MyClusterItem a = getOnlyAdded("a");
+    reset(clusterManager);
+
+    controller.updateClusterItems(
+        Collections.<Object>singletonList(item("c", 3, 3, "C")),
+        null,
+        Collections.<Object>singletonList("a"));
+
+    assertEquals(Collections.singletonList(a), captureRemoved());
+    assertEquals(Collections.singletonList("c"), idsOf(captureAdded()));
+    verify(clusterManager, times(1)).cluster();
+  }
+
+  @Test
+  public void changeClusterItems_MovesItemInPlace() {
+    controller.addClusterItems(Collections.<Object>singletonList(item("a", 1, 1, "A")));
+    final MyClusterItem a = getOnlyAdded("a");
+    reset(clusterManager);
+    final List<LatLng> removedAt = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              for (Object removed : (Collection<?>) invocation.getArgument(0)) {
+                removedAt.add(((MyClusterItem) removed).getPosition());
+              }
+              return true;
+            })
+        .when(clusterManager)
+        .removeItems(anyCollection());
+
+    controller.changeClusterItems(Collections.<Object>singletonList(item("a", 2, 2, "A")));
+
+    // The item leaves the algorithm at its old position and comes back, moved, as the same item.
+    assertEquals(Collections.singletonList(new LatLng(1, 1)), removedAt);
+    final List<MyClusterItem> added = captureAdded();
+    assertEquals(1, added.size());
+    assertSame(a, added.get(0));
+    assertEquals(new LatLng(2, 2), a.getPosition());
+    verify(clusterManager, times(1)).cluster();
+  }
+
+  @Test
+  public void changeClusterItems_ReplacesItemWhoseAppearanceChanged() {
+    controller.addClusterItems(Collections.<Object>singletonList(item("a", 1, 1, "A")));
+    final MyClusterItem a = getOnlyAdded("a");
+    reset(clusterManager);
+
+    controller.changeClusterItems(Collections.<Object>singletonList(item("a", 1, 1, "New")));
+
+    assertEquals(Collections.singletonList(a), captureRemoved());
+    final List<MyClusterItem> added = captureAdded();
+    assertEquals(1, added.size());
+    assertNotSame(a, added.get(0));
+    assertEquals("New", added.get(0).getTitle());
+    verify(clusterManager, times(1)).cluster();
+  }
+
+  @Test
+  public void changeClusterItems_SkipsUnchangedItems() {
+    controller.addClusterItems(Collections.<Object>singletonList(item("a", 1, 1, "A")));
+    reset(clusterManager);
+
+    controller.changeClusterItems(Collections.<Object>singletonList(item("a", 1, 1, "A")));
+
+    verify(clusterManager, never()).removeItems(any());
+    verify(clusterManager, never()).addItems(any());
+    verify(clusterManager, never()).cluster();
+  }
+
+  private MyClusterItem getOnlyAdded(String id) {
+    final List<MyClusterItem> added = captureAdded();
+    for (MyClusterItem item : added) {
+      if (item.getGoogleMapsClusterItemId().equals(id)) {
+        return item;
+      }
+    }
+    throw new AssertionError("No item " + id + " was added");
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<MyClusterItem> captureAdded() {
+    final ArgumentCaptor<Collection<MyClusterItem>> captor =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(clusterManager).addItems(captor.capture());
+    return new ArrayList<>(captor.getValue());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<MyClusterItem> captureRemoved() {
+    final ArgumentCaptor<Collection<MyClusterItem>> captor =
+        ArgumentCaptor.forClass(Collection.class);
+    verify(clusterManager).removeItems(captor.capture());
+    return new ArrayList<>(captor.getValue());
+  }
+
+  private static List<String> idsOf(List<MyClusterItem> items) {
+    final List<String> ids = new ArrayList<>();
+    for (MyClusterItem item : items) {
+      ids.add(item.getGoogleMapsClusterItemId());
+    }
+    return ids;
+  }
+
+  private static Map<String, Object> item(String id, double lat, double lng, String title) {
+    final Map<String, Object> infoWindow = new HashMap<>();
+    infoWindow.put("title", title);
+    final Map<String, Object> item = new HashMap<>();
+    item.put("markerId", id);
+    item.put("position", Arrays.asList(lat, lng));
+    item.put("infoWindow", infoWindow);
+    return item;
+  }
+}
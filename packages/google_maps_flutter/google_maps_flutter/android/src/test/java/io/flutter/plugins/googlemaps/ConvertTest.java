@@ -0,0 +1,61 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.android.gms.maps.model.MarkerOptions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class ConvertTest {
+
+  @Test
+  public void interpretPackedMarkers_ReadsColumns() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("markerIds", Arrays.asList("a", "b"));
+    data.put("positions", new double[] {1.0, 2.0, 3.0, 4.0});
+    data.put("alphas", new float[] {0.5f, 1.0f});
+    data.put("zIndices", new float[] {1f, 2f});
+    data.put("rotations", new float[] {90f, 0f});
+    data.put("flags", new byte[] {1, 8});
+    data.put("titles", Arrays.asList("title", null));
+    data.put("snippets", Arrays.asList("snippet", null));
+
+    final List<String> markerIds = new ArrayList<>();
+    final List<MarkerBuilder> builders =
+        Convert.interpretPackedMarkers(data, markerIds, new IconCache());
+
+    assertEquals(Arrays.asList("a", "b"), markerIds);
+    final MarkerOptions first = builders.get(0).build();
+    assertEquals(1.0, first.getPosition().latitude, 0);
+    assertEquals(2.0, first.getPosition().longitude, 0);
+    assertEquals(0.5f, first.getAlpha(), 0);
+    assertEquals(90f, first.getRotation(), 0);
+    assertEquals("title", first.getTitle());
+    assertTrue(builders.get(0).consumeTapEvents());
+    assertTrue(first.isVisible());
+    final MarkerOptions second = builders.get(1).build();
+    assertEquals(3.0, second.getPosition().latitude, 0);
+    assertEquals(2f, second.getZIndex(), 0);
+    assertFalse(builders.get(1).consumeTapEvents());
+    assertFalse(second.isVisible());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void interpretPackedMarkers_RejectsMismatchedPositions() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("markerIds", Arrays.asList("a", "b"));
+    data.put("positions", new double[] {1.0, 2.0});
+
+    Convert.interpretPackedMarkers(data, new ArrayList<String>(), new IconCache());
+  }
+}
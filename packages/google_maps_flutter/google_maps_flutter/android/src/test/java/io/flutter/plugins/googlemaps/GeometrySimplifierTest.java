@@ -0,0 +1,62 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class GeometrySimplifierTest {
+
+  // One logical pixel at zoom 10.
+  private static final double TOLERANCE = 1 / (256 * Math.pow(2, 10));
+
+  @Test
+  public void simplify_DropsCollinearPoints() {
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i <= 100; i++) {
+      points.add(new LatLng(0, i * 0.01));
+    }
+
+    final List<LatLng> simplified = GeometrySimplifier.simplify(points, TOLERANCE);
+
+    assertEquals(Arrays.asList(points.get(0), points.get(100)), simplified);
+  }
+
+  @Test
+  public void simplify_KeepsPointsBeyondTheTolerance() {
+    final LatLng start = new LatLng(0, 0);
+    final LatLng peak = new LatLng(0.5, 0.5);
+    final LatLng end = new LatLng(0, 1);
+    final List<LatLng> points =
+        Arrays.asList(start, new LatLng(0.25, 0.25), peak, new LatLng(0.25, 0.75), end);
+
+    final List<LatLng> simplified = GeometrySimplifier.simplify(points, TOLERANCE);
+
+    assertEquals(Arrays.asList(start, peak, end), simplified);
+  }
+
+  @Test
+  public void simplify_KeepsDeviationsAtHigherZoom() {
+    // About 11 meters off the line: under a pixel at zoom 10, over one at zoom 18.
+    final List<LatLng> points =
+        Arrays.asList(new LatLng(0, 0), new LatLng(0.0001, 0.05), new LatLng(0, 0.1));
+
+    assertEquals(2, GeometrySimplifier.simplify(points, TOLERANCE).size());
+    assertEquals(3, GeometrySimplifier.simplify(points, TOLERANCE / 256).size());
+  }
+
+  @Test
+  public void simplify_ReturnsShortLinesUnchanged() {
+    final List<LatLng> points = Arrays.asList(new LatLng(0, 0), new LatLng(1, 1));
+
+    assertSame(points, GeometrySimplifier.simplify(points, TOLERANCE));
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+
+import android.os.Build;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.maps.android.clustering.Cluster;
+import java.util.Arrays;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class HierarchicalClusterAlgorithmTest {
+
+  private final MyClusterItem a = new MyClusterItem(52.5200, 13.4050, "a", false, null);
+  private final MyClusterItem b = new MyClusterItem(52.5201, 13.4051, "b", false, null);
+  private final MyClusterItem c = new MyClusterItem(-33.8688, 151.2093, "c", false, null);
+
+  @Test
+  public void getClusters_MergesNearbyItemsAtLowZoom() {
+    final HierarchicalClusterAlgorithm<MyClusterItem> algorithm =
+        new HierarchicalClusterAlgorithm<>(400, 800, 13, 100);
+    algorithm.addItems(Arrays.asList(a, b, c));
+
+    final Set<? extends Cluster<MyClusterItem>> clusters = algorithm.getClusters(3);
+
+    assertEquals(2, clusters.size());
+    int largest = 0;
+    for (Cluster<MyClusterItem> cluster : clusters) {
+      largest = Math.max(largest, cluster.getSize());
+      assertEquals(cluster.getSize(), cluster.getItems().size());
+    }
+    assertEquals(2, largest);
+  }
+
+  @Test
+  public void getClusters_ReturnsSingleItemsAboveMaxZoom() {
+    final HierarchicalClusterAlgorithm<MyClusterItem> algorithm =
+        new HierarchicalClusterAlgorithm<>(400, 800, 13, 100);
+    algorithm.addItems(Arrays.asList(a, b, c));
+
+    assertEquals(3, algorithm.getClusters(20).size());
+  }
+
+  @Test
+  public void getClusters_OnlyReturnsClustersAroundTheCamera() {
+    final HierarchicalClusterAlgorithm<MyClusterItem> algorithm =
+        new HierarchicalClusterAlgorithm<>(400, 800, 13, 100);
+    algorithm.addItems(Arrays.asList(a, b, c));
+    algorithm.onCameraChange(CameraPosition.fromLatLngZoom(new LatLng(52.52, 13.405), 10));
+
+    final Set<? extends Cluster<MyClusterItem>> clusters = algorithm.getClusters(10);
+
+    assertEquals(1, clusters.size());
+    assertEquals(2, clusters.iterator().next().getSize());
+  }
+
+  @Test
+  public void removeItem_RebuildsTheHierarchy() {
+    final HierarchicalClusterAlgorithm<MyClusterItem> algorithm =
+        new HierarchicalClusterAlgorithm<>(400, 800, 13, 100);
+    algorithm.addItems(Arrays.asList(a, b, c));
+    algorithm.getClusters(3);
+
+    algorithm.removeItem(b);
+
+    assertEquals(2, algorithm.getClusters(3).size());
+    for (Cluster<MyClusterItem> cluster : algorithm.getClusters(3)) {
+      assertEquals(1, cluster.getSize());
+    }
+  }
+}
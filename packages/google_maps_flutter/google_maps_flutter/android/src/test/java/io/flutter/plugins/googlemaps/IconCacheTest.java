@@ -0,0 +1,81 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class IconCacheTest {
+
+  @Test
+  public void keyOf_MatchesEqualBytes() {
+    final String key = IconCache.keyOf(Arrays.asList("fromBytes", new byte[] {1, 2, 3}));
+
+    assertEquals(key, IconCache.keyOf(Arrays.asList("fromBytes", new byte[] {1, 2, 3})));
+    assertNotEquals(key, IconCache.keyOf(Arrays.asList("fromBytes", new byte[] {3, 2, 1})));
+    assertNotEquals(
+        IconCache.keyOf(Arrays.asList("fromAssetImage", "a.png", 1.0)),
+        IconCache.keyOf(Arrays.asList("fromAssetImage", "a.png", 2.0)));
+  }
+
+  @Test
+  public void keyOf_MatchesEqualBytesWithMoreArguments() {
+    final String key =
+        IconCache.keyOf(Arrays.asList("fromBytes", new byte[] {1, 2, 3}, Arrays.asList(8.0, 8.0)));
+
+    assertEquals(
+        key,
+        IconCache.keyOf(Arrays.asList("fromBytes", new byte[] {1, 2, 3}, Arrays.asList(8.0, 8.0))));
+    assertNotEquals(
+        key,
+        IconCache.keyOf(Arrays.asList("fromBytes", new byte[] {1, 2, 3}, Arrays.asList(9.0, 9.0))));
+  }
+
+  @Test
+  public void getBitmap_DoesNotCacheMissingBitmaps() {
+    final IconCache iconCache = new IconCache(1024 * 1024);
+    final AtomicInteger loads = new AtomicInteger();
+    final IconCache.Loader<Bitmap> loader =
+        () -> {
+          loads.incrementAndGet();
+          return null;
+        };
+
+    assertNull(iconCache.getBitmap("icon", loader));
+    assertNull(iconCache.getBitmap("icon", loader));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void getBitmap_LoadsOncePerKey() {
+    final IconCache iconCache = new IconCache(1024 * 1024);
+    final AtomicInteger loads = new AtomicInteger();
+    final IconCache.Loader<Bitmap> loader =
+        () -> {
+          loads.incrementAndGet();
+          return Bitmap.createBitmap(4, 4, Bitmap.Config.ARGB_8888);
+        };
+
+    final Bitmap first = iconCache.getBitmap("icon", loader);
+    final Bitmap second = iconCache.getBitmap("icon", loader);
+
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+    assertEquals("icon", iconCache.keyOf(first));
+  }
+}
@@ -5,10 +5,16 @@
 package io.flutter.plugins.googlemaps;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import android.os.Build;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
@@ -22,15 +28,49 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.Test;
+import org.junit.runner.RunWith;
 import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
 
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
 public class MarkersControllerTest {
 
+  @Test
+  public void dispose_CompletesPendingPackedMarkers() {
+    final MarkersController controller =
+        new MarkersController(mock(MethodChannel.class), null, new IconCache());
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+    ShadowLooper.pauseMainLooper();
+
+    controller.addPackedMarkers(new byte[0], result);
+    controller.dispose();
+    ShadowLooper.idleMainLooper();
+
+    verify(result).error(eq("Map disposed"), anyString(), isNull());
+    verifyNoMoreInteractions(result);
+  }
+
+  @Test
+  public void addPackedMarkers_FailsAfterDispose() {
+    final MarkersController controller =
+        new MarkersController(mock(MethodChannel.class), null, new IconCache());
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+    controller.dispose();
+
+    controller.addPackedMarkers(new byte[0], result);
+
+    verify(result).error(eq("Map disposed"), anyString(), isNull());
+  }
+
   @Test
   public void controller_OnMarkerDragStart() {
     final MethodChannel methodChannel =
         spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
-    final MarkersController controller = new MarkersController(methodChannel, null);
+    final MarkersController controller =
+        new MarkersController(methodChannel, null, new IconCache());
     final GoogleMap googleMap = mock(GoogleMap.class);
     controller.setGoogleMap(googleMap);
 
@@ -63,7 +103,8 @@ public class MarkersControllerTest {
   public void controller_OnMarkerDragEnd() {
     final MethodChannel methodChannel =
         spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
-    final MarkersController controller = new MarkersController(methodChannel, null);
+    final MarkersController controller =
+        new MarkersController(methodChannel, null, new IconCache());
     final GoogleMap googleMap = mock(GoogleMap.class);
     controller.setGoogleMap(googleMap);
 
@@ -96,7 +137,8 @@ public class MarkersControllerTest {
   public void controller_OnMarkerDrag() {
     final MethodChannel methodChannel =
         spy(new MethodChannel(mock(BinaryMessenger.class), "no-name", mock(MethodCodec.class)));
-    final MarkersController controller = new MarkersController(methodChannel, null);
+    final MarkersController controller =
+        new MarkersController(methodChannel, null, new IconCache());
     final GoogleMap googleMap = mock(GoogleMap.class);
     controller.setGoogleMap(googleMap);
 
@@ -4,11 +4,16 @@
 
 package io.flutter.plugins.googlemaps;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 
 import com.google.android.gms.internal.maps.zzz;
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Polyline;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -26,4 +31,25 @@ public class PolylineControllerTest {
 
     Mockito.verify(polyline).setWidth(density * strokeWidth);
   }
+
+  @Test
+  public void controller_DrawsOnlySimplifiedPointsWhileSimplified() {
+    final zzz z = mock(zzz.class);
+    final Polyline polyline = spy(new Polyline(z));
+    final List<LatLng> points = Arrays.asList(new LatLng(0, 0), new LatLng(1, 1));
+    final List<LatLng> simplifiedPoints = Collections.singletonList(new LatLng(0, 0));
+
+    final PolylineController controller =
+        new PolylineController(polyline, Collections.<LatLng>emptyList(), true, false, 1);
+    controller.setPoints(points);
+    controller.setSimplifiedPoints(simplifiedPoints);
+
+    Mockito.verify(polyline, Mockito.never()).setPoints(points);
+    Mockito.verify(polyline).setPoints(simplifiedPoints);
+    assertEquals(points, controller.getPoints());
+
+    controller.setSimplified(false);
+
+    Mockito.verify(polyline).setPoints(points);
+  }
 }
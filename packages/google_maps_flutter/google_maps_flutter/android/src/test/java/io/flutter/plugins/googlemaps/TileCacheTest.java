@@ -0,0 +1,193 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.os.Build;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileOverlay;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class TileCacheTest {
+
+  // Runs disk work right away, so tests don't race the disk thread.
+  private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private TileCache tileCache;
+
+  @Before
+  public void before() {
+    tileCache = newTileCache();
+  }
+
+  private TileCache newTileCache() {
+    return new TileCache(folder.getRoot(), 1024 * 1024, 1024 * 1024, DIRECT_EXECUTOR);
+  }
+
+  @Test
+  public void get_ReturnsStoredTile() {
+    final Tile tile = new Tile(256, 256, new byte[] {1, 2, 3});
+    tileCache.configureOverlay("overlay", 0, null, null);
+    tileCache.put("overlay", 1, 2, 3, tile);
+
+    assertSame(tile, tileCache.get("overlay", 1, 2, 3));
+    assertTrue(tileCache.contains("overlay", 1, 2, 3));
+    assertNull(tileCache.get("overlay", 2, 1, 3));
+  }
+
+  @Test
+  public void clear_OnlyDropsTilesOfThatOverlay() {
+    final Tile tile = new Tile(256, 256, new byte[] {1});
+    tileCache.configureOverlay("a", 0, null, "a");
+    tileCache.configureOverlay("b", 0, null, "b");
+    tileCache.put("a", 0, 0, 0, tile);
+    tileCache.put("b", 0, 0, 0, tile);
+
+    tileCache.clear("a");
+
+    assertFalse(tileCache.contains("a", 0, 0, 0));
+    assertSame(tile, tileCache.get("b", 0, 0, 0));
+  }
+
+  @Test
+  public void cacheId_KeepsMapsApart() {
+    final String first = TileCache.cacheId(TileCache.newScope(), "tiles");
+    final String second = TileCache.cacheId(TileCache.newScope(), "tiles");
+    final Tile tile = new Tile(256, 256, new byte[] {1});
+    tileCache.configureOverlay(first, 0, null, null);
+    tileCache.configureOverlay(second, 0, null, null);
+    tileCache.put(first, 0, 0, 0, tile);
+    tileCache.put(second, 0, 0, 0, tile);
+
+    assertNull(tileCache.get(second, 1, 0, 1));
+    tileCache.put(first, 1, 0, 1, tile);
+    assertNull(tileCache.get(second, 1, 0, 1));
+
+    tileCache.clear(second);
+    tileCache.release(second);
+
+    assertSame(tile, tileCache.get(first, 0, 0, 0));
+    assertFalse(tileCache.contains(second, 0, 0, 0));
+  }
+
+  @Test
+  public void tileOverlaysControllerDispose_EmptiesItsScope() {
+    final GoogleMap googleMap = mock(GoogleMap.class);
+    final TileOverlay tileOverlay = mock(TileOverlay.class);
+    when(googleMap.addTileOverlay(any())).thenReturn(tileOverlay);
+    final TileOverlaysController controller =
+        new TileOverlaysController(mock(MethodChannel.class), tileCache);
+    controller.setGoogleMap(googleMap);
+    final Map<String, Object> options = new HashMap<>();
+    options.put("tileOverlayId", "tiles");
+    controller.addTileOverlays(Collections.singletonList(options));
+    final String scope = controller.getCacheScope();
+    tileCache.put(TileCache.cacheId(scope, "tiles"), 0, 0, 0, new Tile(256, 256, new byte[] {1}));
+    assertTrue(tileCache.hasEntries(scope));
+
+    controller.dispose();
+
+    assertFalse(tileCache.hasEntries(scope));
+    verify(tileOverlay).remove();
+  }
+
+  @Test
+  public void put_DoesNotWriteToDiskByDefault() {
+    tileCache.configureOverlay("overlay", 0, null, null);
+    tileCache.put("overlay", 0, 0, 0, new Tile(256, 256, new byte[] {1}));
+
+    final File[] files = folder.getRoot().listFiles();
+    assertNotNull(files);
+    assertEquals(0, files.length);
+  }
+
+  @Test
+  public void get_ReadsTilesCachedOnDiskByAnEarlierInstance() {
+    tileCache.configureOverlay("first", 0, null, "tiles");
+    tileCache.put("first", 1, 2, 3, new Tile(256, 256, new byte[] {1, 2, 3}));
+
+    final TileCache restarted = newTileCache();
+    restarted.configureOverlay("second", 0, null, "tiles");
+
+    assertTrue(restarted.contains("second", 1, 2, 3));
+    final Tile tile = restarted.get("second", 1, 2, 3);
+    assertNotNull(tile);
+    assertArrayEquals(new byte[] {1, 2, 3}, tile.data);
+  }
+
+  @Test
+  public void get_DropsExpiredTiles() throws InterruptedException {
+    tileCache.configureOverlay("overlay", 1, null, null);
+    tileCache.put("overlay", 0, 0, 0, new Tile(256, 256, new byte[] {1}));
+
+    Thread.sleep(5);
+
+    assertNull(tileCache.get("overlay", 0, 0, 0));
+  }
+
+  @Test
+  public void get_DropsExpiredTilesFromDisk() throws InterruptedException {
+    tileCache.configureOverlay("overlay", 0, null, "tiles");
+    tileCache.put("overlay", 0, 0, 0, new Tile(256, 256, new byte[] {1}));
+
+    final TileCache restarted = newTileCache();
+    restarted.configureOverlay("overlay", 1, null, "tiles");
+    Thread.sleep(5);
+
+    assertNull(restarted.get("overlay", 0, 0, 0));
+    assertFalse(restarted.contains("overlay", 0, 0, 0));
+  }
+
+  @Test
+  public void configureOverlay_ZeroTtlStopsExpiry() throws InterruptedException {
+    tileCache.configureOverlay("overlay", 1, null, null);
+    final Tile tile = new Tile(256, 256, new byte[] {1});
+    tileCache.put("overlay", 0, 0, 0, tile);
+
+    tileCache.configureOverlay("overlay", 0, null, null);
+    Thread.sleep(5);
+
+    assertSame(tile, tileCache.get("overlay", 0, 0, 0));
+  }
+
+  @Test
+  public void configureOverlay_NewVersionDropsDiskTiles() {
+    tileCache.configureOverlay("overlay", 0, 1, "tiles");
+    tileCache.put("overlay", 0, 0, 0, new Tile(256, 256, new byte[] {1}));
+
+    final TileCache restarted = newTileCache();
+    restarted.configureOverlay("overlay", 0, 2, "tiles");
+
+    assertNull(restarted.get("overlay", 0, 0, 0));
+  }
+}
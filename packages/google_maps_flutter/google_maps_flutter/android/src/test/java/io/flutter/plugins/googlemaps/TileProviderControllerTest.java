@@ -0,0 +1,222 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class TileProviderControllerTest {
+
+  // Short enough that a tile thread gives up right away, leaving its request queued.
+  private static final long SHORT_TIMEOUT_MILLIS = 1;
+  private static final String OVERLAY_ID = "tiles";
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final MethodChannel methodChannel = mock(MethodChannel.class);
+  private final ExecutorService tileThread = Executors.newSingleThreadExecutor();
+  private final String cacheScope = TileCache.newScope();
+  private TileCache tileCache;
+
+  @Before
+  public void before() {
+    tileCache = new TileCache(folder.getRoot(), 1024 * 1024, 1024 * 1024, Runnable::run);
+  }
+
+  @After
+  public void after() {
+    tileThread.shutdownNow();
+  }
+
+  @Test
+  public void getTile_CoalescesMissesIntoOneBatch() {
+    final TileProviderController controller = newController(SHORT_TIMEOUT_MILLIS);
+
+    assertNull(controller.getTile(0, 0, 2));
+    assertNull(controller.getTile(1, 0, 2));
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    // Already in flight, so it is not sent again.
+    assertNull(controller.getTile(0, 0, 2));
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+    final List<?> tiles = (List<?>) captureBatch(1).arguments.get("tiles");
+    assertEquals(Arrays.asList(0, 0, 2), tiles.get(0));
+    assertEquals(Arrays.asList(1, 0, 2), tiles.get(1));
+    assertEquals(OVERLAY_ID, captureBatch(1).arguments.get("tileOverlayId"));
+    verify(methodChannel, never()).invokeMethod(eq("tileOverlay#getTile"), any(), any());
+  }
+
+  @Test
+  public void getTile_FallsBackToCroppedAncestorOnTimeout() {
+    final TileProviderController controller = newController(SHORT_TIMEOUT_MILLIS);
+    final Runnable onStaleTilesListener = mock(Runnable.class);
+    controller.setOnStaleTilesListener(onStaleTilesListener);
+    controller.configureCache(0, null, null);
+    final Tile ancestor = new Tile(256, 256, pngBytes());
+    tileCache.put(TileCache.cacheId(cacheScope, OVERLAY_ID), 0, 0, 0, ancestor);
+
+    final Tile fallback = controller.getTile(1, 1, 1);
+
+    assertNotNull(fallback);
+    assertNotSame(ancestor, fallback);
+    assertEquals(256, fallback.width);
+    assertEquals(256, fallback.height);
+    assertNotNull(fallback.data);
+
+    // The real tile replaces the fallback once it arrives.
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    final Batch batch = captureBatch(1);
+    final List<Object> answer = new ArrayList<>();
+    for (Object coordinates : (List<?>) batch.arguments.get("tiles")) {
+      answer.add(coordinates.equals(Arrays.asList(1, 1, 1)) ? tileJson() : null);
+    }
+    batch.result.success(answer);
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+    verify(onStaleTilesListener).run();
+    final Tile tile = controller.getTile(1, 1, 1);
+    assertEquals(2, tile.data.length);
+  }
+
+  @Test
+  public void getTile_SwitchesToSingleTileCallsWhenBatchingIsNotImplemented() {
+    final TileProviderController controller = newController(SHORT_TIMEOUT_MILLIS);
+
+    controller.getTile(0, 0, 2);
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    final Batch batch = captureBatch(1);
+    batch.result.notImplemented();
+
+    final List<?> tiles = (List<?>) batch.arguments.get("tiles");
+    verify(methodChannel, times(tiles.size()))
+        .invokeMethod(eq("tileOverlay#getTile"), any(), any());
+    verify(methodChannel)
+        .invokeMethod(
+            eq("tileOverlay#getTile"),
+            eq(Convert.tileOverlayArgumentsToJson(OVERLAY_ID, 0, 0, 2)),
+            any());
+
+    // Later misses skip the batch call altogether.
+    controller.getTile(3, 3, 2);
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+    verify(methodChannel, times(1)).invokeMethod(eq("tileOverlay#getTiles"), any(), any());
+    verify(methodChannel)
+        .invokeMethod(
+            eq("tileOverlay#getTile"),
+            eq(Convert.tileOverlayArgumentsToJson(OVERLAY_ID, 3, 3, 2)),
+            any());
+  }
+
+  @Test
+  public void getTile_BatchErrorCompletesWaitingRequests() throws Exception {
+    final TileProviderController controller = newController(TimeUnit.SECONDS.toMillis(30));
+
+    final Future<Tile> tile = tileThread.submit(() -> controller.getTile(0, 0, 2));
+    awaitScheduledFlush();
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    captureBatch(1).result.error("error", "boom", null);
+
+    assertSame(TileProvider.NO_TILE, tile.get(5, TimeUnit.SECONDS));
+
+    // The failed tile is not cached nor left in flight, so it is asked for again.
+    final Future<Tile> retry = tileThread.submit(() -> controller.getTile(0, 0, 2));
+    awaitScheduledFlush();
+    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    final Batch batch = captureBatch(2);
+    assertEquals(Arrays.asList(0, 0, 2), ((List<?>) batch.arguments.get("tiles")).get(0));
+    batch.result.success(Arrays.asList(tileJson()));
+
+    assertEquals(2, retry.get(5, TimeUnit.SECONDS).data.length);
+  }
+
+  private TileProviderController newController(long tileTimeoutMillis) {
+    return new TileProviderController(
+        methodChannel, OVERLAY_ID, tileCache, cacheScope, tileTimeoutMillis);
+  }
+
+  /** Waits until the tile thread has queued its request and scheduled the batch. */
+  private static void awaitScheduledFlush() throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 5000;
+    while (ShadowLooper.getShadowMainLooper().getScheduler().size() == 0) {
+      assertTrue("No batch was scheduled", System.currentTimeMillis() < deadline);
+      Thread.sleep(1);
+    }
+  }
+
+  /** Returns the last {@code tileOverlay#getTiles} call, checking how many were made. */
+  @SuppressWarnings("unchecked")
+  private Batch captureBatch(int calls) {
+    final ArgumentCaptor<Object> arguments = ArgumentCaptor.forClass(Object.class);
+    final ArgumentCaptor<MethodChannel.Result> result =
+        ArgumentCaptor.forClass(MethodChannel.Result.class);
+    verify(methodChannel, times(calls))
+        .invokeMethod(eq("tileOverlay#getTiles"), arguments.capture(), result.capture());
+    return new Batch((Map<String, ?>) arguments.getValue(), result.getValue());
+  }
+
+  private static Map<String, Object> tileJson() {
+    final Map<String, Object> tile = new HashMap<>();
+    tile.put("width", 256);
+    tile.put("height", 256);
+    tile.put("data", new byte[] {1, 2});
+    return tile;
+  }
+
+  private static byte[] pngBytes() {
+    final Bitmap bitmap = Bitmap.createBitmap(256, 256, Bitmap.Config.ARGB_8888);
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
+    return stream.toByteArray();
+  }
+
+  private static final class Batch {
+    final Map<String, ?> arguments;
+    final MethodChannel.Result result;
+
+    Batch(Map<String, ?> arguments, MethodChannel.Result result) {
+      this.arguments = arguments;
+      this.result = result;
+    }
+  }
+}
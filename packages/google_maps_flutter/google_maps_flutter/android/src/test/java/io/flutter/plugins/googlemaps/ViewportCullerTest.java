@@ -0,0 +1,190 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Build;
+import androidx.annotation.Nullable;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.P)
+public class ViewportCullerTest {
+
+  private final RecordingDelegate delegate = new RecordingDelegate();
+  private final ViewportCuller culler = new ViewportCuller(delegate);
+
+  @Test
+  public void add_MaterializesEverythingWhileDisabled() {
+    culler.setVisibleRegion(bounds(0, 0, 1, 1));
+    culler.add("near", point("near", 0.5, 0.5));
+    culler.add("far", point("far", 40, 40));
+
+    assertEquals(Arrays.asList("near", "far"), delegate.added);
+    // Nothing is held while disabled, so the caller changes and removes the objects itself.
+    assertFalse(culler.change("near", point("near", 0.6, 0.6)));
+    assertFalse(culler.remove("far"));
+    assertTrue(delegate.changed.isEmpty());
+    assertTrue(delegate.removed.isEmpty());
+  }
+
+  @Test
+  public void setVisibleRegion_RemovesFarObjectsAndRestoresThem() {
+    culler.setEnabled(true);
+    culler.add("near", point("near", 0.5, 0.5));
+    culler.add("far", point("far", 40, 40));
+    culler.setVisibleRegion(bounds(0, 0, 1, 1));
+
+    assertEquals(Collections.singletonList("far"), delegate.removed);
+
+    culler.setVisibleRegion(bounds(39, 39, 41, 41));
+
+    assertEquals(Arrays.asList("far", "near"), delegate.removed);
+    assertEquals(Arrays.asList("near", "far", "far"), delegate.added);
+  }
+
+  @Test
+  public void setVisibleRegion_KeepsObjectsWithinTheMargin() {
+    culler.setEnabled(true);
+    culler.setVisibleRegion(bounds(0, 0, 1, 1));
+    culler.add("margin", point("margin", 1.4, 1.4));
+    culler.add("outside", point("outside", 1.6, 1.6));
+
+    assertEquals(Collections.singletonList("margin"), delegate.added);
+  }
+
+  @Test
+  public void setVisibleRegion_HandlesTheAntimeridian() {
+    culler.setEnabled(true);
+    culler.setVisibleRegion(new LatLngBounds(new LatLng(0, 179), new LatLng(1, -179)));
+    culler.add("west", point("west", 0.5, -179.5));
+    culler.add("east", point("east", 0.5, 179.5));
+    culler.add("far", point("far", 0.5, 0));
+
+    assertEquals(Arrays.asList("west", "east"), delegate.added);
+  }
+
+  @Test
+  public void change_MovesObjectsOutOfTheViewport() {
+    culler.setEnabled(true);
+    culler.setVisibleRegion(bounds(0, 0, 1, 1));
+    culler.add("a", point("a", 0.5, 0.5));
+
+    assertTrue(culler.change("a", point("a", 0.6, 0.6)));
+    assertTrue(culler.change("a", point("a", 40, 40)));
+    assertFalse(culler.change("unknown", point("unknown", 0.5, 0.5)));
+
+    assertEquals(Collections.singletonList("a"), delegate.changed);
+    assertEquals(Collections.singletonList("a"), delegate.removed);
+  }
+
+  @Test
+  public void add_UpdatesKnownObjectsInPlace() {
+    culler.setEnabled(true);
+    culler.setVisibleRegion(bounds(0, 0, 1, 1));
+    culler.add("a", point("a", 0.5, 0.5));
+    culler.add("a", point("a", 0.6, 0.6));
+
+    assertEquals(Collections.singletonList("a"), delegate.added);
+    assertEquals(Collections.singletonList("a"), delegate.changed);
+    assertTrue(delegate.removed.isEmpty());
+  }
+
+  @Test
+  public void remove_OnlyRemovesMaterializedObjectsFromTheMap() {
+    culler.setEnabled(true);
+    culler.setVisibleRegion(bounds(0, 0, 1, 1));
+    culler.add("near", point("near", 0.5, 0.5));
+    culler.add("far", point("far", 40, 40));
+
+    assertTrue(culler.remove("near"));
+    assertTrue(culler.remove("far"));
+    assertFalse(culler.remove("far"));
+
+    assertEquals(Collections.singletonList("near"), delegate.removed);
+  }
+
+  @Test
+  public void setEnabled_FalseMaterializesCulledObjects() {
+    culler.setEnabled(true);
+    culler.setVisibleRegion(bounds(0, 0, 1, 1));
+    culler.add("far", point("far", 40, 40));
+    culler.setEnabled(false);
+
+    assertEquals(Collections.singletonList("far"), delegate.added);
+    // The objects are handed over to the caller.
+    assertFalse(culler.remove("far"));
+    assertTrue(delegate.removed.isEmpty());
+  }
+
+  @Test
+  public void ensureMaterialized_AddsCulledObject() {
+    culler.setEnabled(true);
+    culler.setVisibleRegion(bounds(0, 0, 1, 1));
+    culler.add("far", point("far", 40, 40));
+
+    assertTrue(culler.ensureMaterialized("far"));
+    assertFalse(culler.ensureMaterialized("unknown"));
+
+    assertEquals(Collections.singletonList("far"), delegate.added);
+  }
+
+  private static LatLngBounds bounds(double south, double west, double north, double east) {
+    return new LatLngBounds(new LatLng(south, west), new LatLng(north, east));
+  }
+
+  private static TestObject point(String id, double latitude, double longitude) {
+    return new TestObject(id, bounds(latitude, longitude, latitude, longitude));
+  }
+
+  private static final class TestObject {
+    final String id;
+    final LatLngBounds bounds;
+
+    TestObject(String id, LatLngBounds bounds) {
+      this.id = id;
+      this.bounds = bounds;
+    }
+  }
+
+  private static final class RecordingDelegate implements ViewportCuller.Delegate {
+    final List<String> added = new ArrayList<>();
+    final List<String> changed = new ArrayList<>();
+    final List<String> removed = new ArrayList<>();
+
+    @Nullable
+    @Override
+    public LatLngBounds boundsOf(Object object) {
+      return ((TestObject) object).bounds;
+    }
+
+    @Override
+    public void add(Object object) {
+      added.add(((TestObject) object).id);
+    }
+
+    @Override
+    public void change(Object object) {
+      changed.add(((TestObject) object).id);
+    }
+
+    @Override
+    public void remove(String id) {
+      removed.add(id);
+    }
+  }
+}
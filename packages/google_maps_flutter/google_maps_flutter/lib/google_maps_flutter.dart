@@ -22,6 +22,8 @@ export 'package:google_maps_flutter_platform_interface/google_maps_flutter_platf
         ArgumentCallback,
         BitmapDescriptor,
         BucketSize,
+        CameraEventOptions,
+        CameraEventStats,
         CameraPosition,
         CameraPositionCallback,
         CameraTargetBounds,
@@ -40,7 +42,10 @@ export 'package:google_maps_flutter_platform_interface/google_maps_flutter_platf
         ClusterItem,
         ClusterId,
         ClusterIcon,
+        ClusterAlgorithm,
+        ClusterOptions,
         MinMaxZoomPreference,
+        PackedMarkers,
         PatternItem,
         Polygon,
         PolygonId,
@@ -129,6 +129,23 @@ class GoogleMapController {
         .updateMarkers(markerUpdates, mapId: mapId);
   }
 
+  /// Adds a large batch of markers that is not managed by the [GoogleMap]
+  /// widget's `markers` set.
+  ///
+  /// Use this for datasets with thousands of markers; the markers are decoded
+  /// off the platform's main thread and added in frame-sized chunks. The
+  /// returned [Future] completes once every marker has been added.
+  Future<void> addPackedMarkers(PackedMarkers packedMarkers) {
+    return GoogleMapsFlutterPlatform.instance
+        .addPackedMarkers(packedMarkers, mapId: mapId);
+  }
+
+  /// Removes markers that were added with [addPackedMarkers].
+  Future<void> removePackedMarkers(Set<MarkerId> markerIds) {
+    return GoogleMapsFlutterPlatform.instance
+        .removePackedMarkers(markerIds, mapId: mapId);
+  }
+
   /// Updates Clusters configuration.
   ///
   /// Change listeners are notified once the update has been made on the
@@ -307,6 +324,13 @@ class GoogleMapController {
     return GoogleMapsFlutterPlatform.instance.getZoomLevel(mapId: mapId);
   }
 
+  /// Returns how many camera moves the platform reported, and how many of them
+  /// were coalesced according to [GoogleMap.cameraEventOptions].
+  Future<CameraEventStats> getCameraEventStats() {
+    return GoogleMapsFlutterPlatform.instance
+        .getCameraEventStats(mapId: mapId);
+  }
+
   /// Returns the image bytes of the map
   Future<Uint8List?> takeSnapshot() {
     return GoogleMapsFlutterPlatform.instance.takeSnapshot(mapId: mapId);
@@ -109,6 +109,10 @@ class GoogleMap extends StatefulWidget {
     this.markers = const <Marker>{},
     this.clusterIcons = const <ClusterIcon>[],
     this.clusterItems = const <ClusterItem>{},
+    this.clusterOptions = const ClusterOptions(),
+    this.viewportCullingEnabled = false,
+    this.geometrySimplificationTolerance = 0,
+    this.cameraEventOptions = const CameraEventOptions(),
     this.onClusterTap,
     this.polygons = const <Polygon>{},
     this.polylines = const <Polyline>{},
@@ -188,6 +192,38 @@ class GoogleMap extends StatefulWidget {
   /// Cluster Items to be placed on the map.
   final Set<ClusterItem> clusterItems;
 
+  /// How [clusterItems] are grouped into clusters.
+  final ClusterOptions clusterOptions;
+
+  /// Whether markers, polylines, polygons and circles far from the visible
+  /// region are taken off the map until the camera approaches them.
+  ///
+  /// Culled objects remain part of [markers], [polylines], [polygons] and
+  /// [circles]; only their native counterparts are released. Markers sent as
+  /// [PackedMarkers] are never culled.
+  ///
+  /// Set this when the map is created: objects that are already on the map
+  /// when culling is turned on are not culled.
+  ///
+  /// Only supported on Android.
+  final bool viewportCullingEnabled;
+
+  /// How far, in logical pixels, simplified [polylines] and [polygons] may
+  /// deviate from their points, or 0 to always draw every point.
+  ///
+  /// Long polylines and detailed polygons are simplified for the current zoom
+  /// level off the main thread, and simplified again when the zoom changes.
+  /// Only the rendered geometry is simplified; the objects are unchanged.
+  ///
+  /// Only supported on Android.
+  final double geometrySimplificationTolerance;
+
+  /// How [onCameraMove] events are throttled and coalesced.
+  ///
+  /// Use [GoogleMapController.getCameraEventStats] to see how many moves were
+  /// coalesced. Only supported on Android.
+  final CameraEventOptions cameraEventOptions;
+
   /// Called every time a [ClusterItem] is tapped.
   final VoidCallback? onClusterTap;
 
@@ -593,6 +629,10 @@ class _GoogleMapOptions {
         indoorViewEnabled = map.indoorViewEnabled,
         trafficEnabled = map.trafficEnabled,
         buildingsEnabled = map.buildingsEnabled,
+        clusterOptions = map.clusterOptions,
+        viewportCullingEnabled = map.viewportCullingEnabled,
+        geometrySimplificationTolerance = map.geometrySimplificationTolerance,
+        cameraEventOptions = map.cameraEventOptions,
         assert(!map.liteModeEnabled || Platform.isAndroid);
 
   final bool compassEnabled;
@@ -631,6 +671,14 @@ class _GoogleMapOptions {
 
   final bool buildingsEnabled;
 
+  final ClusterOptions clusterOptions;
+
+  final bool viewportCullingEnabled;
+
+  final double geometrySimplificationTolerance;
+
+  final CameraEventOptions cameraEventOptions;
+
   Map<String, dynamic> toMap() {
     return <String, dynamic>{
       'compassEnabled': compassEnabled,
@@ -656,6 +704,10 @@ class _GoogleMapOptions {
       'indoorEnabled': indoorViewEnabled,
       'trafficEnabled': trafficEnabled,
       'buildingsEnabled': buildingsEnabled,
+      'clusterOptions': clusterOptions.toJson(),
+      'viewportCulling': viewportCullingEnabled,
+      'geometrySimplificationTolerance': geometrySimplificationTolerance,
+      'cameraEventOptions': cameraEventOptions.toJson(),
     };
   }
 
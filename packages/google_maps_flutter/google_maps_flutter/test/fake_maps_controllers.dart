@@ -212,18 +212,18 @@ class FakePlatformGoogleMap {
     return result;
   }
 
-  List<LatLng> _deserializePoints(List<dynamic> points) {
-    return points.map<LatLng>((dynamic list) {
+  List<LatLng> _deserializePoints(dynamic points) {
+    if (points is Float64List) {
+      return List<LatLng>.generate(points.length ~/ 2,
+          (int i) => LatLng(points[i * 2], points[i * 2 + 1]));
+    }
+    return (points as List<dynamic>).map<LatLng>((dynamic list) {
       return LatLng(list[0], list[1]);
     }).toList();
   }
 
   List<List<LatLng>> _deserializeHoles(List<dynamic> holes) {
-    return holes.map<List<LatLng>>((dynamic hole) {
-      return hole.map<LatLng>((dynamic list) {
-        return LatLng(list[0], list[1]);
-      }).toList();
-    }).toList();
+    return holes.map<List<LatLng>>(_deserializePoints).toList();
   }
 
   void updatePolylines(Map<dynamic, dynamic>? polylineUpdates) {
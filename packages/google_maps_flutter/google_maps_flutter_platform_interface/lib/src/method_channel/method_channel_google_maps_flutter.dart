@@ -63,6 +63,9 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
   // Keep a collection of mapId to a map of TileOverlays.
   final Map<int, Map<TileOverlayId, TileOverlay>> _tileOverlays = {};
 
+  // Only the Android implementation decodes packed polyline and polygon points.
+  bool get _packGeometry => defaultTargetPlatform == TargetPlatform.android;
+
   /// Returns the channel for [mapId], creating it if it doesn't already exist.
   @visibleForTesting
   MethodChannel ensureChannelInitialized(int mapId) {
@@ -290,6 +293,33 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
           call.arguments['zoom'],
         );
         return tile.toJson();
+      case 'tileOverlay#getTiles':
+        final Map<TileOverlayId, TileOverlay>? tileOverlaysForThisMap =
+            _tileOverlays[mapId];
+        final String tileOverlayId = call.arguments['tileOverlayId'];
+        final TileOverlay? tileOverlay =
+            tileOverlaysForThisMap?[TileOverlayId(tileOverlayId)];
+        final TileProvider? tileProvider = tileOverlay?.tileProvider;
+        final List<dynamic> coordinates = call.arguments['tiles'];
+        if (tileProvider == null) {
+          return List<Object>.filled(
+              coordinates.length, TileProvider.noTile.toJson());
+        }
+        // Tiles of a batch are resolved concurrently and returned in the
+        // order they were requested in. A batch can carry speculative tiles
+        // the provider does not support, so a tile that fails is returned as
+        // no tile without failing the others.
+        final List<Tile> tiles = await Future.wait(
+          coordinates.map((dynamic coordinate) async {
+            try {
+              return await tileProvider.getTile(
+                  coordinate[0], coordinate[1], coordinate[2]);
+            } catch (_) {
+              return TileProvider.noTile;
+            }
+          }),
+        );
+        return tiles.map((Tile tile) => tile.toJson()).toList();
       default:
         throw MissingPluginException();
     }
@@ -321,6 +351,31 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     );
   }
 
+  @override
+  Future<void> addPackedMarkers(
+    PackedMarkers packedMarkers, {
+    required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>(
+      'markers#addPacked',
+      packedMarkers.toJson(),
+    );
+  }
+
+  @override
+  Future<void> removePackedMarkers(
+    Set<MarkerId> markerIds, {
+    required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>(
+      'markers#update',
+      <String, Object>{
+        'markerIdsToRemove':
+            markerIds.map((MarkerId markerId) => markerId.value).toList(),
+      },
+    );
+  }
+
   @override
   Future<void> updateClusters(
     ClusterUpdates clusterUpdates, {
@@ -344,7 +399,7 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     assert(polygonUpdates != null);
     return channel(mapId).invokeMethod<void>(
       'polygons#update',
-      polygonUpdates.toJson(),
+      _packGeometry ? polygonUpdates.toPackedJson() : polygonUpdates.toJson(),
     );
   }
 
@@ -356,7 +411,9 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     assert(polylineUpdates != null);
     return channel(mapId).invokeMethod<void>(
       'polylines#update',
-      polylineUpdates.toJson(),
+      _packGeometry
+          ? polylineUpdates.toPackedJson()
+          : polylineUpdates.toJson(),
     );
   }
 
@@ -507,6 +564,14 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     return (await channel(mapId).invokeMethod<double>('map#getZoomLevel'))!;
   }
 
+  @override
+  Future<CameraEventStats> getCameraEventStats({
+    required int mapId,
+  }) async {
+    return CameraEventStats.fromJson(
+        await channel(mapId).invokeMethod<Object>('camera#getEventStats'))!;
+  }
+
   @override
   Future<Uint8List?> takeSnapshot({
     required int mapId,
@@ -550,8 +615,12 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
       'markersToAdd': serializeMarkerSet(markers),
       'clusterIconsToAdd': serializeClusterIconsList(clusterIcons),
       'clusterItemsToAdd': serializeClusterItemSet(clusters),
-      'polygonsToAdd': serializePolygonSet(polygons),
-      'polylinesToAdd': serializePolylineSet(polylines),
+      'polygonsToAdd': _packGeometry
+          ? serializePackedPolygonSet(polygons)
+          : serializePolygonSet(polygons),
+      'polylinesToAdd': _packGeometry
+          ? serializePackedPolylineSet(polylines)
+          : serializePolylineSet(polylines),
       'circlesToAdd': serializeCircleSet(circles),
       'tileOverlaysToAdd': serializeTileOverlaySet(tileOverlays),
     };
@@ -76,6 +76,26 @@ abstract class GoogleMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('updateMarkers() has not been implemented.');
   }
 
+  /// Adds a large batch of markers in the packed format.
+  ///
+  /// The platform decodes the batch off its main thread and adds the markers
+  /// in frame-sized chunks. The returned [Future] completes once every marker
+  /// has been added.
+  Future<void> addPackedMarkers(
+    PackedMarkers packedMarkers, {
+    required int mapId,
+  }) {
+    throw UnimplementedError('addPackedMarkers() has not been implemented.');
+  }
+
+  /// Removes markers that were added with [addPackedMarkers].
+  Future<void> removePackedMarkers(
+    Set<MarkerId> markerIds, {
+    required int mapId,
+  }) {
+    throw UnimplementedError('removePackedMarkers() has not been implemented.');
+  }
+
   /// Updates cluster configuration.
   ///
   /// Change listeners are notified once the update has been made on the
@@ -279,6 +299,13 @@ abstract class GoogleMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('getZoomLevel() has not been implemented.');
   }
 
+  /// Returns how many camera moves were reported and coalesced.
+  Future<CameraEventStats> getCameraEventStats({
+    required int mapId,
+  }) {
+    throw UnimplementedError('getCameraEventStats() has not been implemented.');
+  }
+
   /// Returns the image bytes of the map.
   ///
   /// Returns null if a snapshot cannot be created.
@@ -0,0 +1,114 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:ui' show hashValues;
+
+import 'package:meta/meta.dart' show immutable;
+
+/// How camera move events are coalesced before being sent to Dart.
+///
+/// Moves that arrive faster than [maxFrequency] or that change the camera by
+/// less than every threshold are merged into the next event. The final camera
+/// position is always reported before the camera becomes idle.
+@immutable
+class CameraEventOptions {
+  /// Creates an immutable set of camera event options.
+  ///
+  /// The defaults report every camera move.
+  const CameraEventOptions({
+    this.maxFrequency = 0,
+    this.minPixelDelta = 0,
+    this.minZoomDelta = 0,
+    this.minAngleDelta = 0,
+  })  : assert(maxFrequency >= 0),
+        assert(minPixelDelta >= 0),
+        assert(minZoomDelta >= 0),
+        assert(minAngleDelta >= 0);
+
+  /// The maximum number of camera move events per second, or 0 for no limit.
+  final double maxFrequency;
+
+  /// The distance, in logical pixels, the camera target must move for a move
+  /// to be reported.
+  final double minPixelDelta;
+
+  /// The zoom change for a move to be reported.
+  final double minZoomDelta;
+
+  /// The bearing or tilt change, in degrees, for a move to be reported.
+  final double minAngleDelta;
+
+  /// Converts this object to something serializable in JSON.
+  Object toJson() => <String, Object>{
+        'maxFrequency': maxFrequency,
+        'minPixelDelta': minPixelDelta,
+        'minZoomDelta': minZoomDelta,
+        'minAngleDelta': minAngleDelta,
+      };
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (runtimeType != other.runtimeType) return false;
+    final CameraEventOptions typedOther = other as CameraEventOptions;
+    return maxFrequency == typedOther.maxFrequency &&
+        minPixelDelta == typedOther.minPixelDelta &&
+        minZoomDelta == typedOther.minZoomDelta &&
+        minAngleDelta == typedOther.minAngleDelta;
+  }
+
+  @override
+  int get hashCode =>
+      hashValues(maxFrequency, minPixelDelta, minZoomDelta, minAngleDelta);
+
+  @override
+  String toString() {
+    return 'CameraEventOptions(maxFrequency: $maxFrequency, '
+        'minPixelDelta: $minPixelDelta, minZoomDelta: $minZoomDelta, '
+        'minAngleDelta: $minAngleDelta)';
+  }
+}
+
+/// Counts of the camera move events of a map since it was created.
+@immutable
+class CameraEventStats {
+  /// Creates an immutable set of camera event counts.
+  const CameraEventStats({required this.received, required this.sent});
+
+  /// Initializes [CameraEventStats] from a JSON map.
+  static CameraEventStats? fromJson(Object? json) {
+    if (json == null) {
+      return null;
+    }
+    final Map<dynamic, dynamic> map = json as Map<dynamic, dynamic>;
+    return CameraEventStats(
+      received: map['received'] as int,
+      sent: map['sent'] as int,
+    );
+  }
+
+  /// The number of camera moves reported by the platform map.
+  final int received;
+
+  /// The number of camera move events sent to Dart.
+  final int sent;
+
+  /// The number of camera moves that were dropped or merged into another
+  /// event.
+  int get coalesced => received - sent;
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (runtimeType != other.runtimeType) return false;
+    final CameraEventStats typedOther = other as CameraEventStats;
+    return received == typedOther.received && sent == typedOther.sent;
+  }
+
+  @override
+  int get hashCode => hashValues(received, sent);
+
+  @override
+  String toString() => 'CameraEventStats(received: $received, sent: $sent)';
+}
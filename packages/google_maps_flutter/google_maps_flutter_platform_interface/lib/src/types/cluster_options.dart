@@ -0,0 +1,67 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:ui' show hashValues;
+
+import 'package:meta/meta.dart' show immutable;
+
+/// Algorithm used to group [ClusterItem]s into clusters.
+// Enum constants must be indexed to match the corresponding int constants of
+// the platform implementations.
+enum ClusterAlgorithm {
+  /// Reclusters the items around the visible region after every camera move.
+  viewBased,
+
+  /// Precomputes the clusters of every zoom level once, so that camera moves
+  /// only look up the visible clusters.
+  ///
+  /// Better suited to large, slowly changing sets of items.
+  hierarchical,
+}
+
+/// How [ClusterItem]s are grouped into clusters.
+@immutable
+class ClusterOptions {
+  /// Creates an immutable set of clustering options.
+  const ClusterOptions({
+    this.algorithm = ClusterAlgorithm.viewBased,
+    this.maxClusterZoom = 13,
+    this.radius = 100,
+  }) : assert(radius > 0);
+
+  /// The clustering algorithm.
+  final ClusterAlgorithm algorithm;
+
+  /// The zoom level above which items are no longer clustered.
+  final double maxClusterZoom;
+
+  /// The distance, in logical pixels, within which items are clustered.
+  final int radius;
+
+  /// Converts this object to something serializable in JSON.
+  Object toJson() => <String, Object>{
+        'algorithm': algorithm.index,
+        'maxClusterZoom': maxClusterZoom,
+        'radius': radius,
+      };
+
+  @override
+  bool operator ==(Object other) {
+    if (identical(this, other)) return true;
+    if (runtimeType != other.runtimeType) return false;
+    final ClusterOptions typedOther = other as ClusterOptions;
+    return algorithm == typedOther.algorithm &&
+        maxClusterZoom == typedOther.maxClusterZoom &&
+        radius == typedOther.radius;
+  }
+
+  @override
+  int get hashCode => hashValues(algorithm, maxClusterZoom, radius);
+
+  @override
+  String toString() {
+    return 'ClusterOptions(algorithm: $algorithm, '
+        'maxClusterZoom: $maxClusterZoom, radius: $radius)';
+  }
+}
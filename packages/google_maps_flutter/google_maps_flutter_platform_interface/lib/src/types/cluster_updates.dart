@@ -16,9 +16,10 @@ class ClusterUpdates extends MapsObjectUpdates<ClusterItem> {
   /// Set of Markers to be added in this update.
   Set<ClusterItem> get clusterItemsToAdd => objectsToAdd;
 
-  /// Set of MarkerIds to be removed in this update.
-  Set<MarkerId> get clusterItemsToChange => objectIdsToRemove.cast<MarkerId>();
-
   /// Set of Markers to be changed in this update.
-  Set<ClusterItem> get clusterItemIdsToRemove => objectsToChange;
+  Set<ClusterItem> get clusterItemsToChange => objectsToChange;
+
+  /// Set of ClusterIds to be removed in this update.
+  Set<ClusterId> get clusterItemIdsToRemove =>
+      objectIdsToRemove.cast<ClusterId>();
 }
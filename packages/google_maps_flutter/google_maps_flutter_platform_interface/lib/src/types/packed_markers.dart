@@ -0,0 +1,126 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'package:meta/meta.dart' show immutable;
+
+import 'types.dart';
+
+/// A large batch of markers packed into columnar typed arrays.
+///
+/// Sending markers this way avoids encoding and decoding one map per marker,
+/// and lets the platform decode the batch off its main thread. Marker
+/// callbacks are not part of the packed format; taps and drags are still
+/// reported through the map's marker event streams.
+@immutable
+class PackedMarkers {
+  PackedMarkers._(
+    this.markerIds,
+    this._positions,
+    this._alphas,
+    this._anchors,
+    this._zIndices,
+    this._rotations,
+    this._flags,
+    this._iconIndices,
+    this._icons,
+    this._titles,
+    this._snippets,
+  );
+
+  /// Packs [markers], sharing each distinct [BitmapDescriptor] instance
+  /// between the markers that use it.
+  factory PackedMarkers.fromMarkers(Iterable<Marker> markers) {
+    final List<Marker> list = markers.toList(growable: false);
+    final int count = list.length;
+    final Float64List positions = Float64List(count * 2);
+    final Float32List alphas = Float32List(count);
+    final Float32List anchors = Float32List(count * 2);
+    final Float32List zIndices = Float32List(count);
+    final Float32List rotations = Float32List(count);
+    final Uint8List flags = Uint8List(count);
+    final Int32List iconIndices = Int32List(count);
+    final Map<BitmapDescriptor, int> iconToIndex =
+        Map<BitmapDescriptor, int>.identity();
+    final List<Object> icons = <Object>[];
+    final List<String?> titles = List<String?>.filled(count, null);
+    final List<String?> snippets = List<String?>.filled(count, null);
+
+    for (int i = 0; i < count; i++) {
+      final Marker marker = list[i];
+      positions[i * 2] = marker.position.latitude;
+      positions[i * 2 + 1] = marker.position.longitude;
+      alphas[i] = marker.alpha;
+      anchors[i * 2] = marker.anchor.dx;
+      anchors[i * 2 + 1] = marker.anchor.dy;
+      zIndices[i] = marker.zIndex;
+      rotations[i] = marker.rotation;
+      flags[i] = (marker.consumeTapEvents ? _consumeTapEventsFlag : 0) |
+          (marker.draggable ? _draggableFlag : 0) |
+          (marker.flat ? _flatFlag : 0) |
+          (marker.visible ? 0 : _hiddenFlag);
+      iconIndices[i] = iconToIndex.putIfAbsent(marker.icon, () {
+        icons.add(marker.icon.toJson());
+        return icons.length - 1;
+      });
+      titles[i] = marker.infoWindow.title;
+      snippets[i] = marker.infoWindow.snippet;
+    }
+
+    return PackedMarkers._(
+      list.map((Marker marker) => marker.markerId).toList(growable: false),
+      positions,
+      alphas,
+      anchors,
+      zIndices,
+      rotations,
+      flags,
+      iconIndices,
+      icons,
+      titles,
+      snippets,
+    );
+  }
+
+  static const int _consumeTapEventsFlag = 1;
+  static const int _draggableFlag = 2;
+  static const int _flatFlag = 4;
+  static const int _hiddenFlag = 8;
+
+  /// The ids of the packed markers, in packing order.
+  final List<MarkerId> markerIds;
+
+  final Float64List _positions;
+  final Float32List _alphas;
+  final Float32List _anchors;
+  final Float32List _zIndices;
+  final Float32List _rotations;
+  final Uint8List _flags;
+  final Int32List _iconIndices;
+  final List<Object> _icons;
+  final List<String?> _titles;
+  final List<String?> _snippets;
+
+  /// The number of packed markers.
+  int get length => markerIds.length;
+
+  /// Converts this object to something serializable in JSON.
+  Object toJson() {
+    return <String, Object>{
+      'markerIds':
+          markerIds.map((MarkerId markerId) => markerId.value).toList(),
+      'positions': _positions,
+      'alphas': _alphas,
+      'anchors': _anchors,
+      'zIndices': _zIndices,
+      'rotations': _rotations,
+      'flags': _flags,
+      'iconIndices': _iconIndices,
+      'icons': _icons,
+      'titles': _titles,
+      'snippets': _snippets,
+    };
+  }
+}
@@ -21,4 +21,16 @@ class PolygonUpdates extends MapsObjectUpdates<Polygon> {
 
   /// Set of Polygons to be changed in this update.
   Set<Polygon> get polygonsToChange => objectsToChange;
+
+  /// Like [toJson], with the geometry of each polygon packed by
+  /// [Polygon.toPackedJson].
+  Object toPackedJson() {
+    return <String, Object>{
+      'polygonsToAdd': serializePackedPolygonSet(objectsToAdd),
+      'polygonsToChange': serializePackedPolygonSet(objectsToChange),
+      'polygonIdsToRemove': objectIdsToRemove
+          .map<String>((MapsObjectId<Polygon> id) => id.value)
+          .toList(),
+    };
+  }
 }
@@ -2,6 +2,8 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:typed_data';
+
 import 'package:flutter/foundation.dart' show listEquals, VoidCallback;
 import 'package:flutter/material.dart' show Color, Colors;
 import 'package:meta/meta.dart' show immutable;
@@ -158,7 +160,16 @@ class Polyline implements MapsObject {
   }
 
   /// Converts this object to something serializable in JSON.
-  Object toJson() {
+  Object toJson() => _toJson(packPoints: false);
+
+  /// Like [toJson], with [points] packed into a [Float64List] of latitude,
+  /// longitude pairs.
+  ///
+  /// This is much cheaper to encode and decode for long polylines, but is
+  /// only understood by the Android implementation.
+  Object toPackedJson() => _toJson(packPoints: true);
+
+  Object _toJson({required bool packPoints}) {
     final Map<String, Object> json = <String, Object>{};
 
     void addIfPresent(String fieldName, Object? value) {
@@ -179,7 +190,7 @@ class Polyline implements MapsObject {
     addIfPresent('zIndex', zIndex);
 
     if (points != null) {
-      json['points'] = _pointsToJson();
+      json['points'] = packPoints ? packLatLngs(points) : _pointsToJson();
     }
 
     if (patterns != null) {
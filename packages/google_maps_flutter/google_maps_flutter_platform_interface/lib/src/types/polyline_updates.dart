@@ -22,4 +22,16 @@ class PolylineUpdates extends MapsObjectUpdates<Polyline> {
 
   /// Set of Polylines to be changed in this update.
   Set<Polyline> get polylinesToChange => objectsToChange;
+
+  /// Like [toJson], with the geometry of each polyline packed by
+  /// [Polyline.toPackedJson].
+  Object toPackedJson() {
+    return <String, Object>{
+      'polylinesToAdd': serializePackedPolylineSet(objectsToAdd),
+      'polylinesToChange': serializePackedPolylineSet(objectsToChange),
+      'polylineIdsToRemove': objectIdsToRemove
+          .map<String>((MapsObjectId<Polyline> id) => id.value)
+          .toList(),
+    };
+  }
 }
@@ -55,6 +55,9 @@ class TileOverlay implements MapsObject {
     this.zIndex = 0,
     this.visible = true,
     this.tileSize = 256,
+    this.cacheTtl,
+    this.cacheVersion,
+    this.diskCacheName,
   }) : assert(transparency >= 0.0 && transparency <= 1.0);
 
   /// Uniquely identifies a [TileOverlay].
@@ -88,6 +91,30 @@ class TileOverlay implements MapsObject {
   /// would give on a non-retina device.
   final int tileSize;
 
+  /// How long tiles of this overlay stay in the native tile cache. Android only.
+  ///
+  /// Defaults to null, in which case cached tiles never expire and are only
+  /// dropped by [GoogleMapController.clearTileCache] or when the cache is full.
+  final Duration? cacheTtl;
+
+  /// The version of the tiles of this overlay held in the native tile cache.
+  /// Android only.
+  ///
+  /// Changing this value drops the tiles cached under any other version,
+  /// including the ones on disk when [diskCacheName] is set.
+  final int? cacheVersion;
+
+  /// The name under which tiles of this overlay are also cached on disk, and
+  /// kept across app launches. Android only.
+  ///
+  /// Overlays with the same name share the tiles cached on disk, on any map,
+  /// so the name should identify the source of the tiles. Consider setting
+  /// [cacheTtl] or [cacheVersion] so that outdated tiles are dropped.
+  ///
+  /// Defaults to null, in which case tiles are only cached in memory, for the
+  /// map showing this overlay.
+  final String? diskCacheName;
+
   /// Creates a new [TileOverlay] object whose values are the same as this instance,
   /// unless overwritten by the specified parameters.
   TileOverlay copyWith({
@@ -97,6 +124,9 @@ class TileOverlay implements MapsObject {
     int? zIndexParam,
     bool? visibleParam,
     int? tileSizeParam,
+    Duration? cacheTtlParam,
+    int? cacheVersionParam,
+    String? diskCacheNameParam,
   }) {
     return TileOverlay(
       tileOverlayId: tileOverlayId,
@@ -106,6 +136,9 @@ class TileOverlay implements MapsObject {
       zIndex: zIndexParam ?? zIndex,
       visible: visibleParam ?? visible,
       tileSize: tileSizeParam ?? tileSize,
+      cacheTtl: cacheTtlParam ?? cacheTtl,
+      cacheVersion: cacheVersionParam ?? cacheVersion,
+      diskCacheName: diskCacheNameParam ?? diskCacheName,
     );
   }
 
@@ -127,6 +160,9 @@ class TileOverlay implements MapsObject {
     addIfPresent('zIndex', zIndex);
     addIfPresent('visible', visible);
     addIfPresent('tileSize', tileSize);
+    addIfPresent('cacheTtl', cacheTtl?.inMilliseconds);
+    addIfPresent('cacheVersion', cacheVersion);
+    addIfPresent('diskCacheName', diskCacheName);
 
     return json;
   }
@@ -143,10 +179,14 @@ class TileOverlay implements MapsObject {
         transparency == other.transparency &&
         zIndex == other.zIndex &&
         visible == other.visible &&
-        tileSize == other.tileSize;
+        tileSize == other.tileSize &&
+        cacheTtl == other.cacheTtl &&
+        cacheVersion == other.cacheVersion &&
+        diskCacheName == other.diskCacheName;
   }
 
   @override
   int get hashCode => hashValues(tileOverlayId, fadeIn, tileProvider,
-      transparency, zIndex, visible, tileSize);
+      transparency, zIndex, visible, tileSize, cacheTtl, cacheVersion,
+      diskCacheName);
 }
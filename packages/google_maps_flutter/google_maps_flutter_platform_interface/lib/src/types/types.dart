@@ -6,10 +6,12 @@
 export 'bitmap.dart';
 export 'callbacks.dart';
 export 'camera.dart';
+export 'camera_event_options.dart';
 export 'cap.dart';
 export 'circle_updates.dart';
 export 'circle.dart';
 export 'cluster_item.dart';
+export 'cluster_options.dart';
 export 'cluster_updates.dart';
 export 'joint_type.dart';
 export 'location.dart';
@@ -17,6 +19,7 @@ export 'maps_object_updates.dart';
 export 'maps_object.dart';
 export 'marker_updates.dart';
 export 'marker.dart';
+export 'packed_markers.dart';
 export 'pattern_item.dart';
 export 'polygon_updates.dart';
 export 'polygon.dart';
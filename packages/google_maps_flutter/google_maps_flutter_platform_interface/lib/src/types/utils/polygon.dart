@@ -14,3 +14,11 @@ Map<PolygonId, Polygon> keyByPolygonId(Iterable<Polygon> polygons) {
 Object serializePolygonSet(Set<Polygon> polygons) {
   return serializeMapsObjectSet(polygons);
 }
+
+/// Like [serializePolygonSet], with the geometry of each polygon packed by
+/// [Polygon.toPackedJson].
+Object serializePackedPolygonSet(Set<Polygon> polygons) {
+  return polygons
+      .map<Object>((Polygon polygon) => polygon.toPackedJson())
+      .toList();
+}
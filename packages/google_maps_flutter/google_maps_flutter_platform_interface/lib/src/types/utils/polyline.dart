@@ -2,6 +2,8 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:typed_data';
+
 import '../types.dart';
 import 'maps_object.dart';
 
@@ -14,3 +16,21 @@ Map<PolylineId, Polyline> keyByPolylineId(Iterable<Polyline> polylines) {
 Object serializePolylineSet(Set<Polyline> polylines) {
   return serializeMapsObjectSet(polylines);
 }
+
+/// Like [serializePolylineSet], with the geometry of each polyline packed by
+/// [Polyline.toPackedJson].
+Object serializePackedPolylineSet(Set<Polyline> polylines) {
+  return polylines
+      .map<Object>((Polyline polyline) => polyline.toPackedJson())
+      .toList();
+}
+
+/// Packs [points] into a [Float64List] of alternating latitudes and longitudes.
+Float64List packLatLngs(List<LatLng> points) {
+  final Float64List packed = Float64List(points.length * 2);
+  for (int i = 0; i < points.length; i++) {
+    packed[i * 2] = points[i].latitude;
+    packed[i * 2 + 1] = points[i].longitude;
+  }
+  return packed;
+}
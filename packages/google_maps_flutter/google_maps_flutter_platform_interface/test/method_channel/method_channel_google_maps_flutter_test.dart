@@ -122,5 +122,94 @@ void main() {
       expect((await markerDragEndStream.next).value.value,
           equals("drag-end-marker"));
     });
+
+    test('tileOverlay#getTiles returns tiles in request order', () async {
+      const int mapId = 2;
+      final MethodChannelGoogleMapsFlutter maps =
+          MethodChannelGoogleMapsFlutter();
+      configureMockMap(maps, mapId: mapId,
+          handler: (MethodCall methodCall) async => null);
+      await maps.updateTileOverlays(
+        newTileOverlays: <TileOverlay>{
+          TileOverlay(
+            tileOverlayId: TileOverlayId('overlay'),
+            tileProvider: _CoordinateTileProvider(),
+          ),
+        },
+        mapId: mapId,
+      );
+
+      final ByteData byteData = const StandardMethodCodec().encodeMethodCall(
+          MethodCall('tileOverlay#getTiles', <dynamic, dynamic>{
+        'tileOverlayId': 'overlay',
+        'tiles': <dynamic>[
+          <int>[1, 2, 3],
+          <int>[4, 5, 6],
+        ],
+      }));
+      final Completer<ByteData?> reply = Completer<ByteData?>();
+      await TestDefaultBinaryMessengerBinding.instance!.defaultBinaryMessenger
+          .handlePlatformMessage(
+              "plugins.flutter.io/google_maps_$mapId", byteData, reply.complete);
+
+      final List<dynamic> tiles = const StandardMethodCodec()
+          .decodeEnvelope((await reply.future)!) as List<dynamic>;
+      expect(tiles.map((dynamic tile) => tile['width']), <int>[1, 4]);
+      expect(tiles.map((dynamic tile) => tile['height']), <int>[2, 5]);
+    });
+
+    test('tileOverlay#getTiles returns no tile only for tiles that fail',
+        () async {
+      const int mapId = 3;
+      final MethodChannelGoogleMapsFlutter maps =
+          MethodChannelGoogleMapsFlutter();
+      configureMockMap(maps, mapId: mapId,
+          handler: (MethodCall methodCall) async => null);
+      await maps.updateTileOverlays(
+        newTileOverlays: <TileOverlay>{
+          TileOverlay(
+            tileOverlayId: TileOverlayId('overlay'),
+            tileProvider: _CoordinateTileProvider(failingZoom: 7),
+          ),
+        },
+        mapId: mapId,
+      );
+
+      final ByteData byteData = const StandardMethodCodec().encodeMethodCall(
+          MethodCall('tileOverlay#getTiles', <dynamic, dynamic>{
+        'tileOverlayId': 'overlay',
+        'tiles': <dynamic>[
+          <int>[1, 2, 3],
+          <int>[4, 5, 7],
+          <int>[6, 7, 3],
+        ],
+      }));
+      final Completer<ByteData?> reply = Completer<ByteData?>();
+      await TestDefaultBinaryMessengerBinding.instance!.defaultBinaryMessenger
+          .handlePlatformMessage(
+              "plugins.flutter.io/google_maps_$mapId", byteData, reply.complete);
+
+      final List<dynamic> tiles = const StandardMethodCodec()
+          .decodeEnvelope((await reply.future)!) as List<dynamic>;
+      expect(tiles, hasLength(3));
+      expect(tiles[0]['width'], 1);
+      expect(tiles[1], TileProvider.noTile.toJson());
+      expect(tiles[2]['width'], 6);
+    });
   });
 }
+
+class _CoordinateTileProvider implements TileProvider {
+  _CoordinateTileProvider({this.failingZoom});
+
+  /// Tiles of this zoom level throw, like tiles outside a provider's range.
+  final int? failingZoom;
+
+  @override
+  Future<Tile> getTile(int x, int y, int? zoom) async {
+    if (zoom == failingZoom) {
+      throw StateError('Unsupported zoom $zoom');
+    }
+    return Tile(x, y, null);
+  }
+}
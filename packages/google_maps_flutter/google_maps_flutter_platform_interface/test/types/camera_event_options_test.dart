@@ -0,0 +1,47 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter_platform_interface/google_maps_flutter_platform_interface.dart';
+
+void main() {
+  group('camera event options tests', () {
+    test('toJson returns correct format', () async {
+      const CameraEventOptions options = CameraEventOptions(
+        maxFrequency: 30,
+        minPixelDelta: 2,
+        minZoomDelta: 0.1,
+        minAngleDelta: 1,
+      );
+      expect(options.toJson(), <String, Object>{
+        'maxFrequency': 30.0,
+        'minPixelDelta': 2.0,
+        'minZoomDelta': 0.1,
+        'minAngleDelta': 1.0,
+      });
+    });
+
+    test('equality', () async {
+      const CameraEventOptions options1 = CameraEventOptions(maxFrequency: 30);
+      const CameraEventOptions options2 = CameraEventOptions(maxFrequency: 30);
+      const CameraEventOptions options3 = CameraEventOptions(maxFrequency: 10);
+      expect(options1, options2);
+      expect(options1.hashCode, options2.hashCode);
+      expect(options1, isNot(options3));
+    });
+  });
+
+  group('camera event stats tests', () {
+    test('fromJson', () async {
+      final CameraEventStats? stats = CameraEventStats.fromJson(
+          <String, Object>{'received': 120, 'sent': 30});
+      expect(stats, const CameraEventStats(received: 120, sent: 30));
+      expect(stats!.coalesced, 90);
+    });
+
+    test('fromJson returns null for null', () async {
+      expect(CameraEventStats.fromJson(null), isNull);
+    });
+  });
+}
@@ -0,0 +1,39 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter_platform_interface/google_maps_flutter_platform_interface.dart';
+
+void main() {
+  group('cluster options tests', () {
+    test('toJson returns correct format', () async {
+      const ClusterOptions options = ClusterOptions(
+        algorithm: ClusterAlgorithm.hierarchical,
+        maxClusterZoom: 15,
+        radius: 60,
+      );
+      expect(options.toJson(), <String, Object>{
+        'algorithm': 1,
+        'maxClusterZoom': 15.0,
+        'radius': 60,
+      });
+    });
+
+    test('defaults match the previous clustering behavior', () async {
+      const ClusterOptions options = ClusterOptions();
+      expect(options.algorithm, ClusterAlgorithm.viewBased);
+      expect(options.maxClusterZoom, 13);
+      expect(options.radius, 100);
+    });
+
+    test('equality', () async {
+      const ClusterOptions options1 = ClusterOptions(radius: 60);
+      const ClusterOptions options2 = ClusterOptions(radius: 60);
+      const ClusterOptions options3 = ClusterOptions(radius: 80);
+      expect(options1, options2);
+      expect(options1.hashCode, options2.hashCode);
+      expect(options1, isNot(options3));
+    });
+  });
+}
@@ -0,0 +1,35 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter_platform_interface/google_maps_flutter_platform_interface.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  group('cluster updates tests', () {
+    test('Correctly set toRemove, toAdd and toChange', () async {
+      const ClusterItem c1 = ClusterItem(markerId: ClusterId('id1'));
+      const ClusterItem c2 = ClusterItem(markerId: ClusterId('id2'));
+      const ClusterItem c3 = ClusterItem(markerId: ClusterId('id3'));
+      const ClusterItem c3Changed =
+          ClusterItem(markerId: ClusterId('id3'), position: LatLng(1.0, 2.0));
+      const ClusterItem c4 = ClusterItem(markerId: ClusterId('id4'));
+      final Set<ClusterItem> previous = Set.from(<ClusterItem>[c1, c2, c3]);
+      final Set<ClusterItem> current =
+          Set.from(<ClusterItem>[c2, c3Changed, c4]);
+      final ClusterUpdates updates = ClusterUpdates.from(previous, current);
+
+      final Set<ClusterId> toRemove =
+          Set.from(<ClusterId>[const ClusterId('id1')]);
+      expect(updates.clusterItemIdsToRemove, toRemove);
+
+      final Set<ClusterItem> toAdd = Set.from(<ClusterItem>[c4]);
+      expect(updates.clusterItemsToAdd, toAdd);
+
+      final Set<ClusterItem> toChange = Set.from(<ClusterItem>[c3Changed]);
+      expect(updates.clusterItemsToChange, toChange);
+    });
+  });
+}
@@ -0,0 +1,53 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter_platform_interface/google_maps_flutter_platform_interface.dart';
+
+void main() {
+  group('packed geometry tests', () {
+    test('packLatLngs interleaves latitudes and longitudes', () async {
+      final Float64List packed = packLatLngs(
+          const <LatLng>[LatLng(10, 20), LatLng(-30.5, 179.25)]);
+      expect(packed, <double>[10, 20, -30.5, 179.25]);
+    });
+
+    test('polyline toPackedJson only packs points', () async {
+      const Polyline polyline = Polyline(
+        polylineId: PolylineId('track'),
+        points: <LatLng>[LatLng(1, 2), LatLng(3, 4)],
+      );
+      final Map<String, Object> json =
+          polyline.toJson() as Map<String, Object>;
+      final Map<String, Object> packedJson =
+          polyline.toPackedJson() as Map<String, Object>;
+
+      expect(packedJson['points'], isA<Float64List>());
+      expect(packedJson['points'], <double>[1, 2, 3, 4]);
+      expect(packedJson.keys, json.keys);
+      for (final String key in json.keys.where((String k) => k != 'points')) {
+        expect(packedJson[key], json[key]);
+      }
+    });
+
+    test('polygon toPackedJson packs points and holes', () async {
+      const Polygon polygon = Polygon(
+        polygonId: PolygonId('area'),
+        points: <LatLng>[LatLng(0, 0), LatLng(0, 10), LatLng(10, 10)],
+        holes: <List<LatLng>>[
+          <LatLng>[LatLng(1, 1), LatLng(1, 2), LatLng(2, 2)],
+        ],
+      );
+      final Map<String, Object> packedJson =
+          polygon.toPackedJson() as Map<String, Object>;
+
+      expect(packedJson['points'], <double>[0, 0, 0, 10, 10, 10]);
+      expect(packedJson['holes'], <Float64List>[
+        Float64List.fromList(<double>[1, 1, 1, 2, 2, 2]),
+      ]);
+    });
+  });
+}
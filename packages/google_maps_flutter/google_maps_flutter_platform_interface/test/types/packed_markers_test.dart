@@ -0,0 +1,45 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter_platform_interface/google_maps_flutter_platform_interface.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  group('$PackedMarkers', () {
+    test('toJson packs markers into columns', () {
+      final BitmapDescriptor icon = BitmapDescriptor.defaultMarkerWithHue(10);
+      final PackedMarkers packed = PackedMarkers.fromMarkers(<Marker>[
+        Marker(
+          markerId: MarkerId('a'),
+          position: LatLng(1, 2),
+          alpha: 0.5,
+          icon: icon,
+          consumeTapEvents: true,
+        ),
+        Marker(
+          markerId: MarkerId('b'),
+          position: LatLng(3, 4),
+          icon: icon,
+          visible: false,
+          infoWindow: InfoWindow(title: 'title'),
+        ),
+      ]);
+
+      final Map<String, Object> json = packed.toJson() as Map<String, Object>;
+      expect(packed.length, 2);
+      expect(json['markerIds'], <String>['a', 'b']);
+      expect(json['positions'], Float64List.fromList(<double>[1, 2, 3, 4]));
+      expect(json['alphas'], Float32List.fromList(<double>[0.5, 1]));
+      expect(json['flags'], Uint8List.fromList(<int>[1, 8]));
+      // Both markers share a single icon.
+      expect(json['icons'], <Object>[icon.toJson()]);
+      expect(json['iconIndices'], Int32List.fromList(<int>[0, 0]));
+      expect(json['titles'], <String?>[null, 'title']);
+    });
+  });
+}
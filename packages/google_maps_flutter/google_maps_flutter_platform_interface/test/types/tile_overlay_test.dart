@@ -53,6 +53,28 @@ void main() {
       });
     });
 
+    test('toJson includes cache settings when present', () async {
+      const TileOverlay tileOverlay = TileOverlay(
+          tileOverlayId: TileOverlayId('id'),
+          cacheTtl: Duration(minutes: 5),
+          cacheVersion: 3,
+          diskCacheName: 'tiles');
+      final Map<String, Object> json =
+          tileOverlay.toJson() as Map<String, Object>;
+      expect(json['cacheTtl'], 300000);
+      expect(json['cacheVersion'], 3);
+      expect(json['diskCacheName'], 'tiles');
+    });
+
+    test('toJson leaves out the disk cache by default', () async {
+      const TileOverlay tileOverlay =
+          TileOverlay(tileOverlayId: TileOverlayId('id'));
+      final Map<String, Object> json =
+          tileOverlay.toJson() as Map<String, Object>;
+      expect(json.containsKey('cacheTtl'), isFalse);
+      expect(json.containsKey('diskCacheName'), isFalse);
+    });
+
     test('invalid transparency throws', () async {
       expect(
           () => TileOverlay(
@@ -113,7 +135,10 @@ void main() {
           transparency: 0.1,
           zIndex: 1,
           visible: false,
-          tileSize: 128);
+          tileSize: 128,
+          cacheTtl: const Duration(hours: 1),
+          cacheVersion: 2,
+          diskCacheName: 'tiles');
       expect(tileOverlay, tileOverlay.clone());
     });
 
@@ -137,7 +162,10 @@ void main() {
               tileOverlay.transparency,
               tileOverlay.zIndex,
               tileOverlay.visible,
-              tileOverlay.tileSize));
+              tileOverlay.tileSize,
+              tileOverlay.cacheTtl,
+              tileOverlay.cacheVersion,
+              tileOverlay.diskCacheName));
     });
   });
 }
@@ -25,20 +25,31 @@ package io.flutter.plugins.imagepicker;
 
 import android.content.ContentResolver;
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.database.Cursor;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
 import android.webkit.MimeTypeMap;
+import androidx.annotation.Nullable;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.UUID;
 
 class FileUtils {
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
 
   String getPathFromUri(final Context context, final Uri uri) {
     File file = null;
     InputStream inputStream = null;
-    OutputStream outputStream = null;
+    FileOutputStream outputStream = null;
     boolean success = false;
     try {
       String extension = getImageExtension(context, uri);
@@ -68,6 +79,87 @@ class FileUtils {
     return success ? file.getPath() : null;
   }
 
+  /**
+   * Opens the content at {@code uri} for reading in place, so it can be decoded without copying it
+   * first.
+   *
+   * @return the descriptor, which the caller must close, or null if the content is not backed by
+   *     a regular file that can be read more than once, such as content streamed through a pipe.
+   */
+  @Nullable
+  ParcelFileDescriptor openFileDescriptor(final Context context, final Uri uri) {
+    ParcelFileDescriptor descriptor;
+    try {
+      descriptor = context.getContentResolver().openFileDescriptor(uri, "r");
+    } catch (FileNotFoundException | SecurityException | IllegalArgumentException e) {
+      return null;
+    }
+    if (descriptor == null) {
+      return null;
+    }
+    if (descriptor.getStatSize() < 0) {
+      try {
+        descriptor.close();
+      } catch (IOException ignored) {
+      }
+      return null;
+    }
+    return descriptor;
+  }
+
+  /**
+   * Identifies the content at {@code uri} by its URI, size and modification time, so results
+   * derived from it can be reused for as long as it does not change.
+   *
+   * @return the identity, or null if the size or modification time of the content is unknown.
+   */
+  @Nullable
+  String getContentIdentity(final Context context, final Uri uri) {
+    long size = -1;
+    long lastModified = -1;
+    if (ContentResolver.SCHEME_FILE.equals(uri.getScheme())) {
+      File file = new File(uri.getPath());
+      if (file.isFile()) {
+        size = file.length();
+        lastModified = file.lastModified();
+      }
+    } else if (ContentResolver.SCHEME_CONTENT.equals(uri.getScheme())) {
+      Cursor cursor = null;
+      try {
+        cursor = context.getContentResolver().query(uri, null, null, null, null);
+        if (cursor != null && cursor.moveToFirst()) {
+          size = getLong(cursor, OpenableColumns.SIZE, 1);
+          // Documents report milliseconds, and the media store seconds.
+          lastModified = getLong(cursor, DocumentsContract.Document.COLUMN_LAST_MODIFIED, 1);
+          if (lastModified < 0) {
+            lastModified = getLong(cursor, MediaStore.MediaColumns.DATE_MODIFIED, 1000);
+          }
+        }
+      } catch (RuntimeException e) {
+        // Providers throw for queries they do not support.
+      } finally {
+        if (cursor != null) cursor.close();
+      }
+    }
+    if (size < 0 || lastModified <= 0) {
+      return null;
+    }
+    return uri + "|" + size + "|" + lastModified;
+  }
+
+  private static long getLong(Cursor cursor, String columnName, long multiplier) {
+    int index = cursor.getColumnIndex(columnName);
+    if (index < 0 || cursor.isNull(index)) {
+      return -1;
+    }
+    return cursor.getLong(index) * multiplier;
+  }
+
+  /** @return a new file name for an image derived from the content at {@code uri}. */
+  String createImageName(final Context context, final Uri uri) {
+    return "image_picker" + UUID.randomUUID().toString() + getImageExtension(context, uri);
+  }
+
   /** @return extension of image with dot, or default .jpg if it none. */
   private static String getImageExtension(Context context, Uri uriImage) {
     String extension = null;
@@ -94,8 +186,28 @@ class FileUtils {
     return "." + extension;
   }
 
-  private static void copy(InputStream in, OutputStream out) throws IOException {
-    final byte[] buffer = new byte[4 * 1024];
+  private static void copy(InputStream in, FileOutputStream out) throws IOException {
+    // Streams of assets only cover part of their file, so they are copied through a buffer.
+    if (in instanceof FileInputStream
+        && !(in instanceof AssetFileDescriptor.AutoCloseInputStream)) {
+      final FileChannel source = ((FileInputStream) in).getChannel();
+      // Pipes and sockets report a size of 0, and are copied through a buffer as well.
+      final long size = source.size();
+      if (size > 0 && source.position() == 0) {
+        // Lets the kernel copy the content without passing it through the Java heap.
+        final FileChannel destination = out.getChannel();
+        long position = 0;
+        while (position < size) {
+          final long transferred = destination.transferFrom(source, position, size - position);
+          if (transferred <= 0) {
+            throw new IOException("Content ended after " + position + " of " + size + " bytes");
+          }
+          position += transferred;
+        }
+        return;
+      }
+    }
+    final byte[] buffer = new byte[COPY_BUFFER_SIZE];
     int bytesRead;
     while ((bytesRead = in.read(buffer)) != -1) {
       out.write(buffer, 0, bytesRead);
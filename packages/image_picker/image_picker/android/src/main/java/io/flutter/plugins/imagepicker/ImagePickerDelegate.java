@@ -14,19 +14,31 @@ import android.hardware.camera2.CameraCharacteristics;
 import android.media.MediaScannerConnection;
 import android.net.Uri;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
 import android.provider.MediaStore;
 import androidx.annotation.VisibleForTesting;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.FileProvider;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 enum CameraDevice {
   REAR,
@@ -70,6 +82,11 @@ enum CameraDevice {
  * Finish with full path for the scaled image as the result.
  *
  * <p>C) User cancels picking an image. Finish with null result.
+ *
+ * <p>Images picked with {@link #chooseMultiImageFromGallery} are copied and resized in parallel on
+ * a small pool of background threads. The result lists them in the order they were picked. If the
+ * call asked for {@code streamResults} and a stream listener is set with {@link
+ * #setMultiImageEventSink}, each image is also reported to the listener as soon as it is ready.
  */
 public class ImagePickerDelegate
     implements PluginRegistry.ActivityResultListener,
@@ -82,6 +99,12 @@ public class ImagePickerDelegate
   @VisibleForTesting static final int REQUEST_CODE_TAKE_VIDEO_WITH_CAMERA = 2353;
   @VisibleForTesting static final int REQUEST_CAMERA_VIDEO_PERMISSION = 2355;
 
+  // Each thread decodes one image at a time, so this also bounds the memory used by resizing.
+  private static final int MAX_PROCESSING_THREADS = 4;
+  private static final long PROCESSING_THREAD_KEEP_ALIVE_SECONDS = 30;
+  private static final String RESIZED_IMAGE_CACHE_DIRECTORY = "image_picker_resized";
+  private static final long RESIZED_IMAGE_CACHE_SIZE = 64 * 1024 * 1024;
+
   @VisibleForTesting final String fileProviderName;
 
   private final Activity activity;
@@ -91,7 +114,11 @@ public class ImagePickerDelegate
   private final PermissionManager permissionManager;
   private final FileUriResolver fileUriResolver;
   private final FileUtils fileUtils;
+  private final ResizedImageCache resizedImageCache;
+  private final Executor processingExecutor;
+  private final Executor resultExecutor;
   private CameraDevice cameraDevice;
+  private EventChannel.EventSink multiImageEventSink;
 
   interface PermissionManager {
     boolean isPermissionGranted(String permissionName);
@@ -120,6 +147,15 @@ public class ImagePickerDelegate
       final File externalFilesDirectory,
       final ImageResizer imageResizer,
       final ImagePickerCache cache) {
+    this(activity, externalFilesDirectory, imageResizer, cache, createProcessingExecutor());
+  }
+
+  private ImagePickerDelegate(
+      final Activity activity,
+      final File externalFilesDirectory,
+      final ImageResizer imageResizer,
+      final ImagePickerCache cache,
+      final Executor processingExecutor) {
     this(
         activity,
         externalFilesDirectory,
@@ -164,7 +200,20 @@ public class ImagePickerDelegate
                 });
           }
         },
-        new FileUtils());
+        new FileUtils(),
+        new ResizedImageCache(
+            new File(externalFilesDirectory, RESIZED_IMAGE_CACHE_DIRECTORY),
+            RESIZED_IMAGE_CACHE_SIZE,
+            processingExecutor),
+        processingExecutor,
+        new Executor() {
+          private final Handler handler = new Handler(Looper.getMainLooper());
+
+          @Override
+          public void execute(Runnable command) {
+            handler.post(command);
+          }
+        });
   }
 
   /**
@@ -181,7 +230,10 @@ public class ImagePickerDelegate
       final ImagePickerCache cache,
       final PermissionManager permissionManager,
       final FileUriResolver fileUriResolver,
-      final FileUtils fileUtils) {
+      final FileUtils fileUtils,
+      final ResizedImageCache resizedImageCache,
+      final Executor processingExecutor,
+      final Executor resultExecutor) {
     this.activity = activity;
     this.externalFilesDirectory = externalFilesDirectory;
     this.imageResizer = imageResizer;
@@ -191,9 +243,27 @@ public class ImagePickerDelegate
     this.permissionManager = permissionManager;
     this.fileUriResolver = fileUriResolver;
     this.fileUtils = fileUtils;
+    this.resizedImageCache = resizedImageCache;
+    this.processingExecutor = processingExecutor;
+    this.resultExecutor = resultExecutor;
     this.cache = cache;
   }
 
+  private static Executor createProcessingExecutor() {
+    final int threadCount =
+        Math.max(1, Math.min(MAX_PROCESSING_THREADS, Runtime.getRuntime().availableProcessors()));
+    // Idle threads time out, so the pool costs nothing between picks.
+    final ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threadCount,
+            threadCount,
+            PROCESSING_THREAD_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   void setCameraDevice(CameraDevice device) {
     cameraDevice = device;
   }
@@ -202,6 +272,21 @@ public class ImagePickerDelegate
     return cameraDevice;
   }
 
+  void setImageOutputFormat(ImageResizer.OutputFormat outputFormat) {
+    imageResizer.setOutputFormat(outputFormat);
+  }
+
+  /**
+   * Sets the sink that images picked by a {@code pickMultiImage} call with {@code streamResults}
+   * are reported to as soon as each of them is ready, or null to stop reporting them.
+   *
+   * <p>Each event is a map with the {@code index} of the image in the picked list and its {@code
+   * path}. The call's result still completes with the whole list once every image is ready.
+   */
+  void setMultiImageEventSink(EventChannel.EventSink eventSink) {
+    multiImageEventSink = eventSink;
+  }
+
   // Save the state of the image picker so it can be retrieved with `retrieveLostImage`.
   void saveStateBeforeResult() {
     if (methodCall == null) {
@@ -484,6 +569,19 @@ public class ImagePickerDelegate
 
   private void handleChooseImageResult(int resultCode, Intent data) {
     if (resultCode == Activity.RESULT_OK && data != null) {
+      if (methodCall != null) {
+        final List<String> pinnedCacheKeys = new ArrayList<>();
+        finishWithSuccess(
+            getImagePathFromUri(
+                data.getData(),
+                true,
+                methodCall.<Double>argument("maxWidth"),
+                methodCall.<Double>argument("maxHeight"),
+                methodCall.<Integer>argument("imageQuality"),
+                pinnedCacheKeys));
+        resizedImageCache.unpin(pinnedCacheKeys);
+        return;
+      }
       String path = fileUtils.getPathFromUri(activity, data.getData());
       handleImageResult(path, false);
       return;
@@ -495,15 +593,15 @@ public class ImagePickerDelegate
 
   private void handleChooseMultiImageResult(int resultCode, Intent intent) {
     if (resultCode == Activity.RESULT_OK && intent != null) {
-      ArrayList<String> paths = new ArrayList<>();
+      ArrayList<Uri> uris = new ArrayList<>();
       if (intent.getClipData() != null) {
         for (int i = 0; i < intent.getClipData().getItemCount(); i++) {
-          paths.add(fileUtils.getPathFromUri(activity, intent.getClipData().getItemAt(i).getUri()));
+          uris.add(intent.getClipData().getItemAt(i).getUri());
         }
       } else {
-        paths.add(fileUtils.getPathFromUri(activity, intent.getData()));
+        uris.add(intent.getData());
       }
-      handleMultiImageResult(paths, false);
+      handleMultiImageResult(uris);
       return;
     }
 
@@ -560,24 +658,151 @@ public class ImagePickerDelegate
     finishWithSuccess(null);
   }
 
-  private void handleMultiImageResult(
-      ArrayList<String> paths, boolean shouldDeleteOriginalIfScaled) {
-    if (methodCall != null) {
-      ArrayList<String> finalPath = new ArrayList<>();
-      for (int i = 0; i < paths.size(); i++) {
-        String finalImagePath = getResizedImagePath(paths.get(i));
-
-        //delete original file if scaled
-        if (finalImagePath != null
-            && !finalImagePath.equals(paths.get(i))
-            && shouldDeleteOriginalIfScaled) {
-          new File(paths.get(i)).delete();
+  private void handleMultiImageResult(final List<Uri> uris) {
+    if (uris.isEmpty()) {
+      finishWithListSuccess(new ArrayList<String>());
+      return;
+    }
+
+    // Read the arguments here, as the fields of the delegate are only used on the main thread.
+    final Double maxWidth = methodCall != null ? methodCall.<Double>argument("maxWidth") : null;
+    final Double maxHeight = methodCall != null ? methodCall.<Double>argument("maxHeight") : null;
+    final Integer imageQuality =
+        methodCall != null ? methodCall.<Integer>argument("imageQuality") : null;
+    final boolean shouldResize = methodCall != null;
+    final EventChannel.EventSink eventSink =
+        methodCall != null && Boolean.TRUE.equals(methodCall.argument("streamResults"))
+            ? multiImageEventSink
+            : null;
+
+    final String[] finalPaths = new String[uris.size()];
+    // The cached images of the pick are kept until the whole list is delivered.
+    final List<String> pinnedCacheKeys = Collections.synchronizedList(new ArrayList<String>());
+    final AtomicInteger remaining = new AtomicInteger(uris.size());
+    for (int i = 0; i < uris.size(); i++) {
+      final int index = i;
+      processingExecutor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              try {
+                String path =
+                    getImagePathFromUri(
+                        uris.get(index),
+                        shouldResize,
+                        maxWidth,
+                        maxHeight,
+                        imageQuality,
+                        pinnedCacheKeys);
+                finalPaths[index] = path;
+                if (eventSink != null && path != null) {
+                  sendMultiImageEvent(eventSink, index, path);
+                }
+              } finally {
+                // Decrementing publishes the path written above to the thread finishing the list.
+                if (remaining.decrementAndGet() == 0) {
+                  resultExecutor.execute(
+                      new Runnable() {
+                        @Override
+                        public void run() {
+                          finishWithListSuccess(new ArrayList<>(Arrays.asList(finalPaths)));
+                          resizedImageCache.unpin(pinnedCacheKeys);
+                        }
+                      });
+                }
+              }
+            }
+          });
+    }
+  }
+
+  private void sendMultiImageEvent(
+      final EventChannel.EventSink eventSink, final int index, final String path) {
+    final Map<String, Object> event = new HashMap<>();
+    event.put("index", index);
+    event.put("path", path);
+    resultExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            eventSink.success(event);
+          }
+        });
+  }
+
+  /**
+   * Returns the path for the picked image at {@code uri}, resized if {@code shouldResize} is set.
+   *
+   * <p>Scaled images are kept in {@link #resizedImageCache}, so picking the same unchanged image
+   * with the same arguments again returns the earlier result right away.
+   *
+   * @param pinnedCacheKeys receives the key of the returned image if it is pinned in {@link
+   *     #resizedImageCache}, to be unpinned once the path is delivered.
+   */
+  private String getImagePathFromUri(
+      Uri uri,
+      boolean shouldResize,
+      Double maxWidth,
+      Double maxHeight,
+      Integer imageQuality,
+      List<String> pinnedCacheKeys) {
+    String path = null;
+    String cacheKey = null;
+    if (shouldResize && imageResizer.shouldScale(maxWidth, maxHeight, imageQuality)) {
+      String identity = fileUtils.getContentIdentity(activity, uri);
+      if (identity != null) {
+        cacheKey =
+            ResizedImageCache.createKey(
+                identity, maxWidth, maxHeight, imageQuality, imageResizer.getOutputFormat());
+        path = resizedImageCache.get(cacheKey);
+        if (path != null) {
+          pinnedCacheKeys.add(cacheKey);
+          return path;
         }
-        finalPath.add(i, finalImagePath);
       }
-      finishWithListSuccess(finalPath);
-    } else {
-      finishWithListSuccess(paths);
+      path = resizeImageFromUri(uri, maxWidth, maxHeight, imageQuality);
+    }
+    if (path == null) {
+      path = fileUtils.getPathFromUri(activity, uri);
+      if (path != null && shouldResize) {
+        path = imageResizer.resizeImageIfNeeded(path, maxWidth, maxHeight, imageQuality);
+      }
+    }
+    if (path != null && cacheKey != null) {
+      path = resizedImageCache.put(cacheKey, path);
+      pinnedCacheKeys.add(cacheKey);
+    }
+    return path;
+  }
+
+  /**
+   * Resizes the picked image at {@code uri} straight from its content provider, which saves
+   * copying the original only to decode it again.
+   *
+   * @return the path for the scaled image, or null if the image has to be copied instead, either
+   *     because it does not need to be scaled or because it cannot be read in place.
+   */
+  private String resizeImageFromUri(
+      Uri uri, Double maxWidth, Double maxHeight, Integer imageQuality) {
+    if (!imageResizer.shouldScale(maxWidth, maxHeight, imageQuality)) {
+      return null;
+    }
+    ParcelFileDescriptor descriptor = fileUtils.openFileDescriptor(activity, uri);
+    if (descriptor == null) {
+      return null;
+    }
+    try {
+      return imageResizer.resizeImage(
+          descriptor.getFileDescriptor(),
+          fileUtils.createImageName(activity, uri),
+          maxWidth,
+          maxHeight,
+          imageQuality);
+    } finally {
+      try {
+        descriptor.close();
+      } catch (IOException ignored) {
+      }
     }
   }
 
@@ -19,6 +19,7 @@ import io.flutter.embedding.engine.plugins.activity.ActivityAware;
 import io.flutter.embedding.engine.plugins.activity.ActivityPluginBinding;
 import io.flutter.embedding.engine.plugins.lifecycle.FlutterLifecycleAdapter;
 import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
@@ -94,15 +95,21 @@ public class ImagePickerPlugin
   static final String METHOD_CALL_MULTI_IMAGE = "pickMultiImage";
   static final String METHOD_CALL_VIDEO = "pickVideo";
   private static final String METHOD_CALL_RETRIEVE = "retrieve";
+  private static final String METHOD_CALL_SET_IMAGE_OUTPUT_FORMAT = "setImageOutputFormat";
   private static final int CAMERA_DEVICE_FRONT = 1;
   private static final int CAMERA_DEVICE_REAR = 0;
   private static final String CHANNEL = "plugins.flutter.io/image_picker";
+  private static final String MULTI_IMAGE_STREAM_CHANNEL =
+      "plugins.flutter.io/image_picker/multiImageStream";
 
   private static final int SOURCE_CAMERA = 0;
   private static final int SOURCE_GALLERY = 1;
 
   private MethodChannel channel;
+  private EventChannel multiImageStreamChannel;
   private ImagePickerDelegate delegate;
+  // Kept here as well, so it survives the delegate being recreated with the activity.
+  private ImageResizer.OutputFormat imageOutputFormat = ImageResizer.OutputFormat.AUTOMATIC;
   private FlutterPluginBinding pluginBinding;
   private ActivityPluginBinding activityBinding;
   private Application application;
@@ -186,8 +193,22 @@ public class ImagePickerPlugin
     this.activity = activity;
     this.application = application;
     this.delegate = constructDelegate(activity);
+    delegate.setImageOutputFormat(imageOutputFormat);
     channel = new MethodChannel(messenger, CHANNEL);
     channel.setMethodCallHandler(this);
+    multiImageStreamChannel = new EventChannel(messenger, MULTI_IMAGE_STREAM_CHANNEL);
+    multiImageStreamChannel.setStreamHandler(
+        new EventChannel.StreamHandler() {
+          @Override
+          public void onListen(Object arguments, EventChannel.EventSink events) {
+            delegate.setMultiImageEventSink(events);
+          }
+
+          @Override
+          public void onCancel(Object arguments) {
+            delegate.setMultiImageEventSink(null);
+          }
+        });
     observer = new LifeCycleObserver(activity);
     if (registrar != null) {
       // V1 embedding setup for activity listeners.
@@ -212,6 +233,8 @@ public class ImagePickerPlugin
     delegate = null;
     channel.setMethodCallHandler(null);
     channel = null;
+    multiImageStreamChannel.setStreamHandler(null);
+    multiImageStreamChannel = null;
     application.unregisterActivityLifecycleCallbacks(observer);
     application = null;
   }
@@ -322,6 +345,11 @@ public class ImagePickerPlugin
       case METHOD_CALL_RETRIEVE:
         delegate.retrieveLostImage(result);
         break;
+      case METHOD_CALL_SET_IMAGE_OUTPUT_FORMAT:
+        imageOutputFormat = ImageResizer.OutputFormat.fromString(call.<String>argument("format"));
+        delegate.setImageOutputFormat(imageOutputFormat);
+        result.success(null);
+        break;
       default:
         throw new IllegalArgumentException("Unknown method " + call.method);
     }
@@ -6,58 +6,161 @@ package io.flutter.plugins.imagepicker;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
 import android.util.Log;
 import androidx.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
+import androidx.annotation.VisibleForTesting;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileDescriptor;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 class ImageResizer {
+  /** The format resized images are encoded in. */
+  enum OutputFormat {
+    /** JPEG, or PNG for images with transparency. */
+    AUTOMATIC,
+
+    /** WebP, which keeps transparency and applies the image quality to every image. */
+    WEBP;
+
+    static OutputFormat fromString(String name) {
+      return "webp".equals(name) ? WEBP : AUTOMATIC;
+    }
+  }
+
+  // Images at least this many times longer than wide, or the reverse, are decoded in strips.
+  private static final int EXTREME_ASPECT_RATIO = 4;
+
   private final File externalFilesDirectory;
   private final ExifDataCopier exifDataCopier;
+  // Set on the platform thread, and read by the threads resizing images.
+  private volatile OutputFormat outputFormat = OutputFormat.AUTOMATIC;
 
   ImageResizer(File externalFilesDirectory, ExifDataCopier exifDataCopier) {
     this.externalFilesDirectory = externalFilesDirectory;
     this.exifDataCopier = exifDataCopier;
   }
 
+  /** Sets the format images resized from now on are encoded in. */
+  void setOutputFormat(OutputFormat outputFormat) {
+    this.outputFormat = outputFormat;
+  }
+
+  OutputFormat getOutputFormat() {
+    return outputFormat;
+  }
+
   /**
    * If necessary, resizes the image located in imagePath and then returns the path for the scaled
    * image.
    *
    * <p>If no resizing is needed, returns the path for the original image.
+   *
+   * <p>Only the bounds of the original are decoded to decide whether to scale it. The pixels are
+   * then decoded subsampled, so the memory used scales with the requested size rather than the
+   * size of the original.
    */
   String resizeImageIfNeeded(
       String imagePath,
       @Nullable Double maxWidth,
       @Nullable Double maxHeight,
       @Nullable Integer imageQuality) {
-    Bitmap bmp = decodeFile(imagePath);
-    if (bmp == null) {
+    Source source = new Source(imagePath, null);
+    BitmapFactory.Options bounds = source.decodeBounds();
+    if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
       return null;
     }
-    boolean shouldScale =
-        maxWidth != null || maxHeight != null || isImageQualityValid(imageQuality);
-    if (!shouldScale) {
+    if (!shouldScale(maxWidth, maxHeight, imageQuality)) {
       return imagePath;
     }
+    String[] pathParts = imagePath.split("/");
+    String imageName = pathParts[pathParts.length - 1];
+    return resizeImage(source, bounds, maxWidth, maxHeight, imageQuality, imageName);
+  }
+
+  /**
+   * Resizes the image read from {@code fileDescriptor} and returns the path for the scaled image,
+   * without copying the original to a file first.
+   *
+   * <p>The descriptor must refer to a regular file, as the image is read from it more than once.
+   *
+   * @return the path for the scaled image, or null if the image does not need to be scaled or
+   *     could not be decoded. The caller should then copy the image and use {@link
+   *     #resizeImageIfNeeded(String, Double, Double, Integer)} instead.
+   */
+  @Nullable
+  String resizeImage(
+      FileDescriptor fileDescriptor,
+      String imageName,
+      @Nullable Double maxWidth,
+      @Nullable Double maxHeight,
+      @Nullable Integer imageQuality) {
+    if (!shouldScale(maxWidth, maxHeight, imageQuality)) {
+      return null;
+    }
+    Source source = new Source(null, fileDescriptor);
+    BitmapFactory.Options bounds = source.decodeBounds();
+    if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+      return null;
+    }
+    return resizeImage(source, bounds, maxWidth, maxHeight, imageQuality, imageName);
+  }
+
+  private String resizeImage(
+      Source source,
+      BitmapFactory.Options bounds,
+      @Nullable Double maxWidth,
+      @Nullable Double maxHeight,
+      @Nullable Integer imageQuality,
+      String imageName) {
     try {
-      String[] pathParts = imagePath.split("/");
-      String imageName = pathParts[pathParts.length - 1];
-      File file = resizedImage(bmp, maxWidth, maxHeight, imageQuality, imageName);
-      copyExif(imagePath, file.getPath());
+      File file =
+          resizedImage(
+              source,
+              bounds.outWidth,
+              bounds.outHeight,
+              maxWidth,
+              maxHeight,
+              imageQuality,
+              outputFormat,
+              imageName);
+      if (file == null) {
+        return null;
+      }
+      source.copyExif(file.getPath());
       return file.getPath();
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /** Returns whether images picked with these arguments are scaled, or returned as they are. */
+  boolean shouldScale(
+      @Nullable Double maxWidth, @Nullable Double maxHeight, @Nullable Integer imageQuality) {
+    return maxWidth != null || maxHeight != null || isImageQualityValid(imageQuality);
+  }
+
+  @Nullable
   private File resizedImage(
-      Bitmap bmp, Double maxWidth, Double maxHeight, Integer imageQuality, String outputImageName)
+      Source source,
+      int imageWidth,
+      int imageHeight,
+      Double maxWidth,
+      Double maxHeight,
+      Integer imageQuality,
+      OutputFormat outputFormat,
+      String outputImageName)
       throws IOException {
-    double originalWidth = bmp.getWidth() * 1.0;
-    double originalHeight = bmp.getHeight() * 1.0;
+    double originalWidth = imageWidth * 1.0;
+    double originalHeight = imageHeight * 1.0;
 
     if (!isImageQualityValid(imageQuality)) {
       imageQuality = 100;
@@ -98,12 +201,142 @@ class ImageResizer {
       }
     }
 
-    Bitmap scaledBmp = createScaledBitmap(bmp, width.intValue(), height.intValue(), false);
+    Bitmap scaledBmp =
+        decodeScaledBitmap(
+            source,
+            imageWidth,
+            imageHeight,
+            Math.max(1, width.intValue()),
+            Math.max(1, height.intValue()));
+    if (scaledBmp == null) {
+      return null;
+    }
     File file =
-        createImageOnExternalDirectory("/scaled_" + outputImageName, scaledBmp, imageQuality);
+        createImageOnExternalDirectory(
+            "/scaled_" + getOutputImageName(outputImageName, outputFormat),
+            scaledBmp,
+            imageQuality,
+            outputFormat);
+    scaledBmp.recycle();
     return file;
   }
 
+  /**
+   * Decodes the image of {@code source} scaled to {@code width} by {@code height}, without decoding
+   * it at its full size first.
+   */
+  @Nullable
+  private Bitmap decodeScaledBitmap(
+      Source source, int originalWidth, int originalHeight, int width, int height) {
+    int inSampleSize = calculateInSampleSize(originalWidth, originalHeight, width, height);
+    if (isExtremeAspectRatio(originalWidth, originalHeight)) {
+      Bitmap bitmap =
+          decodeStripsScaled(source, originalWidth, originalHeight, width, height, inSampleSize);
+      if (bitmap != null) {
+        return bitmap;
+      }
+      // Formats the region decoder does not support, such as GIF, are decoded whole.
+    }
+
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inSampleSize = inSampleSize;
+    Bitmap sampledBmp = source.decode(options);
+    if (sampledBmp == null) {
+      return null;
+    }
+    if (sampledBmp.getWidth() == width && sampledBmp.getHeight() == height) {
+      return sampledBmp;
+    }
+    Bitmap scaledBmp = createScaledBitmap(sampledBmp, width, height, true);
+    if (scaledBmp != sampledBmp) {
+      sampledBmp.recycle();
+    }
+    return scaledBmp;
+  }
+
+  /**
+   * Returns the largest power of two the image can be subsampled by while staying at least as large
+   * as {@code width} by {@code height}.
+   */
+  @VisibleForTesting
+  static int calculateInSampleSize(int originalWidth, int originalHeight, int width, int height) {
+    int inSampleSize = 1;
+    while (originalWidth / (inSampleSize * 2) >= width
+        && originalHeight / (inSampleSize * 2) >= height) {
+      inSampleSize *= 2;
+    }
+    return inSampleSize;
+  }
+
+  @VisibleForTesting
+  static boolean isExtremeAspectRatio(int width, int height) {
+    return width >= height * EXTREME_ASPECT_RATIO || height >= width * EXTREME_ASPECT_RATIO;
+  }
+
+  /**
+   * Decodes a long image strip by strip along its long side, drawing every strip scaled into the
+   * output. Only the output and a single subsampled strip are held in memory, where decoding the
+   * whole image could need several times the size of a large output.
+   *
+   * @return the scaled image, or null if the format does not support region decoding.
+   */
+  @Nullable
+  private Bitmap decodeStripsScaled(
+      Source source,
+      int originalWidth,
+      int originalHeight,
+      int width,
+      int height,
+      int inSampleSize) {
+    BitmapRegionDecoder decoder;
+    try {
+      decoder = source.newRegionDecoder();
+    } catch (IOException e) {
+      return null;
+    }
+    if (decoder == null) {
+      return null;
+    }
+    try {
+      boolean horizontal = originalWidth >= originalHeight;
+      int longSide = horizontal ? originalWidth : originalHeight;
+      // Every strip is twice as long as the short side of the image.
+      int stripLength = 2 * (horizontal ? originalHeight : originalWidth);
+      double scale = horizontal ? (double) width / originalWidth : (double) height / originalHeight;
+      BitmapFactory.Options options = new BitmapFactory.Options();
+      options.inSampleSize = inSampleSize;
+
+      Bitmap output = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+      Canvas canvas = new Canvas(output);
+      Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+      boolean hasAlpha = false;
+      for (int start = 0; start < longSide; start += stripLength) {
+        int end = Math.min(longSide, start + stripLength);
+        Rect region =
+            horizontal
+                ? new Rect(start, 0, end, originalHeight)
+                : new Rect(0, start, originalWidth, end);
+        Bitmap strip = decoder.decodeRegion(region, options);
+        if (strip == null) {
+          output.recycle();
+          return null;
+        }
+        hasAlpha |= strip.hasAlpha();
+        RectF destination =
+            horizontal
+                ? new RectF((float) (start * scale), 0, (float) (end * scale), height)
+                : new RectF(0, (float) (start * scale), width, (float) (end * scale));
+        canvas.drawBitmap(strip, null, destination, paint);
+        strip.recycle();
+      }
+      // Keeps opaque images encoded as JPEG.
+      output.setHasAlpha(hasAlpha);
+      return output;
+    } finally {
+      decoder.recycle();
+    }
+  }
+
   private File createFile(File externalFilesDirectory, String child) {
     File image = new File(externalFilesDirectory, child);
     if (!image.getParentFile().exists()) {
@@ -116,14 +349,6 @@ class ImageResizer {
     return new FileOutputStream(imageFile);
   }
 
-  private void copyExif(String filePathOri, String filePathDest) {
-    exifDataCopier.copyExif(filePathOri, filePathDest);
-  }
-
-  private Bitmap decodeFile(String path) {
-    return BitmapFactory.decodeFile(path);
-  }
-
   private Bitmap createScaledBitmap(Bitmap bmp, int width, int height, boolean filter) {
     return Bitmap.createScaledBitmap(bmp, width, height, filter);
   }
@@ -132,23 +357,85 @@ class ImageResizer {
     return imageQuality != null && imageQuality > 0 && imageQuality < 100;
   }
 
-  private File createImageOnExternalDirectory(String name, Bitmap bitmap, int imageQuality)
-      throws IOException {
-    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-    boolean saveAsPNG = bitmap.hasAlpha();
-    if (saveAsPNG) {
+  private static String getOutputImageName(String imageName, OutputFormat outputFormat) {
+    if (outputFormat != OutputFormat.WEBP) {
+      return imageName;
+    }
+    int extensionStart = imageName.lastIndexOf('.');
+    return (extensionStart > 0 ? imageName.substring(0, extensionStart) : imageName) + ".webp";
+  }
+
+  private File createImageOnExternalDirectory(
+      String name, Bitmap bitmap, int imageQuality, OutputFormat outputFormat) throws IOException {
+    Bitmap.CompressFormat compressFormat = getCompressFormat(bitmap, imageQuality, outputFormat);
+    File imageFile = createFile(externalFilesDirectory, name);
+    // The image is encoded straight to the file, instead of being held in memory encoded as well.
+    OutputStream outputStream = new BufferedOutputStream(createOutputStream(imageFile));
+    try {
+      bitmap.compress(compressFormat, imageQuality, outputStream);
+    } finally {
+      outputStream.close();
+    }
+    return imageFile;
+  }
+
+  @SuppressWarnings("deprecation")
+  private Bitmap.CompressFormat getCompressFormat(
+      Bitmap bitmap, int imageQuality, OutputFormat outputFormat) {
+    if (outputFormat == OutputFormat.WEBP) {
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+        return imageQuality < 100
+            ? Bitmap.CompressFormat.WEBP_LOSSY
+            : Bitmap.CompressFormat.WEBP_LOSSLESS;
+      }
+      // Before Android 11, a quality of 100 is close to, but not entirely, lossless.
+      return Bitmap.CompressFormat.WEBP;
+    }
+    if (bitmap.hasAlpha()) {
       Log.d(
           "ImageResizer",
           "image_picker: compressing is not supported for type PNG. Returning the image with original quality");
+      return Bitmap.CompressFormat.PNG;
+    }
+    return Bitmap.CompressFormat.JPEG;
+  }
+
+  /** The original image, read from either a file path or a file descriptor. */
+  private class Source {
+    @Nullable private final String path;
+    @Nullable private final FileDescriptor fileDescriptor;
+
+    Source(@Nullable String path, @Nullable FileDescriptor fileDescriptor) {
+      this.path = path;
+      this.fileDescriptor = fileDescriptor;
+    }
+
+    BitmapFactory.Options decodeBounds() {
+      BitmapFactory.Options options = new BitmapFactory.Options();
+      options.inJustDecodeBounds = true;
+      decode(options);
+      return options;
+    }
+
+    // Decoding from a descriptor restores its offset afterwards, so it can be decoded again.
+    Bitmap decode(BitmapFactory.Options options) {
+      return path != null
+          ? BitmapFactory.decodeFile(path, options)
+          : BitmapFactory.decodeFileDescriptor(fileDescriptor, null, options);
+    }
+
+    BitmapRegionDecoder newRegionDecoder() throws IOException {
+      return path != null
+          ? BitmapRegionDecoder.newInstance(path, false)
+          : BitmapRegionDecoder.newInstance(fileDescriptor, false);
+    }
+
+    void copyExif(String filePathDest) {
+      if (path != null) {
+        exifDataCopier.copyExif(path, filePathDest);
+      } else {
+        exifDataCopier.copyExif(fileDescriptor, filePathDest);
+      }
     }
-    bitmap.compress(
-        saveAsPNG ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG,
-        imageQuality,
-        outputStream);
-    File imageFile = createFile(externalFilesDirectory, name);
-    FileOutputStream fileOutput = createOutputStream(imageFile);
-    fileOutput.write(outputStream.toByteArray());
-    fileOutput.close();
-    return imageFile;
   }
 }
@@ -0,0 +1,249 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * A size-capped cache of resized images on disk, so picking the same image again with the same
+ * arguments returns the earlier result instead of decoding, scaling and encoding it again.
+ *
+ * <p>Entries are keyed by the identity of the picked content and the resize arguments, and stored
+ * under the hash of their key. The least recently used entries are deleted on the given executor
+ * once the cache grows over its size. Entries returned by {@link #get} and {@link #put} are pinned
+ * until {@link #unpin} is called, so the images of a pick are not deleted before its result is
+ * delivered, and the most recently used entry is always kept. Once unpinned, the image at a
+ * returned path may be deleted by a later pick. The cache survives restarts of the app, with the
+ * modification time of each file recording when it was last used.
+ */
+class ResizedImageCache {
+  private final File directory;
+  private final long maxSize;
+  private final Executor evictionExecutor;
+  // The cached files by the hash of their key, from least to most recently used. Guarded by this.
+  private LinkedHashMap<String, Entry> entries;
+  private long size;
+  private boolean evictionScheduled;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param directory the directory the cached images are kept in, which the cache owns.
+   * @param maxSize the size of the cache in bytes.
+   * @param evictionExecutor the executor entries are evicted on.
+   */
+  ResizedImageCache(File directory, long maxSize, Executor evictionExecutor) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    this.evictionExecutor = evictionExecutor;
+  }
+
+  /**
+   * Creates the key of an image resized with the given arguments.
+   *
+   * @param sourceIdentity identifies the picked content, and changes whenever the content does.
+   */
+  static String createKey(
+      String sourceIdentity,
+      @Nullable Double maxWidth,
+      @Nullable Double maxHeight,
+      @Nullable Integer imageQuality,
+      ImageResizer.OutputFormat outputFormat) {
+    return sourceIdentity
+        + "|"
+        + maxWidth
+        + "|"
+        + maxHeight
+        + "|"
+        + imageQuality
+        + "|"
+        + outputFormat.name();
+  }
+
+  /**
+   * Returns the path of the image cached for {@code key}, marks it as the most recently used and
+   * pins it until {@link #unpin} is called with the key.
+   *
+   * @return the path, or null if no image is cached for the key.
+   */
+  @Nullable
+  synchronized String get(String key) {
+    loadEntries();
+    String hash = hash(key);
+    Entry entry = entries.remove(hash);
+    if (entry == null) {
+      return null;
+    }
+    if (!entry.file.exists()) {
+      // The file was deleted by someone else.
+      size -= entry.size;
+      return null;
+    }
+    // Adding the entry again moves it to the end of the order.
+    entries.put(hash, entry);
+    entry.file.setLastModified(System.currentTimeMillis());
+    entry.pins++;
+    return entry.file.getPath();
+  }
+
+  /**
+   * Moves the resized image at {@code path} into the cache under {@code key}, and pins it until
+   * {@link #unpin} is called with the key.
+   *
+   * @return the path of the cached image, or {@code path} if it could not be moved into the cache.
+   */
+  synchronized String put(String key, String path) {
+    loadEntries();
+    String hash = hash(key);
+    File source = new File(path);
+    Entry existing = entries.get(hash);
+    if (existing != null && existing.file.exists()) {
+      // The same image was resized twice at once, and the first result may already be returned.
+      source.delete();
+      return get(key);
+    }
+    File file = new File(directory, hash + getExtension(source.getName()));
+    if (existing != null) {
+      entries.remove(hash);
+      size -= existing.size;
+    }
+    if (!directory.exists() && !directory.mkdirs()) {
+      return path;
+    }
+    if (!source.renameTo(file)) {
+      return path;
+    }
+    Entry entry = new Entry(file);
+    entry.pins = 1;
+    entries.put(hash, entry);
+    size += entry.size;
+    scheduleEvictionIfNeeded();
+    return file.getPath();
+  }
+
+  /**
+   * Unpins the entries returned for {@code keys}, once the paths were delivered, so they can be
+   * evicted again.
+   */
+  synchronized void unpin(Collection<String> keys) {
+    if (entries == null) {
+      return;
+    }
+    for (String key : keys) {
+      Entry entry = entries.get(hash(key));
+      if (entry != null && entry.pins > 0) {
+        entry.pins--;
+      }
+    }
+    scheduleEvictionIfNeeded();
+  }
+
+  @VisibleForTesting
+  synchronized long getSize() {
+    loadEntries();
+    return size;
+  }
+
+  private void scheduleEvictionIfNeeded() {
+    if (size <= maxSize || evictionScheduled) {
+      return;
+    }
+    evictionScheduled = true;
+    evictionExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            evict();
+          }
+        });
+  }
+
+  private synchronized void evict() {
+    evictionScheduled = false;
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (size > maxSize && iterator.hasNext()) {
+      Entry entry = iterator.next();
+      // Pinned entries are still to be delivered, and the most recently used one is kept even if
+      // it is larger than the cache on its own.
+      if (entry.pins > 0 || !iterator.hasNext()) {
+        continue;
+      }
+      entry.file.delete();
+      size -= entry.size;
+      iterator.remove();
+    }
+  }
+
+  private void loadEntries() {
+    if (entries != null) {
+      return;
+    }
+    entries = new LinkedHashMap<>();
+    size = 0;
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(
+        files,
+        new Comparator<File>() {
+          @Override
+          public int compare(File a, File b) {
+            return Long.compare(a.lastModified(), b.lastModified());
+          }
+        });
+    for (File file : files) {
+      String name = file.getName();
+      int extensionStart = name.lastIndexOf('.');
+      Entry entry = new Entry(file);
+      entries.put(extensionStart >= 0 ? name.substring(0, extensionStart) : name, entry);
+      size += entry.size;
+    }
+  }
+
+  private static String getExtension(String fileName) {
+    int extensionStart = fileName.lastIndexOf('.');
+    return extensionStart >= 0 ? fileName.substring(extensionStart) : ".jpg";
+  }
+
+  private static String hash(String key) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every implementation of the platform supports SHA-256.
+      throw new IllegalStateException(e);
+    }
+    byte[] bytes = digest.digest(key.getBytes(Charset.forName("UTF-8")));
+    StringBuilder builder = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      builder.append(String.format("%02x", b));
+    }
+    return builder.toString();
+  }
+
+  private static class Entry {
+    final File file;
+    final long size;
+    // The number of deliveries of the entry still in flight.
+    int pins;
+
+    Entry(File file) {
+      this.file = file;
+      this.size = file.length();
+    }
+  }
+}
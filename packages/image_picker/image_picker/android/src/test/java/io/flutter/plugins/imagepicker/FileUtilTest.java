@@ -5,6 +5,8 @@
 package io.flutter.plugins.imagepicker;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.robolectric.Shadows.shadowOf;
 
@@ -15,6 +17,7 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import org.junit.Before;
 import org.junit.Test;
@@ -55,6 +58,33 @@ public class FileUtilTest {
     assertTrue(imageStream.equals("imageStream"));
   }
 
+  @Test
+  public void FileUtil_GetPathFromUri_CopiesFileBackedContentInFull() throws IOException {
+    // Larger than the copy buffer, so a partial copy would be caught.
+    byte[] content = new byte[200 * 1024];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    File original = File.createTempFile("original", ".png", context.getCacheDir());
+    FileOutputStream outputStream = new FileOutputStream(original);
+    outputStream.write(content);
+    outputStream.close();
+    Uri uri = Uri.parse("content://dummy/original.png");
+    shadowContentResolver.registerInputStream(uri, new FileInputStream(original));
+
+    String path = fileUtils.getPathFromUri(context, uri);
+
+    byte[] bytes = new byte[content.length];
+    BufferedInputStream buf = new BufferedInputStream(new FileInputStream(path));
+    int read = 0;
+    while (read < bytes.length) {
+      read += buf.read(bytes, read, bytes.length - read);
+    }
+    buf.close();
+    assertEquals(content.length, new File(path).length());
+    assertArrayEquals(content, bytes);
+  }
+
   @Test
   public void FileUtil_getImageExtension() throws IOException {
     Uri uri = Uri.parse("content://dummy/dummy.png");
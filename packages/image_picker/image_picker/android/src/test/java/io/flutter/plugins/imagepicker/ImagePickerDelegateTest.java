@@ -13,6 +13,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -21,16 +22,24 @@ import static org.mockito.Mockito.when;
 import android.Manifest;
 import android.app.Activity;
 import android.content.ActivityNotFoundException;
+import android.content.ClipData;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import java.io.File;
+import java.io.FileDescriptor;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -54,8 +63,10 @@ public class ImagePickerDelegateTest {
   @Mock FileUtils mockFileUtils;
   @Mock Intent mockIntent;
   @Mock ImagePickerCache cache;
+  @Mock ResizedImageCache mockResizedImageCache;
 
   ImagePickerDelegate.FileUriResolver mockFileUriResolver;
+  Executor processingExecutor;
   MockedStatic<File> mockStaticFile;
 
   private static class MockFileUriResolver implements ImagePickerDelegate.FileUriResolver {
@@ -97,6 +108,7 @@ public class ImagePickerDelegateTest {
         .thenReturn("scaledPath");
 
     mockFileUriResolver = new MockFileUriResolver();
+    processingExecutor = Runnable::run;
 
     Uri mockUri = mock(Uri.class);
     when(mockIntent.getData()).thenReturn(mockUri);
@@ -300,6 +312,76 @@ public class ImagePickerDelegateTest {
     verifyNoMoreInteractions(mockResult);
   }
 
+  @Test
+  public void
+      onActivityResult_WhenImagePickedFromGallery_AndReadableInPlace_ResizesWithoutCopying() {
+    ParcelFileDescriptor mockDescriptor = mock(ParcelFileDescriptor.class);
+    FileDescriptor fileDescriptor = new FileDescriptor();
+    when(mockDescriptor.getFileDescriptor()).thenReturn(fileDescriptor);
+    when(mockFileUtils.openFileDescriptor(any(Context.class), any(Uri.class)))
+        .thenReturn(mockDescriptor);
+    when(mockFileUtils.createImageName(any(Context.class), any(Uri.class)))
+        .thenReturn("picked.jpg");
+    when(mockImageResizer.shouldScale(WIDTH, null, null)).thenReturn(true);
+    when(mockImageResizer.resizeImage(fileDescriptor, "picked.jpg", WIDTH, null, null))
+        .thenReturn("scaledInPlacePath");
+    when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockResult).success("scaledInPlacePath");
+    verify(mockFileUtils, never()).getPathFromUri(any(Context.class), any(Uri.class));
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void
+      onActivityResult_WhenImagePickedFromGallery_AndResizedBefore_FinishesWithCachedPath() {
+    String cacheKey =
+        ResizedImageCache.createKey(
+            "identity", WIDTH, null, null, ImageResizer.OutputFormat.AUTOMATIC);
+    when(mockFileUtils.getContentIdentity(any(Context.class), any(Uri.class)))
+        .thenReturn("identity");
+    when(mockImageResizer.shouldScale(WIDTH, null, null)).thenReturn(true);
+    when(mockImageResizer.getOutputFormat()).thenReturn(ImageResizer.OutputFormat.AUTOMATIC);
+    when(mockResizedImageCache.get(cacheKey)).thenReturn("cachedPath");
+    when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockResult).success("cachedPath");
+    verify(mockFileUtils, never()).getPathFromUri(any(Context.class), any(Uri.class));
+    verify(mockImageResizer, never()).resizeImageIfNeeded(any(), any(), any(), any());
+    verify(mockResizedImageCache).unpin(Collections.singletonList(cacheKey));
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void onActivityResult_WhenImagePickedFromGallery_AndNotResizedBefore_CachesScaledImage() {
+    String cacheKey =
+        ResizedImageCache.createKey(
+            "identity", WIDTH, null, null, ImageResizer.OutputFormat.AUTOMATIC);
+    when(mockFileUtils.getContentIdentity(any(Context.class), any(Uri.class)))
+        .thenReturn("identity");
+    when(mockImageResizer.shouldScale(WIDTH, null, null)).thenReturn(true);
+    when(mockImageResizer.getOutputFormat()).thenReturn(ImageResizer.OutputFormat.AUTOMATIC);
+    when(mockResizedImageCache.put(cacheKey, "scaledPath")).thenReturn("cachedPath");
+    when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_IMAGE_FROM_GALLERY, Activity.RESULT_OK, mockIntent);
+
+    verify(mockResizedImageCache).put(cacheKey, "scaledPath");
+    verify(mockResult).success("cachedPath");
+    verify(mockResizedImageCache).unpin(Collections.singletonList(cacheKey));
+    verifyNoMoreInteractions(mockResult);
+  }
+
   @Test
   public void
       onActivityResult_WhenVideoPickedFromGallery_AndResizeParametersSupplied_FinishesWithFilePath() {
@@ -313,6 +395,74 @@ public class ImagePickerDelegateTest {
     verifyNoMoreInteractions(mockResult);
   }
 
+  @Test
+  public void
+      onActivityResult_WhenMultipleImagesPickedFromGallery_FinishesWithScaledPathsInPickedOrder() {
+    final List<Runnable> tasks = new ArrayList<>();
+    processingExecutor = tasks::add;
+    mockPickedImages("first", "second", "third");
+    when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY,
+        Activity.RESULT_OK,
+        mockIntent);
+
+    assertEquals(3, tasks.size());
+    // Finish the images in the reverse order.
+    Collections.reverse(tasks);
+    for (Runnable task : tasks) {
+      task.run();
+    }
+
+    verify(mockResult)
+        .success(new ArrayList<>(Arrays.asList("scaled_first", "scaled_second", "scaled_third")));
+    verifyNoMoreInteractions(mockResult);
+  }
+
+  @Test
+  public void onActivityResult_WhenMultipleImagesPickedFromGallery_StreamsEachImageWhenRequested() {
+    EventChannel.EventSink mockEventSink = mock(EventChannel.EventSink.class);
+    mockPickedImages("first", "second");
+    when(mockMethodCall.argument("maxWidth")).thenReturn(WIDTH);
+    when(mockMethodCall.argument("streamResults")).thenReturn(true);
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.setMultiImageEventSink(mockEventSink);
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY,
+        Activity.RESULT_OK,
+        mockIntent);
+
+    Map<String, Object> firstEvent = new HashMap<>();
+    firstEvent.put("index", 0);
+    firstEvent.put("path", "scaled_first");
+    Map<String, Object> secondEvent = new HashMap<>();
+    secondEvent.put("index", 1);
+    secondEvent.put("path", "scaled_second");
+    verify(mockEventSink).success(firstEvent);
+    verify(mockEventSink).success(secondEvent);
+    verifyNoMoreInteractions(mockEventSink);
+    verify(mockResult).success(new ArrayList<>(Arrays.asList("scaled_first", "scaled_second")));
+  }
+
+  @Test
+  public void onActivityResult_WhenMultipleImagesPickedFromGallery_DoesNotStreamByDefault() {
+    EventChannel.EventSink mockEventSink = mock(EventChannel.EventSink.class);
+    mockPickedImages("first", "second");
+
+    ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
+    delegate.setMultiImageEventSink(mockEventSink);
+    delegate.onActivityResult(
+        ImagePickerDelegate.REQUEST_CODE_CHOOSE_MULTI_IMAGE_FROM_GALLERY,
+        Activity.RESULT_OK,
+        mockIntent);
+
+    verifyNoMoreInteractions(mockEventSink);
+    verify(mockResult).success(new ArrayList<>(Arrays.asList("first", "second")));
+  }
+
   @Test
   public void onActivityResult_WhenTakeImageWithCameraCanceled_FinishesWithNull() {
     ImagePickerDelegate delegate = createDelegateWithPendingResultAndMethodCall();
@@ -402,6 +552,22 @@ public class ImagePickerDelegateTest {
     assertEquals("/example/last_item", valueCapture.getValue().get("path"));
   }
 
+  private void mockPickedImages(String... names) {
+    ClipData mockClipData = mock(ClipData.class);
+    when(mockClipData.getItemCount()).thenReturn(names.length);
+    for (int i = 0; i < names.length; i++) {
+      Uri mockUri = mock(Uri.class);
+      ClipData.Item mockItem = mock(ClipData.Item.class);
+      when(mockItem.getUri()).thenReturn(mockUri);
+      when(mockClipData.getItemAt(i)).thenReturn(mockItem);
+      when(mockFileUtils.getPathFromUri(any(Context.class), eq(mockUri))).thenReturn(names[i]);
+      when(mockImageResizer.resizeImageIfNeeded(names[i], null, null, null)).thenReturn(names[i]);
+      when(mockImageResizer.resizeImageIfNeeded(names[i], WIDTH, null, null))
+          .thenReturn("scaled_" + names[i]);
+    }
+    when(mockIntent.getClipData()).thenReturn(mockClipData);
+  }
+
   private ImagePickerDelegate createDelegate() {
     return new ImagePickerDelegate(
         mockActivity,
@@ -412,7 +578,10 @@ public class ImagePickerDelegateTest {
         cache,
         mockPermissionManager,
         mockFileUriResolver,
-        mockFileUtils);
+        mockFileUtils,
+        mockResizedImageCache,
+        processingExecutor,
+        Runnable::run);
   }
 
   private ImagePickerDelegate createDelegateWithPendingResultAndMethodCall() {
@@ -425,7 +594,10 @@ public class ImagePickerDelegateTest {
         cache,
         mockPermissionManager,
         mockFileUriResolver,
-        mockFileUtils);
+        mockFileUtils,
+        mockResizedImageCache,
+        processingExecutor,
+        Runnable::run);
   }
 
   private void verifyFinishedWithAlreadyActiveError() {
@@ -147,6 +147,14 @@ public class ImagePickerPluginTest {
     verify(mockImagePickerDelegate).setCameraDevice(eq(CameraDevice.FRONT));
   }
 
+  @Test
+  public void onMethodCall_SetImageOutputFormat_SetsFormatOfDelegate() {
+    final Map<String, Object> arguments = new HashMap<>();
+    arguments.put("format", "webp");
+    plugin.onMethodCall(new MethodCall("setImageOutputFormat", arguments), mockResult);
+    verify(mockImagePickerDelegate).setImageOutputFormat(ImageResizer.OutputFormat.WEBP);
+  }
+
   @Test
   public void onResiter_WhenAcitivityIsNull_ShouldNotCrash() {
     when(mockRegistrar.activity()).thenReturn(null);
@@ -5,11 +5,13 @@
 package io.flutter.plugins.imagepicker;
 
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import org.junit.Before;
 import org.junit.Test;
@@ -63,6 +65,13 @@ public class ImageResizerTest {
     assertThat(outoutFile, equalTo(externalDirectory.getPath() + "/scaled_pngImage.png"));
   }
 
+  @Test
+  public void onResizeImageIfNeeded_WhenOutputFormatIsWebp_ReturnWebpFile() {
+    resizer.setOutputFormat(ImageResizer.OutputFormat.WEBP);
+    String outoutFile = resizer.resizeImageIfNeeded(imageFile.getPath(), 50.0, null, 50);
+    assertThat(outoutFile, equalTo(externalDirectory.getPath() + "/scaled_pngImage.webp"));
+  }
+
   @Test
   public void onResizeImageIfNeeded_WhenParentDirectoryDoesNotExists_ShouldNotCrash() {
     File nonExistentDirectory = new File(externalDirectory, "/nonExistent");
@@ -70,4 +79,36 @@ public class ImageResizerTest {
     String outoutFile = invalidResizer.resizeImageIfNeeded(imageFile.getPath(), null, 50.0, null);
     assertThat(outoutFile, equalTo(nonExistentDirectory.getPath() + "/scaled_pngImage.png"));
   }
+
+  @Test
+  public void onResizeImage_WhenReadFromFileDescriptor_ReturnResizedFile() throws IOException {
+    FileInputStream inputStream = new FileInputStream(imageFile);
+    String outputFile = resizer.resizeImage(inputStream.getFD(), "picked.png", 50.0, null, null);
+    inputStream.close();
+    assertThat(outputFile, equalTo(externalDirectory.getPath() + "/scaled_picked.png"));
+  }
+
+  @Test
+  public void onResizeImage_WhenNoScalingRequested_ReturnNull() throws IOException {
+    FileInputStream inputStream = new FileInputStream(imageFile);
+    String outputFile = resizer.resizeImage(inputStream.getFD(), "picked.png", null, null, null);
+    inputStream.close();
+    assertNull(outputFile);
+  }
+
+  @Test
+  public void calculateInSampleSize_ShouldKeepDecodedImageAtLeastAsLargeAsTarget() {
+    // A 48MP photo scaled to 800 pixels wide.
+    assertThat(ImageResizer.calculateInSampleSize(8000, 6000, 800, 600), equalTo(8));
+    assertThat(ImageResizer.calculateInSampleSize(8000, 6000, 1000, 750), equalTo(4));
+    assertThat(ImageResizer.calculateInSampleSize(8000, 6000, 8000, 6000), equalTo(1));
+    assertThat(ImageResizer.calculateInSampleSize(100, 100, 60, 60), equalTo(1));
+  }
+
+  @Test
+  public void isExtremeAspectRatio_ShouldDetectLongImagesInBothDirections() {
+    assertThat(ImageResizer.isExtremeAspectRatio(20000, 1000), equalTo(true));
+    assertThat(ImageResizer.isExtremeAspectRatio(1000, 20000), equalTo(true));
+    assertThat(ImageResizer.isExtremeAspectRatio(4000, 3000), equalTo(false));
+  }
 }
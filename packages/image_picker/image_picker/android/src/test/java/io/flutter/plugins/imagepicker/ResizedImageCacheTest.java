@@ -0,0 +1,167 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.imagepicker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResizedImageCacheTest {
+  private static final int IMAGE_SIZE = 100;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  File cacheDirectory;
+  ResizedImageCache cache;
+
+  @Before
+  public void setUp() {
+    cacheDirectory = new File(temporaryFolder.getRoot(), "resized");
+    cache = new ResizedImageCache(cacheDirectory, 2 * IMAGE_SIZE, Runnable::run);
+  }
+
+  @Test
+  public void put_MovesImageIntoCache_AndGetReturnsIt() throws IOException {
+    File image = createImage("scaled_image.png");
+
+    String cachedPath = cache.put("key", image.getPath());
+
+    assertFalse(image.exists());
+    assertTrue(cachedPath.startsWith(cacheDirectory.getPath()));
+    assertTrue(cachedPath.endsWith(".png"));
+    assertEquals(cachedPath, cache.get("key"));
+    assertNull(cache.get("otherKey"));
+  }
+
+  @Test
+  public void get_WhenCachedImageWasDeleted_ReturnsNull() throws IOException {
+    String cachedPath = cache.put("key", createImage("scaled_image.jpg").getPath());
+    new File(cachedPath).delete();
+
+    assertNull(cache.get("key"));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void put_WhenCacheIsFull_EvictsLeastRecentlyUsedImage() throws IOException {
+    cache.put("first", createImage("first.jpg").getPath());
+    cache.put("second", createImage("second.jpg").getPath());
+    // Using the first image makes the second one the least recently used.
+    cache.get("first");
+    cache.unpin(Arrays.asList("first", "second", "first"));
+
+    cache.put("third", createImage("third.jpg").getPath());
+
+    assertNull(cache.get("second"));
+    assertTrue(cache.get("first") != null);
+    assertTrue(cache.get("third") != null);
+    assertEquals(2 * IMAGE_SIZE, cache.getSize());
+  }
+
+  @Test
+  public void put_WhenCacheIsFull_KeepsImagesOfPickUntilUnpinned() throws IOException {
+    List<String> batch = Arrays.asList("first", "second", "third");
+    List<String> paths = new ArrayList<>();
+    for (String key : batch) {
+      paths.add(cache.put(key, createImage(key + ".jpg").getPath()));
+    }
+
+    // The pick is over the size of the cache, but its result was not delivered yet.
+    assertEquals(3 * IMAGE_SIZE, cache.getSize());
+    for (String path : paths) {
+      assertTrue(new File(path).exists());
+    }
+
+    cache.unpin(batch);
+
+    assertFalse(new File(paths.get(0)).exists());
+    assertTrue(new File(paths.get(1)).exists());
+    assertTrue(new File(paths.get(2)).exists());
+    assertEquals(2 * IMAGE_SIZE, cache.getSize());
+  }
+
+  @Test
+  public void unpin_KeepsMostRecentImageLargerThanCache() throws IOException {
+    cache = new ResizedImageCache(cacheDirectory, IMAGE_SIZE / 2, Runnable::run);
+    String firstPath = cache.put("first", createImage("first.jpg").getPath());
+    cache.unpin(Collections.singletonList("first"));
+
+    assertTrue(new File(firstPath).exists());
+
+    String secondPath = cache.put("second", createImage("second.jpg").getPath());
+    cache.unpin(Collections.singletonList("second"));
+
+    assertFalse(new File(firstPath).exists());
+    assertTrue(new File(secondPath).exists());
+    assertEquals(IMAGE_SIZE, cache.getSize());
+  }
+
+  @Test
+  public void put_WhenKeyIsAlreadyCached_KeepsReturnedImage() throws IOException {
+    String firstPath = cache.put("key", createImage("first.jpg").getPath());
+    File second = createImage("second.jpg");
+
+    String secondPath = cache.put("key", second.getPath());
+
+    assertEquals(firstPath, secondPath);
+    assertTrue(new File(firstPath).exists());
+    assertFalse(second.exists());
+    assertEquals(IMAGE_SIZE, cache.getSize());
+  }
+
+  @Test
+  public void get_WhenCacheIsRecreated_ReturnsImagesCachedBefore() throws IOException {
+    String cachedPath = cache.put("key", createImage("scaled_image.jpg").getPath());
+
+    ResizedImageCache recreatedCache =
+        new ResizedImageCache(cacheDirectory, 2 * IMAGE_SIZE, Runnable::run);
+
+    assertEquals(cachedPath, recreatedCache.get("key"));
+    assertEquals(IMAGE_SIZE, recreatedCache.getSize());
+  }
+
+  @Test
+  public void createKey_DependsOnEveryResizeArgument() {
+    String key =
+        ResizedImageCache.createKey("source", 10.0, 20.0, 50, ImageResizer.OutputFormat.AUTOMATIC);
+
+    assertFalse(
+        key.equals(
+            ResizedImageCache.createKey(
+                "other", 10.0, 20.0, 50, ImageResizer.OutputFormat.AUTOMATIC)));
+    assertFalse(
+        key.equals(
+            ResizedImageCache.createKey(
+                "source", 10.0, null, 50, ImageResizer.OutputFormat.AUTOMATIC)));
+    assertFalse(
+        key.equals(
+            ResizedImageCache.createKey(
+                "source", 10.0, 20.0, 80, ImageResizer.OutputFormat.AUTOMATIC)));
+    assertFalse(
+        key.equals(
+            ResizedImageCache.createKey("source", 10.0, 20.0, 50, ImageResizer.OutputFormat.WEBP)));
+  }
+
+  private File createImage(String name) throws IOException {
+    File image = temporaryFolder.newFile(name);
+    FileOutputStream outputStream = new FileOutputStream(image);
+    outputStream.write(new byte[IMAGE_SIZE]);
+    outputStream.close();
+    return image;
+  }
+}
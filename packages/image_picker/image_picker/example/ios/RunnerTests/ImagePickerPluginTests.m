@@ -172,6 +172,26 @@
   [plugin imagePickerControllerDidCancel:[plugin getImagePickerController]];
 }
 
+#pragma mark - Test image output format
+
+- (void)testSetImageOutputFormatIsIgnored {
+  FLTImagePickerPlugin *plugin = [FLTImagePickerPlugin new];
+  __block BOOL pendingResultCalled = NO;
+  plugin.result = ^(id result) {
+    pendingResultCalled = YES;
+  };
+  FlutterMethodCall *call =
+      [FlutterMethodCall methodCallWithMethodName:@"setImageOutputFormat"
+                                        arguments:@{@"format" : @"webp"}];
+  __block id returnedResult = @"unset";
+  [plugin handleMethodCall:call
+                    result:^(id _Nullable r) {
+                      returnedResult = r;
+                    }];
+  XCTAssertNil(returnedResult);
+  XCTAssertFalse(pendingResultCalled);
+}
+
 #pragma mark - Test video duration
 
 - (void)testPickingVideoWithDuration {
@@ -126,6 +126,12 @@ typedef NS_ENUM(NSInteger, ImagePickerClassType) { UIImagePickerClassType, PHPic
 }
 
 - (void)handleMethodCall:(FlutterMethodCall *)call result:(FlutterResult)result {
+  if ([@"setImageOutputFormat" isEqualToString:call.method]) {
+    // Images are encoded by the system on iOS, so the format is ignored. This is not a picking
+    // request, so it must not cancel one in progress.
+    result(nil);
+    return;
+  }
   if (self.result) {
     self.result([FlutterError errorWithCode:@"multiple_request"
                                     message:@"Cancelled by a second request"
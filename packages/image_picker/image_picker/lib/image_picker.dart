@@ -12,6 +12,7 @@ export 'package:image_picker_platform_interface/image_picker_platform_interface.
         kTypeVideo,
         ImageSource,
         CameraDevice,
+        ImageOutputFormat,
         LostData,
         LostDataResponse,
         PickedFile,
@@ -170,6 +171,10 @@ class ImagePicker {
   ///
   /// The returned [XFile] is intended to be used within a single APP session. Do not save the file path and use it across sessions.
   ///
+  /// On Android, resized images are kept in a size-limited cache shared by all
+  /// picks, so a later pick can delete the file at a returned path. Copy the
+  /// file if it has to outlive the next pick.
+  ///
   /// The `source` argument controls where the image comes from. This can
   /// be either [ImageSource.camera] or [ImageSource.gallery].
   ///
@@ -220,6 +225,10 @@ class ImagePicker {
   ///
   /// The returned [List<XFile>] is intended to be used within a single APP session. Do not save the file path and use it across sessions.
   ///
+  /// On Android, resized images are kept in a size-limited cache shared by all
+  /// picks, so a later pick can delete the file at a returned path. Copy the
+  /// file if it has to outlive the next pick.
+  ///
   /// Where iOS supports HEIC images, Android 8 and below doesn't. Android 9 and above only support HEIC images if used
   /// in addition to a size modification, of which the usage is explained below.
   ///
@@ -252,6 +261,33 @@ class ImagePicker {
     );
   }
 
+  /// Returns a [Stream] of [XFile] objects wrapping the images that were
+  /// picked, emitting each image as soon as it is ready.
+  ///
+  /// The images are picked and resized like with [pickMultiImage], but the
+  /// stream does not wait for every image to be copied and resized before
+  /// emitting the first one, so the app can start showing them early. The
+  /// images are emitted in the order they became ready, which is not
+  /// necessarily the order they were picked in. On platforms that cannot
+  /// report images early, every image is emitted once all of them are ready.
+  ///
+  /// The stream closes once every image was emitted, or right away if the
+  /// user did not pick any image. Errors [pickMultiImage] would throw are
+  /// added to the stream instead.
+  ///
+  /// See also [pickMultiImage] to get all the picked images at once.
+  Stream<XFile> pickMultiImageStream({
+    double? maxWidth,
+    double? maxHeight,
+    int? imageQuality,
+  }) {
+    return platform.getMultiImageStream(
+      maxWidth: maxWidth,
+      maxHeight: maxHeight,
+      imageQuality: imageQuality,
+    );
+  }
+
   /// Returns an [XFile] object wrapping the video that was picked.
   ///
   /// The returned [XFile] is intended to be used within a single APP session. Do not save the file path and use it across sessions.
@@ -303,4 +339,19 @@ class ImagePicker {
   Future<LostDataResponse> retrieveLostData() {
     return platform.getLostData();
   }
+
+  /// Sets the format images picked from now on are encoded in when they are
+  /// resized with `maxWidth` or `maxHeight`, or compressed with
+  /// `imageQuality`.
+  ///
+  /// [ImageOutputFormat.webp] keeps transparency and applies `imageQuality`
+  /// to transparent images too, which PNG cannot, and usually makes images
+  /// substantially smaller at the same visual quality.
+  ///
+  /// The format applies to every [ImagePicker]. It is only supported on
+  /// Android, where the images are encoded by this plugin. On other platforms
+  /// the call completes without effect.
+  Future<void> setImageOutputFormat(ImageOutputFormat format) {
+    return platform.setImageOutputFormat(format);
+  }
 }
@@ -462,6 +462,66 @@ void main() {
           expect(await picker.pickMultiImage(), isNull);
         });
       });
+
+      group('#setImageOutputFormat', () {
+        test('passes the format correctly', () async {
+          await picker.setImageOutputFormat(ImageOutputFormat.webp);
+
+          expect(
+            log,
+            <Matcher>[
+              isMethodCall('setImageOutputFormat',
+                  arguments: <String, dynamic>{'format': 'webp'}),
+            ],
+          );
+        });
+      });
+
+      group('#pickMultiImageStream', () {
+        const String streamChannel =
+            'plugins.flutter.io/image_picker/multiImageStream';
+
+        setUp(() {
+          ServicesBinding.instance!.defaultBinaryMessenger
+              .setMockMessageHandler(streamChannel, (ByteData? message) async {
+            return const StandardMethodCodec().encodeSuccessEnvelope(null);
+          });
+          channel.setMockMethodCallHandler((MethodCall methodCall) async {
+            log.add(methodCall);
+            return <String>['0', '1'];
+          });
+        });
+
+        tearDown(() {
+          ServicesBinding.instance!.defaultBinaryMessenger
+              .setMockMessageHandler(streamChannel, null);
+        });
+
+        test('passes the arguments and emits the picked images', () async {
+          final List<XFile> files = await picker
+              .pickMultiImageStream(maxWidth: 10.0, imageQuality: 70)
+              .toList();
+
+          expect(files.map((XFile file) => file.path), <String>['0', '1']);
+          expect(
+            log,
+            <Matcher>[
+              isMethodCall('pickMultiImage', arguments: <String, dynamic>{
+                'maxWidth': 10.0,
+                'maxHeight': null,
+                'imageQuality': 70,
+                'streamResults': true,
+              }),
+            ],
+          );
+        });
+
+        test('closes without images when the pick is cancelled', () async {
+          channel.setMockMethodCallHandler((MethodCall methodCall) => null);
+
+          expect(await picker.pickMultiImageStream().toList(), isEmpty);
+        });
+      });
     });
   });
 }
@@ -133,6 +133,11 @@ void main() {
     );
   });
 
+  testWidgets('setImageOutputFormat is ignored', (WidgetTester tester) async {
+    await expectLater(
+        plugin.setImageOutputFormat(ImageOutputFormat.webp), completes);
+  });
+
   group('createInputElement', () {
     testWidgets('accept: any, capture: null', (WidgetTester tester) async {
       html.Element input = plugin.createInputElement('any', null);
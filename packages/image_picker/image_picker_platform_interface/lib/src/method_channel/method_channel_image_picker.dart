@@ -12,6 +12,9 @@ import 'package:image_picker_platform_interface/image_picker_platform_interface.
 
 final MethodChannel _channel = MethodChannel('plugins.flutter.io/image_picker');
 
+const EventChannel _multiImageStreamChannel =
+    EventChannel('plugins.flutter.io/image_picker/multiImageStream');
+
 /// An implementation of [ImagePickerPlatform] that uses method channels.
 class MethodChannelImagePicker extends ImagePickerPlatform {
   /// The MethodChannel that is being used by this implementation of the plugin.
@@ -56,6 +59,7 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
     double? maxWidth,
     double? maxHeight,
     int? imageQuality,
+    bool streamResults = false,
   }) {
     if (imageQuality != null && (imageQuality < 0 || imageQuality > 100)) {
       throw ArgumentError.value(
@@ -76,6 +80,7 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
         'maxWidth': maxWidth,
         'maxHeight': maxHeight,
         'imageQuality': imageQuality,
+        if (streamResults) 'streamResults': true,
       },
     );
   }
@@ -211,6 +216,54 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
     return paths.map((path) => XFile(path)).toList();
   }
 
+  @override
+  Stream<XFile> getMultiImageStream({
+    double? maxWidth,
+    double? maxHeight,
+    int? imageQuality,
+  }) {
+    late StreamController<XFile> controller;
+    StreamSubscription<dynamic>? subscription;
+    final Set<int> reportedIndices = <int>{};
+    controller = StreamController<XFile>(
+      onListen: () {
+        // The platform only reports images to a listener that was registered
+        // before the images were picked.
+        subscription =
+            _multiImageStreamChannel.receiveBroadcastStream().listen((event) {
+          final Map<dynamic, dynamic> image = event;
+          reportedIndices.add(image['index']);
+          controller.add(XFile(image['path']));
+        });
+        final Future<List<dynamic>?> pick = Future<List<dynamic>?>.sync(
+          () => _getMultiImagePath(
+            maxWidth: maxWidth,
+            maxHeight: maxHeight,
+            imageQuality: imageQuality,
+            streamResults: true,
+          ),
+        );
+        pick.then<void>((List<dynamic>? paths) {
+          if (paths == null) {
+            return;
+          }
+          // Add the images the platform did not report on their own, which
+          // is all of them on platforms that do not report images early.
+          for (int i = 0; i < paths.length; i++) {
+            if (!reportedIndices.contains(i) && paths[i] != null) {
+              controller.add(XFile(paths[i]));
+            }
+          }
+        }, onError: controller.addError).whenComplete(() {
+          subscription?.cancel();
+          controller.close();
+        });
+      },
+      onCancel: () => subscription?.cancel(),
+    );
+    return controller.stream;
+  }
+
   @override
   Future<XFile?> getVideo({
     required ImageSource source,
@@ -271,4 +324,12 @@ class MethodChannelImagePicker extends ImagePickerPlatform {
       files: pickedFileList,
     );
   }
+
+  @override
+  Future<void> setImageOutputFormat(ImageOutputFormat format) {
+    return _channel.invokeMethod<void>(
+      'setImageOutputFormat',
+      <String, dynamic>{'format': describeEnum(format)},
+    );
+  }
 }
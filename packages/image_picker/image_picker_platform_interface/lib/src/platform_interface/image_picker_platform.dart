@@ -210,6 +210,23 @@ abstract class ImagePickerPlatform extends PlatformInterface {
     throw UnimplementedError('getMultiImage() has not been implemented.');
   }
 
+  /// Returns a [Stream] of the images that were picked, as each of them is
+  /// ready.
+  ///
+  /// The images are picked and processed like with [getMultiImage], except
+  /// that each image is added to the stream as soon as it has been copied and
+  /// resized, which is not necessarily the order they were picked in. On
+  /// platforms that cannot report images early, every image is added once all
+  /// of them are ready. The stream closes once every image was added, or right
+  /// away if no images were picked.
+  Stream<XFile> getMultiImageStream({
+    double? maxWidth,
+    double? maxHeight,
+    int? imageQuality,
+  }) {
+    throw UnimplementedError('getMultiImageStream() has not been implemented.');
+  }
+
   /// Returns a [XFile] containing the video that was picked.
   ///
   /// The [source] argument controls where the video comes from. This can
@@ -251,4 +268,14 @@ abstract class ImagePickerPlatform extends PlatformInterface {
   Future<LostDataResponse> getLostData() {
     throw UnimplementedError('getLostData() has not been implemented.');
   }
+
+  /// Sets the format images picked from now on are encoded in when they are
+  /// resized or compressed. (Android only)
+  ///
+  /// Images that are neither resized nor compressed are returned in their
+  /// original format.
+  ///
+  /// Platforms that do not encode images themselves keep this default, which
+  /// ignores the format.
+  Future<void> setImageOutputFormat(ImageOutputFormat format) async {}
 }
@@ -0,0 +1,20 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// The format images are encoded in when they are resized or compressed.
+enum ImageOutputFormat {
+  /// Encode images as JPEG, or as PNG if they are transparent.
+  ///
+  /// PNG is lossless, so the image quality is not applied to transparent
+  /// images. This is the default.
+  automatic,
+
+  /// Encode images as WebP, which keeps transparency and applies the image
+  /// quality to every image.
+  ///
+  /// Images are usually substantially smaller than with [automatic] at the
+  /// same visual quality. Without an image quality, images are encoded
+  /// losslessly.
+  webp,
+}
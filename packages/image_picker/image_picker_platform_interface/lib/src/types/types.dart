@@ -3,6 +3,7 @@
 // found in the LICENSE file.
 
 export 'camera_device.dart';
+export 'image_output_format.dart';
 export 'image_source.dart';
 export 'retrieve_type.dart';
 export 'picked_file/picked_file.dart';
@@ -810,6 +810,95 @@ void main() {
       });
     });
 
+    group('#getMultiImageStream', () {
+      const String streamChannel =
+          'plugins.flutter.io/image_picker/multiImageStream';
+      List<int> reportedIndices = <int>[];
+
+      setUp(() {
+        reportedIndices = <int>[1, 0];
+        ServicesBinding.instance!.defaultBinaryMessenger
+            .setMockMessageHandler(streamChannel, (ByteData? message) async {
+          return const StandardMethodCodec().encodeSuccessEnvelope(null);
+        });
+        picker.channel.setMockMethodCallHandler((MethodCall methodCall) async {
+          log.add(methodCall);
+          // Report the second image first, as if it was processed faster.
+          for (final int index in reportedIndices) {
+            await ServicesBinding.instance!.defaultBinaryMessenger
+                .handlePlatformMessage(
+                    streamChannel,
+                    const StandardMethodCodec().encodeSuccessEnvelope(
+                        <String, dynamic>{'index': index, 'path': '$index'}),
+                    (ByteData? data) {});
+          }
+          return <String>['0', '1'];
+        });
+      });
+
+      tearDown(() {
+        ServicesBinding.instance!.defaultBinaryMessenger
+            .setMockMessageHandler(streamChannel, null);
+      });
+
+      test('calls the method correctly', () async {
+        await picker.getMultiImageStream(maxWidth: 10.0).toList();
+
+        expect(
+          log,
+          <Matcher>[
+            isMethodCall('pickMultiImage', arguments: <String, dynamic>{
+              'maxWidth': 10.0,
+              'maxHeight': null,
+              'imageQuality': null,
+              'streamResults': true,
+            }),
+          ],
+        );
+      });
+
+      test('emits each image as it is reported and closes', () async {
+        final List<XFile> files = await picker.getMultiImageStream().toList();
+
+        expect(files.map((XFile file) => file.path), <String>['1', '0']);
+      });
+
+      test('emits the images that were not reported once picking completes',
+          () async {
+        reportedIndices = <int>[1];
+
+        final List<XFile> files = await picker.getMultiImageStream().toList();
+
+        expect(files.map((XFile file) => file.path), <String>['1', '0']);
+      });
+
+      test('emits an error for invalid arguments', () async {
+        await expectLater(
+          picker.getMultiImageStream(imageQuality: -1).toList(),
+          throwsArgumentError,
+        );
+        expect(log, isEmpty);
+      });
+    });
+
+    group('#setImageOutputFormat', () {
+      test('passes the format correctly', () async {
+        returnValue = null;
+        await picker.setImageOutputFormat(ImageOutputFormat.webp);
+        await picker.setImageOutputFormat(ImageOutputFormat.automatic);
+
+        expect(
+          log,
+          <Matcher>[
+            isMethodCall('setImageOutputFormat',
+                arguments: <String, dynamic>{'format': 'webp'}),
+            isMethodCall('setImageOutputFormat',
+                arguments: <String, dynamic>{'format': 'automatic'}),
+          ],
+        );
+      });
+    });
+
     group('#getVideo', () {
       test('passes the image source argument correctly', () async {
         await picker.getVideo(source: ImageSource.camera);